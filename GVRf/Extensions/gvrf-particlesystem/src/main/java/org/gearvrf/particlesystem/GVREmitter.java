@@ -15,8 +15,6 @@
 
 package org.gearvrf.particlesystem;
 
-import android.util.Pair;
-
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTexture;
@@ -24,20 +22,20 @@ import org.gearvrf.GVRTransform;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
-import java.util.ArrayList;
-
 
 /**
  * The base emitter class from which shape-specific emitter classes inherit.
  * This class is used to set up the the behaviour of the particle system in general.
  * Also, this is used to set the specific particle properties.
  *
- * Every emitter has a set of scene objects as its children. These scene
- * objects each have a mesh attached to them, with the number of vertices in the mesh
- * being equal to the emit rate of the emitter, i.e., every second a new scene object with a mesh
- * having an emitRate number of vertices is added to the emitter as a child.
- * These vertices act as the particles of the system. Consequently, all those
- * children objects which have exceeded their age limits are deleted every second.
+ * Every emitter has a single scene object as its child. This scene object
+ * has a mesh attached to it whose vertices act as the particles of the system.
+ * Every second emitRate new particles are written into the mesh, replacing
+ * the oldest ones. The mesh holds the particles generated in the last
+ * (age + 1) seconds, so no particle is replaced before it has exceeded its
+ * age limit. Only the clock is updated every frame. When the emit rate or
+ * the age changes, the particles move to a pool of the new size, so the
+ * particles already emitted stay visible.
  *
  */
 
@@ -50,9 +48,8 @@ class GVREmitter extends GVRSceneObject {
     protected GVRContext mGVRContext = null;
 
 
-    //list of active scene objects containing particle meshes,
-    // and their corresponding spawn times.
-    protected ArrayList<Pair<GVRSceneObject, Float>> meshInfo = null;
+    //pool with all the active particles, created by the first emission
+    protected Particles mParticles = null;
 
 
     //particle properties
@@ -67,7 +64,7 @@ class GVREmitter extends GVRSceneObject {
     private boolean mFadeWithAge = false;
     private GVRTexture mParticleTexture;
 
-    //attributes of the particles generated every second.
+    //attributes of the particles generated every second, reused for every emission.
     protected float[] mParticlePositions;
     protected float[] mParticleVelocities;
     protected float [] mParticleGenTimes;
@@ -81,46 +78,30 @@ class GVREmitter extends GVRSceneObject {
     private float[] BVVelocities;
 
     private float currTime = 0;
-    ArrayList<Integer> idxsToDelete;
-    
+
     public GVREmitter(GVRContext gvrContext)
     {
         super(gvrContext);
         mGVRContext = gvrContext;
-        meshInfo = new ArrayList<Pair<GVRSceneObject, Float>>();
-        idxsToDelete = new ArrayList<Integer>();
         mEnvironmentAcceleration = new Vector3f(0.0f,0.0f,0.0f);
         mColor = new Vector4f(1.0f, 1.0f, 1.0f, 1.0f);
         setParticleVolume(100,100,100);
     }
 
     /**
-     * Iterate over the active meshes and delete the ones whose every particle
-     * has exceeded the maximum age limit.
-     * <p>
-     * Particle meshes are generated for upto one second in the future.
-     * Therefore the maximum time particle mesh should be allowed to remain
-     * in the scene is (maxAge of the particles + one second).
-     * <p>
+     * Make sure the arrays for the particles generated every second
+     * can hold emitRate particles. The arrays are only allocated
+     * again when the emit rate changes.
      */
 
-    protected void onDrawFrame() {
-
-        int numActiveMeshes = meshInfo.size();
-        for (int i = 0; i < numActiveMeshes; i++)
+    protected void allocateParticleArrays()
+    {
+        if ((mParticlePositions == null) || (mParticlePositions.length != mEmitRate * 3))
         {
-            float currMeshSpawnTime = meshInfo.get(i).second;
-            if (currTime - currMeshSpawnTime > mMaxAge + 1) {
-                GVRSceneObject toDelete = meshInfo.get(i).first;
-                GVREmitter.this.removeChildObject(toDelete);
-                idxsToDelete.add(i);
-            }
-        }
-        for( int i = idxsToDelete.size() - 1; i >=0; i -- ) {
-            meshInfo.remove((int)idxsToDelete.get(i));
+            mParticlePositions = new float[mEmitRate * 3];
+            mParticleVelocities = new float[mEmitRate * 3];
+            mParticleGenTimes = new float[mEmitRate * 2];
         }
-
-        idxsToDelete.clear();
     }
 
     /**
@@ -150,9 +131,11 @@ class GVREmitter extends GVRSceneObject {
     }
 
     /**
-     * Append the bounding volume particle positions, times and velocities to the existing mesh
-     * before creating a new scene object with this mesh attached to it.
-     * Also, append every created scene object and its creation time to corresponding array lists.
+     * Write the new particles into the particle pool, replacing the oldest ones.
+     * The pool holds the particles of (age + 1) emissions, because particles
+     * are spawned up to one second after they are emitted. It is created again
+     * if the emit rate or the particle age changes, with the particles of the
+     * old pool, which then follow the new age.
      *
      * @param particlePositions
      * @param particleVelocities
@@ -162,30 +145,30 @@ class GVREmitter extends GVRSceneObject {
     private void emit(float[] particlePositions, float[] particleVelocities,
                       float[] particleTimeStamps)
     {
-        float[] allParticlePositions = new float[particlePositions.length + particleBoundingVolume.length];
-        System.arraycopy(particlePositions, 0, allParticlePositions, 0, particlePositions.length);
-        System.arraycopy(particleBoundingVolume, 0, allParticlePositions,
-                        particlePositions.length, particleBoundingVolume.length);
-
-        float[] allSpawnTimes = new float[particleTimeStamps.length + BVSpawnTimes.length];
-        System.arraycopy(particleTimeStamps, 0, allSpawnTimes, 0, particleTimeStamps.length);
-        System.arraycopy(BVSpawnTimes, 0, allSpawnTimes, particleTimeStamps.length, BVSpawnTimes.length);
-
-        float[] allParticleVelocities = new float[particleVelocities.length + BVVelocities.length];
-        System.arraycopy(particleVelocities, 0, allParticleVelocities, 0, particleVelocities.length);
-        System.arraycopy(BVVelocities, 0, allParticleVelocities, particleVelocities.length, BVVelocities.length);
+        int count = particlePositions.length / 3;
+        int capacity = ((int) Math.ceil(mMaxAge) + 1) * count;
 
+        if ((mParticles == null) || (mParticles.getCapacity() != capacity))
+        {
+            Particles oldParticles = mParticles;
 
-        Particles particleMesh = new Particles(mGVRContext, mMaxAge,
-                mParticleSize, mEnvironmentAcceleration, mParticleSizeRate, mFadeWithAge,
-                mParticleTexture, mColor, mNoiseFactor);
-
-
-        GVRSceneObject particleObject = particleMesh.makeParticleMesh(allParticlePositions,
-                allParticleVelocities, allSpawnTimes);
-
-        this.addChildObject(particleObject);
-        meshInfo.add(Pair.create(particleObject, currTime));
+            mParticles = new Particles(mGVRContext, capacity);
+            if (oldParticles != null)
+            {
+                mParticles.addParticles(oldParticles);
+                this.removeChildObject(oldParticles.getSceneObject());
+            }
+            this.addChildObject(mParticles.getSceneObject());
+        }
+        mParticles.setProperties(mMaxAge, mParticleSize, mEnvironmentAcceleration,
+                mParticleSizeRate, mFadeWithAge, mParticleTexture, mColor, mNoiseFactor);
+        if (particleBoundingVolume != null)
+        {
+            mParticles.setBoundingParticles(particleBoundingVolume, BVVelocities, BVSpawnTimes);
+        }
+        mParticles.addParticles(particlePositions, particleVelocities, particleTimeStamps, count);
+        mParticles.updateMesh();
+        mParticles.setTime(currTime);
     }
 
 
@@ -240,10 +223,9 @@ class GVREmitter extends GVRSceneObject {
     {
         currTime = time;
 
-        for (int i = 0; i < meshInfo.size(); i ++)
+        if (mParticles != null)
         {
-            GVRSceneObject obj = meshInfo.get(i).first;
-            obj.getRenderData().getMaterial().setFloat("u_time", time);
+            mParticles.setTime(time);
         }
     }
 
@@ -385,6 +367,7 @@ class GVREmitter extends GVRSceneObject {
         {
             this.removeChildObject(this.getChildByIndex(0));
         }
+        mParticles = null;
     }
 
 }
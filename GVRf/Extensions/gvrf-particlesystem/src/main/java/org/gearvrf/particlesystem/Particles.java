@@ -28,85 +28,191 @@ import org.joml.Vector4f;
 import static android.opengl.GLES20.GL_POINTS;
 
 /**
- *  This class is responsible for instancing meshes, with vertices that act as
- *  the actual particles when rendered using GL_POINTS.
+ *  This class is a pool of particles, the vertices of a single mesh
+ *  which act as the actual particles when rendered using GL_POINTS.
+ *  <p>
+ *  The particles are kept in a ring buffer. New particles overwrite
+ *  the oldest ones, so the pool must be large enough to hold all
+ *  the particles which are alive at the same time. The last
+ *  NUM_BOUNDING_PARTICLES vertices are never drawn, they define
+ *  the bounding volume of the system.
  */
 
 class Particles {
 
-    private  GVRContext mGVRContext;
+    static final int NUM_BOUNDING_PARTICLES = 8;
+
+    private GVRContext mGVRContext;
     private GVRMaterial material;
     private GVRMesh mParticleMesh;
-    private float mAge;
-    private float mSize;
-    private Vector3f mAcceleration;
-    private float mParticleSizeRate;
-    private float mFadeWithAge;
+    private GVRSceneObject mMeshObject;
     private GVRTexture mTexture;
-    private Vector4f mColorMultiplier;
-    private float mNoiseFactor;
-
     private GVRShaderId particleID;
+    private final int mCapacity;
+    private int mNextParticle = 0;
+
+    //vertex attributes of all the particles in the pool
+    private final float[] mPositions;
+    private final float[] mVelocities;
+    private final float[] mTimeStamps;
+
+    /**
+     * Creates a pool of particles and the GVRSceneObject which renders them.
+     *
+     * @param capacity the maximum number of particles alive at the same time.
+     */
 
-    Particles(GVRContext gvrContext, float age, float particleSize,
-                     Vector3f acceleration, float particleSizeRate, boolean fadeWithAge,
-                     GVRTexture tex, Vector4f color, float noiseFactor) {
+    Particles(GVRContext gvrContext, int capacity) {
 
         mGVRContext = gvrContext;
-        mAge = age;
-        mSize = particleSize;
-        mAcceleration = acceleration;
-        mParticleSizeRate = particleSizeRate;
-        mColorMultiplier = color;
-        if (fadeWithAge)
-            mFadeWithAge = 1.0f;
-        else
-            mFadeWithAge = 0.0f;
-        mTexture = tex;
-        mNoiseFactor = noiseFactor;
+        mCapacity = capacity;
+
+        int numVertices = capacity + NUM_BOUNDING_PARTICLES;
+        mPositions = new float[numVertices * 3];
+        mVelocities = new float[numVertices * 3];
+        mTimeStamps = new float[numVertices * 2];
+
+        //unused particles are spawned in the far future, so they are discarded
+        for (int i = 0; i < numVertices * 2; i += 2)
+        {
+            mTimeStamps[i] = Float.MAX_VALUE;
+        }
+        makeParticleMesh();
+    }
+
+    /**
+     * @return The GVRSceneObject with the particle mesh.
+     */
+    GVRSceneObject getSceneObject()
+    {
+        return mMeshObject;
+    }
+
+    /**
+     * @return The maximum number of particles alive at the same time.
+     */
+    int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    /**
+     * Sets the particle properties. They apply to all of the particles in the pool.
+     */
+    void setProperties(float age, float particleSize, Vector3f acceleration,
+                       float particleSizeRate, boolean fadeWithAge,
+                       GVRTexture tex, Vector4f color, float noiseFactor)
+    {
+        material.setVec4("u_color", color.x, color.y, color.z, color.w);
+        material.setFloat("u_particle_age", age);
+        material.setVec3("u_acceleration", acceleration.x, acceleration.y, acceleration.z);
+        material.setFloat("u_particle_size", particleSize);
+        material.setFloat("u_size_change_rate", particleSizeRate);
+        material.setFloat("u_fade", fadeWithAge ? 1.0f : 0.0f);
+        material.setFloat("u_noise_factor", noiseFactor);
+        if (tex != mTexture)
+        {
+            mTexture = tex;
+            material.setMainTexture(tex);
+        }
+    }
+
+    /**
+     * Sets the current time. Particles are drawn from their spawning time
+     * until they are older than their age.
+     */
+    void setTime(float time)
+    {
+        material.setFloat("u_time", time);
     }
 
     /**
-     * Creates and returns a GVRSceneObject with the specified mesh attributes.
+     * Adds particles to the pool, replacing the oldest ones.
+     * Only the pool entries of the new particles are written.
      *
-     * @param vertices the vertex positions of that make up the mesh. (x1, y1, z1, x2, y2, z2, ...)
-     * @param velocities the velocity attributes for each vertex. (vx1, vy1, vz1, vx2, vy2, vz2...)
-     * @param particleTimeStamps the spawning times of each vertex. (t1, 0,  t2, 0,  t3, 0 ..)
+     * @param vertices the particle positions. (x1, y1, z1, x2, y2, z2, ...)
+     * @param velocities the velocity of each particle. (vx1, vy1, vz1, vx2, vy2, vz2...)
+     * @param particleTimeStamps the spawning times of each particle. (t1, 0,  t2, 0,  t3, 0 ..)
+     * @param count number of particles to add.
+     */
+    void addParticles(float[] vertices, float[] velocities, float[] particleTimeStamps, int count)
+    {
+        addParticles(vertices, velocities, particleTimeStamps, 0, count);
+    }
+
+    /**
+     * Adds the particles of another pool, oldest first, so a pool which
+     * replaces it keeps the particles which are still alive. If this pool
+     * is smaller, the oldest particles are dropped.
      *
-     * @return The GVRSceneObject with this mesh.
+     * @param from pool to copy the particles from.
      */
+    void addParticles(Particles from)
+    {
+        int start = from.mNextParticle;
 
-    GVRSceneObject makeParticleMesh(float[] vertices, float[] velocities,
-                                           float[] particleTimeStamps )
+        addParticles(from.mPositions, from.mVelocities, from.mTimeStamps, start, from.mCapacity - start);
+        addParticles(from.mPositions, from.mVelocities, from.mTimeStamps, 0, start);
+    }
+
+    private void addParticles(float[] vertices, float[] velocities, float[] particleTimeStamps,
+                              int first, int count)
     {
-        mParticleMesh = new GVRMesh(mGVRContext);
+        int end = first + count;
+        int src = end - Math.min(count, mCapacity);     // the newest particles which fit
+
+        while (src < end)
+        {
+            int n = Math.min(end - src, mCapacity - mNextParticle);
+
+            System.arraycopy(vertices, src * 3, mPositions, mNextParticle * 3, n * 3);
+            System.arraycopy(velocities, src * 3, mVelocities, mNextParticle * 3, n * 3);
+            System.arraycopy(particleTimeStamps, src * 2, mTimeStamps, mNextParticle * 2, n * 2);
+            src += n;
+            mNextParticle = (mNextParticle + n) % mCapacity;
+        }
+    }
+
+    /**
+     * Sets the particles which define the bounding volume of the system.
+     *
+     * @param vertices NUM_BOUNDING_PARTICLES positions.
+     * @param velocities NUM_BOUNDING_PARTICLES velocities.
+     * @param particleTimeStamps NUM_BOUNDING_PARTICLES spawning times.
+     */
+    void setBoundingParticles(float[] vertices, float[] velocities, float[] particleTimeStamps)
+    {
+        System.arraycopy(vertices, 0, mPositions, mCapacity * 3, NUM_BOUNDING_PARTICLES * 3);
+        System.arraycopy(velocities, 0, mVelocities, mCapacity * 3, NUM_BOUNDING_PARTICLES * 3);
+        System.arraycopy(particleTimeStamps, 0, mTimeStamps, mCapacity * 2, NUM_BOUNDING_PARTICLES * 2);
+    }
 
+    /**
+     * Copies the particles to the mesh.
+     */
+    void updateMesh()
+    {
         //pass the particle positions as vertices, velocities as normals, and
         //spawning times as texture coordinates.
-        mParticleMesh.setVertices(vertices);
-        mParticleMesh.setNormals(velocities);
-        mParticleMesh.setTexCoords(particleTimeStamps);
+        mParticleMesh.setVertices(mPositions);
+        mParticleMesh.setNormals(mVelocities);
+        mParticleMesh.setTexCoords(mTimeStamps);
+    }
+
+    private void makeParticleMesh()
+    {
+        mParticleMesh = new GVRMesh(mGVRContext);
+        updateMesh();
 
         particleID = new GVRShaderId(ParticleShader.class);
         material = new GVRMaterial(mGVRContext, particleID);
 
-        material.setVec4("u_color", mColorMultiplier.x, mColorMultiplier.y,
-                mColorMultiplier.z, mColorMultiplier.w);
-        material.setFloat("u_particle_age", mAge);
-        material.setVec3("u_acceleration", mAcceleration.x, mAcceleration.y, mAcceleration.z);
-        material.setFloat("u_particle_size", mSize);
-        material.setFloat("u_size_change_rate", mParticleSizeRate);
-        material.setFloat("u_fade", mFadeWithAge);
-        material.setFloat("u_noise_factor", mNoiseFactor);
-
         GVRRenderData renderData = new GVRRenderData(mGVRContext);
         renderData.setMaterial(material);
         renderData.setMesh(mParticleMesh);
-        material.setMainTexture(mTexture);
 
-        GVRSceneObject meshObject = new GVRSceneObject(mGVRContext);
-        meshObject.attachRenderData(renderData);
-        meshObject.getRenderData().setMaterial(material);
+        mMeshObject = new GVRSceneObject(mGVRContext);
+        mMeshObject.attachRenderData(renderData);
 
         // Set the draw mode to GL_POINTS, disable writing to depth buffer, enable depth testing
         // and set the rendering order to transparent.
@@ -114,11 +220,9 @@ class Particles {
         // and keeping the depth test on along with rendering them
         // after the geometry queue makes sure they occlude, and are occluded, correctly.
 
-        meshObject.getRenderData().setDrawMode(GL_POINTS);
-        meshObject.getRenderData().setDepthTest(true);
-        meshObject.getRenderData().setDepthMask(false);
-        meshObject.getRenderData().setRenderingOrder(GVRRenderData.GVRRenderingOrder.TRANSPARENT);
-
-        return meshObject;
+        renderData.setDrawMode(GL_POINTS);
+        renderData.setDepthTest(true);
+        renderData.setDepthMask(false);
+        renderData.setRenderingOrder(GVRRenderData.GVRRenderingOrder.TRANSPARENT);
     }
 }
@@ -21,6 +21,7 @@ import android.util.LongSparseArray;
 import org.gearvrf.GVRComponent;
 import org.gearvrf.GVRComponentGroup;
 import org.gearvrf.GVRContext;
+import org.gearvrf.GVREventManager;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRSceneObject.ComponentVisitor;
 import org.gearvrf.GVRTransform;
@@ -28,6 +29,12 @@ import org.gearvrf.ISceneObjectEvents;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Represents a physics world where all {@link GVRSceneObject} with {@link GVRRigidBody} component
  * attached to are simulated.
@@ -39,6 +46,11 @@ public class GVRWorld extends GVRComponent {
     private final GVRPhysicsContext mPhysicsContext;
     private GVRWorldTask mWorldTask;
     private static final long DEFAULT_INTERVAL = 15;
+    private static final float DEFAULT_FIXED_TIME_STEP = 1.0f / 60.0f;
+    private static final int DEFAULT_MAX_SUB_STEPS = 4;
+
+    private float mFixedTimeStep = DEFAULT_FIXED_TIME_STEP;
+    private int mMaxSubSteps = DEFAULT_MAX_SUB_STEPS;
 
     private long mNativeLoader;
 
@@ -49,6 +61,26 @@ public class GVRWorld extends GVRComponent {
     private final LongSparseArray<GVRPhysicsWorldObject> mPhysicsObject = new LongSparseArray<GVRPhysicsWorldObject>();
     private final GVRCollisionMatrix mCollisionMatrix;
 
+    /*
+     * Collisions are copied by native code into a direct buffer,
+     * COLLISION_BUFFER_SIZE records at a time. Each record holds
+     * two longs (bodies), four floats (normal, distance)
+     * and an int (is hit) padded to 40 bytes.
+     */
+    private static final int COLLISION_BUFFER_SIZE = 256;
+    private static final int COLLISION_RECORD_SIZE = 40;
+    private static final int COLLISION_BODY_B = 8;
+    private static final int COLLISION_NORMAL = 16;
+    private static final int COLLISION_DISTANCE = 28;
+    private static final int COLLISION_IS_HIT = 32;
+
+    private final ByteBuffer mCollisionBuffer = ByteBuffer
+            .allocateDirect(COLLISION_BUFFER_SIZE * COLLISION_RECORD_SIZE)
+            .order(ByteOrder.nativeOrder());
+    private final float[] mCollisionNormal = new float[3];
+    private final CollisionEvent mCollisionEvent = new CollisionEvent();
+    private volatile ICollisionEvents[] mCollisionListeners = new ICollisionEvents[0];
+
     private final PhysicsDragger mPhysicsDragger;
     private GVRRigidBody mRigidBodyDragMe = null;
 
@@ -260,33 +292,119 @@ public class GVRWorld extends GVRComponent {
         mWorldTask.stop();
     }
 
+    /**
+     * Add a listener which is called directly for every collision
+     * in this physics world, for both of the colliding scene objects.
+     * <p>
+     * The listener is called on the physics thread. The normal passed
+     * to it is only valid during the call.
+     *
+     * @param listener The {@link ICollisionEvents} to add.
+     */
+    public synchronized void addCollisionListener(ICollisionEvents listener) {
+        List<ICollisionEvents> listeners = Arrays.asList(mCollisionListeners);
+        if (!listeners.contains(listener)) {
+            ICollisionEvents[] newListeners = Arrays.copyOf(mCollisionListeners, listeners.size() + 1);
+            newListeners[listeners.size()] = listener;
+            mCollisionListeners = newListeners;
+        }
+    }
+
+    /**
+     * Remove a listener added with {@link #addCollisionListener(ICollisionEvents)}.
+     *
+     * @param listener The {@link ICollisionEvents} to remove.
+     */
+    public synchronized void removeCollisionListener(ICollisionEvents listener) {
+        List<ICollisionEvents> listeners = new ArrayList<ICollisionEvents>(Arrays.asList(mCollisionListeners));
+        if (listeners.remove(listener)) {
+            mCollisionListeners = listeners.toArray(new ICollisionEvents[listeners.size()]);
+        }
+    }
+
     private void generateCollisionEvents() {
-        GVRCollisionInfo collisionInfos[] = NativePhysics3DWorld.listCollisions(getNative());
-
-        String onEnter = "onEnter";
-        String onExit = "onExit";
-
-        for (GVRCollisionInfo info : collisionInfos) {
-            if (info.isHit) {
-                sendCollisionEvent(info, onEnter);
-            } else if (mPhysicsObject.get(info.bodyA) != null
-                    && mPhysicsObject.get(info.bodyB) != null) {
-                // If both bodies are in the scene.
-                sendCollisionEvent(info, onExit);
+        final ByteBuffer buffer = mCollisionBuffer;
+        int first = 0;
+        int total = NativePhysics3DWorld.listCollisions(getNative(), buffer, COLLISION_BUFFER_SIZE, first);
+
+        while (first < total) {
+            int count = Math.min(total - first, COLLISION_BUFFER_SIZE);
+
+            if (first > 0) {
+                NativePhysics3DWorld.listCollisions(getNative(), buffer, COLLISION_BUFFER_SIZE, first);
+            }
+            for (int i = 0; i < count; ++i) {
+                int record = i * COLLISION_RECORD_SIZE;
+                GVRPhysicsWorldObject bodyA = mPhysicsObject.get(buffer.getLong(record));
+                GVRPhysicsWorldObject bodyB = mPhysicsObject.get(buffer.getLong(record + COLLISION_BODY_B));
+                boolean isHit = buffer.getInt(record + COLLISION_IS_HIT) != 0;
+
+                // Only if both bodies are in the scene.
+                if (bodyA == null || bodyB == null) {
+                    continue;
+                }
+                mCollisionNormal[0] = buffer.getFloat(record + COLLISION_NORMAL);
+                mCollisionNormal[1] = buffer.getFloat(record + COLLISION_NORMAL + 4);
+                mCollisionNormal[2] = buffer.getFloat(record + COLLISION_NORMAL + 8);
+                sendCollisionEvent(bodyA.getOwnerObject(), bodyB.getOwnerObject(), isHit,
+                        buffer.getFloat(record + COLLISION_DISTANCE));
             }
+            first += count;
         }
+    }
+
+    private void sendCollisionEvent(GVRSceneObject bodyA, GVRSceneObject bodyB, boolean isHit,
+                                    float distance) {
+        String eventName = isHit ? "onEnter" : "onExit";
+        CollisionEvent event = mCollisionEvent;
 
+        for (ICollisionEvents listener : mCollisionListeners) {
+            if (isHit) {
+                listener.onEnter(bodyA, bodyB, mCollisionNormal, distance);
+                listener.onEnter(bodyB, bodyA, mCollisionNormal, distance);
+            } else {
+                listener.onExit(bodyA, bodyB, mCollisionNormal, distance);
+                listener.onExit(bodyB, bodyA, mCollisionNormal, distance);
+            }
+        }
+
+        // The event calls the handlers itself, so the distance is not boxed
+        event.set(bodyA, bodyB, isHit, distance);
+        getGVRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName, event);
+
+        event.set(bodyB, bodyA, isHit, distance);
+        getGVRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName, event);
     }
 
-    private void sendCollisionEvent(GVRCollisionInfo info, String eventName) {
-        GVRSceneObject bodyA = mPhysicsObject.get(info.bodyA).getOwnerObject();
-        GVRSceneObject bodyB = mPhysicsObject.get(info.bodyB).getOwnerObject();
+    /*
+     * Collision event sent to the scene objects, reused for every collision.
+     */
+    private final class CollisionEvent extends GVREventManager.DirectEvent<ICollisionEvents> {
+        private GVRSceneObject mSceneObj0;
+        private GVRSceneObject mSceneObj1;
+        private boolean mIsHit;
+        private float mDistance;
+
+        void set(GVRSceneObject sceneObj0, GVRSceneObject sceneObj1, boolean isHit, float distance) {
+            mSceneObj0 = sceneObj0;
+            mSceneObj1 = sceneObj1;
+            mIsHit = isHit;
+            mDistance = distance;
+        }
 
-        getGVRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName,
-                bodyA, bodyB, info.normal, info.distance);
+        @Override
+        public void dispatch(ICollisionEvents handler) {
+            if (mIsHit) {
+                handler.onEnter(mSceneObj0, mSceneObj1, mCollisionNormal, mDistance);
+            } else {
+                handler.onExit(mSceneObj0, mSceneObj1, mCollisionNormal, mDistance);
+            }
+        }
 
-        getGVRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName,
-                bodyB, bodyA, info.normal, info.distance);
+        @Override
+        public Object[] getParams() {
+            return new Object[] { mSceneObj0, mSceneObj1, mCollisionNormal, mDistance };
+        }
     }
 
     private void doPhysicsAttach(GVRSceneObject rootSceneObject) {
@@ -360,13 +478,42 @@ public class GVRWorld extends GVRComponent {
         NativePhysics3DWorld.getGravity(getNative(), gravity);
     }
 
+    /**
+     * Set how the elapsed time is simulated.
+     * <p>
+     * By default the world is simulated in fixed steps of 1/60 second.
+     * The time which does not fill a whole step is carried over to the
+     * next update and the rigid bodies are drawn between their last
+     * two simulated states. If the simulation falls behind, no more
+     * than maxSubSteps steps are run in one update and the rest of
+     * the elapsed time is dropped, so the world slows down
+     * instead of taking longer and longer to catch up.
+     *
+     * @param fixedTimeStep length of one simulation step in seconds,
+     *                      0 to simulate the elapsed time in a single
+     *                      variable step.
+     * @param maxSubSteps   maximum number of steps run in one update.
+     */
+    public void setFixedTimeStep(final float fixedTimeStep, final int maxSubSteps) {
+        if (fixedTimeStep < 0 || maxSubSteps < 1) {
+            throw new IllegalArgumentException("Invalid time step " + fixedTimeStep
+                    + " or number of sub steps " + maxSubSteps);
+        }
+        mPhysicsContext.runOnPhysicsThread(new Runnable() {
+            @Override
+            public void run() {
+                mFixedTimeStep = fixedTimeStep;
+                mMaxSubSteps = maxSubSteps;
+            }
+        });
+    }
+
     private class GVRWorldTask implements Runnable {
         private boolean running = false;
         private final long intervalMillis;
         private float timeStep;
-        private int maxSubSteps;
         private long simulationTime;
-        private long lastSimulTime;
+        private long lastStepNanos;
 
 
         public GVRWorldTask(long milliseconds) {
@@ -381,21 +528,21 @@ public class GVRWorld extends GVRComponent {
 
 
             simulationTime = SystemClock.uptimeMillis();
+            long stepNanos = System.nanoTime();
+
+            // Elapsed time in seconds, the fixed steps are accumulated natively
+            timeStep = (stepNanos - lastStepNanos) * 1e-9f;
+            lastStepNanos = stepNanos;
 
             /* To debug physics step
-            if (BuildConfig.DEBUG && timeStep != simulationTime - lastSimulTime) {
-                Log.v("GVRPhysicsWorld", "onStep " + timeStep + "ms" + ", subSteps " + maxSubSteps);
+            if (BuildConfig.DEBUG) {
+                Log.v("GVRPhysicsWorld", "onStep " + timeStep + "s" + ", fixed step " + mFixedTimeStep);
             }*/
 
-            timeStep  = simulationTime - lastSimulTime;
-            maxSubSteps = (int) (timeStep * 60) / 1000 + 1;
-
-            NativePhysics3DWorld.step(getNative(), timeStep, maxSubSteps);
+            NativePhysics3DWorld.step(getNative(), timeStep, mMaxSubSteps, mFixedTimeStep);
 
             generateCollisionEvents();
 
-            lastSimulTime = simulationTime;
-
             simulationTime = intervalMillis + simulationTime - SystemClock.uptimeMillis();
             if (simulationTime < 0) {
                 simulationTime += intervalMillis;
@@ -415,7 +562,7 @@ public class GVRWorld extends GVRComponent {
                 public void run() {
                     if (!running) {
                         running = true;
-                        lastSimulTime = SystemClock.uptimeMillis();
+                        lastStepNanos = System.nanoTime();
                         mPhysicsContext.runDelayedOnPhysicsThread(GVRWorldTask.this,
                                 intervalMillis);
                     }
@@ -528,11 +675,11 @@ class NativePhysics3DWorld {
 
     static native void removeRigidBody(long jphysics_world, long jrigid_body);
 
-    static native void step(long jphysics_world, float jtime_step, int maxSubSteps);
+    static native void step(long jphysics_world, float jtime_step, int maxSubSteps, float jfixed_step);
 
     static native void getGravity(long jworld, float[] array);
 
     static native void setGravity(long jworld, float x, float y, float z);
 
-    static native GVRCollisionInfo[] listCollisions(long jphysics_world);
+    static native int listCollisions(long jphysics_world, ByteBuffer buffer, int capacity, int first);
 }
@@ -194,7 +194,9 @@ void BulletRigidBody::setWorldTransform(const btTransform &centerOfMassWorldTran
        std::abs(aux.getOrigin().getY() - prevPos.getOrigin().getY()) >= 0.1f ||
        std::abs(aux.getOrigin().getZ() - prevPos.getOrigin().getZ()) >= 0.1f)
     {
+        // the scene object was moved, restart the interpolation from there
         mRigidBody->setWorldTransform(aux);
+        mRigidBody->setInterpolationWorldTransform(aux);
         prevPos = aux;
         //TODO: incomplete solution
     }
@@ -48,8 +48,13 @@ void BulletWorld::initialize() {
     ///the default constraint solver. For parallel processing you can use a different solver (see Extras/BulletMultiThreaded)
     mSolver = new btSequentialImpulseConstraintSolver;
 
-    mPhysicsWorld = new btDiscreteDynamicsWorld(mDispatcher, mOverlappingPairCache, mSolver,
-                                                mCollisionConfiguration);
+    btDiscreteDynamicsWorld* world = new btDiscreteDynamicsWorld(mDispatcher, mOverlappingPairCache,
+                                                                 mSolver, mCollisionConfiguration);
+
+    /// Rigid bodies are drawn between their last two simulated states, so the
+    /// scene moves smoothly when fixed steps do not line up with the frames.
+    world->setLatencyMotionStateInterpolation(true);
+    mPhysicsWorld = world;
 
     mPhysicsWorld->setGravity(btVector3(0, -10, 0));
 
@@ -135,79 +140,135 @@ void BulletWorld::removeRigidBody(PhysicsRigidBody *body) {
     mPhysicsWorld->removeRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody());
 }
 
-void BulletWorld::step(float timeStep, int maxSubSteps) {
+/**
+ * Bullet keeps the time left over from the last call and runs as many
+ * fixed steps as fit into it, but no more than maxSubSteps.
+ * Between the steps the motion state of each rigid body is set to
+ * its interpolated transform.
+ */
+void BulletWorld::step(float timeStep, int maxSubSteps, float fixedTimeStep) {
     if (mDraggingConstraint != nullptr)
     {
         auto matrixB = mPivotObject->transform()->getModelMatrix(true);
         mDraggingConstraint->setPivotB(btVector3(matrixB[3][0], matrixB[3][1], matrixB[3][2]));
     }
 
-    mPhysicsWorld->stepSimulation(timeStep, maxSubSteps);
+    if (fixedTimeStep > 0.0f)
+    {
+        mPhysicsWorld->stepSimulation(timeStep, std::max(maxSubSteps, 1), fixedTimeStep);
+    }
+    else
+    {
+        mPhysicsWorld->stepSimulation(timeStep, 0);
+    }
 }
 
 /**
- * Returns by reference the list of new and ceased collisions
+ * Appends to contactPoints the list of new and ceased collisions
  *  that will be the objects of ONENTER and ONEXIT events.
  */
-void BulletWorld::listCollisions(std::list <ContactPoint> &contactPoints) {
+void BulletWorld::listCollisions(std::vector <ContactPoint> &contactPoints) {
+    btDispatcher *dispatcher = mPhysicsWorld->getDispatcher();
+    int numManifolds = dispatcher->getNumManifolds();
 
 /*
- * Creates a list of all the current collisions on the World
+ * Creates the set of all the current collisions on the World
  * */
-    std::map<std::pair<long,long>, ContactPoint> currCollisions;
-    int numManifolds = mPhysicsWorld->getDispatcher()->getNumManifolds();
-    btPersistentManifold *contactManifold;
-
+    mCurrCollisions.clear();
     for (int i = 0; i < numManifolds; i++) {
+        btPersistentManifold *contactManifold = dispatcher->getManifoldByIndexInternal(i);
+        const btManifoldPoint &point = contactManifold->getContactPoint(0);
         ContactPoint contactPt;
 
-        contactManifold = mPhysicsWorld->getDispatcher()->
-                getManifoldByIndexInternal(i);
-
         contactPt.body0 = (BulletRigidBody *) (contactManifold->getBody0()->getUserPointer());
         contactPt.body1 = (BulletRigidBody *) (contactManifold->getBody1()->getUserPointer());
-        contactPt.normal[0] = contactManifold->getContactPoint(0).m_normalWorldOnB.getX();
-        contactPt.normal[1] = contactManifold->getContactPoint(0).m_normalWorldOnB.getY();
-        contactPt.normal[2] = contactManifold->getContactPoint(0).m_normalWorldOnB.getZ();
-        contactPt.distance = contactManifold->getContactPoint(0).getDistance();
+        contactPt.normal[0] = point.m_normalWorldOnB.getX();
+        contactPt.normal[1] = point.m_normalWorldOnB.getY();
+        contactPt.normal[2] = point.m_normalWorldOnB.getZ();
+        contactPt.distance = point.getDistance();
         contactPt.isHit = true;
 
-        std::pair<long, long> collisionPair((long)contactPt.body0, (long)contactPt.body1);
-        std::pair<std::pair<long, long>, ContactPoint> newPair(collisionPair, contactPt);
-        currCollisions.insert(newPair);
-
         /*
-         * If one of these current collisions is not on the list with all the previous
-         * collision, then it should be on the return list, because it is an onEnter event
+         * If one of these current collisions is not in the set with all the previous
+         * collisions, then it should be on the return list, because it is an onEnter event
          * */
-        auto it = prevCollisions.find(collisionPair);
-        if ( it == prevCollisions.end()) {
-            contactPoints.push_front(contactPt);
-        } 
-        contactManifold = 0;
+        if (mCurrCollisions.insert(contactPt) && !mPrevCollisions.contains(contactPt)) {
+            contactPoints.push_back(contactPt);
+        }
     }
 
     /*
-     * After going through all the current list, go through all the previous collisions list,
-     * if one of its collisions is not on the current collision list, then it should be
+     * After going through all the current collisions, go through all the previous collisions,
+     * if one of them is not in the current collision set, then it should be
      * on the return list, because it is an onExit event
      * */
-    for (auto it = prevCollisions.begin(); it != prevCollisions.end(); ++it) {
-        if (currCollisions.find(it->first) == currCollisions.end()) {
-            ContactPoint cp = it->second;
-            cp.isHit = false;
-            contactPoints.push_front(cp);
+    const std::vector <ContactPoint> &prev = mPrevCollisions.contacts();
+    for (auto it = prev.begin(); it != prev.end(); ++it) {
+        if (!mCurrCollisions.contains(*it)) {
+            contactPoints.push_back(*it);
+            contactPoints.back().isHit = false;
         }
     }
 
 /*
- * Save all the current collisions on the previous collisions list for the next iteration
+ * Keep the current collisions as the previous collisions for the next iteration
  * */
-    prevCollisions.clear();
-    prevCollisions.swap(currCollisions);
+    mPrevCollisions.swap(mCurrCollisions);
+}
+
+void CollisionSet::clear() {
+    mContacts.clear();
+    std::fill(mSlots.begin(), mSlots.end(), -1);
+}
 
+bool CollisionSet::insert(const ContactPoint &contact) {
+    if ((mContacts.size() + 1) * 2 > mSlots.size()) {
+        grow();
+    }
+    int slot = findSlot(contact.body0, contact.body1);
+    if (mSlots[slot] >= 0) {
+        return false;
+    }
+    mSlots[slot] = mContacts.size();
+    mContacts.push_back(contact);
+    return true;
+}
+
+bool CollisionSet::contains(const ContactPoint &contact) const {
+    return !mSlots.empty() && (mSlots[findSlot(contact.body0, contact.body1)] >= 0);
+}
+
+void CollisionSet::swap(CollisionSet &other) {
+    mContacts.swap(other.mContacts);
+    mSlots.swap(other.mSlots);
+}
+
+/*
+ * Returns the slot of the pair of bodies, or the empty slot
+ * where it would be added. The table is never full.
+ */
+int CollisionSet::findSlot(const PhysicsRigidBody *body0, const PhysicsRigidBody *body1) const {
+    const size_t mask = mSlots.size() - 1;
+    size_t hash = reinterpret_cast<uintptr_t>(body0) * 31 + reinterpret_cast<uintptr_t>(body1);
+    size_t slot = (hash ^ (hash >> 7) ^ (hash >> 17)) & mask;
+
+    while (mSlots[slot] >= 0) {
+        const ContactPoint &c = mContacts[mSlots[slot]];
+        if ((c.body0 == body0) && (c.body1 == body1)) {
+            break;
+        }
+        slot = (slot + 1) & mask;
+    }
+    return slot;
 }
 
+void CollisionSet::grow() {
+    mSlots.assign(std::max<size_t>(mSlots.size() * 2, 64), -1);
+    for (int i = 0; i < (int) mContacts.size(); ++i) {
+        const ContactPoint &c = mContacts[i];
+        mSlots[findSlot(c.body0, c.body1)] = i;
+    }
+}
 
 void BulletWorld::setGravity(float x, float y, float z) {
     mPhysicsWorld->setGravity(btVector3(x, y, z));
@@ -23,8 +23,7 @@
 #include "../physics_common.h"
 #include "../physics_world.h"
 
-#include <utility>
-#include <map>
+#include <vector>
 #include <BulletDynamics/ConstraintSolver/btPoint2PointConstraint.h>
 
 class btDynamicsWorld;
@@ -38,6 +37,38 @@ namespace gvr {
 class PhysicsConstraint;
 class PhysicsRigidBody;
 
+/**
+ * Set of colliding pairs of rigid bodies.
+ * An open addressing hash table indexes a dense list of contacts.
+ * Clearing the set keeps its memory, so tracking the same number
+ * of collisions every step does not allocate.
+ */
+class CollisionSet {
+ public:
+    void clear();
+
+    /**
+     * Add the contact if its pair of bodies is not in the set yet.
+     * @return true if the contact was added
+     */
+    bool insert(const ContactPoint &contact);
+
+    bool contains(const ContactPoint &contact) const;
+
+    const std::vector <ContactPoint> &contacts() const { return mContacts; }
+
+    void swap(CollisionSet &other);
+
+ private:
+    int findSlot(const PhysicsRigidBody *body0, const PhysicsRigidBody *body1) const;
+
+    void grow();
+
+ private:
+    std::vector <ContactPoint> mContacts;
+    std::vector<int> mSlots;        // index of a contact, -1 for an empty slot
+};
+
 class BulletWorld : public PhysicsWorld {
  public:
     BulletWorld();
@@ -59,9 +90,9 @@ class BulletWorld : public PhysicsWorld {
 
     void removeRigidBody(PhysicsRigidBody *body);
 
-    void step(float timeStep, int maxSubSteps);
+    void step(float timeStep, int maxSubSteps, float fixedTimeStep);
 
-    void listCollisions(std::list <ContactPoint> &contactPoints);
+    void listCollisions(std::vector <ContactPoint> &contactPoints);
 
     void setGravity(float x, float y, float z);
 
@@ -75,7 +106,8 @@ class BulletWorld : public PhysicsWorld {
     void finalize();
 
  private:
-    std::map<std::pair <long,long>, ContactPoint> prevCollisions;
+    CollisionSet mPrevCollisions;
+    CollisionSet mCurrCollisions;
     btDynamicsWorld *mPhysicsWorld;
     btCollisionConfiguration *mCollisionConfiguration;
     btCollisionDispatcher *mDispatcher;
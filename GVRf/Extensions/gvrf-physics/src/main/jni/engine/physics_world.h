@@ -24,7 +24,7 @@
 #include "physics_rigidbody.h"
 #include "physics_constraint.h"
 #include "../objects/scene_object.h"
-#include <list>
+#include <vector>
 
 namespace gvr {
 
@@ -61,13 +61,37 @@ public:
 
     virtual void removeRigidBody(PhysicsRigidBody *body) = 0;
 
-    virtual void step(float timeStep, int maxSubSteps) = 0;
-
-    virtual void listCollisions(std::list<ContactPoint>& contactPoints) = 0;
+    /**
+     * Advance the simulation by the elapsed time.
+     * @param timeStep      elapsed time in seconds
+     * @param maxSubSteps   maximum number of fixed steps to catch up with,
+     *                      the rest of the elapsed time is dropped
+     * @param fixedTimeStep length of one simulation step in seconds,
+     *                      0 to simulate the elapsed time in a single step
+     */
+    virtual void step(float timeStep, int maxSubSteps, float fixedTimeStep) = 0;
+
+    /**
+     * Append the collisions which started or ended since the last call.
+     * @param contactPoints list of collisions, isHit is false
+     *                      if the collision ended
+     */
+    virtual void listCollisions(std::vector<ContactPoint>& contactPoints) = 0;
 
     virtual void setGravity(float gx, float gy, float gz) = 0;
 
     virtual PhysicsVec3 getGravity() const = 0;
+
+    /**
+     * Collisions listed for Java by the last update of this world,
+     * kept here so they can be copied to Java a buffer at a time.
+     * Each world has its own list, worlds stepped on different threads
+     * do not share it.
+     */
+    std::vector<ContactPoint>& collisionScratch() { return mCollisionScratch; }
+
+private:
+    std::vector<ContactPoint> mCollisionScratch;
 };
 
 }
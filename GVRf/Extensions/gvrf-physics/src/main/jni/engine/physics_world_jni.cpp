@@ -19,6 +19,8 @@
 
 #include <android/asset_manager.h>
 #include <android/asset_manager_jni.h>
+#include <algorithm>
+#include <vector>
 
 #include "bullet/bullet_world.h"
 #include "physics_world.h"
@@ -69,11 +71,11 @@ extern "C" {
 
     JNIEXPORT void JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
-            jlong jworld, jfloat jtime_step, int maxSubSteps);
+            jlong jworld, jfloat jtime_step, int maxSubSteps, jfloat jfixed_step);
 
-    JNIEXPORT jobjectArray JNICALL
+    JNIEXPORT jint JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
-                                                                    jlong jworld);
+            jlong jworld, jobject jbuffer, jint capacity, jint first);
 
     JNIEXPORT void JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_setGravity(JNIEnv* env, jobject obj,
@@ -160,45 +162,59 @@ Java_org_gearvrf_physics_NativePhysics3DWorld_removeRigidBody(JNIEnv * env, jobj
 
 JNIEXPORT void JNICALL
 Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
-        jlong jworld, jfloat jtime_step, int maxSubSteps) {
+        jlong jworld, jfloat jtime_step, int maxSubSteps, jfloat jfixed_step) {
     PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-    world->step((float)jtime_step, maxSubSteps);
+    world->step((float)jtime_step, maxSubSteps, (float)jfixed_step);
 }
 
-JNIEXPORT jobjectArray JNICALL
-Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj, jlong jworld) {
-
-    jclass collisionInfoClass = env->FindClass("org/gearvrf/physics/GVRCollisionInfo");
-    jmethodID collisionInfoConstructor = env->GetMethodID(collisionInfoClass, "<init>", "(JJ[FFZ)V");
-
+/*
+ * Layout of a collision record in the direct buffer of GVRWorld,
+ * in native byte order.
+ */
+struct CollisionRecord {
+    jlong body0;
+    jlong body1;
+    jfloat normal[3];
+    jfloat distance;
+    jint isHit;
+    jint padding;
+};
+
+/**
+ * Copies collision records to the direct buffer, starting with
+ * the collision at index first. The collisions are updated
+ * if first is zero.
+ * Returns the total number of collisions.
+ */
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
+        jlong jworld, jobject jbuffer, jint capacity, jint first) {
     PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
-    std::list <ContactPoint> contactPoints;
+    CollisionRecord* records = static_cast<CollisionRecord*>(env->GetDirectBufferAddress(jbuffer));
+    std::vector<ContactPoint>& collisions = world->collisionScratch();
 
-    world->listCollisions(contactPoints);
-
-    int size = contactPoints.size();
-    jobjectArray jNewList = env->NewObjectArray(size, collisionInfoClass, NULL);
-
-    int i = 0;
-    for (auto it = contactPoints.begin(); it != contactPoints.end(); ++it) {
-        const ContactPoint& data = *it;
+    if (first == 0) {
+        collisions.clear();
+        world->listCollisions(collisions);
+    }
 
-        jfloatArray normal = env->NewFloatArray(3);
-        env->SetFloatArrayRegion(normal, 0, 3, data.normal);
+    int size = collisions.size();
+    int count = std::min(size - first, (int) capacity);
 
-        jobject contactObject = env->NewObject(collisionInfoClass, collisionInfoConstructor,
-                                               (jlong)data.body0, (jlong)data.body1,
-                                               (jfloatArray)normal, (jfloat)data.distance,
-                                               (jboolean)data.isHit);
+    for (int i = 0; i < count; ++i) {
+        const ContactPoint& data = collisions[first + i];
+        CollisionRecord& record = records[i];
 
-        env->SetObjectArrayElement(jNewList, i++, contactObject);
-        env->DeleteLocalRef(contactObject);
-        env->DeleteLocalRef(normal);
+        record.body0 = (jlong) data.body0;
+        record.body1 = (jlong) data.body1;
+        record.normal[0] = data.normal[0];
+        record.normal[1] = data.normal[1];
+        record.normal[2] = data.normal[2];
+        record.distance = data.distance;
+        record.isHit = data.isHit;
     }
-
-    env->DeleteLocalRef(collisionInfoClass);
-    return jNewList;
+    return size;
 }
 
 JNIEXPORT void JNICALL
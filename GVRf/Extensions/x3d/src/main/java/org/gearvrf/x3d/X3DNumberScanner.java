@@ -0,0 +1,289 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+/**
+ * Scans the numbers in an X3D attribute value such as an MFFloat,
+ * MFInt32 or SFVec3f field.
+ * <p>
+ * Numbers are separated by white space and commas. They may have a sign,
+ * a fraction and an exponent ("-1.5e-3"). Characters which cannot start
+ * a number are skipped. The value is copied into a reusable character
+ * array once and the numbers are converted without creating any objects,
+ * so one scanner should be reused for all the attributes of a file.
+ */
+final class X3DNumberScanner
+{
+    // Every power of ten up to 1e22 is exact as a double
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_DIGITS = 18;
+    private static final int MAX_EXPONENT = 10000;
+
+    private char[] mChars = new char[256];
+    private int mPos = 0;
+    private int mEnd = 0;
+
+    /**
+     * Start scanning a new attribute value.
+     * @param text string with the numbers
+     */
+    void reset(String text)
+    {
+        mEnd = text.length();
+        if (mChars.length < mEnd)
+        {
+            mChars = new char[Math.max(mEnd, 2 * mChars.length)];
+        }
+        text.getChars(0, mEnd, mChars, 0);
+        mPos = 0;
+    }
+
+    /**
+     * Skip to the start of the next number.
+     * @return true if there is another number, false at the end of the text
+     */
+    boolean hasNext()
+    {
+        while (mPos < mEnd)
+        {
+            if (startsNumber(mPos))
+            {
+                return true;
+            }
+            ++mPos;
+        }
+        return false;
+    }
+
+    /**
+     * Get the next number as a float.
+     * Only call this after {@link #hasNext()} returned true.
+     */
+    float nextFloat()
+    {
+        return (float) nextDouble();
+    }
+
+    /**
+     * Get the next number as an integer.
+     * A number with a fraction or exponent is truncated.
+     * Only call this after {@link #hasNext()} returned true.
+     */
+    int nextInt()
+    {
+        int start = mPos;
+        boolean negative = false;
+        int value = 0;
+        char c = mChars[mPos];
+
+        if ((c == '-') || (c == '+'))
+        {
+            negative = (c == '-');
+            ++mPos;
+        }
+        while ((mPos < mEnd) && isDigit(c = mChars[mPos]))
+        {
+            value = value * 10 + (c - '0');
+            ++mPos;
+        }
+        if ((mPos < mEnd) && ((c == '.') || (c == 'e') || (c == 'E')))
+        {
+            mPos = start;
+            return (int) nextDouble();
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Get the next number as a double.
+     * Only call this after {@link #hasNext()} returned true.
+     */
+    double nextDouble()
+    {
+        int start = mPos;
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        char c = mChars[mPos];
+
+        if ((c == '-') || (c == '+'))
+        {
+            negative = (c == '-');
+            ++mPos;
+        }
+        while ((mPos < mEnd) && isDigit(c = mChars[mPos]))
+        {
+            if (digits < MAX_DIGITS)
+            {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                {
+                    ++digits;
+                }
+            }
+            else
+            {
+                ++exponent;
+            }
+            ++mPos;
+        }
+        if ((mPos < mEnd) && (mChars[mPos] == '.'))
+        {
+            ++mPos;
+            while ((mPos < mEnd) && isDigit(c = mChars[mPos]))
+            {
+                if (digits < MAX_DIGITS)
+                {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0)
+                    {
+                        ++digits;
+                    }
+                    --exponent;
+                }
+                ++mPos;
+            }
+        }
+        if ((mPos < mEnd) && ((mChars[mPos] == 'e') || (mChars[mPos] == 'E')))
+        {
+            int e = mPos + 1;
+            boolean negativeExponent = false;
+
+            if ((e < mEnd) && ((mChars[e] == '-') || (mChars[e] == '+')))
+            {
+                negativeExponent = (mChars[e] == '-');
+                ++e;
+            }
+            // an 'e' without digits is not part of the number
+            if ((e < mEnd) && isDigit(mChars[e]))
+            {
+                int value = 0;
+
+                while ((e < mEnd) && isDigit(c = mChars[e]))
+                {
+                    if (value < MAX_EXPONENT)
+                    {
+                        value = value * 10 + (c - '0');
+                    }
+                    ++e;
+                }
+                exponent += negativeExponent ? -value : value;
+                mPos = e;
+            }
+        }
+
+        double value;
+
+        if ((mantissa < MAX_EXACT_MANTISSA) && (exponent >= -22) && (exponent <= 22))
+        {
+            value = (exponent < 0) ? mantissa / POWERS_OF_10[-exponent]
+                                   : mantissa * POWERS_OF_10[exponent];
+            return negative ? -value : value;
+        }
+        // too many digits or too large an exponent to convert exactly
+        return Double.parseDouble(new String(mChars, start, mPos - start));
+    }
+
+    /**
+     * Append the remaining numbers to a float array.
+     * An incomplete group of values at the end is dropped.
+     * @param dest      array to append to
+     * @param groupSize number of floats in each value (3 for SFVec3f)
+     * @return number of values appended
+     */
+    int nextFloats(X3Dobject.MeshCreator.FloatArray dest, int groupSize)
+    {
+        int start = dest.getSize();
+
+        while (hasNext())
+        {
+            dest.add(nextFloat());
+        }
+        int count = (dest.getSize() - start) / groupSize;
+        dest.setSize(start + count * groupSize);
+        return count;
+    }
+
+    /**
+     * Append the remaining numbers to an integer array,
+     * leaving out the -1 which ends each face of an index list.
+     * @param dest array to append to
+     * @return number of indices appended
+     */
+    int nextIndices(X3Dobject.MeshCreator.IntArray dest)
+    {
+        int start = dest.getSize();
+
+        while (hasNext())
+        {
+            int index = nextInt();
+
+            if (index != -1)
+            {
+                dest.add(index);
+            }
+        }
+        return dest.getSize() - start;
+    }
+
+    /**
+     * Read the remaining numbers into a new array.
+     * @param groupSize number of floats in each value,
+     *                  an incomplete value at the end is dropped
+     * @param scratch   array used to collect the values
+     * @return array with the values
+     */
+    float[] toFloatArray(int groupSize, X3Dobject.MeshCreator.FloatArray scratch)
+    {
+        scratch.clear();
+        nextFloats(scratch, groupSize);
+        return scratch.toArray();
+    }
+
+    private boolean startsNumber(int i)
+    {
+        char c = mChars[i];
+
+        if (isDigit(c))
+        {
+            return true;
+        }
+        if ((c == '-') || (c == '+'))
+        {
+            if (++i >= mEnd)
+            {
+                return false;
+            }
+            c = mChars[i];
+            if (isDigit(c))
+            {
+                return true;
+            }
+        }
+        return (c == '.') && (i + 1 < mEnd) && isDigit(mChars[i + 1]);
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return (c >= '0') && (c <= '9');
+    }
+}
@@ -42,9 +42,7 @@ import java.io.StreamTokenizer;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Vector;
 
 import javax.xml.parsers.SAXParser;
@@ -279,21 +277,45 @@ public class X3Dobject {
                 v.z = mData[index + 2];
             }
 
+            void setSize(int size)
+            {
+                mCurSize = size;
+            }
+
+            float[] toArray()
+            {
+                return (mData == null) ? new float[0] : Arrays.copyOf(mData, mCurSize);
+            }
+
             void add(float[] entry)
             {
-                if (mData == null)
+                grow(entry.length);
+                for (int i = 0; i < entry.length; ++i)
                 {
-                    mData = new float[mMinSize];
+                    mData[mCurSize + i] = entry[i];
                 }
-                else if (mCurSize + entry.length > mData.length)
+                mCurSize += entry.length;
+            }
+
+            void add(float v)
+            {
+                if ((mData == null) || (mCurSize == mData.length))
                 {
-                    mData = Arrays.copyOf(mData, (mCurSize * 3) / 2);
+                    grow(1);
                 }
-                for (int i = 0; i < entry.length; ++i)
+                mData[mCurSize++] = v;
+            }
+
+            private void grow(int n)
+            {
+                if (mData == null)
                 {
-                    mData[mCurSize + i] = entry[i];
+                    mData = new float[Math.max(mMinSize, n)];
+                }
+                else if (mCurSize + n > mData.length)
+                {
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + n));
                 }
-                mCurSize += entry.length;
             }
         };
 
@@ -338,7 +360,7 @@ public class X3Dobject {
                 }
                 else if (mCurSize + 1 > mData.length)
                 {
-                    mData = Arrays.copyOf(mData, (mCurSize * 3) / 2);
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + 1));
                 }
                 mData[mCurSize++] = v;
             }
@@ -358,6 +380,10 @@ public class X3Dobject {
         private float mMaxYTexcoord = Float.NEGATIVE_INFINITY;
         private boolean mUseNormals;
         private boolean mUseTexCoords;
+        private boolean mShortIndices;
+        private GVRIndexBuffer mIndexBuffer = null;
+
+        private static final int MAX_SHORT_INDEX_VERTICES = 65536;
 
         MeshCreator(GVRContext ctx, EnumSet<GVRImportSettings> settings)
         {
@@ -365,6 +391,7 @@ public class X3Dobject {
             mVertexBufferDefine = null;
             mUseNormals = !settings.contains(GVRImportSettings.NO_LIGHTING);
             mUseTexCoords = !settings.contains(GVRImportSettings.NO_TEXTURING);
+            mShortIndices = settings.contains(GVRImportSettings.SHORT_INDICES);
         }
 
         void clear()
@@ -387,81 +414,81 @@ public class X3Dobject {
         }
 
         /*
-         * Add a new X3D position index to use in later generating the vertex buffer.
-         * These indices are the same as those in the X3D file.
+         * Add the X3D position indices left in the scanner to use in later
+         * generating the vertex buffer. These indices are the same as those
+         * in the X3D file, the -1 ending each face is left out.
          */
-        void addPositionIndex(int index)
+        void addPositionIndices(X3DNumberScanner numbers)
         {
-            mPositionIndices.add(index);
+            numbers.nextIndices(mPositionIndices);
         }
 
         /*
-         * Add a new X3D normal index to use in later generating vertex buffer.
-         * These indices are the same as those in the X3D file.
+         * Add the X3D normal indices left in the scanner to use in later
+         * generating the vertex buffer.
          */
-        void addNormalIndex(int index)
+        void addNormalIndices(X3DNumberScanner numbers)
         {
             if (mUseNormals)
             {
-                mNormalIndices.add(index);
+                numbers.nextIndices(mNormalIndices);
             }
         }
 
         /*
-         * Add a new X3D texture coordinate index to use in later generating the vertex buffer.
-         * These indices are the same as those in the X3D file.
+         * Add the X3D texture coordinate indices left in the scanner to use
+         * in later generating the vertex buffer.
          */
-        void addTexcoordIndex(int index)
+        void addTexcoordIndices(X3DNumberScanner numbers)
         {
             if (mUseTexCoords) {
-                mTexcoordIndices.add(index);
+                numbers.nextIndices(mTexcoordIndices);
             }
         }
 
         /*
-         * Add a position to the input vertex storage array.
+         * Add the positions left in the scanner to the input vertex storage array.
          * These positions are the same as in the X3D file
          * and they will probably not match the output positions
          * because vertices may be duplicated. X3D keeps a separate
          * index table for positions, normals and texture coordinates.
          * GearVRF keeps a single index table.
          */
-        void addInputPosition(float[] pos)
+        void addInputPositions(X3DNumberScanner numbers)
         {
-            mInputPositions.add(pos);
+            numbers.nextFloats(mInputPositions, 3);
         }
 
         /*
-         * Add a normal to the input vertex storage array.
+         * Add the normals left in the scanner to the input vertex storage array.
          * These normals are the same as in the X3D file
-         * and they will probably not match the output normals
-         * because vertices may be duplicated. X3D keeps a separate
-         * index table for positions, normals and texture coordinates.
-         * GearVRF keeps a single index table.
+         * and they will probably not match the output normals.
          */
-        void addInputNormal(float[] norm)
+        void addInputNormals(X3DNumberScanner numbers)
         {
             if (mUseNormals) {
-                mInputNormals.add(norm);
+                numbers.nextFloats(mInputNormals, 3);
             }
         }
 
         /*
-         * Add a texture coordinate to the input vertex storage array.
-         * These texture coordinates are the same as in the X3D file
-         * and they will probably not match the output texture coordinates
-         * because vertices may be duplicated. X3D keeps a separate
-         * index table for positions, normals and texture coordinates.
-         * GearVRF keeps a single index table.
+         * Add the texture coordinates left in the scanner to the input vertex
+         * storage array. These texture coordinates are the same as in the
+         * X3D file and they will probably not match the output texture coordinates.
          */
-        void addInputTexcoord(float[] tc)
+        void addInputTexcoords(X3DNumberScanner numbers)
         {
             if (mUseTexCoords) {
-                if (tc[1] > mMaxYTexcoord)
+                int start = mInputTexCoords.getSize();
+
+                numbers.nextFloats(mInputTexCoords, 2);
+                for (int i = start + 1; i < mInputTexCoords.getSize(); i += 2)
                 {
-                    mMaxYTexcoord = tc[1];
+                    if (mInputTexCoords.get(i) > mMaxYTexcoord)
+                    {
+                        mMaxYTexcoord = mInputTexCoords.get(i);
+                    }
                 }
-                mInputTexCoords.add(tc);
             }
         }
 
@@ -549,8 +576,9 @@ public class X3Dobject {
          * so there must be the same number of positions, normals
          * and texture coordinates. This function converts the
          * X3D input data into a GVRVertexBuffer and GVRIndexBuffer.
+         * The index buffer is returned by {@link #getIndexBuffer()}.
          */
-        GVRVertexBuffer organizeVertices(GVRIndexBuffer ibuf)
+        GVRVertexBuffer organizeVertices()
         {
             boolean hasTexCoords = mUseTexCoords & (mInputTexCoords.getSize() > 0);;
             boolean hasNormals = mInputNormals.getSize() > 0;
@@ -571,7 +599,7 @@ public class X3Dobject {
              */
             if (!hasTexCoords && !hasNormals)
             {
-                return copyVertices(descriptor, ibuf, mUseNormals);
+                return copyVertices(descriptor, mUseNormals);
             }
             /*
              * If the X3D file does not have normal or texcoord indices,
@@ -582,7 +610,7 @@ public class X3Dobject {
             if ((mTexcoordIndices.getSize() == 0) &&
                 (mNormalIndices.getSize() == 0))
             {
-                return copyVertices(descriptor, ibuf, mUseNormals);
+                return copyVertices(descriptor, mUseNormals);
             }
 
             /*
@@ -591,8 +619,11 @@ public class X3Dobject {
              * vertex table to duplicate vertices in the cases where
              * a position has more than one normal or textoord.
              */
-            Map<String, Integer> vertexMap = new LinkedHashMap<String, Integer>();
-            int[] newIndices = new int[mPositionIndices.getSize()];
+            int numIndices = mPositionIndices.getSize();
+            int[] newIndices = new int[numIndices];
+            int[] vertexTable = new int[hashTableSize(numIndices)];
+            int mask = vertexTable.length - 1;
+            int numVertices = 0;
             float[] pos = new float[3];
             float[] norm = new float[3];
             float[] tc = new float[2];
@@ -601,16 +632,19 @@ public class X3Dobject {
 
             /*
              * Scan all the faces and compose the set of unique vertices
-             * (where a vertex has a position, normal and texcoord)
+             * (where a vertex has a position, normal and texcoord).
+             * The vertices are found in an open addressing hash table
+             * keyed on the bits of their floats. Each slot holds the
+             * output vertex index + 1, 0 marks an empty slot.
              */
             mOutputPositions.setCapacity(mInputPositions.getSize());
-            for (char f = 0; f < mPositionIndices.getSize(); f++)
+            for (int f = 0; f < numIndices; f++)
             {
-                String key = "";
                 int vindex = mPositionIndices.get(f) * 3;
+                int hash;
 
                 mInputPositions.get(vindex, pos);
-                key += String.valueOf(pos[0]) + String.valueOf(pos[1]) + String.valueOf(pos[2]);
+                hash = hashFloats(0, pos);
                 if (hasTexCoords)
                 {
                     int tindex = texcoordIndices[f] * 2;
@@ -618,28 +652,42 @@ public class X3Dobject {
                     // flip the Y texture coordinate
                     //tc[1] = -tc[1];
                     tc[1] = mMaxYTexcoord - tc[1];
-                    key += String.valueOf(tc[0]) + String.valueOf(tc[1]);
+                    hash = hashFloats(hash, tc);
                 }
                 if (hasNormals)
                 {
                     int nindex = normalIndices[f] * 3;
                     mInputNormals.get(nindex, norm);
-                    key += String.valueOf(norm[0]) + String.valueOf(norm[1]) + String.valueOf(norm[2]);
+                    hash = hashFloats(hash, norm);
                 }
-                Integer newindex = vertexMap.get(key);
-                if (newindex == null)
+                int slot = hash & mask;
+                int newindex;
+
+                while (true)
                 {
-                    newindex = vertexMap.size();
-                    vertexMap.put(key, newindex);
-                    mOutputPositions.add(pos);
-                    if (hasNormals)
+                    newindex = vertexTable[slot] - 1;
+                    if (newindex < 0)
                     {
-                        mOutputNormals.add(norm);
+                        newindex = numVertices++;
+                        vertexTable[slot] = numVertices;
+                        mOutputPositions.add(pos);
+                        if (hasNormals)
+                        {
+                            mOutputNormals.add(norm);
+                        }
+                        if (hasTexCoords)
+                        {
+                            mOutputTexCoords.add(tc);
+                        }
+                        break;
                     }
-                    if (hasTexCoords)
+                    if (sameFloats(mOutputPositions, newindex * 3, pos) &&
+                        (!hasTexCoords || sameFloats(mOutputTexCoords, newindex * 2, tc)) &&
+                        (!hasNormals || sameFloats(mOutputNormals, newindex * 3, norm)))
                     {
-                        mOutputTexCoords.add(tc);
+                        break;
                     }
+                    slot = (slot + 1) & mask;
                 }
                 newIndices[f] = newindex;
             }
@@ -661,11 +709,83 @@ public class X3Dobject {
             {
                 vbuffer.setFloatArray("a_texcoord", mOutputTexCoords.array(), 2, 0);
             }
-            ibuf.setIntVec(newIndices);
+            mIndexBuffer = makeIndexBuffer(newIndices, numIndices, numVertices);
             clear();
             return vbuffer;
         }
 
+        /*
+         * Get the index buffer made by the last call to organizeVertices.
+         */
+        GVRIndexBuffer getIndexBuffer()
+        {
+            return mIndexBuffer;
+        }
+
+        /*
+         * Make an index buffer with the first count indices.
+         * The indices are 16 bits if the SHORT_INDICES import setting
+         * is used and there are few enough vertices, 32 bits otherwise.
+         */
+        private GVRIndexBuffer makeIndexBuffer(int[] indices, int count, int numVertices)
+        {
+            GVRIndexBuffer ibuf;
+
+            if (mShortIndices && (numVertices <= MAX_SHORT_INDEX_VERTICES))
+            {
+                char[] shortIndices = new char[count];
+
+                for (int i = 0; i < count; ++i)
+                {
+                    shortIndices[i] = (char) indices[i];
+                }
+                ibuf = new GVRIndexBuffer(mContext, 2, count);
+                ibuf.setShortVec(shortIndices);
+            }
+            else
+            {
+                ibuf = new GVRIndexBuffer(mContext, 4, count);
+                ibuf.setIntVec((count == indices.length) ? indices : Arrays.copyOf(indices, count));
+            }
+            return ibuf;
+        }
+
+        /*
+         * Size of the vertex hash table, a power of two at
+         * least twice the largest possible number of vertices.
+         */
+        private static int hashTableSize(int maxVertices)
+        {
+            int size = 16;
+
+            while (size < 2 * maxVertices)
+            {
+                size <<= 1;
+            }
+            return size;
+        }
+
+        private static int hashFloats(int hash, float[] values)
+        {
+            for (float v : values)
+            {
+                hash = (hash ^ Float.floatToIntBits(v)) * 0x9E3779B1;
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean sameFloats(FloatArray array, int index, float[] values)
+        {
+            for (int i = 0; i < values.length; ++i)
+            {
+                if (Float.floatToIntBits(array.get(index + i)) != Float.floatToIntBits(values[i]))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         /*
          * Create a vertex and index buffer from the X3D indices,
          * and positions.
@@ -679,7 +799,7 @@ public class X3Dobject {
          * coordinates, the order of the vertices is the same as in
          * the X3D file.
          */
-        public GVRVertexBuffer copyVertices(String descriptor, GVRIndexBuffer ibuf, boolean makeNormals)
+        public GVRVertexBuffer copyVertices(String descriptor, boolean makeNormals)
         {
             GVRVertexBuffer vbuffer = new GVRVertexBuffer(mContext, descriptor, mInputPositions.getSize() / 3);
             if (mVertexBufferDefine != null)
@@ -716,7 +836,8 @@ public class X3Dobject {
                 }
                 vbuffer.setFloatArray("a_texcoord", texCoords, 2, 0);
             }
-            ibuf.setIntVec(mPositionIndices.array());
+            mIndexBuffer = makeIndexBuffer(mPositionIndices.array(), mPositionIndices.getSize(),
+                                           mInputPositions.getSize() / 3);
             clear();
             return vbuffer;
         }
@@ -762,10 +883,6 @@ public class X3Dobject {
     private final static int indexedFaceSetComponent = 4;
     private final static int normalIndexComponent = 5;
     private final static int textureIndexComponent = 6;
-    private final static int interpolatorKeyComponent = 7;
-    private final static int interpolatorKeyValueComponent = 8;
-    private final static int LODComponent = 9;
-    private final static int elevationGridHeight = 10;
     private boolean reorganizeVerts = false;
 
     private static final float CUBE_WIDTH = 20.0f; // used for cube maps
@@ -826,9 +943,8 @@ public class X3Dobject {
     private GVRTexture gvrTexture = null;
     private ArrayList<ScriptObject> scriptObjects = new ArrayList<ScriptObject>();
 
-    private Vector<Key> keys = new Vector<Key>();
-    private Vector<KeyValue> keyValues = new Vector<KeyValue>();
-    private Vector<Float> floatArray = new Vector<Float>();
+    private X3DNumberScanner numberScanner = new X3DNumberScanner();
+    private MeshCreator.FloatArray floatArray = new MeshCreator.FloatArray(64);
 
     private Vector<TimeSensor> timeSensors = new Vector<TimeSensor>();
     private Vector<Interpolator> interpolators = new Vector<Interpolator>();
@@ -971,22 +1087,6 @@ public class X3Dobject {
     /*********************************************/
 
 
-    private void AddKeys(float key)
-
-    {
-        Key newKey = new Key(key);
-        keys.add(newKey);
-    }
-
-
-    private void AddKeyValues(float[] values)
-
-    {
-        KeyValue newKeyValue = new KeyValue(values);
-        keyValues.add(newKeyValue);
-    }
-
-
     /**
      * @author m1.williams
      *         Java SAX parser interface
@@ -997,64 +1097,20 @@ public class X3Dobject {
 
         private float[] parseFixedLengthFloatString(String numberString,
                                                     int componentCount, boolean constrained0to1, boolean zeroOrGreater) {
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
             float componentFloat[] = new float[componentCount];
-            try {
-                for (int i = 0; i < componentCount; i++) {
-                    if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                        componentFloat[i] = (float) st.nval;
-                    } else { // check for an exponent 'e'
-                        if (tokenType == StreamTokenizer.TT_WORD) {
-                            String word = st.sval;
-                            if (word.startsWith("e-")) { // negative exponent
-                                String exponentString = word.substring(2, word.length());
-                                try {
-                                    --i; // with this exponent, we are still working with the
-                                    // previous number
-                                    Integer exponentInt = Integer.parseInt(exponentString);
-                                    componentFloat[i] *= (float) Math
-                                            .pow(10, -exponentInt.intValue());
-                                } catch (NumberFormatException e) {
-                                    Log.e(TAG,
-                                            "parsing fixed length string, exponent number conversion error: "
-                                                    + exponentString);
-                                }
-                            } else if (word.equalsIgnoreCase("e")) { // exponent with plus sign
-                                tokenType = st.nextToken();
-                                if (tokenType == 43) { // "+" plus sign
-                                    if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                                        --i; // with this exponent, we are still working with the
-                                        // previous number
-                                        float exponent = (float) st.nval;
-                                        componentFloat[i] *= (float) Math.pow(10, exponent);
-                                    } else {
-                                        st.pushBack();
-                                        Log.e(TAG,
-                                                "Error: exponent in X3D parser with fixed length float");
-                                    }
-                                } else
-                                    st.pushBack();
-                            } else
-                                st.pushBack();
-                        }
-                    } // end check for 'e' exponent
-                    if (constrained0to1) {
-                        if (componentFloat[i] < 0)
-                            componentFloat[i] = 0;
-                        else if (componentFloat[i] > 1)
-                            componentFloat[i] = 1;
-                    } else if (zeroOrGreater) {
-                        if (componentFloat[i] < 0)
-                            componentFloat[i] = 0;
-                    }
-                } // end for-loop
-            } // end 'try'
-            catch (IOException e) {
-                Log.d(TAG, "Error parsing fixed length float string: " + e);
-            }
+            numberScanner.reset(numberString);
+            for (int i = 0; (i < componentCount) && numberScanner.hasNext(); i++) {
+                componentFloat[i] = numberScanner.nextFloat();
+                if (constrained0to1) {
+                    if (componentFloat[i] < 0)
+                        componentFloat[i] = 0;
+                    else if (componentFloat[i] > 1)
+                        componentFloat[i] = 1;
+                } else if (zeroOrGreater) {
+                    if (componentFloat[i] < 0)
+                        componentFloat[i] = 0;
+                }
+            } // end for-loop
             return componentFloat;
         } // end parseFixedLengthFloatString
 
@@ -1117,167 +1173,35 @@ public class X3Dobject {
         } // end parseMFString
 
         private int parseIntegerString(String numberString) {
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
-            int returnValue = 0;
-
-            try {
-                if ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                    if (tokenType == StreamTokenizer.TT_NUMBER) {
-                        returnValue = (int) st.nval;
-                    }
-                }
-            }
-            catch (IOException e) {
-                Log.e(TAG, "Error: parseIntegerString - " + e);
-            }
-            return returnValue;
+            numberScanner.reset(numberString);
+            return numberScanner.hasNext() ? numberScanner.nextInt() : 0;
         } // end parseIntegerString
 
         private void parseNumbersString(String numberString, int componentType,
                                         int componentCount) {
-            //preprocessing to get rid of 'e' or 'E' exponent
-            // otherwise the SAX parser splits 3e-2 (which is .03) into two
-            // number, 3 and -2.
-            if ( (numberString.indexOf('e') != -1) || (numberString.indexOf('E') != -1) ) {
-                int stringPos = 0;
-                String newReplacementString = "";
-                // we do assume the numberString won't be mixing 'e' and 'E'
-                // but we want to handle any either character
-                char eChar = 'e';
-                if ( numberString.indexOf('E') != -1 ) eChar = 'E';
-                while (numberString.indexOf(eChar, stringPos) != -1)  {
-                    int ePos = numberString.indexOf(eChar, stringPos);
-                    // check for the first space or comma before 'e'.
-                    int prevSpaceBefore_e = Math.max( (numberString.lastIndexOf(' ', ePos)), (numberString.lastIndexOf(',', ePos)) );
-                    prevSpaceBefore_e++;
-                    // Copy from the current position until the comma or space before the 'e'
-                    newReplacementString += numberString.substring(stringPos, prevSpaceBefore_e);
-                    // check for the next space or comma after 'e'.
-                    // Otherwise, we might be at the end of the string.
-                    int nextSpaceAfter_e = Math.min( (numberString.indexOf(' ', ePos)), (numberString.indexOf(',', ePos)) );
-                    if (nextSpaceAfter_e == -1) {
-                        // at the end of the original string, find the last space, comma or EOL of the string
-                        nextSpaceAfter_e = Math.max( (numberString.indexOf(' ', ePos)), (numberString.indexOf(',', ePos)) );
-                        if (nextSpaceAfter_e == -1) nextSpaceAfter_e = Math.max( nextSpaceAfter_e, numberString.length() );
-                    }
-                    String exponentString = numberString.substring(ePos+1, nextSpaceAfter_e);
-                    try {
-                        double newReplacementNumber =
-                                ( (float) (new Float( numberString.substring(prevSpaceBefore_e, ePos) )) )
-                                        * Math.pow(10, (int) (new Integer(exponentString)) );
-                        // At < 1/1000th, it might be more efficient as 0.
-                        if ( Math.abs(newReplacementNumber) < .001 ) newReplacementNumber = 0;
-                        newReplacementString += " " + newReplacementNumber + " ";
-                    }
-                    catch (java.lang.NumberFormatException exception) {
-                        Log.e(TAG, "NumberFormatException in " + numberString.substring(prevSpaceBefore_e, nextSpaceAfter_e) + "; " + exception);
-                    }
-                    catch (Exception exception) {
-                        Log.e(TAG, "Exception in " + numberString.substring(prevSpaceBefore_e, nextSpaceAfter_e) + "; " + exception);
-                    }
-                    stringPos = nextSpaceAfter_e;
-                }
-                // Add any remainder of a string
-                numberString = newReplacementString + numberString.substring(stringPos, numberString.length());
-            }
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
-            short componentShort[] = new short[componentCount];
-            float componentFloat[] = new float[componentCount];
-            try {
-                int index = 0;
-                while ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                    if (tokenType == StreamTokenizer.TT_NUMBER) {
-
-                        // first componentType's parse for short values
-                        // (integers) and will have no exponents
-
-                        if (componentType == X3Dobject.indexedFaceSetComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addPositionIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.textureIndexComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addTexcoordIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.normalIndexComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addNormalIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        }
-
-                        // The rest of these will be parsing floats that could
-                        // have 'e' exponent value.  3DSMax will export X3D/VRML
-                        // with the 'e' exponent
-                        //TODO: check for 'e' exponent values.
-
-                        else if (componentType == X3Dobject.verticesComponent) {
-                            componentFloat[index] = (float) (st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputPosition(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.textureCoordComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputTexcoord(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.normalsComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputNormal(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeys(componentFloat[0]);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyValueComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeyValues(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.LODComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            AddKeys(componentFloat[0]);
-                        } else if (componentType == X3Dobject.elevationGridHeight) {
-                            floatArray.add(new Float((float) st.nval));
-                        }
-
-                    } // end if token = number
-                } // end while loop
-            } // end try statement
-            catch (IOException e) {
-                Log.e(TAG, "Error: parseNumbersString - " + e);
+            // the scanner reads exponents such as 3e-2 written by 3DSMax
+            numberScanner.reset(numberString);
+            if (componentType == X3Dobject.indexedFaceSetComponent) {
+                meshCreator.addPositionIndices(numberScanner);
+            } else if (componentType == X3Dobject.textureIndexComponent) {
+                meshCreator.addTexcoordIndices(numberScanner);
+            } else if (componentType == X3Dobject.normalIndexComponent) {
+                meshCreator.addNormalIndices(numberScanner);
+            } else if (componentType == X3Dobject.verticesComponent) {
+                meshCreator.addInputPositions(numberScanner);
+            } else if (componentType == X3Dobject.textureCoordComponent) {
+                meshCreator.addInputTexcoords(numberScanner);
+            } else if (componentType == X3Dobject.normalsComponent) {
+                meshCreator.addInputNormals(numberScanner);
             }
         } // parseNumbersString
 
+        // multi-field float string, componentCount floats per value
+        private float[] parseFloatArrayString(String numberString, int componentCount) {
+            numberScanner.reset(numberString);
+            return numberScanner.toFloatArray(componentCount, floatArray);
+        }
+
         private void ReplicateGVRSceneObjStructure(String attributeValue) {
             // TODO: needs to complete implementation.  May instead
             // become a clone() or copy() function in GVRSceneObject
@@ -1831,7 +1755,6 @@ public class X3Dobject {
                 if (attributeValue != null) { // shared GVRIndexBuffer / GVRMesh
                     indexedSetUSEName = attributeValue;
                 } else {
-                    gvrIndexBuffer = new GVRIndexBuffer(gvrContext, 4, 0);
                     attributeValue = attributes.getValue("DEF");
                     if (attributeValue != null) {
                         indexedSetDEFName = attributeValue;
@@ -2571,29 +2494,11 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("key");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-
-                        keysList = new float[keys.size()];
-                        for (int i = 0; i < keysList.length; i++) {
-                            Key keyObject = keys.get(i);
-                            keysList[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        keysList = parseFloatArrayString(attributeValue, 1);
                     }
                     attributeValue = attributes.getValue("keyValue");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue,
-                                X3Dobject.interpolatorKeyValueComponent, 3);
-
-                        keyValuesList = new float[keyValues.size() * 3];
-                        for (int i = 0; i < keyValues.size(); i++) {
-                            KeyValue keyValueObject = keyValues.get(i);
-                            for (int j = 0; j < 3; j++) {
-                                keyValuesList[i * 3 + j] = keyValueObject.keyValues[j];
-                            }
-                        }
-                        keyValues.clear();
+                        keyValuesList = parseFloatArrayString(attributeValue, 3);
                     }
                     Interpolator newInterporlator = new Interpolator(name, keysList,
                             keyValuesList);
@@ -2614,29 +2519,11 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("key");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-
-                        keysList = new float[keys.size()];
-                        for (int i = 0; i < keysList.length; i++) {
-                            Key keyObject = keys.get(i);
-                            keysList[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        keysList = parseFloatArrayString(attributeValue, 1);
                     }
                     attributeValue = attributes.getValue("keyValue");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue,
-                                X3Dobject.interpolatorKeyValueComponent, 4);
-
-                        keyValuesList = new float[keyValues.size() * 4];
-                        for (int i = 0; i < keyValues.size(); i++) {
-                            KeyValue keyValueObject = keyValues.get(i);
-                            for (int j = 0; j < 4; j++) {
-                                keyValuesList[i * 4 + j] = keyValueObject.keyValues[j];
-                            }
-                        }
-                        keyValues.clear();
+                        keyValuesList = parseFloatArrayString(attributeValue, 4);
                     }
                     Interpolator newInterporlator = new Interpolator(name, keysList,
                             keyValuesList);
@@ -2878,16 +2765,7 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("length");
                     if (attributeValue != null) {
-                        float[] length = null;
-                        // reusing the keys parsing here cause it works
-                        parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-                        length = new float[keys.size()];
-                        for (int i = 0; i < length.length; i++) {
-                            Key keyObject = keys.get(i);
-                            length[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        float[] length = parseFloatArrayString(attributeValue, 1);
                         Log.e(TAG, "Text 'length' attribute currently not implemented.");
                     }
                     attributeValue = attributes.getValue("maxExtent");
@@ -3090,15 +2968,11 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("range");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue, X3Dobject.LODComponent, 1);
-                        range = new float[keys.size() + 2];
+                        float[] ranges = parseFloatArrayString(attributeValue, 1);
+                        range = new float[ranges.length + 2];
                         range[0] = 0;
-                        for (int i = 0; i < keys.size(); i++) {
-                            Key keyObject = keys.get(i);
-                            range[i + 1] = keyObject.key;
-                        }
+                        System.arraycopy(ranges, 0, range, 1, ranges.length);
                         range[range.length - 1] = Float.MAX_VALUE;
-                        keys.clear();
                     }
                     lodManager.set(range, center);
 
@@ -3558,13 +3432,9 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("height");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue, X3Dobject.elevationGridHeight,
-                                xDimension * zDimension);
+                        float[] heights = parseFloatArrayString(attributeValue, 1);
                         height = new float[(xDimension + 1) * (zDimension + 1)];
-                        for (int i = 0; i < height.length; i++) {
-                            height[i] = floatArray.get(i);
-                        }
-                        floatArray.clear();
+                        System.arraycopy(heights, 0, height, 0, Math.min(heights.length, height.length));
                     }
 
                     if (height != null) {
@@ -4185,7 +4055,8 @@ public class X3Dobject {
                 }
                 else {
                     if (reorganizeVerts) {
-                        gvrVertexBuffer = meshCreator.organizeVertices(gvrIndexBuffer);
+                        gvrVertexBuffer = meshCreator.organizeVertices();
+                        gvrIndexBuffer = meshCreator.getIndexBuffer();
                         reorganizeVerts = false;
                     }
                     GVRMesh mesh = new GVRMesh(gvrContext, gvrVertexBuffer.getDescriptor());
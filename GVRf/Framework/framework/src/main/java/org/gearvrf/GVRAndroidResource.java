@@ -16,6 +16,7 @@
 package org.gearvrf;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.util.TypedValue;
@@ -27,10 +28,13 @@ import org.gearvrf.utility.MarkingFileInputStream;
 
 import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * A class to minimize overload fan-out.
@@ -403,6 +407,77 @@ public class GVRAndroidResource {
         }
     }
 
+    /**
+     * Map the contents of the resource into memory without reading it.
+     * <p>
+     * Only files and resources or assets stored uncompressed in the APK
+     * can be mapped. The mapping stays valid after the file is closed
+     * and its pages are not on the Java heap.
+     *
+     * @return read only buffer with the contents of the resource or null
+     *         if the resource cannot be mapped and has to be read with
+     *         {@link #getStream()}.
+     */
+    synchronized ByteBuffer mapContents()
+    {
+        try
+        {
+            switch (resourceType)
+            {
+                case LINUX_FILESYSTEM:
+                    FileInputStream in = new FileInputStream(filePath);
+                    try
+                    {
+                        FileChannel channel = in.getChannel();
+                        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                    finally
+                    {
+                        in.close();
+                    }
+
+                case ANDROID_ASSETS:
+                    return mapContents(context.getResources().getAssets().openFd(assetPath));
+
+                case ANDROID_RESOURCE:
+                    return mapContents(context.getResources().openRawResourceFd(resourceId));
+
+                default:
+                    return null;
+            }
+        }
+        catch (IOException ex)
+        {
+            // compressed assets cannot be opened as file descriptors
+            Log.d(TAG, "Cannot map %s, reading it: %s", this, ex.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer mapContents(AssetFileDescriptor afd) throws IOException
+    {
+        if (afd == null)
+        {
+            return null;
+        }
+        FileInputStream in = afd.createInputStream();
+        try
+        {
+            FileChannel channel = in.getChannel();
+            long length = afd.getLength();
+
+            if (length == AssetFileDescriptor.UNKNOWN_LENGTH)
+            {
+                length = channel.size() - afd.getStartOffset();
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), length);
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
     /**
      * Save the stream position, for later use with {@link #reset()}.
      * 
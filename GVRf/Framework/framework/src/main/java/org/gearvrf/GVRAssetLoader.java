@@ -38,7 +38,6 @@ import org.gearvrf.utility.Threads;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -49,9 +48,13 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
@@ -75,6 +78,113 @@ public final class GVRAssetLoader {
      */
     private final GVRTextureParameters mDefaultTextureParameters;
 
+    /**
+     * Time taken by each stage of loading a model, in milliseconds,
+     * and how many of its meshes and materials are shared.
+     * <p>
+     * The times are complete when {@link IAssetEvents#onAssetLoaded} is called.
+     * Get them from {@link AssetRequest#getLoadTimes()} or, for models loaded
+     * into a {@link GVRModelSceneObject}, {@link GVRModelSceneObject#getLoadTimes()}.
+     * Mesh conversion runs on several threads while the scene graph is assembled,
+     * so its time is the sum over all the threads and may be longer than
+     * the scene assembly which waits for it.
+     */
+    public static class LoadTimes
+    {
+        private final long mStartTime = System.nanoTime();
+        private long    mModelLoadedTime = 0;
+        private float   mParseTime = 0;
+        private float   mMeshConversionTime = 0;
+        private int     mMeshThreads = 0;
+        private float   mSceneAssemblyTime = 0;
+        private float   mTextureTime = 0;
+        private float   mTotalTime = 0;
+        private boolean mFromCache = false;
+        private int     mUniqueMeshes = 0;
+        private int     mMeshReferences = 0;
+        private int     mUniqueMaterials = 0;
+        private int     mMaterialReferences = 0;
+
+        /** @return time taken to read and parse the file, or to read the model cache */
+        public float getParseTime()             { return mParseTime; }
+
+        /** @return time taken converting meshes and bones, summed over all threads */
+        public float getMeshConversionTime()    { return mMeshConversionTime; }
+
+        /** @return number of pool threads which helped the loading thread convert meshes */
+        public int getMeshThreads()             { return mMeshThreads; }
+
+        /** @return time taken to build the scene graph, including waiting for meshes */
+        public float getSceneAssemblyTime()     { return mSceneAssemblyTime; }
+
+        /** @return time from the model being loaded until its textures were loaded */
+        public float getTextureTime()           { return mTextureTime; }
+
+        /** @return time from the request until the asset was loaded */
+        public float getTotalTime()             { return mTotalTime; }
+
+        /** @return true if the model was loaded from the model cache instead of being imported */
+        public boolean isFromCache()            { return mFromCache; }
+
+        /** @return number of meshes made, nodes which reference the same mesh share it */
+        public int getUniqueMeshCount()         { return mUniqueMeshes; }
+
+        /** @return number of scene objects with a mesh */
+        public int getMeshReferenceCount()      { return mMeshReferences; }
+
+        /** @return number of materials made, meshes with the same material share it */
+        public int getUniqueMaterialCount()     { return mUniqueMaterials; }
+
+        /** @return number of scene objects with a material */
+        public int getMaterialReferenceCount()  { return mMaterialReferences; }
+
+        void setParseTime(float time)           { mParseTime = time; }
+
+        void setFromCache(boolean fromCache)    { mFromCache = fromCache; }
+
+        void setMeshConversionTime(float time, int threads)
+        {
+            mMeshConversionTime = time;
+            mMeshThreads = threads;
+        }
+
+        void setSceneAssemblyTime(float time)   { mSceneAssemblyTime = time; }
+
+        void setSharing(int uniqueMeshes, int meshReferences, int uniqueMaterials, int materialReferences)
+        {
+            mUniqueMeshes = uniqueMeshes;
+            mMeshReferences = meshReferences;
+            mUniqueMaterials = uniqueMaterials;
+            mMaterialReferences = materialReferences;
+        }
+
+        void modelLoaded()
+        {
+            mModelLoadedTime = System.nanoTime();
+        }
+
+        void assetLoaded()
+        {
+            long now = System.nanoTime();
+            if (mModelLoadedTime != 0)
+            {
+                mTextureTime = (now - mModelLoadedTime) / 1000000.0f;
+            }
+            mTotalTime = (now - mStartTime) / 1000000.0f;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(Locale.US,
+                    "%s %.1f ms, meshes %.1f ms on %d threads, scene %.1f ms, textures %.1f ms, total %.1f ms, " +
+                    "%d meshes for %d references, %d materials for %d references",
+                    mFromCache ? "cache read" : "parse", mParseTime, mMeshConversionTime, mMeshThreads + 1,
+                    mSceneAssemblyTime, mTextureTime, mTotalTime,
+                    mUniqueMeshes, mMeshReferences, mUniqueMaterials, mMaterialReferences);
+        }
+    }
+
     /**
      * Loads textures and listens for texture load events.
      * Raises the "onAssetLoaded" event after all textures have been loaded.
@@ -95,6 +205,7 @@ public final class GVRAssetLoader {
         protected boolean                 mReplaceScene = false;
         protected boolean                 mCacheEnabled = true;
         protected EnumSet<GVRImportSettings> mSettings = null;
+        protected final LoadTimes         mLoadTimes = new LoadTimes();
 
 
         /**
@@ -125,6 +236,7 @@ public final class GVRAssetLoader {
         public boolean replaceScene()           { return mReplaceScene; }
         public GVRResourceVolume getVolume()    { return mVolume; }
         public EnumSet<GVRImportSettings> getImportSettings()  { return mSettings; }
+        public LoadTimes getLoadTimes()         { return mLoadTimes; }
 
         public void setImportSettings(EnumSet<GVRImportSettings> settings)
         {
@@ -255,6 +367,7 @@ public final class GVRAssetLoader {
          */
         public void onModelLoaded(GVRContext context, GVRSceneObject model, String modelFile) {
             mModel = model;
+            mLoadTimes.modelLoaded();
             Log.d(TAG, "ASSET: successfully loaded model %s %d", modelFile, mNumTextures);
             if (mUserHandler != null)
             {
@@ -391,6 +504,13 @@ public final class GVRAssetLoader {
         private void generateLoadEvent()
         {
             String errors = !"".equals(mErrors) ? mErrors : null;
+
+            mLoadTimes.assetLoaded();
+            Log.d(TAG, "ASSET: %s loaded, %s", mFileName, mLoadTimes);
+            if (mModel instanceof GVRModelSceneObject)
+            {
+                ((GVRModelSceneObject) mModel).setLoadTimes(mLoadTimes);
+            }
             if (mModel != null)
             {
                 if ((mScene != null))
@@ -522,8 +642,43 @@ public final class GVRAssetLoader {
     }
 
 
+    /**
+     * Estimates the size of a cached image from its pixel data.
+     */
+    public static final ResourceCacheBase.SizeEstimator<GVRImage> IMAGE_SIZE =
+            new ResourceCacheBase.SizeEstimator<GVRImage>()
+    {
+        @Override
+        public long sizeOf(GVRImage image)
+        {
+            return image.getDataSize();
+        }
+    };
+
+    /**
+     * Estimates the size of a cached mesh from its vertices and indices.
+     */
+    public static final ResourceCacheBase.SizeEstimator<GVRMesh> MESH_SIZE =
+            new ResourceCacheBase.SizeEstimator<GVRMesh>()
+    {
+        @Override
+        public long sizeOf(GVRMesh mesh)
+        {
+            GVRVertexBuffer vbuf = mesh.getVertexBuffer();
+            GVRIndexBuffer ibuf = mesh.getIndexBuffer();
+            long size = (vbuf != null) ? vbuf.getDataSize() : 0;
+
+            if (ibuf != null)
+            {
+                size += (long) ibuf.getIndexCount() * ibuf.getIndexSize();
+            }
+            return size;
+        }
+    };
+
     protected GVRContext mContext;
     protected static ResourceCache<GVRImage> mTextureCache = new ResourceCache<GVRImage>();
+    protected static long mTextureCacheBudget = 0;
     protected ResourceCacheBase<GVRMesh> mMeshCache = new ResourceCacheBase<>();
     protected static HashMap<String, GVRImage> mEmbeddedCache = new HashMap<String, GVRImage>();
     protected static GVRBitmapImage mDefaultImage = null;
@@ -539,6 +694,7 @@ public final class GVRAssetLoader {
             @Override
             public void run() {
                 mTextureCache = new ResourceCache<GVRImage>();
+                mTextureCache.setBudget(mTextureCacheBudget, IMAGE_SIZE);
                 mEmbeddedCache = new HashMap<String, GVRImage>();
                 mDefaultImage = null;
             }
@@ -555,6 +711,60 @@ public final class GVRAssetLoader {
         mDefaultTextureParameters = new GVRTextureParameters(context);
     }
 
+    /**
+     * Keep recently loaded textures in memory up to a budget.
+     * <p>
+     * Without a budget the texture cache only holds weak references
+     * and textures are loaded again once the garbage collector has
+     * freed them. With a budget the most recently used textures
+     * are kept until their estimated size exceeds it, the least
+     * recently used are released first. The budget applies to all
+     * the textures loaded by {@link #loadTexture} and by the models
+     * imported with {@link #loadModel}.
+     *
+     * @param maxBytes number of bytes of image data to keep,
+     *                 0 to only keep textures which are in use
+     * @see #getTextureCache()
+     */
+    public static void setTextureCacheBudget(long maxBytes)
+    {
+        mTextureCacheBudget = maxBytes;
+        mTextureCache.setBudget(maxBytes, IMAGE_SIZE);
+    }
+
+    /**
+     * Keep recently loaded meshes in memory up to a budget.
+     * The budget applies to the meshes loaded by {@link #loadMesh}.
+     *
+     * @param maxBytes number of bytes of vertex and index data to keep,
+     *                 0 to only keep meshes which are in use
+     * @see #setTextureCacheBudget(long)
+     */
+    public void setMeshCacheBudget(long maxBytes)
+    {
+        mMeshCache.setBudget(maxBytes, MESH_SIZE);
+    }
+
+    /**
+     * Get the cache shared by all the textures loaded.
+     * Use it to pin textures and to read the hit, miss
+     * and eviction counts.
+     * @return texture cache
+     */
+    public static ResourceCacheBase<GVRImage> getTextureCache()
+    {
+        return mTextureCache;
+    }
+
+    /**
+     * Get the cache of the meshes loaded by {@link #loadMesh}.
+     * @return mesh cache
+     */
+    public ResourceCacheBase<GVRMesh> getMeshCache()
+    {
+        return mMeshCache;
+    }
+
     /**
      * Get the embedded texture cache.
      * This is an internal routine used during asset loading for processing
@@ -912,37 +1122,91 @@ public final class GVRAssetLoader {
     // IO Handler for Jassimp
     static class ResourceStream implements AiIOStream
     {
-        protected final GVRAndroidResource resource;
-        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private static final int MIN_READ_SIZE = 64 * 1024;
 
+        protected final GVRAndroidResource resource;
+        private ByteBuffer mapped;
+        private byte[] data;
+        private int size = 0;
+
+        /*
+         * Files and uncompressed assets are mapped and copied once,
+         * straight into the buffer Assimp allocates. Other resources
+         * are read into a single array.
+         */
         ResourceStream(GVRResourceVolume v, String path) throws IOException
         {
             resource = v.openResource(path);
+            mapped = resource.mapContents();
+            if (mapped != null)
+            {
+                size = mapped.capacity();
+                return;
+            }
             InputStream stream = resource.getStream();
             if (stream == null)
             {
                 throw new IOException("Cannot open " + path);
             }
-            int read;
-            byte[] data = new byte[1024];
-            while((read = stream.read(data, 0, data.length)) != -1)
+            try
+            {
+                int read;
+                data = new byte[Math.max(stream.available(), MIN_READ_SIZE)];
+                while (true)
+                {
+                    if (size == data.length)
+                    {
+                        // only grow the array if the stream is longer than expected
+                        if ((read = stream.read()) == -1)
+                        {
+                            break;
+                        }
+                        data = Arrays.copyOf(data, 2 * data.length);
+                        data[size++] = (byte) read;
+                    }
+                    if ((read = stream.read(data, size, data.length - size)) == -1)
+                    {
+                        break;
+                    }
+                    size += read;
+                }
+            }
+            finally
             {
-                output.write(data, 0, read);
+                resource.closeStream();
             }
-            output.flush();
-            resource.closeStream();
         }
 
-        public int getFileSize() { return output.size(); }
+        public int getFileSize() { return size; }
 
         public boolean read(ByteBuffer buffer)
         {
-            if (output.size() > 0)
+            if (size <= 0)
+            {
+                return false;
+            }
+            if (mapped != null)
+            {
+                buffer.put(mapped.duplicate());
+            }
+            else if (data != null)
+            {
+                buffer.put(data, 0, size);
+            }
+            else
             {
-                buffer.put(output.toByteArray());
-                return true;
+                return false;
             }
-            return false;
+            return true;
+        }
+
+        /**
+         * Drop the contents once the importer has closed the file.
+         */
+        void release()
+        {
+            mapped = null;
+            data = null;
         }
     };
 
@@ -952,6 +1216,7 @@ public final class GVRAssetLoader {
         protected Throwable lastError = null;
         protected final GVRResourceVolume volume;
         protected final HashMap<String, ResourceStream> cache = new HashMap<>();
+        protected final List<String> opened = new ArrayList<>();
 
         ResourceVolumeIO(GVRResourceVolume v)
         {
@@ -974,6 +1239,10 @@ public final class GVRAssetLoader {
             {
                 rs = new ResourceStream(volume, path);
                 cache.put(path, rs);
+                if (!opened.contains(path))
+                {
+                    opened.add(path);
+                }
                 return rs;
             }
             catch (IOException ex)
@@ -985,7 +1254,16 @@ public final class GVRAssetLoader {
 
         public void close(ResourceStream rs)
         {
-            cache.remove(rs);
+            Iterator<Map.Entry<String, ResourceStream>> iter = cache.entrySet().iterator();
+
+            while (iter.hasNext())
+            {
+                if (iter.next().getValue() == rs)
+                {
+                    iter.remove();
+                }
+            }
+            rs.release();
         }
 
         public boolean exists(String path)
@@ -994,6 +1272,11 @@ public final class GVRAssetLoader {
         }
 
         public Throwable getLastError() { return lastError; }
+
+        /**
+         * @return paths of all the files opened by the importer
+         */
+        public List<String> getOpenedFiles() { return opened; }
     };
 
     /**
@@ -1771,14 +2054,28 @@ public final class GVRAssetLoader {
         org.gearvrf.jassimp.AiScene assimpScene = null;
         String filePath = request.getBaseName();
         GVRJassimpAdapter jassimpAdapter = new GVRJassimpAdapter(this, filePath);
+        GVRModelCache modelCache = null;
+        int firstChild = model.getChildrenCount();
 
         model.setName(filePath);
+        if (request.getImportSettings().contains(GVRImportSettings.USE_MODEL_CACHE))
+        {
+            modelCache = new GVRModelCache(mContext, request.getVolume(), request.getImportSettings());
+            if (modelCache.load(request, model, jassimpAdapter))
+            {
+                request.onModelLoaded(mContext, model, filePath);
+                return model;
+            }
+            jassimpAdapter.setModelCache(modelCache);
+        }
         ResourceVolumeIO jassimpIO = new ResourceVolumeIO(request.getVolume());
+        long startTime = System.nanoTime();
         try
         {
             assimpScene = Jassimp.importFile(FileNameUtils.getFilename(filePath),
                                              jassimpAdapter.toJassimpSettings(request.getImportSettings()),
                                              jassimpIO);
+            request.getLoadTimes().setParseTime((System.nanoTime() - startTime) / 1000000.0f);
         }
         catch (IOException ex)
         {
@@ -1794,6 +2091,10 @@ public final class GVRAssetLoader {
         }
         boolean startAnimations = request.getImportSettings().contains(GVRImportSettings.START_ANIMATIONS);
         jassimpAdapter.processScene(request, model, assimpScene, request.getVolume(), startAnimations);
+        if (modelCache != null)
+        {
+            modelCache.write(model, firstChild, jassimpIO.getOpenedFiles());
+        }
         request.onModelLoaded(mContext, model, filePath);
         return model;
     }
@@ -25,6 +25,11 @@ import org.gearvrf.utility.Log;
 
 import java.io.IOException;
 import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -108,7 +113,7 @@ public class GVRBitmapImage extends GVRImage
             throws IllegalArgumentException
     {
         super(gvrContext, NativeBitmapImage.constructor(ImageType.BITMAP.Value, GL_LUMINANCE));
-        NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
+        update(width, height, grayscaleData);
     }
 
     /**
@@ -136,9 +141,27 @@ public class GVRBitmapImage extends GVRImage
         if (!supportedConfigs.contains(config))
             bmap = getBitmapSupported(bmap);
 
+        mDataSize = bmap.getByteCount();
         NativeBitmapImage.updateFromBitmap(getNative(), bmap, bmap.hasAlpha(), bmap.getConfig().name());
     }
 
+    private static int getBytesPerElement(Buffer buffer)
+    {
+        if (buffer instanceof ByteBuffer)
+        {
+            return 1;
+        }
+        if ((buffer instanceof ShortBuffer) || (buffer instanceof CharBuffer))
+        {
+            return 2;
+        }
+        if ((buffer instanceof LongBuffer) || (buffer instanceof DoubleBuffer))
+        {
+            return 8;
+        }
+        return 4;   // IntBuffer and FloatBuffer
+    }
+
     private Bitmap getBitmapSupported(Bitmap orig)
     {
         Bitmap supBitmap = Bitmap.createBitmap( orig.getWidth(), orig.getHeight(), Bitmap.Config.ARGB_8888 );
@@ -175,6 +198,7 @@ public class GVRBitmapImage extends GVRImage
      */
     public void setBuffer(final int width, final int height, final int format, final int type, final Buffer pixels)
     {
+        mDataSize = (long) getBytesPerElement(pixels) * pixels.capacity();
         NativeBitmapImage.updateFromBuffer(getNative(), 0, 0, width, height, format, type, pixels);
     }
 
@@ -227,6 +251,7 @@ public class GVRBitmapImage extends GVRImage
      */
     public void update(int width, int height, byte[] grayscaleData)
     {
+        mDataSize = grayscaleData.length;
         NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
     }
 
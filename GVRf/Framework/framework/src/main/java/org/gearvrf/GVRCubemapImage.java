@@ -58,6 +58,11 @@ public class GVRCubemapImage extends GVRImage
 
     public void update(Bitmap[] bitmapArray)
     {
+        mDataSize = 0;
+        for (Bitmap bitmap : bitmapArray)
+        {
+            mDataSize += bitmap.getByteCount();
+        }
         NativeCubemapImage.update(getNative(), bitmapArray);
     }
 
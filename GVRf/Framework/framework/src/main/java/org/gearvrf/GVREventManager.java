@@ -15,12 +15,14 @@
 
 package org.gearvrf;
 
+import android.view.MotionEvent;
+
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.WeakHashMap;
 
 import org.gearvrf.script.IScriptManager;
 import org.gearvrf.script.IScriptFile;
@@ -54,13 +56,31 @@ import org.gearvrf.script.IScriptable;
  * end
  * }
  * </pre>
+ *
+ * Java handlers are called through an {@link EventDispatcher}, which
+ * is looked up once for each event of an events interface. Dispatchers
+ * for frequent events, such as those in {@link IPickEvents} and
+ * {@link ITouchEvents}, call the interface method directly. The others
+ * use reflection. Events with two parameters can be sent without
+ * putting the parameters in an array, events with primitive parameters
+ * can be sent as a {@link DirectEvent} without boxing them.
  */
 public class GVREventManager {
     private static final String TAG = GVREventManager.class.getSimpleName();
     private GVRContext mGvrContext;
 
-    // Cache for Java handler methods; keys *must* be weakly referenced
-    private final WeakHashMap<Object, Map<String, Method>> mHandlerMethodCache;
+    /*
+     * Dispatcher for each event name of each events interface.
+     * The maps are never modified after they are published,
+     * a new dispatcher is added to a copy, so they are read without locking.
+     */
+    private volatile Map<Class<?>, Map<String, EventDispatcher>> mDispatcherCache =
+            Collections.emptyMap();
+    private final Object mDispatcherLock = new Object();
+
+    // Dispatchers which call the interface method directly, by events interface and event name
+    private static volatile Map<Class<?>, Map<String, EventDispatcher>> sDirectDispatchers =
+            Collections.emptyMap();
 
     public static final int SEND_MASK_OBJECT = 0x1;
     protected static final int SEND_MASK_LISTENERS = 0x2;
@@ -69,7 +89,257 @@ public class GVREventManager {
 
     GVREventManager(GVRContext gvrContext) {
         mGvrContext = gvrContext;
-        mHandlerMethodCache = new WeakHashMap<Object, Map<String, Method>>();
+    }
+
+    /**
+     * Calls the handler method of one event on an object which implements
+     * the events interface.
+     */
+    public static abstract class EventDispatcher {
+        private final int mParamCount;
+
+        /**
+         * @param paramCount number of parameters of the event
+         */
+        protected EventDispatcher(int paramCount) {
+            mParamCount = paramCount;
+        }
+
+        public final int getParamCount() {
+            return mParamCount;
+        }
+
+        /**
+         * Calls the event handler.
+         * @param handler object which implements the events interface
+         * @param params parameters of the event
+         */
+        public abstract void dispatch(Object handler, Object[] params);
+
+        /**
+         * Calls the handler of an event with two parameters.
+         * Override this to call the handler without making an array.
+         * @param handler object which implements the events interface
+         */
+        public void dispatch(Object handler, Object arg0, Object arg1) {
+            dispatch(handler, new Object[] { arg0, arg1 });
+        }
+    }
+
+    /**
+     * Dispatcher for an event with two parameters.
+     */
+    public static abstract class TwoParamDispatcher extends EventDispatcher {
+        protected TwoParamDispatcher() {
+            super(2);
+        }
+
+        @Override
+        public final void dispatch(Object handler, Object[] params) {
+            dispatch(handler, params[0], params[1]);
+        }
+
+        @Override
+        public abstract void dispatch(Object handler, Object arg0, Object arg1);
+    }
+
+    /**
+     * An event which calls its handlers directly, for events with
+     * primitive parameters which would be boxed in an array.
+     * One instance can be reused for every event it sends.
+     * @see GVREventManager#sendEvent(Object, Class, String, DirectEvent)
+     */
+    public static abstract class DirectEvent<T extends IEvents> {
+        /**
+         * Calls the event handler.
+         * @param handler object which implements the events interface
+         */
+        public abstract void dispatch(T handler);
+
+        /**
+         * Gets the parameters of the event for a script handler.
+         * Only called if a script handles the event.
+         */
+        public abstract Object[] getParams();
+    }
+
+    /*
+     * Calls the event handler by reflection.
+     */
+    private class MethodDispatcher extends EventDispatcher {
+        private final Method mMethod;
+
+        MethodDispatcher(Method method) {
+            super(method.getParameterTypes().length);
+            mMethod = method;
+        }
+
+        @Override
+        public void dispatch(Object handler, Object[] params) {
+            invokeMethod(handler, mMethod, params);
+        }
+    }
+
+    /*
+     * Calls the handler through a direct dispatcher. Parameters which
+     * don't match the method are logged, as they are when the method
+     * is invoked by reflection, instead of throwing ClassCastException.
+     */
+    private class CheckedDispatcher extends EventDispatcher {
+        private final EventDispatcher mDispatcher;
+        private final Class<?>[] mParamTypes;
+
+        CheckedDispatcher(EventDispatcher dispatcher, Method method) {
+            super(dispatcher.getParamCount());
+            mDispatcher = dispatcher;
+            mParamTypes = method.getParameterTypes();
+        }
+
+        @Override
+        public void dispatch(Object handler, Object[] params) {
+            try {
+                mDispatcher.dispatch(handler, params);
+            } catch (ClassCastException e) {
+                if (paramsMatch(params)) {
+                    // thrown by the handler, rethrow it back to the application
+                    throw e;
+                }
+                e.printStackTrace();
+                mGvrContext.logError(e.getMessage(), handler);
+            }
+        }
+
+        @Override
+        public void dispatch(Object handler, Object arg0, Object arg1) {
+            try {
+                mDispatcher.dispatch(handler, arg0, arg1);
+            } catch (ClassCastException e) {
+                if (paramsMatch(new Object[] { arg0, arg1 })) {
+                    throw e;
+                }
+                e.printStackTrace();
+                mGvrContext.logError(e.getMessage(), handler);
+            }
+        }
+
+        private boolean paramsMatch(Object[] params) {
+            for (int i = 0; i < mParamTypes.length; ++i) {
+                if (!isInstanceWithAutoboxing(mParamTypes[i], params[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static {
+        addDispatcher(IPickEvents.class, "onEnter", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((IPickEvents) handler).onEnter((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(IPickEvents.class, "onInside", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((IPickEvents) handler).onInside((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(IPickEvents.class, "onExit", new EventDispatcher(1) {
+            @Override
+            public void dispatch(Object handler, Object[] params) {
+                ((IPickEvents) handler).onExit((GVRSceneObject) params[0]);
+            }
+        });
+        addDispatcher(IPickEvents.class, "onPick", new EventDispatcher(1) {
+            @Override
+            public void dispatch(Object handler, Object[] params) {
+                ((IPickEvents) handler).onPick((GVRPicker) params[0]);
+            }
+        });
+        addDispatcher(IPickEvents.class, "onNoPick", new EventDispatcher(1) {
+            @Override
+            public void dispatch(Object handler, Object[] params) {
+                ((IPickEvents) handler).onNoPick((GVRPicker) params[0]);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onEnter", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onEnter((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onExit", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onExit((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onInside", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onInside((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onTouchStart", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onTouchStart((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onTouchEnd", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onTouchEnd((GVRSceneObject) arg0, (GVRPicker.GVRPickedObject) arg1);
+            }
+        });
+        addDispatcher(ITouchEvents.class, "onMotionOutside", new TwoParamDispatcher() {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1) {
+                ((ITouchEvents) handler).onMotionOutside((GVRPicker) arg0, (MotionEvent) arg1);
+            }
+        });
+    }
+
+    /**
+     * Registers a dispatcher which calls the handler of an event directly,
+     * instead of by reflection. The parameters of the event are still
+     * checked against the events interface the first time it is sent.
+     *
+     * @param eventsClass
+     *     The interface class object representing an event group.
+     * @param eventName
+     *     The name of the event.
+     * @param dispatcher
+     *     Calls the event method of the interface. It must have
+     *     the same number of parameters as the method.
+     */
+    public static void addDispatcher(Class<? extends IEvents> eventsClass, String eventName,
+            EventDispatcher dispatcher) {
+        synchronized (GVREventManager.class) {
+            sDirectDispatchers = addToMap(sDirectDispatchers, eventsClass, eventName, dispatcher);
+        }
+    }
+
+    private static Map<Class<?>, Map<String, EventDispatcher>> addToMap(
+            Map<Class<?>, Map<String, EventDispatcher>> map, Class<?> eventsClass,
+            String eventName, EventDispatcher dispatcher) {
+        Map<Class<?>, Map<String, EventDispatcher>> newMap =
+                new HashMap<Class<?>, Map<String, EventDispatcher>>(map);
+        Map<String, EventDispatcher> events = map.get(eventsClass);
+        Map<String, EventDispatcher> newEvents = (events != null)
+                ? new HashMap<String, EventDispatcher>(events)
+                : new HashMap<String, EventDispatcher>();
+
+        newEvents.put(eventName, dispatcher);
+        newMap.put(eventsClass, newEvents);
+        return newMap;
+    }
+
+    private static EventDispatcher getFromMap(Map<Class<?>, Map<String, EventDispatcher>> map,
+            Class<?> eventsClass, String eventName) {
+        Map<String, EventDispatcher> events = map.get(eventsClass);
+        return (events != null) ? events.get(eventName) : null;
     }
 
     /**
@@ -113,17 +383,137 @@ public class GVREventManager {
         return sendEventWithMaskParamArray(sendMask, target, eventsClass, eventName, params);
     }
 
+    /**
+     * Delivers an event with two parameters to a handler object.
+     * This is the same as {@link #sendEvent(Object, Class, String, Object...)}
+     * but the parameters are not put in an array, unless the event
+     * is handled by reflection or by a script.
+     */
+    public boolean sendEvent(Object target, Class<? extends IEvents> eventsClass,
+            String eventName, Object arg0, Object arg1) {
+        return sendEventWithMask(SEND_MASK_ALL, target, eventsClass, eventName, arg0, arg1);
+    }
+
+    public boolean sendEventWithMask(int sendMask, Object target, Class<? extends IEvents> eventsClass,
+            String eventName, Object arg0, Object arg1) {
+        EventDispatcher dispatcher = getFromMap(mDispatcherCache, eventsClass, eventName);
+        if ((dispatcher == null) || (dispatcher.getParamCount() != 2)) {
+            // Verify the event name and parameters
+            return sendEventWithMaskParamArray(sendMask, target, eventsClass, eventName,
+                    new Object[] { arg0, arg1 });
+        }
+        // Set to true if an event is handled.
+        boolean handledSuccessful = false;
+
+        if ((sendMask & SEND_MASK_OBJECT) != 0) {
+            // Invoke the method if the target implements the interface
+            if (eventsClass.isInstance(target)) {
+                dispatcher.dispatch(target, arg0, arg1);
+                handledSuccessful = true;
+            }
+        }
+
+        if ((sendMask & SEND_MASK_LISTENERS) != 0) {
+            // Try to deliver to the event receiver (if any)
+            if (target instanceof IEventReceiver) {
+                IEventReceiver receivingTarget = (IEventReceiver) target;
+                GVREventReceiver receiver = receivingTarget.getEventReceiver();
+
+                List<IEvents> listeners = receiver.getListeners();
+
+                for (IEvents listener : listeners) {
+                    // Skip the listener due to different type, or has been removed
+                    if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
+                        continue;
+
+                    // This may throw RuntimeException if the handler does so.
+                    dispatcher.dispatch(listener, arg0, arg1);
+                    handledSuccessful = true;
+                }
+            }
+        }
+
+        if ((sendMask & SEND_MASK_SCRIPTS) != 0) {
+            // Try invoking the handler in the script
+            if (target instanceof IScriptable) {
+                IScriptFile script = getScriptFile((IScriptable) target);
+                if (script != null) {
+                    handledSuccessful |= script.invokeFunction(eventName, new Object[] { arg0, arg1 });
+                }
+            }
+        }
+
+        return handledSuccessful;
+    }
+
+    /**
+     * Delivers an event to a handler object the same way as
+     * {@link #sendEvent(Object, Class, String, Object...)}, but the
+     * event calls the handlers itself. The parameters are not put
+     * in an array unless a script handles the event.
+     *
+     * @param target
+     *     The object which handles the event.
+     * @param eventsClass
+     *     The interface class object representing an event group.
+     * @param eventName
+     *     The name of the event, passed to scripts.
+     * @param event
+     *     Calls the event method of the interface.
+     * @return
+     *     {@code true} if the event is handled, {@code false} if not.
+     */
+    public <T extends IEvents> boolean sendEvent(Object target, Class<T> eventsClass,
+            String eventName, DirectEvent<T> event) {
+        // Set to true if an event is handled.
+        boolean handledSuccessful = false;
+
+        // Invoke the method if the target implements the interface
+        if (eventsClass.isInstance(target)) {
+            event.dispatch(eventsClass.cast(target));
+            handledSuccessful = true;
+        }
+
+        // Try to deliver to the event receiver (if any)
+        if (target instanceof IEventReceiver) {
+            IEventReceiver receivingTarget = (IEventReceiver) target;
+            GVREventReceiver receiver = receivingTarget.getEventReceiver();
+
+            List<IEvents> listeners = receiver.getListeners();
+
+            for (IEvents listener : listeners) {
+                // Skip the listener due to different type, or has been removed
+                if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
+                    continue;
+
+                // This may throw RuntimeException if the handler does so.
+                event.dispatch(eventsClass.cast(listener));
+                handledSuccessful = true;
+            }
+        }
+
+        // Try invoking the handler in the script
+        if (target instanceof IScriptable) {
+            IScriptFile script = getScriptFile((IScriptable) target);
+            if (script != null) {
+                handledSuccessful |= script.invokeFunction(eventName, event.getParams());
+            }
+        }
+
+        return handledSuccessful;
+    }
+
     protected boolean sendEventWithMaskParamArray(int sendMask, Object target, Class<? extends IEvents> eventsClass,
             String eventName, Object[] params) {
         // Set to true if an event is handled.
         boolean handledSuccessful = false;
 
         // Verify the event name and parameters (cached)
-        Method method = findHandlerMethod(target, eventsClass, eventName, params);
+        EventDispatcher dispatcher = findDispatcher(eventsClass, eventName, params);
         if ((sendMask & SEND_MASK_OBJECT) != 0) {
             // Invoke the method if the target implements the interface
             if (eventsClass.isInstance(target)) {
-                invokeMethod(target, method, params);
+                dispatcher.dispatch(target, params);
                 handledSuccessful = true;
             }
         }
@@ -141,12 +531,9 @@ public class GVREventManager {
                     if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
                         continue;
 
-                    Method listenerMethod = findHandlerMethod(listener, eventsClass, eventName, params);
-                    if (listenerMethod != null) {
-                        // This may throw RuntimeException if the handler does so.
-                        invokeMethod(listener, listenerMethod, params);
-                        handledSuccessful = true;
-                    }
+                    // This may throw RuntimeException if the handler does so.
+                    dispatcher.dispatch(listener, params);
+                    handledSuccessful = true;
                 }
             }
         }
@@ -162,19 +549,40 @@ public class GVREventManager {
     }
 
     /*
-     * Return the method in eventsClass by checking the signature.
+     * Return the dispatcher for an event, making it the first time the event is sent.
      * RuntimeException is thrown if the event is not found in the eventsClass interface,
      * or the parameter types don't match.
      */
-    private Method findHandlerMethod(Object target, Class<? extends IEvents> eventsClass,
+    private EventDispatcher findDispatcher(Class<? extends IEvents> eventsClass,
             String eventName, Object[] params) {
-        // Use cached method if available. Note: no further type checking is done if the
-        // method has been cached. It will be checked by JRE when the method is invoked.
-        Method cachedMethod = getCachedMethod(target, eventName);
-        if (cachedMethod != null) {
-            return cachedMethod;
+        // Use cached dispatcher if available. Note: no further type checking is done if the
+        // dispatcher has been cached. It will be checked by JRE when the method is invoked,
+        // or by the cast in a direct dispatcher.
+        EventDispatcher dispatcher = getFromMap(mDispatcherCache, eventsClass, eventName);
+        if ((dispatcher != null) && (dispatcher.getParamCount() == params.length)) {
+            return dispatcher;
+        }
+
+        Method method = findHandlerMethod(eventsClass, eventName, params);
+        dispatcher = getFromMap(sDirectDispatchers, eventsClass, eventName);
+        if ((dispatcher == null) || (dispatcher.getParamCount() != params.length)) {
+            dispatcher = new MethodDispatcher(method);
+        } else {
+            dispatcher = new CheckedDispatcher(dispatcher, method);
+        }
+        synchronized (mDispatcherLock) {
+            mDispatcherCache = addToMap(mDispatcherCache, eventsClass, eventName, dispatcher);
         }
+        return dispatcher;
+    }
 
+    /*
+     * Return the method in eventsClass by checking the signature.
+     * RuntimeException is thrown if the event is not found in the eventsClass interface,
+     * or the parameter types don't match.
+     */
+    private Method findHandlerMethod(Class<? extends IEvents> eventsClass,
+            String eventName, Object[] params) {
         // Check the event and params against the eventsClass interface object.
         Method nameMatch = null;
         Method signatureMatch = null;
@@ -214,10 +622,6 @@ public class GVREventManager {
                     + "parameters don't match", eventName));
         }
 
-        // Cache the method for the target, even if it doesn't implement the interface. This is
-        // to avoid always verifying the event.
-        addCachedMethod(target, eventName, signatureMatch);
-
         return signatureMatch;
     }
 
@@ -268,39 +672,17 @@ public class GVREventManager {
         return false;
     }
 
-    private Method getCachedMethod(Object target, String eventName) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                return null;
-            }
-
-            return targetCache.get(eventName);
-        }
-    }
-
-    private void addCachedMethod(Object target, String eventName, Method method) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                targetCache = new TreeMap<String, Method>();
-                mHandlerMethodCache.put(target, targetCache);
-            }
-
-            targetCache.put(eventName, method);
+    private IScriptFile getScriptFile(IScriptable target) {
+        IScriptManager sm = mGvrContext.getScriptManager();
+        if (sm == null) {
+            return null;
         }
+        return sm.getScriptFile(target);
     }
 
     private boolean tryInvokeScript(IScriptable target, String eventName,
             Object[] params) {
-        IScriptManager sm = mGvrContext.getScriptManager();
-        if (sm == null) {
-            return false;
-        }
-
-        IScriptFile script = sm.getScriptFile(target);
+        IScriptFile script = getScriptFile(target);
         if (script == null)
             return false;
 
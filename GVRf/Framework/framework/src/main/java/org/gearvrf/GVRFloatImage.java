@@ -52,6 +52,7 @@ public class GVRFloatImage extends GVRImage
             throws IllegalArgumentException
     {
         super(gvrContext, NativeBitmapImage.constructor(ImageType.FLOAT_BITMAP.Value, GL_RG));
+        mDataSize = 4L * data.length;
         NativeFloatImage.update(getNative(), width, height, GL_RG, data);
     }
 
@@ -97,6 +98,7 @@ public class GVRFloatImage extends GVRImage
         {
             throw new IllegalArgumentException();
         }
+        mDataSize = 4L * data.length;
         NativeFloatImage.update(getNative(), width, height, 0, data);
     }
 }
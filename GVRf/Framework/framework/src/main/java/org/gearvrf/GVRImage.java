@@ -51,6 +51,20 @@ public class GVRImage extends GVRHybridObject
 
     protected static final String TAG = "GVRImage";
 
+    /** Approximate number of bytes the image data takes */
+    protected long mDataSize = 0;
+
+    /**
+     * Get an estimate of the memory the image takes on the GPU.
+     * This is the size of the pixel data last given to the image,
+     * mip-maps generated by the GPU are not included.
+     * @return number of bytes, 0 if the image has no data yet
+     */
+    public long getDataSize()
+    {
+        return mDataSize;
+    }
+
     public String getFileName()
     {
         return NativeBitmapImage.getFileName(getNative());
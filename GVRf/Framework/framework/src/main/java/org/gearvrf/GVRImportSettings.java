@@ -103,7 +103,31 @@ public enum GVRImportSettings {
     /**
      * Do not include textures and omit texture coordinates from meshes
      */
-    NO_TEXTURING(0x8000000);
+    NO_TEXTURING(0x8000000),
+
+    /**
+     * Keep a preprocessed binary copy of the model in the application cache
+     * and load it from there instead of importing the file again, as long
+     * as the file and the files it references have not changed.
+     * Models with lights, cameras, blend shapes or embedded textures
+     * are always imported.
+     */
+    USE_MODEL_CACHE(0x10000000),
+
+    /**
+     * Use 16 bit indices for meshes with no more than 65536 vertices
+     * instead of 32 bit indices, halving the size of their index buffers.
+     */
+    SHORT_INDICES(0x20000000),
+
+    /**
+     * Compress the keys of imported animations. Keys which can be
+     * interpolated from their neighbors are removed and the rest
+     * are quantized, which makes long skeletal animations several
+     * times smaller. The keys of compressed animations cannot be changed.
+     * @see org.gearvrf.animation.keyframe.GVRKeyFrameAnimation#compress()
+     */
+    COMPRESS_ANIMATIONS(0x40000000);
 
     
     private int mValue;
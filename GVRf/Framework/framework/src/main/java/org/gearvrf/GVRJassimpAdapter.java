@@ -16,9 +16,13 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import static java.lang.Math.max;
 
-import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVRAnimator;
 import org.gearvrf.animation.keyframe.GVRAnimationBehavior;
 import org.gearvrf.animation.keyframe.GVRAnimationChannel;
@@ -47,6 +51,7 @@ import org.gearvrf.jassimp.JassimpConfig;
 import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.gearvrf.shaders.GVRPBRShader;
 import org.gearvrf.utility.Log;
+import org.gearvrf.utility.Threads;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
@@ -63,7 +68,43 @@ class   GVRJassimpAdapter {
     private String mFileName;
     private static final int MAX_TEX_COORDS = JassimpConfig.MAX_NUMBER_TEXCOORDS;
     private static final int MAX_VERTEX_COLORS = JassimpConfig.MAX_NUMBER_COLORSETS;
+    private static final int MAX_MESH_THREADS = 4;
+    private static final int MAX_SHORT_INDEX_VERTICES = 65536;
+    static final String BRDF_LOOKUP_TEXTURE = "brdfLUTTexture";
+
+    /*
+     * Mesh conversions for the current scene, one for each mesh
+     * reference in node order. Shared meshes have the same task
+     * for all their references.
+     */
+    private final List<MeshReference> mMeshTasks = new ArrayList<MeshReference>();
+    private final AtomicLong mMeshConversionTime = new AtomicLong();
+
+    /*
+     * Materials already converted for the current scene.
+     */
+    private final Map<Long, GVRMaterial> mMaterials = new HashMap<Long, GVRMaterial>();
+    private GVRTexture mBrdfLookup = null;
+    private GVRModelCache mModelCache = null;
+    private int mUniqueMeshes;
+    private int mMeshReferences;
+    private int mMaterialReferences;
+
 
+    /*
+     * Conversion of the assimp mesh a node references.
+     */
+    private static class MeshReference
+    {
+        final int MeshIndex;
+        final FutureTask<GVRMesh> Task;
+
+        MeshReference(int meshIndex, FutureTask<GVRMesh> task)
+        {
+            MeshIndex = meshIndex;
+            Task = task;
+        }
+    }
 
     public interface INodeFactory {
         GVRSceneObject createSceneObject(GVRContext ctx, AiNode node);
@@ -84,6 +125,15 @@ class   GVRJassimpAdapter {
         mNodeFactories.remove(factory);
     }
 
+    /**
+     * Record what the model cache needs to know about the
+     * scene being imported, like the files textures come from.
+     * @param cache model cache to write after importing, may be null
+     */
+    void setModelCache(GVRModelCache cache) {
+        mModelCache = cache;
+    }
+
     public GVRMesh createMesh(GVRContext ctx, AiMesh aiMesh, EnumSet<GVRImportSettings> settings)
     {
         String vertexDescriptor = "float3 a_position";
@@ -206,9 +256,25 @@ class   GVRJassimpAdapter {
 
         IntBuffer indices = aiMesh.getIndexBuffer();
         int len = indices.capacity();
-        GVRIndexBuffer indexBuffer = new GVRIndexBuffer(ctx, 4, len);
+        GVRIndexBuffer indexBuffer;
+
+        if (settings.contains(GVRImportSettings.SHORT_INDICES) &&
+            (aiMesh.getNumVertices() <= MAX_SHORT_INDEX_VERTICES))
+        {
+            char[] shortIndices = new char[len];
 
-        indexBuffer.setIntVec(indices);
+            for (int i = 0; i < len; ++i)
+            {
+                shortIndices[i] = (char) indices.get(i);
+            }
+            indexBuffer = new GVRIndexBuffer(ctx, 2, len);
+            indexBuffer.setShortVec(shortIndices);
+        }
+        else
+        {
+            indexBuffer = new GVRIndexBuffer(ctx, 4, len);
+            indexBuffer.setIntVec(indices);
+        }
         mesh.setIndexBuffer(indexBuffer);
 
         if (verticesArray != null)
@@ -540,6 +606,9 @@ class   GVRJassimpAdapter {
             case NO_ANIMATION:
             case NO_LIGHTING:
             case NO_TEXTURING:
+            case USE_MODEL_CACHE:
+            case SHORT_INDICES:
+            case COMPRESS_ANIMATIONS:
                 return null;
             default:
                 // Unsupported setting
@@ -570,7 +639,32 @@ class   GVRJassimpAdapter {
         {
             return;
         }
-        recurseAssimpNodes(request, model, scene.getSceneRoot(sWrapperProvider), lightList);
+        AiNode root = scene.getSceneRoot(sWrapperProvider);
+        GVRAssetLoader.LoadTimes times = request.getLoadTimes();
+        long startTime = System.nanoTime();
+
+        mMaterials.clear();
+        mUniqueMeshes = mMeshReferences = mMaterialReferences = 0;
+        int threads = startMeshConversion(root, settings);
+        try
+        {
+            recurseAssimpNodes(request, model, root, lightList);
+        }
+        finally
+        {
+            // don't leave the pool converting meshes nobody will use
+            for (MeshReference ref : mMeshTasks)
+            {
+                ref.Task.cancel(false);
+            }
+        }
+        times.setMeshConversionTime(mMeshConversionTime.get() / 1000000.0f, threads);
+        times.setSharing(mUniqueMeshes, mMeshReferences, mMaterials.size(), mMaterialReferences);
+        times.setSceneAssemblyTime((System.nanoTime() - startTime) / 1000000.0f);
+        Log.d(TAG, "ASSET: %s uses %d unique meshes for %d mesh references, %d unique materials for %d material references",
+              mFileName, mUniqueMeshes, mMeshReferences, mMaterials.size(), mMaterialReferences);
+        mMeshTasks.clear();
+        mMaterials.clear();
         if (!settings.contains(GVRImportSettings.NO_ANIMATION))
         {
             List<AiAnimation> animations = scene.getAnimations();
@@ -580,7 +674,7 @@ class   GVRJassimpAdapter {
                 model.attachComponent(animator);
                 for (AiAnimation aiAnim : scene.getAnimations())
                 {
-                    GVRAnimation animation = createAnimation(aiAnim, model);
+                    GVRKeyFrameAnimation animation = createAnimation(aiAnim, model);
                     GVRModelSceneObject modelRoot = null;
                     if (GVRModelSceneObject.class.isAssignableFrom(model.getClass()))
                     {
@@ -588,6 +682,10 @@ class   GVRJassimpAdapter {
                     }
                     if (animation != null)
                     {
+                        if (settings.contains(GVRImportSettings.COMPRESS_ANIMATIONS))
+                        {
+                            animation.compress();
+                        }
                         animator.addAnimation(animation);
                         if (modelRoot != null)
                         {
@@ -639,14 +737,12 @@ class   GVRJassimpAdapter {
             parentSceneObject.addChildObject(sceneObject);
         } else if (node.getNumMeshes() == 1) {
             // add the scene object to the scene graph
-            AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[0]);
-            sceneObject = createSubSceneObject(request, parentSceneObject, node, aiMesh);
+            sceneObject = createSubSceneObject(request, parentSceneObject, node, node.getMeshes()[0]);
         } else {
             sceneObject = createSceneObject(mContext, node);
             parentSceneObject.addChildObject(sceneObject);
             for (int i = 0; i < node.getNumMeshes(); i++) {
-                AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[i]);
-                GVRSceneObject childSceneObject = createSubSceneObject(request, sceneObject, node, aiMesh);
+                createSubSceneObject(request, sceneObject, node, node.getMeshes()[i]);
             }
         }
 
@@ -696,8 +792,8 @@ class   GVRJassimpAdapter {
      *            A reference to the AiNode for which we want to recurse all its
      *            children and meshes.
      *
-     * @param aiMesh
-     *            The assimp mesh
+     * @param meshIndex
+     *            Index of the assimp mesh in the scene
      **
      * @return The new {@link GVRSceneObject} with the input mesh for the node {@linknode}
      *
@@ -708,25 +804,192 @@ class   GVRJassimpAdapter {
             GVRAssetLoader.AssetRequest assetRequest,
             GVRSceneObject parent,
             AiNode node,
-            AiMesh aiMesh)
+            int meshIndex)
     {
         EnumSet<GVRImportSettings> settings = assetRequest.getImportSettings();
-        GVRMesh mesh = createMesh(mContext, aiMesh, settings);
-        AiMaterial material = mScene.getMaterials().get(aiMesh.getMaterialIndex());
-        final GVRMaterial meshMaterial = createMaterial(material, assetRequest.getImportSettings());
+        AiMesh aiMesh = mScene.getMeshes().get(meshIndex);
+        GVRMesh mesh = getMesh(meshIndex);
+        GVRMaterial meshMaterial = getMaterial(assetRequest, aiMesh);
         GVRSceneObject sceneObject = createSceneObject(mContext, node);
         GVRRenderData sceneObjectRenderData = new GVRRenderData(mContext);
+
+        sceneObjectRenderData.setMesh(mesh);
+        if (settings.contains(GVRImportSettings.NO_LIGHTING))
+        {
+            sceneObjectRenderData.disableLight();
+        }
+        sceneObjectRenderData.setMaterial(meshMaterial);
+        sceneObject.attachRenderData(sceneObjectRenderData);
+        setMeshMorphComponent(mesh, sceneObject, aiMesh);
+        parent.addChildObject(sceneObject);
+        return sceneObject;
+    }
+
+    /**
+     * Start converting the meshes referenced by the scene.
+     * The conversions are queued in node order and run on up to
+     * {@link #MAX_MESH_THREADS} pool threads. Each assimp mesh is
+     * converted once and the {@link GVRMesh} is shared by all the nodes
+     * which reference it. Meshes with bones or blend shapes are animated
+     * for each scene object separately and are converted for each reference.
+     *
+     * @return number of pool threads converting meshes
+     */
+    private int startMeshConversion(AiNode root, EnumSet<GVRImportSettings> settings)
+    {
+        final List<FutureTask<GVRMesh>> unique = new ArrayList<FutureTask<GVRMesh>>();
+        Map<Integer, FutureTask<GVRMesh>> shared = new HashMap<Integer, FutureTask<GVRMesh>>();
+
+        mMeshTasks.clear();
+        mMeshConversionTime.set(0);
+        queueMeshes(root, settings, shared, unique);
+        mUniqueMeshes = unique.size();
+
+        int threads = Math.min(Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_MESH_THREADS),
+                               unique.size() - 1);
+        final AtomicInteger next = new AtomicInteger();
+
+        for (int i = 0; i < threads; ++i)
+        {
+            Threads.spawn(new Runnable()
+            {
+                public void run()
+                {
+                    int index;
+                    while ((index = next.getAndIncrement()) < unique.size())
+                    {
+                        unique.get(index).run();
+                    }
+                }
+            });
+        }
+        return max(threads, 0);
+    }
+
+    private void queueMeshes(AiNode node, final EnumSet<GVRImportSettings> settings,
+                             Map<Integer, FutureTask<GVRMesh>> shared,
+                             List<FutureTask<GVRMesh>> unique)
+    {
+        for (int i = 0; i < node.getNumMeshes(); i++)
+        {
+            int meshIndex = node.getMeshes()[i];
+            final AiMesh aiMesh = mScene.getMeshes().get(meshIndex);
+            boolean shareable = aiMesh.getAnimationMeshes().isEmpty() &&
+                                (settings.contains(GVRImportSettings.NO_ANIMATION) || !aiMesh.hasBones());
+            FutureTask<GVRMesh> task = shareable ? shared.get(meshIndex) : null;
+
+            if (task == null)
+            {
+                task = new FutureTask<GVRMesh>(new Callable<GVRMesh>()
+                {
+                    public GVRMesh call()
+                    {
+                        long start = System.nanoTime();
+                        GVRMesh mesh = createMesh(mContext, aiMesh, settings);
+                        mMeshConversionTime.addAndGet(System.nanoTime() - start);
+                        return mesh;
+                    }
+                });
+                unique.add(task);
+                if (shareable)
+                {
+                    shared.put(meshIndex, task);
+                }
+            }
+            mMeshTasks.add(new MeshReference(meshIndex, task));
+        }
+        for (AiNode child : node.getChildren())
+        {
+            queueMeshes(child, settings, shared, unique);
+        }
+    }
+
+    /**
+     * Get the mesh for the next mesh reference in node order.
+     * If no pool thread has started converting it yet,
+     * it is converted on the calling thread.
+     * @param meshIndex index of the assimp mesh the node references
+     * @throws IllegalStateException if the nodes are not visited in
+     *         the order {@link #queueMeshes} queued their meshes
+     */
+    private GVRMesh getMesh(int meshIndex)
+    {
+        if (mMeshReferences >= mMeshTasks.size())
+        {
+            throw new IllegalStateException("more mesh references than were queued in " + mFileName);
+        }
+        MeshReference ref = mMeshTasks.get(mMeshReferences++);
+        FutureTask<GVRMesh> task = ref.Task;
+
+        if (ref.MeshIndex != meshIndex)
+        {
+            throw new IllegalStateException("mesh reference " + (mMeshReferences - 1) + " in " + mFileName +
+                                            " is mesh " + meshIndex + " but mesh " + ref.MeshIndex + " was queued");
+        }
+        task.run();
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted converting meshes of " + mFileName, ex);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Get the material for an assimp mesh.
+     * Each assimp material is converted once for each set of texture
+     * coordinates used by the meshes which reference it, so the
+     * {@link GVRMaterial} and its textures are shared.
+     */
+    private GVRMaterial getMaterial(GVRAssetLoader.AssetRequest assetRequest, AiMesh aiMesh)
+    {
+        int texCoordMask = 0;
+
+        for (int i = 0; i < MAX_TEX_COORDS; ++i)
+        {
+            if (aiMesh.hasTexCoords(i))
+            {
+                texCoordMask |= 1 << i;
+            }
+        }
+        long key = ((long) aiMesh.getMaterialIndex() << MAX_TEX_COORDS) | texCoordMask;
+        GVRMaterial material = mMaterials.get(key);
+
+        ++mMaterialReferences;
+        if (material == null)
+        {
+            material = createMeshMaterial(assetRequest, aiMesh);
+            mMaterials.put(key, material);
+        }
+        return material;
+    }
+
+    private GVRMaterial createMeshMaterial(GVRAssetLoader.AssetRequest assetRequest, AiMesh aiMesh)
+    {
+        EnumSet<GVRImportSettings> settings = assetRequest.getImportSettings();
+        AiMaterial material = mScene.getMaterials().get(aiMesh.getMaterialIndex());
+        final GVRMaterial meshMaterial = createMaterial(material, settings);
         AiColor diffuseColor = material.getDiffuseColor(sWrapperProvider);        /* Opacity */
         float opacity = diffuseColor.getAlpha();
 
-        sceneObjectRenderData.setMesh(mesh);
         if (!settings.contains(GVRImportSettings.NO_TEXTURING))
         {
             loadTextures(assetRequest, material, meshMaterial, aiMesh);
         }
         if (settings.contains(GVRImportSettings.NO_LIGHTING))
         {
-            sceneObjectRenderData.disableLight();
             if (material.getOpacity() > 0)
             {
                 opacity *= material.getOpacity();
@@ -774,11 +1037,7 @@ class   GVRJassimpAdapter {
         /* Specular Exponent */
         float specularExponent = material.getShininess();
         meshMaterial.setSpecularExponent(specularExponent);
-        sceneObjectRenderData.setMaterial(meshMaterial);
-        sceneObject.attachRenderData(sceneObjectRenderData);
-        setMeshMorphComponent(mesh, sceneObject, aiMesh);
-        parent.addChildObject(sceneObject);
-        return sceneObject;
+        return meshMaterial;
     }
 
     private static final Map<AiTextureType, String> textureMap;
@@ -868,11 +1127,7 @@ class   GVRJassimpAdapter {
                     m.setDiffuseColor(baseColorFactor.getRed(), baseColorFactor.getGreen(), baseColorFactor.getBlue(), baseColorFactor.getAlpha());
                 }
 
-                Bitmap bitmap = BitmapFactory.decodeResource(
-                        mContext.getContext().getResources(), R.drawable.brdflookup);
-                GVRTexture brdfLUTtex = new GVRTexture(mContext);
-                brdfLUTtex.setImage(new GVRBitmapImage(mContext, bitmap));
-                m.setTexture("brdfLUTTexture", brdfLUTtex);
+                m.setTexture(BRDF_LOOKUP_TEXTURE, getBrdfLookup(mContext));
                 return m;
             }
             catch (IllegalArgumentException e)
@@ -891,6 +1146,22 @@ class   GVRJassimpAdapter {
         return new GVRMaterial(mContext, shaderType);
     }
 
+    /**
+     * Get the BRDF lookup table used by the PBR materials.
+     * It is decoded once and shared by all the materials of the model.
+     */
+    GVRTexture getBrdfLookup(GVRContext ctx)
+    {
+        if (mBrdfLookup == null)
+        {
+            Bitmap bitmap = BitmapFactory.decodeResource(
+                    ctx.getContext().getResources(), R.drawable.brdflookup);
+            mBrdfLookup = new GVRTexture(ctx);
+            mBrdfLookup.setImage(new GVRBitmapImage(ctx, bitmap));
+        }
+        return mBrdfLookup;
+    }
+
     private void loadTexture(GVRAssetLoader.AssetRequest assetRequest,
                              final AiMaterial aimtl, final GVRMaterial gvrmtl,
                              final AiTextureType texType, int texIndex,
@@ -940,6 +1211,10 @@ class   GVRJassimpAdapter {
             gvrmtl.setVec2("u_lightmap_offset", 0, 0);
         }
 
+        if (mModelCache != null)
+        {
+            mModelCache.addTexture(gvrTex, texFileName, texParams);
+        }
         if (texFileName.startsWith("*"))
         {
             AiTexture tex = null;
@@ -15,13 +15,26 @@
 
 package org.gearvrf;
 
-import org.gearvrf.utility.Log;
-import org.joml.Vector4f;
-
 import java.util.LinkedList;
 
 
 /**
+ * Shows one of several versions of an object depending on how far
+ * the camera is from it.
+ *
+ * Each range is a child of the owner of the LOD group. The camera distance
+ * of a range is measured to the center of the bounds of its scene object.
+ * The level of detail is selected while the scene is culled, the ranges
+ * which are not selected are culled with their descendants. The ranges are
+ * never disabled so the scene graph does not change when the camera moves.
+ * {@link GVRSceneObject#isEnabled()} of a range is no longer a way to tell
+ * which level is shown. The {@link GVRPicker} skips the colliders of the
+ * ranges which are not selected and of their descendants, so only the
+ * level being rendered can be picked.
+ * To keep an object near the boundary between two ranges from switching
+ * back and forth, the camera has to move a fraction of the range past
+ * the boundary before the level changes.
+ *
  * Example:
  * <pre>
  * root = new GVRSceneObject(..);
@@ -38,19 +51,16 @@ import java.util.LinkedList;
  * </pre>
  */
 public final class GVRLODGroup extends GVRBehavior {
-    static private long TYPE_LODGROUP = newComponentType(GVRLODGroup.class);
-
     public GVRLODGroup(GVRContext gvrContext) {
-        super(gvrContext, 0);
-        mType = getComponentType();
+        super(gvrContext, NativeLODGroup.ctor());
+        // the culler selects the level, nothing to do every frame
+        mHasFrameCallback = false;
     }
 
     static public long getComponentType() {
-        return TYPE_LODGROUP;
+        return NativeLODGroup.getComponentType();
     }
 
-    private final Vector4f mCenter = new Vector4f();
-    private final Vector4f mVector = new Vector4f();
     private final LinkedList<Object[]> mRanges = new LinkedList<>();
 
     /**
@@ -71,13 +81,12 @@ public final class GVRLODGroup extends GVRBehavior {
         }
 
         final int size = mRanges.size();
-        final float rangePow2 = range*range;
-        final Object[] newElement = new Object[] {rangePow2, sceneObject};
+        final Object[] newElement = new Object[] {range, sceneObject};
 
         for (int i = 0; i < size; ++i) {
             final Object[] el = mRanges.get(i);
             final Float r = (Float)el[0];
-            if (r > rangePow2) {
+            if (r > range) {
                 mRanges.add(i, newElement);
                 break;
             }
@@ -86,6 +95,7 @@ public final class GVRLODGroup extends GVRBehavior {
         if (mRanges.size() == size) {
             mRanges.add(newElement);
         }
+        NativeLODGroup.addRange(getNative(), range, sceneObject.getNative());
 
         final GVRSceneObject owner = getOwnerObject();
         if (null != owner) {
@@ -94,44 +104,26 @@ public final class GVRLODGroup extends GVRBehavior {
     }
 
     /**
-     * Do not call directly.
-     * @deprecated
+     * Set how far past the boundary between two ranges the camera
+     * has to move before the level of detail changes.
+     * @param hysteresis fraction of the range, 0.1 by default
+     * @throws IllegalArgumentException if hysteresis is negative
      */
-    public void onDrawFrame(float frameTime) {
-        final GVRSceneObject owner = getOwnerObject();
-        if (owner == null) {
-            return;
-        }
-
-        final int size = mRanges.size();
-        final GVRTransform t = getGVRContext().getMainScene().getMainCameraRig().getCenterCamera().getTransform();
-
-        for (final Object[] range : mRanges) {
-            ((GVRSceneObject)range[1]).setEnable(false);
+    public void setHysteresis(final float hysteresis)
+    {
+        if (hysteresis < 0) {
+            throw new IllegalArgumentException("hysteresis cannot be negative");
         }
+        NativeLODGroup.setHysteresis(getNative(), hysteresis);
+    }
 
-        for (int i = size - 1; i >= 0; --i) {
-            final Object[] range = mRanges.get(i);
-            final GVRSceneObject child = (GVRSceneObject) range[1];
-            if (child.getParent() != owner) {
-                Log.w(TAG, "the scene object for distance greater than " + range[0] + " is not a child of the owner; skipping it");
-                continue;
-            }
-
-            final float[] values = child.getBoundingVolumeRawValues();
-            mCenter.set(values[0], values[1], values[2], 1.0f);
-            mVector.set(t.getPositionX(), t.getPositionY(), t.getPositionZ(), 1.0f);
-
-            mVector.sub(mCenter);
-            mVector.negate();
-
-            float distance = mVector.dot(mVector);
-
-            if (distance >= (Float) range[0]) {
-                child.setEnable(true);
-                break;
-            }
-        }
+    /**
+     * Does nothing, the level of detail is selected
+     * while the scene is culled.
+     * @deprecated
+     */
+    @Deprecated
+    public void onDrawFrame(float frameTime) {
     }
 
     @Override
@@ -151,6 +143,11 @@ public final class GVRLODGroup extends GVRBehavior {
             oldOwner.removeChildObject((GVRSceneObject)el[1]);
         }
     }
-
-    private static final String TAG = "GVRLODGroup";
-}
\ No newline at end of file
+}
+
+class NativeLODGroup {
+    static native long ctor();
+    static native long getComponentType();
+    static native void addRange(long lodGroup, float range, long sceneObject);
+    static native void setHysteresis(long lodGroup, float hysteresis);
+}
@@ -765,6 +765,26 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
         Log.e("BONES", sb.toString());
     }
 
+    /**
+     * Sets the final transforms of all the bones of this mesh at once.
+     * <p>
+     * The matrices are in the same order as the bones returned by
+     * {@link #getBones()}. This replaces calling
+     * {@link GVRBone#setFinalTransformMatrix(float[])} for each bone.
+     *
+     * @param boneMatrices 16 floats for each bone, each a 4x4 matrix in
+     *                     OpenGL-compatible column-major format.
+     * @param numBones     number of bones to update
+     */
+    public void setBoneMatrices(float[] boneMatrices, int numBones)
+    {
+        if (boneMatrices.length < numBones * 16)
+        {
+            throw new IllegalArgumentException("Bone matrix array must have 16 floats per bone");
+        }
+        NativeMesh.setBoneMatrices(getNative(), boneMatrices, numBones);
+    }
+
 
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {
@@ -904,6 +924,8 @@ class NativeMesh {
 
     static native void setBones(long mesh, long[] bonePtrs);
 
+    static native void setBoneMatrices(long mesh, float[] boneMatrices, int numBones);
+
     static native void setIndexBuffer(long mesh, long ibuf);
 
     static native void setVertexBuffer(long mesh, long vbuf);
@@ -0,0 +1,1309 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import org.gearvrf.animation.GVRAnimation;
+import org.gearvrf.animation.GVRAnimator;
+import org.gearvrf.animation.keyframe.GVRAnimationBehavior;
+import org.gearvrf.animation.keyframe.GVRAnimationChannel;
+import org.gearvrf.animation.keyframe.GVRCompressedFloatAnimation;
+import org.gearvrf.animation.keyframe.GVRCompressedQuatAnimation;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
+import org.gearvrf.scene_objects.GVRModelSceneObject;
+import org.gearvrf.utility.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary cache of models imported with Assimp.
+ * <p>
+ * After a model has been imported, the scene graph built from it is
+ * written to a file in the application cache directory: the interleaved
+ * vertex data of each {@link GVRVertexBuffer}, the index buffers, bones,
+ * the node hierarchy, the material uniforms and texture files and the
+ * key frame channels. Later loads of the same file with the same import
+ * settings memory map the cache file and hand the vertex and index data
+ * to native code as direct buffers without running Assimp. Compressed
+ * key frame channels are stored quantized, as they are in memory, so
+ * they are read back with the same keys instead of being compressed again.
+ * <p>
+ * The cache file holds a SHA-1 of every file the importer opened
+ * and the version of the application which wrote it. It is only used
+ * while all of those files are unchanged and the application has not
+ * been updated, so an entry written by another build of the framework
+ * or of the application shaders is never read back. Models with lights,
+ * cameras, blend shapes, embedded textures or other components
+ * are not cached.
+ * @see GVRImportSettings#USE_MODEL_CACHE
+ */
+class GVRModelCache
+{
+    private static final String TAG = "GVRModelCache";
+    private static final int MAGIC = 0x4D525647;        // "GVRM"
+    private static final int VERSION = 3;
+    private static final String CACHE_DIR = "gvrf_models";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final EnumSet<GVRImportSettings> IGNORED_SETTINGS =
+            EnumSet.of(GVRImportSettings.START_ANIMATIONS, GVRImportSettings.USE_MODEL_CACHE);
+
+    private final GVRContext mContext;
+    private final GVRResourceVolume mVolume;
+    private final String mFileName;
+    private final EnumSet<GVRImportSettings> mSettings;
+    private final File mFile;
+    private final String mAppVersion;
+    private final Map<GVRTexture, TextureRef> mTextures = new IdentityHashMap<GVRTexture, TextureRef>();
+    private String mUncacheable = null;
+
+    /*
+     * Where a texture used by the imported materials comes from.
+     */
+    private static class TextureRef
+    {
+        final String FileName;
+        final GVRTextureParameters Params;
+
+        TextureRef(String fileName, GVRTextureParameters params)
+        {
+            FileName = fileName;
+            Params = params;
+        }
+    }
+
+    /**
+     * Constructs the cache entry for a model file.
+     * @param ctx       GVRContext to create objects with
+     * @param volume    volume the model is loaded from
+     * @param settings  import settings of the model
+     */
+    GVRModelCache(GVRContext ctx, GVRResourceVolume volume, EnumSet<GVRImportSettings> settings)
+    {
+        EnumSet<GVRImportSettings> key = EnumSet.copyOf(settings);
+
+        key.removeAll(IGNORED_SETTINGS);
+        mContext = ctx;
+        mVolume = volume;
+        mFileName = volume.getFileName();
+        mSettings = settings;
+        mFile = new File(new File(ctx.getContext().getCacheDir(), CACHE_DIR),
+                         toHex(newDigest().digest((volume.volumeType + ":" + mFileName + ":" + key).getBytes(UTF8))) + ".gvrm");
+        mAppVersion = getAppVersion(ctx.getContext());
+    }
+
+    /**
+     * Remember the file a texture of the imported model is loaded from.
+     * Called by the importer for each texture it creates.
+     */
+    void addTexture(GVRTexture texture, String fileName, GVRTextureParameters params)
+    {
+        if (fileName.startsWith("*"))
+        {
+            mUncacheable = "embedded texture " + fileName;
+        }
+        else
+        {
+            mTextures.put(texture, new TextureRef(fileName, params));
+        }
+    }
+
+    /**
+     * Load the model from the cache.
+     * The cache file is read and checked completely before any
+     * scene objects are made. If making the objects fails, the ones
+     * already added to the model are removed again and the cache
+     * file is deleted so the model is imported by Assimp instead.
+     * @param request   request to load the model
+     * @param model     root of the model, the scene objects are added to it
+     * @param adapter   importer providing the BRDF lookup texture for PBR materials
+     * @return true if loaded, false if there is no valid cache file
+     */
+    boolean load(GVRAssetLoader.AssetRequest request, GVRSceneObject model, GVRJassimpAdapter adapter)
+    {
+        if (!mFile.exists())
+        {
+            return false;
+        }
+        long startTime = System.nanoTime();
+        GVRAssetLoader.LoadTimes times = request.getLoadTimes();
+        int firstChild = model.getChildrenCount();
+        GVRAnimator animator = null;
+        List<GVRAnimation> animations = new ArrayList<GVRAnimation>();
+
+        try
+        {
+            Contents contents = read();
+
+            if (contents == null)
+            {
+                mFile.delete();
+                return false;
+            }
+            long readTime = System.nanoTime();
+            GVRMesh[] meshes = new GVRMesh[contents.Meshes.size()];
+
+            times.setFromCache(true);
+            times.setParseTime((readTime - startTime) / 1000000.0f);
+            for (int i = 0; i < meshes.length; ++i)
+            {
+                meshes[i] = createMesh(contents.Meshes.get(i));
+            }
+            times.setMeshConversionTime((System.nanoTime() - readTime) / 1000000.0f, 0);
+
+            GVRMaterial[] materials = new GVRMaterial[contents.Materials.size()];
+            for (int i = 0; i < materials.length; ++i)
+            {
+                materials[i] = createMaterial(request, contents.Materials.get(i), adapter);
+            }
+            int references = 0;
+            for (NodeRecord node : contents.Nodes)
+            {
+                model.addChildObject(createSceneObject(node, meshes, materials));
+                references += countMeshReferences(node);
+            }
+            times.setSharing(meshes.length, references, materials.length, references);
+            if (!contents.Animations.isEmpty())
+            {
+                boolean startAnimations = mSettings.contains(GVRImportSettings.START_ANIMATIONS);
+
+                animator = new GVRAnimator(mContext, startAnimations);
+                model.attachComponent(animator);
+                for (AnimationRecord rec : contents.Animations)
+                {
+                    GVRKeyFrameAnimation animation = new GVRKeyFrameAnimation(rec.Name, model, rec.DurationTicks, rec.TicksPerSecond);
+                    // compressed channels were stored compressed, they are not compressed again
+                    for (GVRAnimationChannel channel : rec.Channels)
+                    {
+                        animation.addChannel(channel);
+                    }
+                    animation.prepare();
+                    animator.addAnimation(animation);
+                    animations.add(animation);
+                    if (model instanceof GVRModelSceneObject)
+                    {
+                        ((GVRModelSceneObject) model).getAnimations().add(animation);
+                    }
+                }
+            }
+            times.setSceneAssemblyTime((System.nanoTime() - readTime) / 1000000.0f);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            Log.w(TAG, "ASSET: cannot use model cache %s for %s: %s", mFile.getName(), mFileName, ex.getMessage());
+            while (model.getChildrenCount() > firstChild)
+            {
+                model.removeChildObject(model.getChildByIndex(firstChild));
+            }
+            if (animator != null)
+            {
+                model.detachComponent(GVRAnimator.getComponentType());
+                if (model instanceof GVRModelSceneObject)
+                {
+                    ((GVRModelSceneObject) model).getAnimations().removeAll(animations);
+                }
+            }
+            times.setFromCache(false);
+            times.setSharing(0, 0, 0, 0);
+            mFile.delete();
+            return false;
+        }
+        Log.d(TAG, "ASSET: %s loaded from model cache %s", mFileName, mFile.getName());
+        return true;
+    }
+
+    /**
+     * Write the scene objects imported for a model to the cache.
+     * @param model         root of the imported model
+     * @param firstChild    index of the first child of the model
+     *                      which was added by the importer
+     * @param sourceFiles   files opened by the importer
+     * @return true if written, false if the model cannot be cached
+     */
+    boolean write(GVRSceneObject model, int firstChild, List<String> sourceFiles)
+    {
+        Snapshot snapshot = new Snapshot();
+        List<GVRSceneObject> children = model.getChildren();
+
+        for (int i = firstChild; i < children.size(); ++i)
+        {
+            snapshot.addNode(children.get(i));
+        }
+        snapshot.addAnimations(model);
+        if (mUncacheable != null)
+        {
+            Log.d(TAG, "ASSET: %s not cached, it has %s", mFileName, mUncacheable);
+            mFile.delete();
+            return false;
+        }
+        long startTime = System.nanoTime();
+        File temp = new File(mFile.getPath() + ".tmp");
+        FileOutputStream stream = null;
+
+        mFile.getParentFile().mkdirs();
+        try
+        {
+            stream = new FileOutputStream(temp);
+            Output out = new Output(stream.getChannel());
+
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putString(mAppVersion);
+            out.putInt(sourceFiles.size());
+            for (String path : sourceFiles)
+            {
+                out.putString(path);
+                out.putBytes(digest(mVolume, path));
+            }
+            snapshot.write(out);
+            out.flush();
+            stream.close();
+            stream = null;
+            if (!temp.renameTo(mFile))
+            {
+                throw new IOException("cannot rename " + temp.getName());
+            }
+            Log.d(TAG, "ASSET: %s written to model cache %s, %d bytes in %.1f ms", mFileName, mFile.getName(),
+                  mFile.length(), (System.nanoTime() - startTime) / 1000000.0f);
+            return true;
+        }
+        catch (IOException ex)
+        {
+            Log.w(TAG, "ASSET: cannot write model cache for %s: %s", mFileName, ex.getMessage());
+            temp.delete();
+            return false;
+        }
+        finally
+        {
+            if (stream != null)
+            {
+                try
+                {
+                    stream.close();
+                }
+                catch (IOException ex) { }
+            }
+        }
+    }
+
+    /*
+     * Everything in a cache file, read before any objects are made.
+     */
+    private static class Contents
+    {
+        final List<MeshRecord> Meshes = new ArrayList<MeshRecord>();
+        final List<MaterialRecord> Materials = new ArrayList<MaterialRecord>();
+        final List<NodeRecord> Nodes = new ArrayList<NodeRecord>();
+        final List<AnimationRecord> Animations = new ArrayList<AnimationRecord>();
+    }
+
+    private static class MeshRecord
+    {
+        String Descriptor;
+        int VertexCount;
+        ByteBuffer Vertices;
+        int IndexSize;
+        int IndexCount;
+        ByteBuffer Indices;
+        String[] BoneNames;
+        float[][] BoneMatrices;
+    }
+
+    private static class MaterialRecord
+    {
+        String ShaderClass;
+        final List<String> UniformNames = new ArrayList<String>();
+        final List<Object> UniformValues = new ArrayList<Object>();   // float[] or int[]
+        final List<TextureRecord> Textures = new ArrayList<TextureRecord>();
+    }
+
+    private static class TextureRecord
+    {
+        String Key;
+        String FileName;            // null for the BRDF lookup texture
+        String TexCoordAttr;
+        String ShaderVar;
+        int[] Params = new int[4];  // ordinals of wrap S, wrap T, min and mag filters, -1 if not set
+    }
+
+    private static class NodeRecord
+    {
+        String Name;
+        float[] Matrix = new float[16];
+        int Mesh;
+        int Material;
+        NodeRecord[] Children;
+    }
+
+    private static class AnimationRecord
+    {
+        String Name;
+        float DurationTicks;
+        float TicksPerSecond;
+        final List<GVRAnimationChannel> Channels = new ArrayList<GVRAnimationChannel>();
+    }
+
+    private Contents read() throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        ByteBuffer buf;
+
+        try
+        {
+            FileChannel channel = file.getChannel();
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally
+        {
+            file.close();
+        }
+        buf.order(ByteOrder.nativeOrder());
+        if ((buf.getInt() != MAGIC) || (buf.getInt() != VERSION))
+        {
+            throw new IOException("not a model cache file of this version");
+        }
+        if (!mAppVersion.equals(getString(buf)))
+        {
+            throw new IOException("written by another version of the application");
+        }
+        int numFiles = buf.getInt();
+        for (int i = 0; i < numFiles; ++i)
+        {
+            String path = getString(buf);
+            byte[] hash = new byte[newDigest().getDigestLength()];
+
+            buf.get(hash);
+            align(buf);
+            if (!Arrays.equals(hash, digest(mVolume, path)))
+            {
+                Log.d(TAG, "ASSET: %s changed since it was cached", path);
+                return null;
+            }
+        }
+        Contents contents = new Contents();
+        int numMeshes = buf.getInt();
+
+        for (int i = 0; i < numMeshes; ++i)
+        {
+            contents.Meshes.add(readMesh(buf));
+        }
+        int numMaterials = buf.getInt();
+        for (int i = 0; i < numMaterials; ++i)
+        {
+            contents.Materials.add(readMaterial(buf));
+        }
+        int numNodes = buf.getInt();
+        for (int i = 0; i < numNodes; ++i)
+        {
+            contents.Nodes.add(readNode(buf, numMeshes, numMaterials));
+        }
+        int numAnimations = buf.getInt();
+        for (int i = 0; i < numAnimations; ++i)
+        {
+            contents.Animations.add(readAnimation(buf));
+        }
+        return contents;
+    }
+
+    private static MeshRecord readMesh(ByteBuffer buf)
+    {
+        MeshRecord mesh = new MeshRecord();
+
+        mesh.Descriptor = getString(buf);
+        mesh.VertexCount = buf.getInt();
+        mesh.Vertices = getSlice(buf, buf.getInt());
+        mesh.IndexSize = buf.getInt();
+        mesh.IndexCount = buf.getInt();
+        if ((mesh.IndexSize != 0) && (mesh.IndexSize != 2) && (mesh.IndexSize != 4))
+        {
+            throw new IllegalArgumentException("bad index size " + mesh.IndexSize);
+        }
+        mesh.Indices = getSlice(buf, mesh.IndexSize * mesh.IndexCount);
+        int numBones = buf.getInt();
+        mesh.BoneNames = new String[numBones];
+        mesh.BoneMatrices = new float[numBones][16];
+        for (int i = 0; i < numBones; ++i)
+        {
+            mesh.BoneNames[i] = getString(buf);
+            getFloats(buf, mesh.BoneMatrices[i]);
+        }
+        return mesh;
+    }
+
+    private static MaterialRecord readMaterial(ByteBuffer buf)
+    {
+        MaterialRecord mtl = new MaterialRecord();
+
+        mtl.ShaderClass = getString(buf);
+        int numUniforms = buf.getInt();
+        for (int i = 0; i < numUniforms; ++i)
+        {
+            mtl.UniformNames.add(getString(buf));
+            boolean isInt = buf.getInt() != 0;
+            int n = buf.getInt();
+            if (isInt)
+            {
+                int[] v = new int[n];
+                buf.asIntBuffer().get(v);
+                buf.position(buf.position() + 4 * n);
+                mtl.UniformValues.add(v);
+            }
+            else
+            {
+                float[] v = new float[n];
+                getFloats(buf, v);
+                mtl.UniformValues.add(v);
+            }
+        }
+        int numTextures = buf.getInt();
+        for (int i = 0; i < numTextures; ++i)
+        {
+            TextureRecord tex = new TextureRecord();
+
+            tex.Key = getString(buf);
+            tex.FileName = getString(buf);
+            tex.TexCoordAttr = getString(buf);
+            tex.ShaderVar = getString(buf);
+            for (int j = 0; j < tex.Params.length; ++j)
+            {
+                tex.Params[j] = buf.getInt();
+            }
+            mtl.Textures.add(tex);
+        }
+        return mtl;
+    }
+
+    private static NodeRecord readNode(ByteBuffer buf, int numMeshes, int numMaterials)
+    {
+        NodeRecord node = new NodeRecord();
+
+        node.Name = getString(buf);
+        getFloats(buf, node.Matrix);
+        node.Mesh = buf.getInt();
+        node.Material = buf.getInt();
+        if ((node.Mesh >= numMeshes) || (node.Material >= numMaterials) || ((node.Mesh < 0) != (node.Material < 0)))
+        {
+            throw new IllegalArgumentException("bad mesh or material index in node " + node.Name);
+        }
+        node.Children = new NodeRecord[buf.getInt()];
+        for (int i = 0; i < node.Children.length; ++i)
+        {
+            node.Children[i] = readNode(buf, numMeshes, numMaterials);
+        }
+        return node;
+    }
+
+    private static AnimationRecord readAnimation(ByteBuffer buf)
+    {
+        AnimationRecord anim = new AnimationRecord();
+        GVRAnimationBehavior[] behaviors = GVRAnimationBehavior.values();
+        float[] vec3 = new float[3];
+        float[] vec4 = new float[4];
+
+        anim.Name = getString(buf);
+        anim.DurationTicks = buf.getFloat();
+        anim.TicksPerSecond = buf.getFloat();
+        int numChannels = buf.getInt();
+        for (int i = 0; i < numChannels; ++i)
+        {
+            String nodeName = getString(buf);
+            GVRAnimationBehavior pre = behaviors[buf.getInt()];
+            GVRAnimationBehavior post = behaviors[buf.getInt()];
+
+            if (buf.getInt() != 0)
+            {
+                GVRCompressedFloatAnimation positions = readCompressedKeys(buf);
+                GVRCompressedFloatAnimation rotations = readCompressedKeys(buf);
+                GVRCompressedFloatAnimation scales = readCompressedKeys(buf);
+
+                if (!(rotations instanceof GVRCompressedQuatAnimation))
+                {
+                    throw new IllegalArgumentException("compressed rotations of " + nodeName + " have ranges");
+                }
+                anim.Channels.add(new GVRAnimationChannel(nodeName, positions, (GVRCompressedQuatAnimation) rotations,
+                                                          scales, pre, post));
+                continue;
+            }
+            int numPos = buf.getInt();
+            int numRot = buf.getInt();
+            int numScale = buf.getInt();
+            GVRAnimationChannel channel = new GVRAnimationChannel(nodeName, numPos, numRot, numScale, pre, post);
+
+            for (int k = 0; k < numPos; ++k)
+            {
+                float time = buf.getFloat();
+                getFloats(buf, vec3);
+                channel.setPosKeyVector(k, time, vec3);
+            }
+            for (int k = 0; k < numRot; ++k)
+            {
+                float time = buf.getFloat();
+                getFloats(buf, vec4);
+                channel.setRotKeyQuaternion(k, time, vec4);
+            }
+            for (int k = 0; k < numScale; ++k)
+            {
+                float time = buf.getFloat();
+                getFloats(buf, vec3);
+                channel.setScaleKeyVector(k, time, vec3);
+            }
+            anim.Channels.add(channel);
+        }
+        return anim;
+    }
+
+    /*
+     * Read the quantized keys of a compressed animation.
+     * Rotations have no ranges.
+     */
+    private static GVRCompressedFloatAnimation readCompressedKeys(ByteBuffer buf)
+    {
+        float[] times = new float[buf.getInt()];
+        short[] values = new short[times.length * buf.getInt()];
+        int numRanges = buf.getInt();
+
+        getFloats(buf, times);
+        getShorts(buf, values);
+        if (numRanges == 0)
+        {
+            return GVRCompressedQuatAnimation.fromCompressed(times, values);
+        }
+        float[] min = new float[numRanges];
+        float[] step = new float[numRanges];
+
+        getFloats(buf, min);
+        getFloats(buf, step);
+        return GVRCompressedFloatAnimation.fromCompressed(times, values, min, step);
+    }
+
+    private GVRMesh createMesh(MeshRecord rec)
+    {
+        GVRMesh mesh = new GVRMesh(mContext, rec.Descriptor);
+
+        if (rec.VertexCount > 0)
+        {
+            mesh.getVertexBuffer().setData(rec.Vertices, rec.VertexCount);
+        }
+        if (rec.IndexCount > 0)
+        {
+            GVRIndexBuffer indices = new GVRIndexBuffer(mContext, rec.IndexSize, rec.IndexCount);
+
+            if (rec.IndexSize == 2)
+            {
+                indices.setShortVec(rec.Indices.asCharBuffer());
+            }
+            else
+            {
+                indices.setIntVec(rec.Indices.asIntBuffer());
+            }
+            mesh.setIndexBuffer(indices);
+        }
+        if (rec.BoneNames.length > 0)
+        {
+            List<GVRBone> bones = new ArrayList<GVRBone>(rec.BoneNames.length);
+            for (int i = 0; i < rec.BoneNames.length; ++i)
+            {
+                GVRBone bone = new GVRBone(mContext);
+                bone.setName(rec.BoneNames[i]);
+                bone.setOffsetMatrix(rec.BoneMatrices[i]);
+                bones.add(bone);
+            }
+            mesh.setBones(bones);
+        }
+        return mesh;
+    }
+
+    private GVRMaterial createMaterial(GVRAssetLoader.AssetRequest request, MaterialRecord rec, GVRJassimpAdapter adapter)
+    {
+        Class<? extends GVRShader> shaderClass;
+
+        try
+        {
+            shaderClass = Class.forName(rec.ShaderClass).asSubclass(GVRShader.class);
+        }
+        catch (ClassNotFoundException ex)
+        {
+            throw new IllegalStateException("shader " + rec.ShaderClass + " not found", ex);
+        }
+        GVRMaterial material = new GVRMaterial(mContext, new GVRShaderId(shaderClass));
+
+        for (int i = 0; i < rec.UniformNames.size(); ++i)
+        {
+            Object value = rec.UniformValues.get(i);
+            if (value instanceof int[])
+            {
+                material.setIntArray(rec.UniformNames.get(i), (int[]) value);
+            }
+            else
+            {
+                material.setFloatArray(rec.UniformNames.get(i), (float[]) value);
+            }
+        }
+        for (TextureRecord texRec : rec.Textures)
+        {
+            if (texRec.FileName.isEmpty())
+            {
+                material.setTexture(texRec.Key, adapter.getBrdfLookup(mContext));
+                continue;
+            }
+            GVRTextureParameters texParams = new GVRTextureParameters(mContext);
+            GVRTextureParameters.TextureWrapType[] wrapTypes = GVRTextureParameters.TextureWrapType.values();
+            GVRTextureParameters.TextureFilterType[] filterTypes = GVRTextureParameters.TextureFilterType.values();
+
+            texParams.setWrapSType((texRec.Params[0] >= 0) ? wrapTypes[texRec.Params[0]] : null);
+            texParams.setWrapTType((texRec.Params[1] >= 0) ? wrapTypes[texRec.Params[1]] : null);
+            texParams.setMinFilterType((texRec.Params[2] >= 0) ? filterTypes[texRec.Params[2]] : null);
+            texParams.setMagFilterType((texRec.Params[3] >= 0) ? filterTypes[texRec.Params[3]] : null);
+
+            GVRTexture texture = new GVRTexture(mContext, texParams);
+
+            texture.setTexCoord(texRec.TexCoordAttr, texRec.ShaderVar);
+            material.setTexture(texRec.Key, texture);
+            request.loadTexture(new GVRAssetLoader.TextureRequest(request, texture, texRec.FileName));
+        }
+        return material;
+    }
+
+    /*
+     * Number of nodes with a mesh, each of them also has a material.
+     */
+    private static int countMeshReferences(NodeRecord node)
+    {
+        int count = (node.Mesh >= 0) ? 1 : 0;
+
+        for (NodeRecord child : node.Children)
+        {
+            count += countMeshReferences(child);
+        }
+        return count;
+    }
+
+    private GVRSceneObject createSceneObject(NodeRecord node, GVRMesh[] meshes, GVRMaterial[] materials)
+    {
+        final GVRSceneObject sceneObject = new GVRSceneObject(mContext);
+
+        sceneObject.setName(node.Name);
+        sceneObject.getTransform().setModelMatrix(node.Matrix);
+        if (node.Mesh >= 0)
+        {
+            GVRRenderData renderData = new GVRRenderData(mContext);
+
+            renderData.setMesh(meshes[node.Mesh]);
+            if (mSettings.contains(GVRImportSettings.NO_LIGHTING))
+            {
+                renderData.disableLight();
+            }
+            renderData.setMaterial(materials[node.Material]);
+            sceneObject.attachRenderData(renderData);
+        }
+        for (NodeRecord child : node.Children)
+        {
+            sceneObject.addChildObject(createSceneObject(child, meshes, materials));
+        }
+        mContext.runOnTheFrameworkThread(new Runnable() {
+            public void run() {
+                // Inform the loaded object after it has been attached to the scene graph
+                mContext.getEventManager().sendEvent(
+                        sceneObject,
+                        ISceneObjectEvents.class,
+                        "onLoaded");
+            }
+        });
+        return sceneObject;
+    }
+
+    /*
+     * Collects the meshes, materials, nodes and animations of an
+     * imported model and finds out whether it can be cached.
+     */
+    private class Snapshot
+    {
+        final Map<GVRMesh, Integer> mMeshIds = new IdentityHashMap<GVRMesh, Integer>();
+        final Map<GVRMaterial, Integer> mMaterialIds = new IdentityHashMap<GVRMaterial, Integer>();
+        final List<GVRMesh> mMeshes = new ArrayList<GVRMesh>();
+        final List<GVRMaterial> mMaterials = new ArrayList<GVRMaterial>();
+        final List<GVRSceneObject> mNodes = new ArrayList<GVRSceneObject>();
+        final List<GVRKeyFrameAnimation> mAnimations = new ArrayList<GVRKeyFrameAnimation>();
+
+        void addNode(GVRSceneObject node)
+        {
+            mNodes.add(node);
+            addObject(node);
+        }
+
+        private void addObject(GVRSceneObject obj)
+        {
+            obj.forAllComponents(new GVRSceneObject.ComponentVisitor()
+            {
+                public boolean visit(GVRComponent comp)
+                {
+                    if (!(comp instanceof GVRTransform) && !(comp instanceof GVRRenderData))
+                    {
+                        mUncacheable = comp.getClass().getSimpleName();
+                    }
+                    return true;
+                }
+            });
+            GVRRenderData rdata = obj.getRenderData();
+            if (rdata != null)
+            {
+                GVRMesh mesh = rdata.getMesh();
+                GVRMaterial material = rdata.getMaterial();
+
+                if ((mesh == null) || (material == null))
+                {
+                    mUncacheable = "render data without mesh or material";
+                    return;
+                }
+                if (!mMeshIds.containsKey(mesh))
+                {
+                    checkMesh(mesh);
+                    mMeshIds.put(mesh, mMeshes.size());
+                    mMeshes.add(mesh);
+                }
+                if (!mMaterialIds.containsKey(material))
+                {
+                    checkMaterial(material);
+                    mMaterialIds.put(material, mMaterials.size());
+                    mMaterials.add(material);
+                }
+            }
+            for (GVRSceneObject child : obj.getChildren())
+            {
+                addObject(child);
+            }
+        }
+
+        private void checkMesh(GVRMesh mesh)
+        {
+            GVRVertexBuffer vbuf = mesh.getVertexBuffer();
+            String[] desc = parseDescriptor(vbuf.getDescriptor());
+
+            for (int i = 1; i < desc.length; i += 2)
+            {
+                if (!vbuf.hasAttribute(desc[i]))
+                {
+                    mUncacheable = "vertex attribute " + desc[i] + " without data";
+                }
+            }
+        }
+
+        private void checkMaterial(GVRMaterial material)
+        {
+            for (String key : material.getTextureNames())
+            {
+                GVRTexture tex = material.getTexture(key);
+                if (!GVRJassimpAdapter.BRDF_LOOKUP_TEXTURE.equals(key) && ((tex == null) || !mTextures.containsKey(tex)))
+                {
+                    mUncacheable = "texture " + key + " not loaded from a file";
+                }
+            }
+        }
+
+        void addAnimations(GVRSceneObject model)
+        {
+            GVRAnimator animator = (GVRAnimator) model.getComponent(GVRAnimator.getComponentType());
+            if (animator == null)
+            {
+                return;
+            }
+            for (int i = 0; i < animator.getAnimationCount(); ++i)
+            {
+                GVRAnimation anim = animator.getAnimation(i);
+                if (anim instanceof GVRKeyFrameAnimation)
+                {
+                    mAnimations.add((GVRKeyFrameAnimation) anim);
+                }
+                else
+                {
+                    mUncacheable = anim.getClass().getSimpleName();
+                }
+            }
+        }
+
+        void write(Output out) throws IOException
+        {
+            out.putInt(mMeshes.size());
+            for (GVRMesh mesh : mMeshes)
+            {
+                writeMesh(out, mesh);
+            }
+            out.putInt(mMaterials.size());
+            for (GVRMaterial material : mMaterials)
+            {
+                writeMaterial(out, material);
+            }
+            out.putInt(mNodes.size());
+            for (GVRSceneObject node : mNodes)
+            {
+                writeNode(out, node);
+            }
+            out.putInt(mAnimations.size());
+            for (GVRKeyFrameAnimation anim : mAnimations)
+            {
+                writeAnimation(out, anim);
+            }
+        }
+
+        private void writeMesh(Output out, GVRMesh mesh) throws IOException
+        {
+            GVRVertexBuffer vbuf = mesh.getVertexBuffer();
+            GVRIndexBuffer ibuf = mesh.getIndexBuffer();
+            ByteBuffer vdata = ByteBuffer.allocateDirect(vbuf.getDataSize()).order(ByteOrder.nativeOrder());
+            List<GVRBone> bones = mesh.getBones();
+
+            vbuf.getData(vdata);
+            out.putString(vbuf.getDescriptor());
+            out.putInt(vbuf.getVertexCount());
+            out.putInt(vdata.capacity());
+            out.putData(vdata);
+            if ((ibuf == null) || (ibuf.getIndexCount() == 0))
+            {
+                out.putInt(0);
+                out.putInt(0);
+                out.putData(ByteBuffer.allocate(0));
+            }
+            else
+            {
+                int n = ibuf.getIndexCount();
+                ByteBuffer idata = ByteBuffer.allocateDirect(n * ibuf.getIndexSize()).order(ByteOrder.nativeOrder());
+
+                if (ibuf.getIndexSize() == 2)
+                {
+                    idata.asCharBuffer().put(ibuf.asCharBuffer());
+                }
+                else
+                {
+                    idata.asIntBuffer().put(ibuf.asIntBuffer());
+                }
+                out.putInt(ibuf.getIndexSize());
+                out.putInt(n);
+                out.putData(idata);
+            }
+            out.putInt((bones != null) ? bones.size() : 0);
+            if (bones != null)
+            {
+                float[] matrix = new float[16];
+                for (GVRBone bone : bones)
+                {
+                    out.putString(bone.getName());
+                    bone.getOffsetMatrix().get(matrix);
+                    out.putFloats(matrix);
+                }
+            }
+        }
+
+        private void writeMaterial(Output out, GVRMaterial material) throws IOException
+        {
+            String[] desc = parseDescriptor(material.getUniformDescriptor());
+            List<String> names = new ArrayList<String>();
+            List<Boolean> isInts = new ArrayList<Boolean>();
+
+            for (int i = 1; i < desc.length; i += 2)
+            {
+                if (material.hasUniform(desc[i]))
+                {
+                    names.add(desc[i]);
+                    isInts.add(desc[i - 1].startsWith("int"));
+                }
+            }
+            out.putString(material.getShaderType().ID.getName());
+            out.putInt(names.size());
+            for (int u = 0; u < names.size(); ++u)
+            {
+                String name = names.get(u);
+                boolean isInt = isInts.get(u);
+
+                out.putString(name);
+                out.putInt(isInt ? 1 : 0);
+                if (isInt)
+                {
+                    int[] v = material.getIntVec(name);
+                    out.putInt(v.length);
+                    for (int x : v)
+                    {
+                        out.putInt(x);
+                    }
+                }
+                else
+                {
+                    float[] v = material.getFloatVec(name);
+                    out.putInt(v.length);
+                    out.putFloats(v);
+                }
+            }
+            out.putInt(material.getTextureNames().size());
+            for (String key : material.getTextureNames())
+            {
+                GVRTexture tex = material.getTexture(key);
+                TextureRef ref = mTextures.get(tex);
+
+                out.putString(key);
+                if (ref == null)
+                {
+                    // the BRDF lookup table, shared and made again on load
+                    out.putString("");
+                    out.putString("");
+                    out.putString("");
+                    for (int i = 0; i < 4; ++i)
+                    {
+                        out.putInt(-1);
+                    }
+                    continue;
+                }
+                GVRTextureParameters params = ref.Params;
+                out.putString(ref.FileName);
+                out.putString(tex.getTexCoordAttr());
+                out.putString(tex.getTexCoordShaderVar());
+                out.putInt((params.getWrapSType() != null) ? params.getWrapSType().ordinal() : -1);
+                out.putInt((params.getWrapTType() != null) ? params.getWrapTType().ordinal() : -1);
+                out.putInt((params.getMinFilterType() != null) ? params.getMinFilterType().ordinal() : -1);
+                out.putInt((params.getMagFilterType() != null) ? params.getMagFilterType().ordinal() : -1);
+            }
+        }
+
+        private void writeNode(Output out, GVRSceneObject obj) throws IOException
+        {
+            GVRRenderData rdata = obj.getRenderData();
+
+            out.putString(obj.getName());
+            out.putFloats(obj.getTransform().getLocalModelMatrix());
+            out.putInt((rdata != null) ? mMeshIds.get(rdata.getMesh()) : -1);
+            out.putInt((rdata != null) ? mMaterialIds.get(rdata.getMaterial()) : -1);
+            out.putInt(obj.getChildrenCount());
+            for (GVRSceneObject child : obj.getChildren())
+            {
+                writeNode(out, child);
+            }
+        }
+
+        private void writeAnimation(Output out, GVRKeyFrameAnimation anim) throws IOException
+        {
+            float[] vec3 = new float[3];
+            float[] vec4 = new float[4];
+
+            out.putString(anim.getName());
+            out.putFloat(anim.getDurationTicks());
+            out.putFloat(anim.getTicksPerSecond());
+            out.putInt(anim.getNumChannels());
+            for (int i = 0; i < anim.getNumChannels(); ++i)
+            {
+                GVRAnimationChannel channel = anim.getChannel(i);
+
+                out.putString(channel.getNodeName());
+                out.putInt(channel.getPreState().ordinal());
+                out.putInt(channel.getPostState().ordinal());
+                out.putInt(channel.isCompressed() ? 1 : 0);
+                if (channel.isCompressed())
+                {
+                    writeCompressedKeys(out, (GVRCompressedFloatAnimation) channel.getPosAnimation());
+                    writeCompressedKeys(out, (GVRCompressedFloatAnimation) channel.getRotAnimation());
+                    writeCompressedKeys(out, (GVRCompressedFloatAnimation) channel.getScaleAnimation());
+                    continue;
+                }
+                out.putInt(channel.getNumPosKeys());
+                out.putInt(channel.getNumRotKeys());
+                out.putInt(channel.getNumScaleKeys());
+                for (int k = 0; k < channel.getNumPosKeys(); ++k)
+                {
+                    channel.getPosKeyVector(k, vec3);
+                    out.putFloat(channel.getPosKeyTime(k));
+                    out.putFloats(vec3);
+                }
+                for (int k = 0; k < channel.getNumRotKeys(); ++k)
+                {
+                    channel.getRotKeyQuaternion(k, vec4);
+                    out.putFloat(channel.getRotKeyTime(k));
+                    out.putFloats(vec4);
+                }
+                for (int k = 0; k < channel.getNumScaleKeys(); ++k)
+                {
+                    channel.getScaleKeyVector(k, vec3);
+                    out.putFloat((float) channel.getScaleKeyTime(k));
+                    out.putFloats(vec3);
+                }
+            }
+        }
+
+        /*
+         * Write the quantized keys of a compressed animation
+         * without decompressing them.
+         */
+        private void writeCompressedKeys(Output out, GVRCompressedFloatAnimation keys) throws IOException
+        {
+            float[] times = keys.getKeyTimes();
+            short[] values = keys.getKeyValues();
+            float[] min = keys.getValueMin();
+
+            out.putInt(times.length);
+            out.putInt((times.length > 0) ? values.length / times.length : 0);
+            out.putInt((min != null) ? min.length : 0);
+            out.putFloats(times);
+            out.putShorts(values);
+            if (min != null)
+            {
+                out.putFloats(min);
+                out.putFloats(keys.getValueStep());
+            }
+        }
+    }
+
+    /*
+     * Writes the cache file in native byte order. Small values go through
+     * a buffer, bulk vertex and index data straight to the channel.
+     * Strings and bulk data are padded to 4 bytes so the data
+     * which follows stays aligned when the file is mapped.
+     */
+    private static class Output
+    {
+        private final FileChannel mChannel;
+        private final ByteBuffer mBuffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.nativeOrder());
+
+        Output(FileChannel channel)
+        {
+            mChannel = channel;
+        }
+
+        void putInt(int v) throws IOException
+        {
+            reserve(4);
+            mBuffer.putInt(v);
+        }
+
+        void putFloat(float v) throws IOException
+        {
+            reserve(4);
+            mBuffer.putFloat(v);
+        }
+
+        void putFloats(float[] v) throws IOException
+        {
+            for (float f : v)
+            {
+                putFloat(f);
+            }
+        }
+
+        void putShorts(short[] v) throws IOException
+        {
+            for (short x : v)
+            {
+                reserve(2);
+                mBuffer.putShort(x);
+            }
+            pad(v.length * 2);
+        }
+
+        void putBytes(byte[] v) throws IOException
+        {
+            flush();
+            write(ByteBuffer.wrap(v));
+            pad(v.length);
+        }
+
+        void putString(String s) throws IOException
+        {
+            byte[] bytes = (s != null) ? s.getBytes(UTF8) : new byte[0];
+            putInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        void putData(ByteBuffer data) throws IOException
+        {
+            int n = data.capacity();
+            flush();
+            data.clear();
+            write(data);
+            pad(n);
+        }
+
+        void flush() throws IOException
+        {
+            mBuffer.flip();
+            write(mBuffer);
+            mBuffer.clear();
+        }
+
+        private void pad(int n) throws IOException
+        {
+            while ((n++ & 3) != 0)
+            {
+                reserve(1);
+                mBuffer.put((byte) 0);
+            }
+        }
+
+        private void reserve(int n) throws IOException
+        {
+            if (mBuffer.remaining() < n)
+            {
+                flush();
+            }
+        }
+
+        private void write(ByteBuffer data) throws IOException
+        {
+            while (data.hasRemaining())
+            {
+                mChannel.write(data);
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buf)
+    {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        align(buf);
+        return new String(bytes, UTF8);
+    }
+
+    private static void getFloats(ByteBuffer buf, float[] v)
+    {
+        buf.asFloatBuffer().get(v);
+        buf.position(buf.position() + 4 * v.length);
+    }
+
+    private static void getShorts(ByteBuffer buf, short[] v)
+    {
+        buf.asShortBuffer().get(v);
+        buf.position(buf.position() + 2 * v.length);
+        align(buf);
+    }
+
+    /*
+     * Get a direct buffer over the next bytes of the mapped file,
+     * no data is copied.
+     */
+    private static ByteBuffer getSlice(ByteBuffer buf, int n)
+    {
+        ByteBuffer slice = buf.duplicate();
+
+        slice.limit(buf.position() + n);
+        buf.position(buf.position() + n);
+        align(buf);
+        return slice.slice().order(ByteOrder.nativeOrder());
+    }
+
+    private static void align(ByteBuffer buf)
+    {
+        buf.position((buf.position() + 3) & ~3);
+    }
+
+    /*
+     * Split a descriptor like "float4 diffuse_color; float u_weights[8]"
+     * into alternating types and names.
+     */
+    private static String[] parseDescriptor(String desc)
+    {
+        String[] tokens = desc.trim().split("[\\s,;]+");
+
+        for (int i = 1; i < tokens.length; i += 2)
+        {
+            int bracket = tokens[i].indexOf('[');
+            if (bracket > 0)
+            {
+                tokens[i] = tokens[i].substring(0, bracket);
+            }
+        }
+        return tokens;
+    }
+
+    private static byte[] digest(GVRResourceVolume volume, String path) throws IOException
+    {
+        GVRAndroidResource resource = volume.openResource(path);
+        MessageDigest md = newDigest();
+        byte[] data = new byte[64 * 1024];
+        int n;
+
+        try
+        {
+            InputStream stream = resource.getStream();
+            if (stream == null)
+            {
+                throw new IOException("Cannot open " + path);
+            }
+            while ((n = stream.read(data)) > 0)
+            {
+                md.update(data, 0, n);
+            }
+        }
+        finally
+        {
+            resource.closeStream();
+        }
+        return md.digest();
+    }
+
+    /*
+     * Version code and install time of the application. The framework
+     * and the shader classes named in the cache file ship with the
+     * application, so any update of it may change how a model is rebuilt.
+     */
+    private static String getAppVersion(Context context)
+    {
+        try
+        {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            return info.versionCode + ":" + info.lastUpdateTime;
+        }
+        catch (PackageManager.NameNotFoundException ex)
+        {
+            return "";
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -1251,6 +1251,24 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
         return NativeSceneObject.getBoundingVolume(getNative());
     }
 
+    /**
+     * Get the size of this scene object on the screen when the
+     * main camera rig last rendered it.
+     *
+     * The size is the height of the bounding sphere of the object
+     * and its descendants as a fraction of the screen height.
+     * It is computed from the bounding volume, so it is cheap
+     * enough to call every frame, for example to lower the level
+     * of detail of the animations of distant characters.
+     *
+     * @return the size on the screen, about 1 if the camera is
+     *         inside the bounding sphere, or 0 if the object
+     *         was culled from the last frame.
+     */
+    public float getViewSize() {
+        return NativeSceneObject.getViewSize(getNative());
+    }
+
     /**
      * Expand the current volume by the given point
      * @param pointX    x coordinate of point
@@ -1329,6 +1347,8 @@ class NativeSceneObject {
 
     static native float[] getBoundingVolume(long sceneObject);
 
+    static native float getViewSize(long sceneObject);
+
     static native float[] expandBoundingVolumeByPoint(
             long sceneObject, float pointX, float pointY, float pointZ);
 
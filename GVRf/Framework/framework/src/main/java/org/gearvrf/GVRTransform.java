@@ -318,6 +318,28 @@ public class GVRTransform extends GVRComponent {
         return NativeTransform.getLocalModelMatrix(getNative());
     }
 
+    /**
+     * Get the 4x4 single matrix without allocating a new array.
+     *
+     * @param mat
+     *            An array of 16 {@code float}s which gets the 4x4 matrix in
+     *            OpenGL-compatible column-major format.
+     */
+    public void getModelMatrix(float[] mat) {
+        NativeTransform.copyModelMatrix(getNative(), mat);
+    }
+
+    /**
+     * Get the 4x4 single local transform matrix without allocating a new array.
+     *
+     * @param mat
+     *            An array of 16 {@code float}s which gets the 4x4 matrix in
+     *            OpenGL-compatible column-major format.
+     */
+    public void getLocalModelMatrix(float[] mat) {
+        NativeTransform.copyLocalModelMatrix(getNative(), mat);
+    }
+
     /**
      * Get the 4x4 single matrix.
      *
@@ -572,6 +594,10 @@ class NativeTransform {
 
     static native float[] getLocalModelMatrix(long transform);
 
+    static native void copyModelMatrix(long transform, float[] mat);
+
+    static native void copyLocalModelMatrix(long transform, float[] mat);
+
     static native void setModelMatrix(long tranform, float[] mat);
 
     static native void translate(long transform, float x, float y, float z);
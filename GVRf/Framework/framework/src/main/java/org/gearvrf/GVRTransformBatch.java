@@ -0,0 +1,321 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes the transforms of many scene objects with
+ * a single native call.
+ * <p>
+ * Each {@link GVRTransform} getter and setter is a separate call
+ * into native code. When many objects are animated every frame,
+ * register their transforms once with a batch and exchange
+ * the values through its shared direct {@link FloatBuffer}:
+ * <pre>
+ *     FloatBuffer buffer = batch.read(GVRTransformBatch.POSITION);
+ *     // change the positions in the buffer
+ *     batch.write(GVRTransformBatch.POSITION);
+ * </pre>
+ * The values of each transform are packed one after the other
+ * in the order the transforms were added:
+ * <ul>
+ * <li>{@link #POSITION} 3 floats x, y, z</li>
+ * <li>{@link #ROTATION} 4 floats w, x, y, z of the quaternion</li>
+ * <li>{@link #SCALE} 3 floats x, y, z</li>
+ * <li>{@link #LOCAL_TRS} 10 floats, the position, rotation and scale above</li>
+ * <li>{@link #LOCAL_MATRIX} 16 floats, column major</li>
+ * <li>{@link #MODEL_MATRIX} 16 floats, column major, read only</li>
+ * </ul>
+ * A write invalidates each changed part of the scene graph once,
+ * transforms whose ancestors are in the batch are not invalidated
+ * again. Writing {@link #LOCAL_TRS} costs one invalidation where
+ * {@link GVRTransform#setPosition}, {@link GVRTransform#setRotation}
+ * and {@link GVRTransform#setScale} cost three.
+ * <p>
+ * {@link #add(GVRTransform)} and {@link #swapRemove(int)} do not call
+ * native code, the changes are sent together with the next read or
+ * write. Batches whose transforms come and go every frame use
+ * {@link #swapRemove(int)}, which keeps the other transforms in place,
+ * instead of setting up the whole batch again.
+ */
+public class GVRTransformBatch extends GVRHybridObject {
+    /** Local position of each transform */
+    public static final int POSITION = 0;
+    /** Local rotation quaternion of each transform */
+    public static final int ROTATION = 1;
+    /** Local scale of each transform */
+    public static final int SCALE = 2;
+    /** Local position, rotation and scale of each transform */
+    public static final int LOCAL_TRS = 3;
+    /** Local matrix of each transform */
+    public static final int LOCAL_MATRIX = 4;
+    /** World matrix of each transform, cannot be written */
+    public static final int MODEL_MATRIX = 5;
+
+    private static final int[] COMPONENT_SIZE = { 3, 4, 3, 10, 16, 16 };
+    private static final int MAX_COMPONENT_SIZE = 16;
+    private static final int BYTES_PER_FLOAT = 4;
+    private static final long EDIT_ADD = 0;
+    private static final long EDIT_SWAP_REMOVE = 1;
+
+    private final List<GVRTransform> mTransforms = new ArrayList<GVRTransform>();
+    private FloatBuffer mBuffer;
+    private long[] mNativeTransforms;
+
+    /*
+     * Changes not sent to native code yet, two longs each:
+     * EDIT_ADD and the transform or EDIT_SWAP_REMOVE and the index.
+     */
+    private long[] mEdits = new long[32];
+    private int mEditCount = 0;
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param gvrContext current {@link GVRContext}
+     * @param capacity   number of transforms to make room for, the
+     *                   buffer grows if more transforms are added
+     */
+    public GVRTransformBatch(GVRContext gvrContext, int capacity) {
+        super(gvrContext, NativeTransformBatch.ctor());
+        mBuffer = allocateBuffer(Math.max(capacity, 1));
+    }
+
+    /**
+     * Constructs a batch for a list of transforms.
+     *
+     * @param gvrContext current {@link GVRContext}
+     * @param transforms transforms to add to the batch
+     */
+    public GVRTransformBatch(GVRContext gvrContext, List<GVRTransform> transforms) {
+        this(gvrContext, transforms.size());
+        for (GVRTransform t : transforms) {
+            add(t);
+        }
+    }
+
+    /**
+     * Add a transform at the end of the batch.
+     * If the buffer has to grow, the buffer returned by
+     * {@link #getBuffer()} before is no longer used.
+     *
+     * @param transform transform to add
+     * @return index of the transform in the batch
+     */
+    public int add(GVRTransform transform) {
+        int index = mTransforms.size();
+
+        if ((index + 1) * MAX_COMPONENT_SIZE > mBuffer.capacity()) {
+            mBuffer = allocateBuffer(2 * (index + 1));
+        }
+        mTransforms.add(transform);
+        addEdit(EDIT_ADD, transform.getNative());
+        return index;
+    }
+
+    /**
+     * Remove a transform from the batch.
+     * The transforms after it move down one place.
+     *
+     * @param transform transform to remove
+     */
+    public void remove(GVRTransform transform) {
+        if (mTransforms.remove(transform)) {
+            sendEdits();
+            NativeTransformBatch.remove(getNative(), transform.getNative());
+        }
+    }
+
+    /**
+     * Remove the transform at an index by moving the
+     * last transform of the batch into its place.
+     * The other transforms keep their indices.
+     *
+     * @param index index of the transform to remove
+     * @throws IndexOutOfBoundsException if there is no transform at the index
+     */
+    public void swapRemove(int index) {
+        int last = mTransforms.size() - 1;
+
+        mTransforms.set(index, mTransforms.get(last));
+        mTransforms.remove(last);
+        addEdit(EDIT_SWAP_REMOVE, index);
+    }
+
+    /**
+     * Replace the transforms in the batch with a new list.
+     * This is one native call however many transforms there are.
+     * If the buffer has to grow, the buffer returned by
+     * {@link #getBuffer()} before is no longer used.
+     *
+     * @param transforms transforms to put in the batch
+     * @param count      number of transforms to take from the array
+     */
+    public void set(GVRTransform[] transforms, int count) {
+        if (count * MAX_COMPONENT_SIZE > mBuffer.capacity()) {
+            mBuffer = allocateBuffer(2 * count);
+        }
+        if ((mNativeTransforms == null) || (mNativeTransforms.length < count)) {
+            mNativeTransforms = new long[2 * count];
+        }
+        mEditCount = 0;
+        mTransforms.clear();
+        for (int i = 0; i < count; ++i) {
+            mTransforms.add(transforms[i]);
+            mNativeTransforms[i] = transforms[i].getNative();
+        }
+        NativeTransformBatch.set(getNative(), mNativeTransforms, count);
+    }
+
+    /**
+     * Remove all the transforms from the batch.
+     */
+    public void clear() {
+        mEditCount = 0;
+        mTransforms.clear();
+        NativeTransformBatch.clear(getNative());
+    }
+
+    /**
+     * @return number of transforms in the batch
+     */
+    public int size() {
+        return mTransforms.size();
+    }
+
+    /**
+     * @param index index of a transform in the batch
+     * @return the transform
+     */
+    public GVRTransform get(int index) {
+        return mTransforms.get(index);
+    }
+
+    /**
+     * Get the buffer the values are exchanged through.
+     * It holds 16 floats for each transform in the batch.
+     *
+     * @return direct buffer in native byte order
+     */
+    public FloatBuffer getBuffer() {
+        return mBuffer;
+    }
+
+    /**
+     * Get the number of floats an attribute takes for each transform.
+     *
+     * @param attribute {@link #POSITION}, {@link #ROTATION}, {@link #SCALE},
+     *                  {@link #LOCAL_TRS}, {@link #LOCAL_MATRIX} or {@link #MODEL_MATRIX}
+     * @return number of floats
+     */
+    public static int getComponentSize(int attribute) {
+        checkAttribute(attribute);
+        return COMPONENT_SIZE[attribute];
+    }
+
+    /**
+     * Copy an attribute of all the transforms into the buffer.
+     *
+     * @param attribute {@link #POSITION}, {@link #ROTATION}, {@link #SCALE},
+     *                  {@link #LOCAL_TRS}, {@link #LOCAL_MATRIX} or {@link #MODEL_MATRIX}
+     * @return the buffer with the values, its limit is set
+     *         to the number of floats read
+     */
+    public FloatBuffer read(int attribute) {
+        checkAttribute(attribute);
+        sendEdits();
+        if (!NativeTransformBatch.read(getNative(), attribute, mBuffer)) {
+            throw new IllegalStateException("cannot read transform batch");
+        }
+        mBuffer.clear();
+        mBuffer.limit(size() * COMPONENT_SIZE[attribute]);
+        return mBuffer;
+    }
+
+    /**
+     * Set an attribute of all the transforms from the buffer.
+     * The values are taken from the start of the buffer,
+     * its position and limit are ignored.
+     *
+     * @param attribute {@link #POSITION}, {@link #ROTATION}, {@link #SCALE},
+     *                  {@link #LOCAL_TRS} or {@link #LOCAL_MATRIX}
+     */
+    public void write(int attribute) {
+        checkAttribute(attribute);
+        if (attribute == MODEL_MATRIX) {
+            throw new IllegalArgumentException("the model matrix cannot be written, use LOCAL_MATRIX");
+        }
+        sendEdits();
+        if (!NativeTransformBatch.write(getNative(), attribute, mBuffer)) {
+            throw new IllegalStateException("cannot write transform batch");
+        }
+    }
+
+    private void addEdit(long kind, long value) {
+        if (mEditCount * 2 == mEdits.length) {
+            mEdits = Arrays.copyOf(mEdits, 2 * mEdits.length);
+        }
+        mEdits[mEditCount * 2] = kind;
+        mEdits[mEditCount * 2 + 1] = value;
+        ++mEditCount;
+    }
+
+    /*
+     * Apply the changes made since the last native call
+     * to the native batch, in one call.
+     */
+    private void sendEdits() {
+        if (mEditCount > 0) {
+            NativeTransformBatch.edit(getNative(), mEdits, mEditCount);
+            mEditCount = 0;
+        }
+    }
+
+    private static void checkAttribute(int attribute) {
+        if ((attribute < 0) || (attribute >= COMPONENT_SIZE.length)) {
+            throw new IllegalArgumentException("unknown transform attribute " + attribute);
+        }
+    }
+
+    private static FloatBuffer allocateBuffer(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * MAX_COMPONENT_SIZE * BYTES_PER_FLOAT)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
+
+class NativeTransformBatch {
+    static native long ctor();
+
+    static native void add(long batch, long transform);
+
+    static native void remove(long batch, long transform);
+
+    static native void clear(long batch);
+
+    static native void set(long batch, long[] transforms, int count);
+
+    static native void edit(long batch, long[] edits, int count);
+
+    static native boolean read(long batch, int attribute, FloatBuffer buffer);
+
+    static native boolean write(long batch, int attribute, FloatBuffer buffer);
+}
@@ -499,6 +499,56 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         }
     }
 
+    /**
+     * Updates all of the vertex attributes at once from a direct buffer.
+     * The buffer holds the interleaved vertex data in the layout of the
+     * descriptor, as returned by {@link #getData(ByteBuffer)}, in native
+     * byte order. It is copied with a single native call and all of the
+     * attributes are considered set afterwards.
+     * @param data        direct ByteBuffer with the vertex data,
+     *                    starting at its first byte.
+     * @param vertexCount number of vertices in the buffer.
+     * @throws IllegalArgumentException if the buffer is not direct,
+     *         is too small or the vertex count cannot be changed.
+     * @see #getDataSize()
+     */
+    public void setData(ByteBuffer data, int vertexCount)
+    {
+        if (!data.isDirect())
+        {
+            throw new IllegalArgumentException("Vertex data must be in a direct buffer");
+        }
+        if (!NativeVertexBuffer.setData(getNative(), data, vertexCount))
+        {
+            throw new IllegalArgumentException("Cannot set " + vertexCount + " vertices from buffer of size " + data.capacity());
+        }
+    }
+
+    /**
+     * Copies all of the vertex attributes at once into a direct buffer.
+     * The vertex data is interleaved in the layout of the descriptor.
+     * @param data direct ByteBuffer with room for at least
+     *             {@link #getDataSize()} bytes from its first byte.
+     * @throws IllegalArgumentException if the buffer is not direct or too small.
+     * @see #setData(ByteBuffer, int)
+     */
+    public void getData(ByteBuffer data)
+    {
+        if (!data.isDirect() || !NativeVertexBuffer.getData(getNative(), data))
+        {
+            throw new IllegalArgumentException("Cannot copy vertex data into buffer of size " + data.capacity());
+        }
+    }
+
+    /**
+     * Get the number of bytes occupied by all the vertices.
+     * @return vertex count times the size of one vertex in bytes.
+     */
+    public int getDataSize()
+    {
+        return NativeVertexBuffer.getDataSize(getNative());
+    }
+
     /**
      * Get the number of vertices in this vertex buffer.
      * <p>
@@ -616,5 +666,11 @@ class NativeVertexBuffer {
 
     static native int getBoundingVolume(long vbuf, float[] bv);
 
+    static native boolean getData(long vbuf, ByteBuffer data);
+
+    static native boolean setData(long vbuf, ByteBuffer data, int vertexCount);
+
+    static native int getDataSize(long vbuf);
+
     static native void dump(long vbuf, String attrName);
 }
\ No newline at end of file
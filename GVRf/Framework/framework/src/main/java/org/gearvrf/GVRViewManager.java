@@ -23,6 +23,7 @@ import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVROnFinish;
 import org.gearvrf.animation.GVROpacityAnimation;
 import org.gearvrf.asynchronous.GVRAsynchronousResourceLoader;
+import org.gearvrf.debug.GVRProfiler;
 import org.gearvrf.io.GVRGearCursorController;
 import org.gearvrf.io.GVRInputManager;
 import org.gearvrf.script.IScriptManager;
@@ -264,6 +265,7 @@ abstract class GVRViewManager extends GVRContext {
          * Without the sensor data, can't draw a scene properly.
          */
         if (!(mSensoredScene == null || !mMainScene.equals(mSensoredScene))) {
+            long profileStart = GVRProfiler.begin();
             Runnable runnable;
             while ((runnable = mRunnables.poll()) != null) {
                 try {
@@ -273,7 +275,9 @@ abstract class GVRViewManager extends GVRContext {
                     exc.printStackTrace();
                 }
             }
+            GVRProfiler.end(GVRProfiler.Stage.RUNNABLES, profileStart);
 
+            profileStart = GVRProfiler.begin();
             final List<GVRDrawFrameListener> frameListeners = mFrameListeners;
             for (GVRDrawFrameListener listener : frameListeners) {
                 try {
@@ -283,6 +287,7 @@ abstract class GVRViewManager extends GVRContext {
                     exc.printStackTrace();
                 }
             }
+            GVRProfiler.end(GVRProfiler.Stage.FRAME_LISTENERS, profileStart);
         }
 
         return currentTime;
@@ -508,6 +513,7 @@ abstract class GVRViewManager extends GVRContext {
     }
 
     protected void beforeDrawEyes() {
+        GVRProfiler.endFrame();
         GVRNotifications.notifyBeforeStep();
         mFrameHandler.beforeDrawEyes();
         if (null != mControllerReader) {
@@ -27,6 +27,10 @@ public interface IAssetEvents extends IEvents
      * Called when a model is successfully loaded.
      * This event will not be raised until the model and all of
      * its textures are loaded.
+     * If the model is a {@link org.gearvrf.scene_objects.GVRModelSceneObject},
+     * its {@link org.gearvrf.scene_objects.GVRModelSceneObject#getLoadTimes()}
+     * tells how long each stage of loading took and how many
+     * meshes and materials the scene objects share.
      * @param context   GVRContext used to load the model
      * @param model     GVRSceneObject root of the model scene graph, null if model did not load.
      * @param filePath  File path or URL of the model.
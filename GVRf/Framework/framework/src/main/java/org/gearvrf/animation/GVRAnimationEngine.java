@@ -44,6 +44,10 @@ import org.gearvrf.GVRSceneObject;
  * {@linkplain GVROnRepeat callback,} which allows you to terminate the
  * animation before the next loop.
  * </ul>
+ *
+ * <p>
+ * To run thousands of simple position, scale or rotation animations
+ * at once, use the {@link GVRTweenEngine}.
  */
 public class GVRAnimationEngine {
 
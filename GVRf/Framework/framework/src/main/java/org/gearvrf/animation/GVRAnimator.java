@@ -3,6 +3,8 @@ package org.gearvrf.animation;
 import org.gearvrf.GVRBehavior;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.animation.keyframe.GVRAnimationLOD;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
 import org.gearvrf.utility.Log;
 
 import java.util.ArrayList;
@@ -80,6 +82,13 @@ public class GVRAnimator extends GVRBehavior
      */
     public int getAnimationCount() { return mAnimations.size(); }
 
+    /**
+     * Get one of the animations owned by this animator.
+     * @param index 0-based index of the animation
+     * @return animation at that index
+     */
+    public GVRAnimation getAnimation(int index) { return mAnimations.get(index); }
+
     /**
      * Adds an animation to this animator.
      * <p>
@@ -165,6 +174,26 @@ public class GVRAnimator extends GVRBehavior
         }
     }
 
+    /**
+     * Sets the level of detail policy of all the key frame
+     * animations in this animator. Animations added later
+     * keep their own policy.
+     *
+     * @param lod level of detail policy, null to evaluate
+     *            the animations every frame
+     * @see GVRKeyFrameAnimation#setLOD(GVRAnimationLOD)
+     */
+    public void setLOD(GVRAnimationLOD lod)
+    {
+        for (GVRAnimation anim : mAnimations)
+        {
+            if (anim instanceof GVRKeyFrameAnimation)
+            {
+                ((GVRKeyFrameAnimation) anim).setLOD(lod);
+            }
+        }
+    }
+
     /**
      * Starts all of the animations.
      * @see GVRAnimator#reset()
@@ -0,0 +1,744 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRDrawFrameListener;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTransform;
+import org.gearvrf.GVRTransformBatch;
+
+/**
+ * Runs large numbers of simple transform animations (tweens).
+ * <p>
+ * {@link GVRAnimationEngine} runs one {@link GVRAnimation} object per
+ * animation and each of them sets its transform with its own native
+ * call. The tween engine keeps the state of all its tweens in
+ * primitive arrays, evaluates them in one loop and writes the
+ * results to the transforms with one {@link GVRTransformBatch}
+ * write for each animated property.
+ * <p>
+ * A tween moves the position or scale of a transform to a target
+ * value, or rotates it by an angle around an axis, like
+ * {@link GVRPositionAnimation}, {@link GVRScaleAnimation} and
+ * {@link GVRRotationByAxisAnimation}. Tweens are identified by the
+ * {@code int} handle returned when they are started. Repeat modes,
+ * repeat counts and callbacks behave like those of {@link GVRAnimation}.
+ * <pre>
+ *     GVRTweenEngine tweens = GVRTweenEngine.getInstance(gvrContext);
+ *     int tween = tweens.position(sceneObject.getTransform(), 2.0f, 0, 1, -5);
+ *     tweens.setRepeatMode(tween, GVRRepeatMode.PINGPONG);
+ *     tweens.setRepeatCount(tween, 4);
+ * </pre>
+ * Tweens start running on the next frame.
+ * Callbacks are called on the GL thread after the final
+ * values of the tweens have been applied.
+ */
+public class GVRTweenEngine {
+    /** Linear interpolation */
+    public static final int LINEAR = 0;
+    /** Same as {@link GVRAccelerateDecelerateInterpolator} */
+    public static final int ACCELERATE_DECELERATE = 1;
+
+    /**
+     * Called when a tween has stopped running.
+     * @see GVROnFinish
+     */
+    public interface OnFinish {
+        /**
+         * @param engine engine which ran the tween
+         * @param tween  handle of the tween, no longer valid
+         */
+        void finished(GVRTweenEngine engine, int tween);
+    }
+
+    /**
+     * Called at the end of each cycle of a tween with
+     * a negative repeat count. It is called while the
+     * tweens are updated and must not start or stop tweens,
+     * return false instead to stop the tween.
+     * @see GVROnRepeat
+     */
+    public interface OnRepeat extends OnFinish {
+        /**
+         * @param engine engine which runs the tween
+         * @param tween  handle of the tween
+         * @param count  number of cycles completed so far
+         * @return true to keep running, false to stop
+         */
+        boolean iteration(GVRTweenEngine engine, int tween, int count);
+    }
+
+    private static final int POSITION = 0;
+    private static final int SCALE = 1;
+    private static final int ROTATION = 2;
+    private static final int NUM_PROPERTIES = 3;
+    private static final int[] BATCH_ATTRIBUTE = {
+            GVRTransformBatch.POSITION, GVRTransformBatch.SCALE, GVRTransformBatch.ROTATION };
+    private static final int[] VALUE_SIZE = { 3, 3, 4 };
+
+    /*
+     * Parameters of each tween:
+     * position and scale    start x, y, z, delta x, y, z
+     * rotation              start w, x, y, z, axis x, y, z, angle in radians
+     */
+    private static final int PARAM_SIZE = 8;
+
+    /*
+     * A handle is the slot of the tween in the low bits
+     * and a serial number in the high bits, so stale
+     * handles do not find tweens started later.
+     */
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int MAX_TWEENS = 1 << SLOT_BITS;
+
+    /*
+     * The accelerate/decelerate curve sampled for linear
+     * interpolation, which is within 1e-6 of the curve.
+     * Math.cos in GVRAccelerateDecelerateInterpolator
+     * takes most of the time of evaluating a tween.
+     */
+    private static final int CURVE_SAMPLES = 1024;
+    private static final float[] ACCELERATE_DECELERATE_CURVE = new float[CURVE_SAMPLES + 1];
+
+    static {
+        for (int i = 0; i <= CURVE_SAMPLES; ++i) {
+            ACCELERATE_DECELERATE_CURVE[i] = GVRAccelerateDecelerateInterpolator.getInstance()
+                    .mapRatio((float) i / CURVE_SAMPLES);
+        }
+    }
+
+    private static GVRTweenEngine sInstance = null;
+
+    static {
+        GVRContext.addResetOnRestartHandler(new Runnable() {
+
+            @Override
+            public void run() {
+                sInstance = null;
+            }
+        });
+    }
+
+    private final GVRContext mContext;
+    private final GVRDrawFrameListener mOnDrawFrame = new DrawFrame();
+
+    /*
+     * Running tweens, packed at the start of the arrays.
+     * Finished tweens are replaced by the last one.
+     */
+    private int mCount = 0;
+    private int[] mHandle;
+    private int[] mProperty;
+    private GVRTransform[] mTarget;
+    private float[] mParams;
+    private float[] mDuration;
+    private float[] mCycleTime;        // time into the current cycle
+    private int[] mRepeatMode;
+    private int[] mRepeatCount;
+    private int[] mIterations;
+    private int[] mInterpolator;
+    private OnFinish[] mOnFinish;
+
+    /*
+     * Index of the tween in each slot, -1 for free slots.
+     */
+    private int[] mSlotIndex;
+    private int[] mSlotSerial;
+    private int[] mFreeSlots;
+    private int mFreeCount = 0;
+    private int mSlotCount = 0;
+
+    private GVRInterpolator[] mInterpolators = {
+            null, GVRAccelerateDecelerateInterpolator.getInstance() };
+
+    /*
+     * One batch per property, holding the targets of the tweens
+     * of that property. A tween keeps its place in the batch
+     * while it runs, a finished tween is replaced by the last
+     * one of the batch, so starting or finishing a tween only
+     * changes one place of one batch.
+     */
+    private final GVRTransformBatch[] mBatches = new GVRTransformBatch[NUM_PROPERTIES];
+    private final int[][] mBatchTween = new int[NUM_PROPERTIES][];  // tween at each place
+    private final float[][] mValues = new float[NUM_PROPERTIES][];
+    private final int[] mBatchCount = new int[NUM_PROPERTIES];
+    private int[] mBatchIndex;                                      // place of each tween
+    private boolean mUpdating = false;
+
+    /*
+     * Tweens which finished this frame, their callbacks
+     * are called after the engine lock is released.
+     */
+    private int mFinishedCount = 0;
+    private int[] mFinishedHandle;
+    private OnFinish[] mFinishedCallback;
+
+    protected GVRTweenEngine(GVRContext gvrContext, int capacity) {
+        mContext = gvrContext;
+        allocate(Math.max(capacity, 16));
+        gvrContext.registerDrawFrameListener(mOnDrawFrame);
+    }
+
+    /**
+     * The tween engine is an optional part of GVRF: You do have to call
+     * {@code getInstance()} to lazy-create the singleton.
+     *
+     * @param gvrContext
+     *            current GVR context
+     */
+    public static synchronized GVRTweenEngine getInstance(GVRContext gvrContext) {
+        if (sInstance == null) {
+            sInstance = new GVRTweenEngine(gvrContext, 256);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Start moving a transform to a position.
+     *
+     * @param target   transform to animate
+     * @param duration duration of one cycle in seconds
+     * @param x        target X position
+     * @param y        target Y position
+     * @param z        target Z position
+     * @return handle of the tween
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public synchronized int position(GVRTransform target, float duration, float x, float y, float z) {
+        int index = add(target, POSITION, duration);
+        int p = index * PARAM_SIZE;
+        float startX = target.getPositionX();
+        float startY = target.getPositionY();
+        float startZ = target.getPositionZ();
+
+        mParams[p] = startX;
+        mParams[p + 1] = startY;
+        mParams[p + 2] = startZ;
+        mParams[p + 3] = x - startX;
+        mParams[p + 4] = y - startY;
+        mParams[p + 5] = z - startZ;
+        return mHandle[index];
+    }
+
+    /**
+     * Start moving a scene object to a position.
+     * @see #position(GVRTransform, float, float, float, float)
+     */
+    public int position(GVRSceneObject target, float duration, float x, float y, float z) {
+        return position(target.getTransform(), duration, x, y, z);
+    }
+
+    /**
+     * Start scaling a transform to a scale.
+     *
+     * @param target   transform to animate
+     * @param duration duration of one cycle in seconds
+     * @param x        target X scale
+     * @param y        target Y scale
+     * @param z        target Z scale
+     * @return handle of the tween
+     * @throws IllegalArgumentException if the duration is not positive
+     */
+    public synchronized int scale(GVRTransform target, float duration, float x, float y, float z) {
+        int index = add(target, SCALE, duration);
+        int p = index * PARAM_SIZE;
+        float startX = target.getScaleX();
+        float startY = target.getScaleY();
+        float startZ = target.getScaleZ();
+
+        mParams[p] = startX;
+        mParams[p + 1] = startY;
+        mParams[p + 2] = startZ;
+        mParams[p + 3] = x - startX;
+        mParams[p + 4] = y - startY;
+        mParams[p + 5] = z - startZ;
+        return mHandle[index];
+    }
+
+    /**
+     * Start scaling a scene object to a scale.
+     * @see #scale(GVRTransform, float, float, float, float)
+     */
+    public int scale(GVRSceneObject target, float duration, float x, float y, float z) {
+        return scale(target.getTransform(), duration, x, y, z);
+    }
+
+    /**
+     * Start rotating a transform around an axis,
+     * starting from its current rotation.
+     *
+     * @param target   transform to animate
+     * @param duration duration of one cycle in seconds
+     * @param angle    angle to rotate by in degrees
+     * @param x        X component of the axis
+     * @param y        Y component of the axis
+     * @param z        Z component of the axis
+     * @return handle of the tween
+     * @throws IllegalArgumentException if the duration is not
+     *         positive or the axis has no length
+     */
+    public synchronized int rotateByAxis(GVRTransform target, float duration,
+                                         float angle, float x, float y, float z) {
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+
+        if (!(length > 0)) {
+            throw new IllegalArgumentException("the rotation axis has no length");
+        }
+        int index = add(target, ROTATION, duration);
+        int p = index * PARAM_SIZE;
+
+        mParams[p] = target.getRotationW();
+        mParams[p + 1] = target.getRotationX();
+        mParams[p + 2] = target.getRotationY();
+        mParams[p + 3] = target.getRotationZ();
+        mParams[p + 4] = x / length;
+        mParams[p + 5] = y / length;
+        mParams[p + 6] = z / length;
+        mParams[p + 7] = (float) Math.toRadians(angle);
+        return mHandle[index];
+    }
+
+    /**
+     * Start rotating a scene object around an axis.
+     * @see #rotateByAxis(GVRTransform, float, float, float, float, float)
+     */
+    public int rotateByAxis(GVRSceneObject target, float duration,
+                            float angle, float x, float y, float z) {
+        return rotateByAxis(target.getTransform(), duration, angle, x, y, z);
+    }
+
+    /**
+     * Set the repeat mode of a tween.
+     *
+     * @param tween      handle of the tween
+     * @param repeatMode {@link GVRRepeatMode#ONCE}, {@link GVRRepeatMode#REPEATED}
+     *                   or {@link GVRRepeatMode#PINGPONG}
+     * @return the engine, so calls can be chained
+     * @see GVRAnimation#setRepeatMode(int)
+     */
+    public synchronized GVRTweenEngine setRepeatMode(int tween, int repeatMode) {
+        if (GVRRepeatMode.invalidRepeatMode(repeatMode)) {
+            throw new IllegalArgumentException(repeatMode
+                    + " is not a valid repetition type");
+        }
+        int index = indexOf(tween);
+        if (index >= 0) {
+            mRepeatMode[index] = repeatMode;
+        }
+        return this;
+    }
+
+    /**
+     * Set the repeat count of a tween.
+     *
+     * @param tween       handle of the tween
+     * @param repeatCount number of cycles, negative to repeat until stopped
+     * @return the engine, so calls can be chained
+     * @see GVRAnimation#setRepeatCount(int)
+     */
+    public synchronized GVRTweenEngine setRepeatCount(int tween, int repeatCount) {
+        int index = indexOf(tween);
+        if (index >= 0) {
+            mRepeatCount[index] = repeatCount;
+        }
+        return this;
+    }
+
+    /**
+     * Set the interpolator of a tween.
+     *
+     * @param tween        handle of the tween
+     * @param interpolator {@link #LINEAR}, {@link #ACCELERATE_DECELERATE}
+     *                     or an id returned by {@link #addInterpolator(GVRInterpolator)}
+     * @return the engine, so calls can be chained
+     */
+    public synchronized GVRTweenEngine setInterpolator(int tween, int interpolator) {
+        if ((interpolator < 0) || (interpolator >= mInterpolators.length)) {
+            throw new IllegalArgumentException("unknown interpolator " + interpolator);
+        }
+        int index = indexOf(tween);
+        if (index >= 0) {
+            mInterpolator[index] = interpolator;
+        }
+        return this;
+    }
+
+    /**
+     * Make a custom interpolator available to tweens.
+     *
+     * @param interpolator interpolator to add
+     * @return id to pass to {@link #setInterpolator(int, int)}
+     */
+    public synchronized int addInterpolator(GVRInterpolator interpolator) {
+        int id = mInterpolators.length;
+
+        mInterpolators = Arrays.copyOf(mInterpolators, id + 1);
+        mInterpolators[id] = interpolator;
+        return id;
+    }
+
+    /**
+     * Set the callback of a tween. Like
+     * {@link GVRAnimation#setOnFinish(GVROnFinish)}, an
+     * {@link OnRepeat} callback also sets a negative repeat count.
+     *
+     * @param tween    handle of the tween
+     * @param callback callback to call when the tween stops, may be null
+     * @return the engine, so calls can be chained
+     */
+    public synchronized GVRTweenEngine setOnFinish(int tween, OnFinish callback) {
+        int index = indexOf(tween);
+        if (index >= 0) {
+            mOnFinish[index] = callback;
+            if (callback instanceof OnRepeat) {
+                mRepeatCount[index] = -1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Stop a tween immediately, leaving its transform as it is.
+     * The callback of the tween is not called.
+     *
+     * @param tween handle of the tween
+     */
+    public synchronized void stop(int tween) {
+        if (mUpdating) {
+            throw new IllegalStateException("tweens cannot be stopped from OnRepeat.iteration");
+        }
+        int index = indexOf(tween);
+        if (index >= 0) {
+            remove(index);
+        }
+    }
+
+    /**
+     * @param tween handle of a tween
+     * @return true if the tween is still running
+     */
+    public synchronized boolean isRunning(int tween) {
+        return indexOf(tween) >= 0;
+    }
+
+    /**
+     * @return number of running tweens
+     */
+    public synchronized int getCount() {
+        return mCount;
+    }
+
+    private final class DrawFrame implements GVRDrawFrameListener {
+
+        @Override
+        public void onDrawFrame(float frameTime) {
+            update(frameTime);
+        }
+    }
+
+    /**
+     * Advance all the tweens, apply their values and
+     * call the callbacks of the tweens which finished.
+     * This is called on every frame, it is public for
+     * applications which drive the engine themselves.
+     *
+     * @param frameTime seconds since the last update
+     */
+    public void update(float frameTime) {
+        final int[] handles;
+        final OnFinish[] callbacks;
+        int finished;
+
+        synchronized (this) {
+            if (mCount == 0) {
+                return;
+            }
+            mUpdating = true;
+            try {
+                evaluate(frameTime);
+            } finally {
+                mUpdating = false;
+            }
+            writeValues();
+            finished = removeFinished();
+            handles = mFinishedHandle;
+            callbacks = mFinishedCallback;
+        }
+        for (int i = 0; i < finished; ++i) {
+            OnFinish callback = callbacks[i];
+
+            callbacks[i] = null;
+            callback.finished(this, handles[i]);
+        }
+    }
+
+    /*
+     * Advance the time of the tweens and compute their values
+     * into the value array of their property, at the place of
+     * their target in the batch. Finished tweens get their final
+     * value and are marked by setting their cycle time to -1.
+     */
+    private void evaluate(float frameTime) {
+        for (int i = 0; i < mCount; ++i) {
+            final float duration = mDuration[i];
+            float cycleTime = mCycleTime[i] + frameTime;
+            float ratio;
+
+            if (cycleTime >= duration) {
+                cycleTime = endCycle(i, cycleTime % duration);
+            }
+            mCycleTime[i] = cycleTime;
+            if (cycleTime < 0) {
+                ratio = 1.0f;
+            } else if ((mRepeatMode[i] == GVRRepeatMode.PINGPONG) && ((mIterations[i] & 1) == 1)) {
+                ratio = (duration - cycleTime) / duration;
+            } else {
+                ratio = cycleTime / duration;
+            }
+            if (mInterpolator[i] == ACCELERATE_DECELERATE) {
+                ratio = accelerateDecelerate(ratio);
+            } else if (mInterpolator[i] != LINEAR) {
+                ratio = mInterpolators[mInterpolator[i]].mapRatio(ratio);
+            }
+            computeValue(i, ratio);
+        }
+    }
+
+    /*
+     * @param ratio ratio between 0 and 1
+     * @return the ratio mapped by the accelerate/decelerate curve
+     */
+    private static float accelerateDecelerate(float ratio) {
+        final float x = ratio * CURVE_SAMPLES;
+        final int i = Math.min((int) x, CURVE_SAMPLES - 1);
+        final float a = ACCELERATE_DECELERATE_CURVE[i];
+
+        return a + (x - i) * (ACCELERATE_DECELERATE_CURVE[i + 1] - a);
+    }
+
+    /*
+     * Decide whether a tween continues after a cycle,
+     * as GVRAnimation does.
+     * @return the time into the next cycle, -1 if the tween finished
+     */
+    private float endCycle(int i, float cycleTime) {
+        boolean stillRunning = false;
+
+        if (mRepeatMode[i] != GVRRepeatMode.ONCE) {
+            mIterations[i] += 1;
+            if (mRepeatCount[i] == 0) {
+                stillRunning = false;
+            } else if (mRepeatCount[i] > 0) {
+                stillRunning = --mRepeatCount[i] > 0;
+            } else if (mOnFinish[i] instanceof OnRepeat) {
+                stillRunning = ((OnRepeat) mOnFinish[i]).iteration(this, mHandle[i], mIterations[i]);
+            } else {
+                stillRunning = true;
+            }
+        }
+        return stillRunning ? cycleTime : -1.0f;
+    }
+
+    private void computeValue(int i, float ratio) {
+        final int property = mProperty[i];
+        final float[] values = mValues[property];
+        final int v = mBatchIndex[i] * VALUE_SIZE[property];
+        final int p = i * PARAM_SIZE;
+        final float[] params = mParams;
+
+        if (property != ROTATION) {
+            values[v] = params[p] + ratio * params[p + 3];
+            values[v + 1] = params[p + 1] + ratio * params[p + 4];
+            values[v + 2] = params[p + 2] + ratio * params[p + 5];
+            return;
+        }
+        /*
+         * Rotation around the axis multiplied by the start rotation,
+         * as in GVRRotationByAxisAnimation.
+         */
+        final double halfAngle = 0.5 * ratio * params[p + 7];
+        final float s = (float) Math.sin(halfAngle);
+        final float qw = (float) Math.cos(halfAngle);
+        final float qx = params[p + 4] * s;
+        final float qy = params[p + 5] * s;
+        final float qz = params[p + 6] * s;
+        final float sw = params[p], sx = params[p + 1], sy = params[p + 2], sz = params[p + 3];
+
+        values[v] = qw * sw - qx * sx - qy * sy - qz * sz;
+        values[v + 1] = qw * sx + qx * sw + qy * sz - qz * sy;
+        values[v + 2] = qw * sy - qx * sz + qy * sw + qz * sx;
+        values[v + 3] = qw * sz + qx * sy - qy * sx + qz * sw;
+    }
+
+    /*
+     * Copy the values of each property into its batch
+     * and write them to the transforms.
+     */
+    private void writeValues() {
+        for (int property = 0; property < NUM_PROPERTIES; ++property) {
+            int count = mBatchCount[property];
+
+            if (count > 0) {
+                GVRTransformBatch batch = mBatches[property];
+                FloatBuffer buffer = batch.getBuffer();
+
+                buffer.clear();
+                buffer.put(mValues[property], 0, count * VALUE_SIZE[property]);
+                batch.write(BATCH_ATTRIBUTE[property]);
+            }
+        }
+    }
+
+    /*
+     * Remove the tweens marked as finished and remember their callbacks.
+     * @return number of callbacks to call
+     */
+    private int removeFinished() {
+        mFinishedCount = 0;
+        for (int i = mCount - 1; i >= 0; --i) {
+            if (mCycleTime[i] >= 0) {
+                continue;
+            }
+            if (mOnFinish[i] != null) {
+                mFinishedHandle[mFinishedCount] = mHandle[i];
+                mFinishedCallback[mFinishedCount] = mOnFinish[i];
+                ++mFinishedCount;
+            }
+            remove(i);
+        }
+        return mFinishedCount;
+    }
+
+    private int add(GVRTransform target, int property, float duration) {
+        if (!(duration > 0)) {
+            throw new IllegalArgumentException("the duration of a tween must be positive, not " + duration);
+        }
+        if (mUpdating) {
+            throw new IllegalStateException("tweens cannot be started from OnRepeat.iteration");
+        }
+        if (mCount == MAX_TWEENS) {
+            throw new IllegalStateException("too many tweens");
+        }
+        if (mCount == mHandle.length) {
+            allocate(2 * mCount);
+        }
+        int slot = (mFreeCount > 0) ? mFreeSlots[--mFreeCount] : mSlotCount++;
+        int index = mCount++;
+
+        mSlotIndex[slot] = index;
+        mHandle[index] = (++mSlotSerial[slot] << SLOT_BITS) | slot;
+        mProperty[index] = property;
+        mTarget[index] = target;
+        mDuration[index] = duration;
+        mCycleTime[index] = 0;
+        mRepeatMode[index] = GVRRepeatMode.ONCE;
+        mRepeatCount[index] = GVRAnimation.DEFAULT_REPEAT_COUNT;
+        mIterations[index] = 0;
+        mInterpolator[index] = LINEAR;
+        mOnFinish[index] = null;
+        if (mBatches[property] == null) {
+            mBatches[property] = new GVRTransformBatch(mContext, mTarget.length);
+        }
+        mBatchIndex[index] = mBatches[property].add(target);
+        mBatchTween[property][mBatchIndex[index]] = index;
+        ++mBatchCount[property];
+        return index;
+    }
+
+    /*
+     * Remove a tween by moving the last tween into its place,
+     * and its target by moving the last target of its batch.
+     */
+    private void remove(int index) {
+        int slot = mHandle[index] & SLOT_MASK;
+        int last = --mCount;
+        int property = mProperty[index];
+        int place = mBatchIndex[index];
+        int lastPlace = --mBatchCount[property];
+
+        mBatches[property].swapRemove(place);
+        if (place != lastPlace) {
+            int moved = mBatchTween[property][lastPlace];
+
+            mBatchTween[property][place] = moved;
+            mBatchIndex[moved] = place;
+        }
+        mSlotIndex[slot] = -1;
+        mFreeSlots[mFreeCount++] = slot;
+        if (index != last) {
+            mHandle[index] = mHandle[last];
+            mProperty[index] = mProperty[last];
+            mTarget[index] = mTarget[last];
+            System.arraycopy(mParams, last * PARAM_SIZE, mParams, index * PARAM_SIZE, PARAM_SIZE);
+            mDuration[index] = mDuration[last];
+            mCycleTime[index] = mCycleTime[last];
+            mRepeatMode[index] = mRepeatMode[last];
+            mRepeatCount[index] = mRepeatCount[last];
+            mIterations[index] = mIterations[last];
+            mInterpolator[index] = mInterpolator[last];
+            mOnFinish[index] = mOnFinish[last];
+            mBatchIndex[index] = mBatchIndex[last];
+            mBatchTween[mProperty[index]][mBatchIndex[index]] = index;
+            mSlotIndex[mHandle[index] & SLOT_MASK] = index;
+        }
+        mTarget[last] = null;
+        mOnFinish[last] = null;
+    }
+
+    /*
+     * @return index of a running tween, -1 if the handle is not valid
+     */
+    private int indexOf(int tween) {
+        int slot = tween & SLOT_MASK;
+
+        if ((slot >= mSlotCount) || ((mSlotSerial[slot] << SLOT_BITS) != (tween & ~SLOT_MASK))) {
+            return -1;
+        }
+        return mSlotIndex[slot];
+    }
+
+    private void allocate(int capacity) {
+        capacity = Math.min(capacity, MAX_TWEENS);
+        mHandle = (mHandle == null) ? new int[capacity] : Arrays.copyOf(mHandle, capacity);
+        mProperty = (mProperty == null) ? new int[capacity] : Arrays.copyOf(mProperty, capacity);
+        mTarget = (mTarget == null) ? new GVRTransform[capacity] : Arrays.copyOf(mTarget, capacity);
+        mParams = (mParams == null) ? new float[capacity * PARAM_SIZE] : Arrays.copyOf(mParams, capacity * PARAM_SIZE);
+        mDuration = (mDuration == null) ? new float[capacity] : Arrays.copyOf(mDuration, capacity);
+        mCycleTime = (mCycleTime == null) ? new float[capacity] : Arrays.copyOf(mCycleTime, capacity);
+        mRepeatMode = (mRepeatMode == null) ? new int[capacity] : Arrays.copyOf(mRepeatMode, capacity);
+        mRepeatCount = (mRepeatCount == null) ? new int[capacity] : Arrays.copyOf(mRepeatCount, capacity);
+        mIterations = (mIterations == null) ? new int[capacity] : Arrays.copyOf(mIterations, capacity);
+        mInterpolator = (mInterpolator == null) ? new int[capacity] : Arrays.copyOf(mInterpolator, capacity);
+        mOnFinish = (mOnFinish == null) ? new OnFinish[capacity] : Arrays.copyOf(mOnFinish, capacity);
+        mBatchIndex = (mBatchIndex == null) ? new int[capacity] : Arrays.copyOf(mBatchIndex, capacity);
+        mSlotIndex = (mSlotIndex == null) ? new int[capacity] : Arrays.copyOf(mSlotIndex, capacity);
+        mSlotSerial = (mSlotSerial == null) ? new int[capacity] : Arrays.copyOf(mSlotSerial, capacity);
+        mFreeSlots = (mFreeSlots == null) ? new int[capacity] : Arrays.copyOf(mFreeSlots, capacity);
+        // a new array so the callbacks of the last update are not changed
+        mFinishedHandle = new int[capacity];
+        mFinishedCallback = new OnFinish[capacity];
+        for (int property = 0; property < NUM_PROPERTIES; ++property) {
+            mBatchTween[property] = (mBatchTween[property] == null)
+                    ? new int[capacity] : Arrays.copyOf(mBatchTween[property], capacity);
+            mValues[property] = new float[capacity * VALUE_SIZE[property]];
+        }
+    }
+}
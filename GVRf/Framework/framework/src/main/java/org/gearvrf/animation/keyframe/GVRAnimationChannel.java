@@ -43,6 +43,33 @@ public final class GVRAnimationChannel implements PrettyPrint {
         mPostState = postBehavior;
     }
 
+    /**
+     * Constructs a channel from keys compressed before.<p>
+     *
+     * The animations are used as they are, no keys are removed.
+     * This is how a compressed channel is read back after storing
+     * the keys of its {@link #getPosAnimation()}, {@link #getRotAnimation()}
+     * and {@link #getScaleAnimation()}.
+     *
+     * @param nodeName name of corresponding scene graph node
+     * @param positions compressed position keys
+     * @param rotations compressed rotation keys
+     * @param scales compressed scaling keys
+     * @param preBehavior behavior before animation start
+     * @param postBehavior behavior after animation end
+     * @see #compress(float, float, float)
+     */
+    public GVRAnimationChannel(String nodeName, GVRCompressedFloatAnimation positions,
+                               GVRCompressedQuatAnimation rotations, GVRCompressedFloatAnimation scales,
+                               GVRAnimationBehavior preBehavior, GVRAnimationBehavior postBehavior) {
+
+        m_nodeName = nodeName;
+        mPosInterpolator = positions;
+        mRotInterpolator = rotations;
+        mSclInterpolator = scales;
+        mPreState = preBehavior;
+        mPostState = postBehavior;
+    }
 
     /**
      * Returns the name of the scene graph node affected by this animation.<p>
@@ -106,7 +133,11 @@ public final class GVRAnimationChannel implements PrettyPrint {
 
     public void setPosKeyVector(int keyIndex, float time, float x, float y, float z)
     {
-        mPosInterpolator.setKey(keyIndex, time, new float[] { x, y, z });
+        // setKey copies the values, the array is reused for each key
+        mTempKey[0] = x;
+        mTempKey[1] = y;
+        mTempKey[2] = z;
+        mPosInterpolator.setKey(keyIndex, time, mTempKey);
     }
 
     /**
@@ -161,7 +192,11 @@ public final class GVRAnimationChannel implements PrettyPrint {
 
     public void setRotKeyQuaternion(int keyIndex, float time, Quaternionf rot)
     {
-        mRotInterpolator.setKey(keyIndex, time, rot);
+        if (isCompressed())
+        {
+            throw new UnsupportedOperationException("Compressed animation keys cannot be changed");
+        }
+        ((GVRQuatAnimation) mRotInterpolator).setKey(keyIndex, time, rot);
     }
 
     /**
@@ -192,7 +227,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getScaleKeyTime(int keyIndex) {
-        return mRotInterpolator.getTime(keyIndex);
+        return mSclInterpolator.getTime(keyIndex);
     }
 
     /**
@@ -237,6 +272,68 @@ public final class GVRAnimationChannel implements PrettyPrint {
         return mPostState;
     }
 
+    /**
+     * Compress the keys of this channel.<p>
+     *
+     * Keys which can be interpolated from their neighbors within the given
+     * tolerances are removed and the remaining keys are quantized, positions
+     * and scales to 16 bits relative to their range over the channel and
+     * rotations to 48 bits. The keys are decompressed while animating.
+     * The keys of a compressed channel cannot be changed.
+     *
+     * @param positionTolerance largest position error allowed, in scene units
+     * @param rotationTolerance largest rotation error allowed, in radians
+     * @param scaleTolerance    largest scale error allowed
+     * @see GVRCompressedFloatAnimation
+     * @see GVRCompressedQuatAnimation
+     */
+    public void compress(float positionTolerance, float rotationTolerance, float scaleTolerance)
+    {
+        if (isCompressed())
+        {
+            return;
+        }
+        mPosInterpolator = GVRCompressedFloatAnimation.compress(mPosInterpolator, positionTolerance);
+        mRotInterpolator = GVRCompressedQuatAnimation.compress((GVRQuatAnimation) mRotInterpolator, rotationTolerance);
+        mSclInterpolator = GVRCompressedFloatAnimation.compress(mSclInterpolator, scaleTolerance);
+    }
+
+    /**
+     * @return the animation of the position keys, a
+     *         {@link GVRCompressedFloatAnimation} if the channel is compressed
+     */
+    public GVRFloatAnimation getPosAnimation()
+    {
+        return mPosInterpolator;
+    }
+
+    /**
+     * @return the animation of the rotation keys, a
+     *         {@link GVRCompressedQuatAnimation} if the channel is compressed
+     */
+    public GVRFloatAnimation getRotAnimation()
+    {
+        return mRotInterpolator;
+    }
+
+    /**
+     * @return the animation of the scaling keys, a
+     *         {@link GVRCompressedFloatAnimation} if the channel is compressed
+     */
+    public GVRFloatAnimation getScaleAnimation()
+    {
+        return mSclInterpolator;
+    }
+
+    /**
+     * @return true if the keys of this channel are compressed
+     * @see #compress(float, float, float)
+     */
+    public boolean isCompressed()
+    {
+        return mRotInterpolator instanceof GVRCompressedQuatAnimation;
+    }
+
     /**
      * Obtains the transform for a specific time in animation.
      *
@@ -279,9 +376,10 @@ public final class GVRAnimationChannel implements PrettyPrint {
     final private float[] mScaleKey = new float[] { 1, 1, 1 };
     final private float[] mRotKey = new float[] { 0, 0, 0, 1 };
     final private Quaternionf mTempQuat = new Quaternionf(0, 0, 0, 1);
-    final private GVRFloatAnimation mPosInterpolator;
-    final private GVRQuatAnimation mRotInterpolator;
-    final private GVRFloatAnimation mSclInterpolator;
+    final private float[] mTempKey = new float[3];
+    private GVRFloatAnimation mPosInterpolator;
+    private GVRFloatAnimation mRotInterpolator;
+    private GVRFloatAnimation mSclInterpolator;
 
     /**
      * Pre-animation behavior.
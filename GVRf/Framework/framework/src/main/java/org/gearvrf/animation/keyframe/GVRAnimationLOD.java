@@ -0,0 +1,143 @@
+package org.gearvrf.animation.keyframe;
+
+/**
+ * Level of detail policy for key frame animations.
+ * <p>
+ * Characters which are far away or out of view do not need
+ * to be animated as carefully as the ones close to the camera.
+ * The policy uses the size of the animated model on the screen,
+ * from {@link org.gearvrf.GVRSceneObject#getViewSize()}, to decide
+ * how often its animations are evaluated:
+ * <ul>
+ * <li>Models culled from the last frame are not evaluated at all.
+ * The time of their animations keeps running, so they are in the
+ * right pose as soon as they come back into view.</li>
+ * <li>Models at least {@link #getFullRateSize()} high are evaluated every frame.</li>
+ * <li>Smaller models are evaluated every 2, 4 or more frames, up to
+ * {@link #getMaxUpdateInterval()}. The frames are staggered so that
+ * many distant characters do not all update in the same frame.</li>
+ * <li>Below {@link #getMinorBoneSize()} the minor bones, like fingers
+ * and toes, keep their last pose and only follow their parents.</li>
+ * </ul>
+ * One policy can be shared by all the animations of a scene.
+ * It is used by setting it on the animations with
+ * {@link GVRKeyFrameAnimation#setLOD(GVRAnimationLOD)} or
+ * {@link org.gearvrf.animation.GVRAnimator#setLOD(GVRAnimationLOD)}.
+ */
+public class GVRAnimationLOD {
+    private float mFullRateSize = 0.25f;
+    private int mMaxUpdateInterval = 4;
+    private float mMinorBoneSize = 0.1f;
+    private float mMinorBoneFraction = 0.15f;
+
+    /**
+     * Get the screen size at and above which animations are
+     * evaluated every frame.
+     * @return fraction of the screen height
+     */
+    public float getFullRateSize() {
+        return mFullRateSize;
+    }
+
+    /**
+     * Set the screen size at and above which animations are
+     * evaluated every frame. Smaller models are evaluated every
+     * 2 frames below half this size, every 4 below a quarter
+     * and so on. The default is 0.25.
+     * @param size fraction of the screen height
+     */
+    public void setFullRateSize(float size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        mFullRateSize = size;
+    }
+
+    /**
+     * Get the largest number of frames between two evaluations
+     * of the animations of a visible model.
+     * @return number of frames
+     */
+    public int getMaxUpdateInterval() {
+        return mMaxUpdateInterval;
+    }
+
+    /**
+     * Set the largest number of frames between two evaluations
+     * of the animations of a visible model. The default is 4.
+     * @param frames number of frames, 1 to evaluate visible models every frame
+     */
+    public void setMaxUpdateInterval(int frames) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("Update interval must be at least one frame");
+        }
+        mMaxUpdateInterval = frames;
+    }
+
+    /**
+     * Get the screen size below which minor bones are frozen.
+     * @return fraction of the screen height
+     */
+    public float getMinorBoneSize() {
+        return mMinorBoneSize;
+    }
+
+    /**
+     * Set the screen size below which minor bones are frozen.
+     * The default is 0.1, 0 never freezes them.
+     * @param size fraction of the screen height
+     */
+    public void setMinorBoneSize(float size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        mMinorBoneSize = size;
+    }
+
+    /**
+     * Get the size of the largest minor bones relative to their skeleton.
+     * @return fraction of the size of the skeleton
+     */
+    public float getMinorBoneFraction() {
+        return mMinorBoneFraction;
+    }
+
+    /**
+     * Set which bones are minor. A bone is minor if it and the
+     * bones below it span less than this fraction of the whole
+     * skeleton in the bind pose, like fingers, toes and the ends
+     * of the limbs. The default is 0.15.
+     * @param fraction fraction of the size of the skeleton
+     */
+    public void setMinorBoneFraction(float fraction) {
+        if ((fraction < 0) || (fraction > 1)) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1");
+        }
+        mMinorBoneFraction = fraction;
+    }
+
+    /**
+     * Get how often to evaluate the animations of a model.
+     * @param viewSize size of the model on the screen, 0 if it was culled
+     * @return number of frames between evaluations, 0 to not evaluate
+     */
+    public int getUpdateInterval(float viewSize) {
+        if (viewSize <= 0) {
+            return 0;
+        }
+        int interval = 1;
+        while ((interval < mMaxUpdateInterval) && (viewSize * interval * 2 <= mFullRateSize)) {
+            interval *= 2;
+        }
+        return Math.min(interval, mMaxUpdateInterval);
+    }
+
+    /**
+     * Test if the minor bones of a model are frozen.
+     * @param viewSize size of the model on the screen
+     * @return true to keep the last pose of the minor bones
+     */
+    public boolean freezesMinorBones(float viewSize) {
+        return viewSize < mMinorBoneSize;
+    }
+}
@@ -0,0 +1,466 @@
+package org.gearvrf.animation.keyframe;
+
+import org.gearvrf.utility.Log;
+import org.joml.Quaternionf;
+
+import java.util.Arrays;
+
+/**
+ * Compressed animation of a set of floating point values.<p>
+ *
+ * Made from a {@link GVRFloatAnimation} by {@link #compress(GVRFloatAnimation, float)}.
+ * Keys which linear interpolation of their neighbors reproduces within
+ * a tolerance are removed. Each value of the remaining keys is stored
+ * as a 16 bit integer relative to the range of that value over the
+ * whole animation, so a key of three values takes 10 bytes instead of 16.
+ * The values are decompressed while the animation is evaluated, without
+ * allocating memory.<p>
+ *
+ * A compressed animation cannot be changed, setting or resizing its keys
+ * throws an {@link UnsupportedOperationException}.
+ */
+public class GVRCompressedFloatAnimation extends GVRFloatAnimation
+{
+    /*
+     * Longest run of keys tested for removal at once.
+     * Limits the time to compress long clips.
+     */
+    static final int MAX_SPAN = 256;
+
+    private static final int QUANTIZE_STEPS = 65535;
+
+    protected final int mValuesPerKey;
+    protected final int mShortsPerKey;
+    protected final float[] mTimes;
+    protected final short[] mValues;
+    protected int mLastKeyIndex;
+
+    // first value and difference between consecutive steps of each component
+    private final float[] mMin;
+    private final float[] mStep;
+
+    protected GVRCompressedFloatAnimation(float[] times, short[] values, int valuesPerKey,
+                                          int shortsPerKey, float[] min, float[] step)
+    {
+        super(0, valuesPerKey + 1);
+        mValuesPerKey = valuesPerKey;
+        mShortsPerKey = shortsPerKey;
+        mTimes = times;
+        mValues = values;
+        mMin = min;
+        mStep = step;
+        mLastKeyIndex = 0;
+    }
+
+    /**
+     * Compress an animation.
+     * @param source    animation to compress
+     * @param tolerance largest difference allowed between a value of
+     *                  the source and the compressed animation at the
+     *                  time of each source key. Quantizing adds up to
+     *                  1/131070 of the range of each value.
+     * @return compressed animation
+     */
+    public static GVRCompressedFloatAnimation compress(GVRFloatAnimation source, float tolerance)
+    {
+        final int keySize = source.mFloatsPerKey;
+        final int valuesPerKey = keySize - 1;
+        final float[] keys = source.mKeys;
+        final int[] kept = new KeySelector(keys, keySize, tolerance, false).select();
+        final int numKeys = kept.length;
+        final float[] times = new float[numKeys];
+        final short[] values = new short[numKeys * valuesPerKey];
+        final float[] min = new float[valuesPerKey];
+        final float[] step = new float[valuesPerKey];
+
+        for (int v = 0; v < valuesPerKey; ++v)
+        {
+            float lo = Float.MAX_VALUE;
+            float hi = -Float.MAX_VALUE;
+
+            for (int k = 0; k < numKeys; ++k)
+            {
+                float f = keys[kept[k] * keySize + 1 + v];
+                lo = Math.min(lo, f);
+                hi = Math.max(hi, f);
+            }
+            min[v] = (numKeys > 0) ? lo : 0;
+            step[v] = (numKeys > 0) ? (hi - lo) / QUANTIZE_STEPS : 0;
+        }
+        for (int k = 0; k < numKeys; ++k)
+        {
+            int ofs = kept[k] * keySize;
+
+            times[k] = keys[ofs];
+            for (int v = 0; v < valuesPerKey; ++v)
+            {
+                int q = (step[v] > 0) ? Math.round((keys[ofs + 1 + v] - min[v]) / step[v]) : 0;
+                values[k * valuesPerKey + v] = (short) q;
+            }
+        }
+        return new GVRCompressedFloatAnimation(times, values, valuesPerKey, valuesPerKey, min, step);
+    }
+
+    /**
+     * Make an animation from keys compressed before, as returned by
+     * {@link #getKeyTimes()}, {@link #getKeyValues()},
+     * {@link #getValueMin()} and {@link #getValueStep()}.
+     * The keys are used as they are, none are removed and
+     * the values are not quantized again. The arrays are
+     * not copied and must not be changed.
+     * @param times     time of each key
+     * @param values    quantized values of each key
+     * @param min       first value of each component
+     * @param step      difference between consecutive steps of each component
+     * @return compressed animation
+     */
+    public static GVRCompressedFloatAnimation fromCompressed(float[] times, short[] values, float[] min, float[] step)
+    {
+        final int valuesPerKey = min.length;
+
+        if ((step.length != valuesPerKey) || (values.length != times.length * valuesPerKey))
+        {
+            throw new IllegalArgumentException("Compressed keys do not match their times or ranges");
+        }
+        return new GVRCompressedFloatAnimation(times, values, valuesPerKey, valuesPerKey, min, step);
+    }
+
+    /*
+     * Chooses the keys to keep. A key is dropped if interpolating
+     * between the last key kept and a later key is within the
+     * tolerance of every key between them.
+     */
+    static class KeySelector
+    {
+        private final float[] mKeys;
+        private final int mKeySize;
+        private final float mTolerance;
+        private final boolean mRotation;
+        private final Quaternionf mFirst = new Quaternionf();
+        private final Quaternionf mLast = new Quaternionf();
+
+        /**
+         * @param keys      time and values of each key
+         * @param keySize   number of floats per key
+         * @param tolerance largest difference of each value or, for
+         *                  rotations, largest angle in radians
+         * @param rotation  true if the keys are quaternions which are
+         *                  interpolated spherically
+         */
+        KeySelector(float[] keys, int keySize, float tolerance, boolean rotation)
+        {
+            mKeys = keys;
+            mKeySize = keySize;
+            mRotation = rotation;
+            /*
+             * Rotations are compared by the distance between their quaternions,
+             * which is 2 sin(angle / 4) for unit quaternions. Unlike the dot
+             * product it keeps its precision for small angles.
+             */
+            if (rotation)
+            {
+                float chord = 2.0f * (float) Math.sin(tolerance * 0.25);
+                mTolerance = chord * chord;
+            }
+            else
+            {
+                mTolerance = tolerance;
+            }
+        }
+
+        /**
+         * @return indices of the keys to keep in increasing order
+         */
+        int[] select()
+        {
+            final int numKeys = mKeys.length / mKeySize;
+            int[] kept = new int[numKeys];
+            int n = 0;
+
+            if (numKeys == 0)
+            {
+                return kept;
+            }
+            kept[n++] = 0;
+            // a constant value only needs one key
+            if (isConstant(numKeys))
+            {
+                return Arrays.copyOf(kept, n);
+            }
+            int anchor = 0;
+            for (int last = 2; last < numKeys; ++last)
+            {
+                if (((last - anchor) > MAX_SPAN) || !fits(anchor, last))
+                {
+                    anchor = last - 1;
+                    kept[n++] = anchor;
+                }
+            }
+            if (numKeys > 1)
+            {
+                kept[n++] = numKeys - 1;
+            }
+            return Arrays.copyOf(kept, n);
+        }
+
+        private boolean isConstant(int numKeys)
+        {
+            for (int k = 1; k < numKeys; ++k)
+            {
+                if (!matches(0, 0, 0, k))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean fits(int first, int last)
+        {
+            final float startTime = mKeys[first * mKeySize];
+            final float deltaTime = mKeys[last * mKeySize] - startTime;
+
+            for (int k = first + 1; k < last; ++k)
+            {
+                float factor = (deltaTime > 0) ? (mKeys[k * mKeySize] - startTime) / deltaTime : 0;
+                if (!matches(first, last, factor, k))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Test if the value interpolated between two keys
+         * is close enough to the value of another key.
+         */
+        private boolean matches(int first, int last, float factor, int key)
+        {
+            final int firstOfs = first * mKeySize + 1;
+            final int lastOfs = last * mKeySize + 1;
+            final int ofs = key * mKeySize + 1;
+
+            if (mRotation)
+            {
+                mFirst.set(mKeys[firstOfs], mKeys[firstOfs + 1], mKeys[firstOfs + 2], mKeys[firstOfs + 3]);
+                mLast.set(mKeys[lastOfs], mKeys[lastOfs + 1], mKeys[lastOfs + 2], mKeys[lastOfs + 3]);
+                mFirst.slerp(mLast, factor);
+                float dot = mFirst.x * mKeys[ofs] + mFirst.y * mKeys[ofs + 1]
+                            + mFirst.z * mKeys[ofs + 2] + mFirst.w * mKeys[ofs + 3];
+                // q and -q are the same rotation
+                float sign = (dot < 0) ? -1.0f : 1.0f;
+                float dx = mFirst.x - sign * mKeys[ofs];
+                float dy = mFirst.y - sign * mKeys[ofs + 1];
+                float dz = mFirst.z - sign * mKeys[ofs + 2];
+                float dw = mFirst.w - sign * mKeys[ofs + 3];
+                return (dx * dx + dy * dy + dz * dz + dw * dw) <= mTolerance;
+            }
+            for (int v = 0; v < mKeySize - 1; ++v)
+            {
+                float f = factor * mKeys[lastOfs + v] + (1.0f - factor) * mKeys[firstOfs + v];
+                if (Math.abs(f - mKeys[ofs + v]) > mTolerance)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of keys left after compression.
+     *
+     * @return the number of keys
+     */
+    @Override
+    public int getNumKeys()
+    {
+        return mTimes.length;
+    }
+
+    @Override
+    public float getDuration()
+    {
+        if (mTimes.length > 1)
+        {
+            return mTimes[mTimes.length - 1] - mTimes[0];
+        }
+        return 0;
+    }
+
+    @Override
+    public float getTime(int keyIndex)
+    {
+        return mTimes[keyIndex];
+    }
+
+    /**
+     * Returns the decompressed key value in the given array.
+     *
+     * @param keyIndex the index of the key
+     */
+    @Override
+    public void getKey(int keyIndex, float[] values)
+    {
+        decode(keyIndex, values);
+    }
+
+    @Override
+    public void setKey(int keyIndex, float time, final float[] values)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys cannot be changed");
+    }
+
+    @Override
+    public void resizeKeys(int numKeys)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys cannot be changed");
+    }
+
+    /**
+     * Obtains the values for a specific time in animation.
+     *
+     * @param animationTime The time in animation.
+     */
+    @Override
+    public void animate(float animationTime, float[] destValues)
+    {
+        final int numKeys = mTimes.length;
+
+        if (numKeys == 0)
+        {
+            return;
+        }
+        if ((numKeys == 1) || (animationTime <= mTimes[0]))
+        {
+            decode(0, destValues);
+            return;
+        }
+        if (animationTime >= mTimes[numKeys - 1])
+        {
+            decode(numKeys - 1, destValues);
+            return;
+        }
+        int index = findKey(animationTime);
+        float curTime = mTimes[index];
+        float factor = (animationTime - curTime) / (mTimes[index + 1] - curTime);
+
+        interpolate(index, factor, destValues);
+    }
+
+    /*
+     * Find the key at the start of the interval containing the time.
+     * Animations usually move forward a little each frame so the
+     * interval used last and the one after it are tried first.
+     * The time must be between the first and last key times.
+     */
+    protected int findKey(float time)
+    {
+        int i = mLastKeyIndex;
+
+        if ((i < mTimes.length - 1) && (mTimes[i] <= time))
+        {
+            if (time < mTimes[i + 1])
+            {
+                return i;
+            }
+            if ((i + 2 < mTimes.length) && (time < mTimes[i + 2]))
+            {
+                return mLastKeyIndex = i + 1;
+            }
+        }
+        int low = 0;
+        int high = mTimes.length - 1;
+        // invariant: mTimes[low] <= time < mTimes[high]
+        while ((high - low) > 1)
+        {
+            int mid = (low + high) >>> 1;
+            if (time < mTimes[mid])
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid;
+            }
+        }
+        return mLastKeyIndex = low;
+    }
+
+    protected void decode(int keyIndex, float[] values)
+    {
+        int ofs = keyIndex * mShortsPerKey;
+
+        for (int v = 0; v < mValuesPerKey; ++v)
+        {
+            values[v] = mMin[v] + (mValues[ofs + v] & 0xFFFF) * mStep[v];
+        }
+    }
+
+    protected void interpolate(int keyIndex, float factor, float[] values)
+    {
+        int firstOfs = keyIndex * mShortsPerKey;
+        int lastOfs = firstOfs + mShortsPerKey;
+
+        for (int v = 0; v < mValuesPerKey; ++v)
+        {
+            float a = mMin[v] + (mValues[firstOfs + v] & 0xFFFF) * mStep[v];
+            float b = mMin[v] + (mValues[lastOfs + v] & 0xFFFF) * mStep[v];
+            values[v] = factor * b + (1.0f - factor) * a;
+        }
+    }
+
+    /**
+     * Returns the times of the keys.
+     * The array is the one used by the animation and must not be changed.
+     */
+    public float[] getKeyTimes()
+    {
+        return mTimes;
+    }
+
+    /**
+     * Returns the quantized values of the keys,
+     * to store them without decompressing.
+     * The array is the one used by the animation and must not be changed.
+     */
+    public short[] getKeyValues()
+    {
+        return mValues;
+    }
+
+    /**
+     * Returns the first value of each component,
+     * null for a {@link GVRCompressedQuatAnimation}.
+     */
+    public float[] getValueMin()
+    {
+        return mMin;
+    }
+
+    /**
+     * Returns the difference between consecutive steps of each
+     * component, null for a {@link GVRCompressedQuatAnimation}.
+     */
+    public float[] getValueStep()
+    {
+        return mStep;
+    }
+
+    /**
+     * Approximate number of bytes used by the keys.
+     */
+    public int getKeyDataSize()
+    {
+        return mTimes.length * 4 + mValues.length * 2;
+    }
+
+    @Override
+    public void prettyPrint(StringBuffer sb, int indent) {
+        sb.append(Log.getSpaces(indent));
+        sb.append(getClass().getSimpleName());
+        sb.append(" [ Keys=" + mTimes.length + ", bytes=" + getKeyDataSize() + "]");
+        sb.append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,163 @@
+package org.gearvrf.animation.keyframe;
+
+import org.joml.Quaternionf;
+
+/**
+ * Compressed animation of a rotation.<p>
+ *
+ * Made from a {@link GVRQuatAnimation} by {@link #compress(GVRQuatAnimation, float)}.
+ * Keys which spherical interpolation of their neighbors reproduces within
+ * an angle are removed. The remaining quaternions are stored in 48 bits
+ * with the "smallest three" encoding: the largest component is left out
+ * and computed from the other three, which are stored with 15 bits each.
+ * The two bit index of the missing component is kept in the top bits
+ * of the first two values. A key takes 10 bytes instead of 20.
+ */
+public final class GVRCompressedQuatAnimation extends GVRCompressedFloatAnimation
+{
+    private static final float SQRT2 = (float) Math.sqrt(2.0);
+    private static final int QUANTIZE_STEPS = 0x7FFF;
+
+    // the three smallest components of a unit quaternion are in [-1/sqrt(2), 1/sqrt(2)]
+    private static final float DECODE_SCALE = 2.0f / (QUANTIZE_STEPS * SQRT2);
+    private static final float DECODE_BIAS = -1.0f / SQRT2;
+
+    private final Quaternionf mTempQuatA = new Quaternionf();
+    private final Quaternionf mTempQuatB = new Quaternionf();
+
+    private GVRCompressedQuatAnimation(float[] times, short[] values)
+    {
+        super(times, values, 4, 3, null, null);
+    }
+
+    /**
+     * Compress a rotation animation.
+     * @param source    animation to compress
+     * @param tolerance largest angle in radians allowed between the
+     *                  rotation of the source and the compressed animation
+     *                  at the time of each source key
+     * @return compressed animation
+     */
+    public static GVRCompressedQuatAnimation compress(GVRQuatAnimation source, float tolerance)
+    {
+        final int keySize = source.mFloatsPerKey;
+        final float[] keys = source.mKeys;
+        final int[] kept = new KeySelector(keys, keySize, tolerance, true).select();
+        final int numKeys = kept.length;
+        final float[] times = new float[numKeys];
+        final short[] values = new short[numKeys * 3];
+
+        for (int k = 0; k < numKeys; ++k)
+        {
+            int ofs = kept[k] * keySize;
+
+            times[k] = keys[ofs];
+            encode(keys, ofs + 1, values, k * 3);
+        }
+        return new GVRCompressedQuatAnimation(times, values);
+    }
+
+    /**
+     * Make a rotation animation from keys compressed before, as
+     * returned by {@link #getKeyTimes()} and {@link #getKeyValues()}.
+     * The keys are used as they are, none are removed and
+     * the rotations are not encoded again. The arrays are
+     * not copied and must not be changed.
+     * @param times     time of each key
+     * @param values    three encoded components of each key
+     * @return compressed animation
+     */
+    public static GVRCompressedQuatAnimation fromCompressed(float[] times, short[] values)
+    {
+        if (values.length != times.length * 3)
+        {
+            throw new IllegalArgumentException("Compressed rotations do not match their times");
+        }
+        return new GVRCompressedQuatAnimation(times, values);
+    }
+
+    private static void encode(float[] q, int ofs, short[] dest, int destOfs)
+    {
+        float len = 0;
+        int largest = 0;
+
+        for (int i = 0; i < 4; ++i)
+        {
+            len += q[ofs + i] * q[ofs + i];
+            if (Math.abs(q[ofs + i]) > Math.abs(q[ofs + largest]))
+            {
+                largest = i;
+            }
+        }
+        len = (float) Math.sqrt(len);
+        // q and -q are the same rotation, make the missing component positive
+        float scale = ((q[ofs + largest] < 0) ? -1.0f : 1.0f) / ((len > 0) ? len : 1.0f);
+        int n = 0;
+
+        for (int i = 0; i < 4; ++i)
+        {
+            if (i == largest)
+            {
+                continue;
+            }
+            float f = (q[ofs + i] * scale - DECODE_BIAS) / DECODE_SCALE;
+            int v = Math.max(0, Math.min(QUANTIZE_STEPS, Math.round(f)));
+            int indexBit = (n < 2) ? ((largest >> n) & 1) : 0;
+
+            dest[destOfs + n++] = (short) (v | (indexBit << 15));
+        }
+    }
+
+    private void decode(int keyIndex, Quaternionf q)
+    {
+        int ofs = keyIndex * 3;
+        int s0 = mValues[ofs] & 0xFFFF;
+        int s1 = mValues[ofs + 1] & 0xFFFF;
+        int s2 = mValues[ofs + 2] & 0xFFFF;
+        int largest = (s0 >> 15) | ((s1 >> 15) << 1);
+        float a = (s0 & QUANTIZE_STEPS) * DECODE_SCALE + DECODE_BIAS;
+        float b = (s1 & QUANTIZE_STEPS) * DECODE_SCALE + DECODE_BIAS;
+        float c = (s2 & QUANTIZE_STEPS) * DECODE_SCALE + DECODE_BIAS;
+        float d = (float) Math.sqrt(Math.max(0.0f, 1.0f - a * a - b * b - c * c));
+
+        switch (largest)
+        {
+            case 0: q.set(d, a, b, c); break;
+            case 1: q.set(a, d, b, c); break;
+            case 2: q.set(a, b, d, c); break;
+            default: q.set(a, b, c, d); break;
+        }
+    }
+
+    /**
+     * Returns the decompressed rotation of a key.
+     *
+     * @param keyIndex the index of the rotation key
+     */
+    public void getKey(int keyIndex, Quaternionf q)
+    {
+        decode(keyIndex, q);
+    }
+
+    @Override
+    protected void decode(int keyIndex, float[] values)
+    {
+        decode(keyIndex, mTempQuatA);
+        values[0] = mTempQuatA.x;
+        values[1] = mTempQuatA.y;
+        values[2] = mTempQuatA.z;
+        values[3] = mTempQuatA.w;
+    }
+
+    @Override
+    protected void interpolate(int keyIndex, float factor, float[] values)
+    {
+        decode(keyIndex, mTempQuatA);
+        decode(keyIndex + 1, mTempQuatB);
+        mTempQuatA.slerp(mTempQuatB, factor, mTempQuatA);
+        values[0] = mTempQuatA.x;
+        values[1] = mTempQuatA.y;
+        values[2] = mTempQuatA.z;
+        values[3] = mTempQuatA.w;
+    }
+}
@@ -151,6 +151,12 @@ public class GVRFloatAnimation implements PrettyPrint
             float lastTime = getTime(mLastKeyIndex);
             float nextTime = getTime(mLastKeyIndex + 1);
 
+            // Outside the keys, interpolate() uses the first or last key.
+            // Constant channels with one key always get here.
+            if ((numKeys < 2) || (time < getTime(0)) || (time >= getTime(numKeys - 1)))
+            {
+                return mLastKeyIndex = -1;
+            }
             if ((mLastKeyIndex != -1) && (lastOfs >= 0))
             {
                 if ((lastTime <= time) &&
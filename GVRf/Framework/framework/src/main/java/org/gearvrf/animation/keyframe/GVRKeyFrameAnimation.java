@@ -14,6 +14,21 @@ import org.joml.Matrix4f;
  * Represents animation based on a sequence of key frames.
  */
 public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
+    /**
+     * Position error allowed by {@link #compress()}, in scene units.
+     */
+    public static final float DEFAULT_POSITION_TOLERANCE = 0.0005f;
+
+    /**
+     * Rotation error allowed by {@link #compress()}, in radians.
+     */
+    public static final float DEFAULT_ROTATION_TOLERANCE = 0.0005f;
+
+    /**
+     * Scale error allowed by {@link #compress()}.
+     */
+    public static final float DEFAULT_SCALE_TOLERANCE = 0.0005f;
+
     protected String mName;
     protected float mTicksPerSecond;
     protected float mDurationTicks;
@@ -25,6 +40,25 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
     protected GVRSceneObject mTarget;
     protected Matrix4f[] mTransforms;
 
+    /*
+     * Time mTransforms were evaluated for in this frame,
+     * NaN if they must be evaluated again.
+     */
+    private float mTransformsTime = Float.NaN;
+    private boolean mTransformsValid = false;  // every channel was evaluated at least once
+
+    /*
+     * Level of detail state. Each animation starts counting frames
+     * at a different phase so reduced rate updates are staggered.
+     */
+    private static int sNextLODPhase = 0;
+    private GVRAnimationLOD mLOD = null;
+    private int mLODFrame;
+    private boolean mLODSkipped = true;         // last frame was not evaluated because of the LOD
+    private boolean mFreezeMinorBones = false;
+    private boolean[] mMinorChannels = null;
+    private float mMinorBoneFraction;
+
     /**
      * Constructor.
      *
@@ -46,6 +80,43 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mTarget = target;
     }
 
+    /**
+     * @return the name of the animation.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return duration of the animation in ticks.
+     */
+    public float getDurationTicks() {
+        return mDurationTicks;
+    }
+
+    /**
+     * @return number of ticks per second.
+     */
+    public float getTicksPerSecond() {
+        return mTicksPerSecond;
+    }
+
+    /**
+     * @return number of channels in the animation.
+     */
+    public int getNumChannels() {
+        return mChannels.size();
+    }
+
+    /**
+     * Get an animation channel.
+     * @param index 0-based index of the channel.
+     * @return the animation channel.
+     */
+    public GVRAnimationChannel getChannel(int index) {
+        return mChannels.get(index);
+    }
+
     /**
      * Add a channel to the animation.
      * @param channel The animation channel.
@@ -54,6 +125,53 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mChannels.add(channel);
     }
 
+    /**
+     * Compress the keys of all channels with the default tolerances.
+     * @see GVRAnimationChannel#compress(float, float, float)
+     */
+    public void compress() {
+        compress(DEFAULT_POSITION_TOLERANCE, DEFAULT_ROTATION_TOLERANCE, DEFAULT_SCALE_TOLERANCE);
+    }
+
+    /**
+     * Compress the keys of all channels.
+     * @param positionTolerance largest position error allowed, in scene units
+     * @param rotationTolerance largest rotation error allowed, in radians
+     * @param scaleTolerance    largest scale error allowed
+     * @see GVRAnimationChannel#compress(float, float, float)
+     */
+    public void compress(float positionTolerance, float rotationTolerance, float scaleTolerance) {
+        for (GVRAnimationChannel channel : mChannels) {
+            channel.compress(positionTolerance, rotationTolerance, scaleTolerance);
+        }
+    }
+
+    /**
+     * Set the level of detail policy of this animation.
+     * <p>
+     * Without a policy the animation is evaluated every frame.
+     * With one, it is evaluated less often, or not at all,
+     * when its target is small on the screen or out of view.
+     *
+     * @param lod level of detail policy, null to evaluate every frame
+     * @see GVRAnimationLOD
+     */
+    public void setLOD(GVRAnimationLOD lod) {
+        if ((lod != null) && (mLOD == null)) {
+            mLODFrame = sNextLODPhase++;
+            mLODSkipped = true;
+        }
+        mLOD = lod;
+    }
+
+    /**
+     * @return the level of detail policy, null if there is none.
+     * @see #setLOD(GVRAnimationLOD)
+     */
+    public GVRAnimationLOD getLOD() {
+        return mLOD;
+    }
+
     /**
      * Must be called after adding all channels.
      */
@@ -65,6 +183,9 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         for (int i = 0; i < mTransforms.length; ++i) {
             mTransforms[i] = new Matrix4f();
         }
+        mTransformsTime = Float.NaN;
+        mTransformsValid = false;
+        mMinorChannels = null;
     }
 
     @Override
@@ -118,16 +239,64 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
             throw new RuntimeException("Animation is not prepared. Call prepare() before starting.");
         }
 
+        if ((mLOD != null) && !updateLOD()) {
+            return;
+        }
+        mTransformsTime = Float.NaN;
         mNodeAnimationController.animate(getDuration() * ratio);
 
         mSkinningController.animate(getDuration() * ratio);
     }
 
+    /*
+     * Decide if the animation is evaluated in this frame from
+     * the size of the target on the screen. An animation which
+     * comes back into view is evaluated right away.
+     * @return false to skip this frame
+     */
+    private boolean updateLOD() {
+        float size = mTarget.getViewSize();
+        int interval = mLOD.getUpdateInterval(size);
+        int frame = mLODFrame++;
+
+        if ((interval == 0) || (!mLODSkipped && ((frame % interval) != 0))) {
+            mLODSkipped = (interval == 0);
+            return false;
+        }
+        mLODSkipped = false;
+        mFreezeMinorBones = mLOD.freezesMinorBones(size);
+        if (mFreezeMinorBones &&
+            ((mMinorChannels == null) || (mMinorBoneFraction != mLOD.getMinorBoneFraction()))) {
+            mMinorBoneFraction = mLOD.getMinorBoneFraction();
+            mMinorChannels = mSkinningController.findMinorChannels(mMinorBoneFraction);
+        }
+        return true;
+    }
+
+    /**
+     * Evaluate all the channels at a time.
+     * The node and skinning controllers both ask for the
+     * transforms each frame, they are only evaluated once.
+     * Channels of minor bones which are frozen by the level
+     * of detail policy keep their last transform.
+     * @param animationTime time in ticks
+     * @return transform of each channel
+     */
     protected Matrix4f[] getTransforms(float animationTime) {
-        int i = 0;
-        for (GVRAnimationChannel channel : mChannels) {
-            channel.animate(animationTime, mTransforms[i++]);
+        if (animationTime == mTransformsTime) {
+            return mTransforms;
+        }
+        boolean freeze = mFreezeMinorBones && mTransformsValid && (mLOD != null);
+
+        // indexed loop, an iterator would be allocated every frame
+        for (int i = 0; i < mChannels.size(); ++i) {
+            if (freeze && mMinorChannels[i]) {
+                continue;
+            }
+            mChannels.get(i).animate(animationTime, mTransforms[i]);
         }
+        mTransformsTime = animationTime;
+        mTransformsValid = true;
         return mTransforms;
     }
 }
@@ -5,7 +5,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.TreeMap;
 
 import org.gearvrf.GVRBone;
@@ -14,22 +13,59 @@ import org.gearvrf.GVRContext;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTransform;
 import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
 
 /**
- * Controls skeletal animation (skinning). 
+ * Controls skeletal animation (skinning).
+ * <p>
+ * The animated part of the skeleton is flattened into arrays
+ * in depth first order so parents are always updated before
+ * their children. The final bone matrices of each skinned mesh
+ * are computed into a preallocated palette which is sent
+ * to the mesh in one call. Animating does not allocate memory.
  */
 public class GVRSkinningController extends GVRAnimationController {
     private static final String TAG = GVRSkinningController.class.getSimpleName();
 
+    /*
+     * Channel ID of skeleton nodes which are not animated
+     * and not under an animated node, their pose never changes.
+     */
+    private static final int STATIC_NODE = -2;
+
     protected GVRContext gvrContext;
     protected GVRSceneObject sceneRoot;
 
     protected SceneAnimNode animRoot;
     protected Map<String, SceneAnimNode> nodeByName;
+
+    /**
+     * Bones of each skeleton node, filled in when the controller is made.
+     * @deprecated animating uses the bone palettes in {@link #mMeshes}
+     *             and does not read this map.
+     */
+    @Deprecated
     protected Map<GVRSceneObject, List<GVRBone>> boneMap;
 
+    /*
+     * Flattened skeleton, parents come before their children.
+     */
+    protected int mNumNodes;
+    protected int[] mNodeParent;                // index of parent node, -1 for none
+    protected int[] mNodeChannel;               // animation channel, -1 for none
+    protected GVRTransform[] mNodeTransform;    // scene transform, used if there is no channel
+    protected Matrix4f[] mNodeGlobal;           // global pose of each node
+    protected float[] mNodeReach;               // bind pose distance to the farthest descendant
+
+    protected SkinnedMesh[] mMeshes;
+
+    private final float[] mTempArray = new float[16];
+    private final Matrix4f mLocal = new Matrix4f();
+    private final Matrix4f mMeshInverse = new Matrix4f();
+    private final Matrix4f mFinal = new Matrix4f();
+
     protected class SceneAnimNode {
         GVRSceneObject sceneObject;
         SceneAnimNode parent;
@@ -50,6 +86,27 @@ public class GVRSkinningController extends GVRAnimationController {
         }
     }
 
+    /*
+     * Bones of one skinned mesh and the palette of their final matrices.
+     */
+    protected static class SkinnedMesh {
+        GVRMesh mesh;
+        GVRTransform owner;             // transform of the scene object which owns the mesh
+        int numBones;
+        int[] boneNode;                 // skeleton node of each bone, -1 if not found
+        Matrix4f[] offsetMatrix;        // bind pose offset of each bone
+        float[] palette;                // 16 floats for each bone
+
+        SkinnedMesh(GVRMesh mesh, GVRTransform owner, int numBones) {
+            this.mesh = mesh;
+            this.owner = owner;
+            this.numBones = numBones;
+            boneNode = new int[numBones];
+            offsetMatrix = new Matrix4f[numBones];
+            palette = new float[numBones * 16];
+        }
+    }
+
     /**
      * Constructs the skeleton for a list of {@link GVRSceneObject}.
      *
@@ -65,8 +122,93 @@ public class GVRSkinningController extends GVRAnimationController {
 
         animRoot = createAnimationTree(sceneRoot, null);
         pruneTree(animRoot);
-        MeshVisitor visitor = new MeshVisitor();
+
+        Map<SceneAnimNode, Integer> nodeIndex = new HashMap<SceneAnimNode, Integer>();
+        List<SceneAnimNode> nodes = new ArrayList<SceneAnimNode>();
+        List<SkinnedMesh> meshes = new ArrayList<SkinnedMesh>();
+
+        flattenTree(animRoot, nodes, nodeIndex);
+        MeshVisitor visitor = new MeshVisitor(nodes, nodeIndex, meshes);
         sceneRoot.forAllComponents(visitor, GVRRenderData.getComponentType());
+
+        mNumNodes = nodes.size();
+        mNodeParent = new int[mNumNodes];
+        mNodeChannel = new int[mNumNodes];
+        mNodeTransform = new GVRTransform[mNumNodes];
+        mNodeGlobal = new Matrix4f[mNumNodes];
+        for (int i = 0; i < mNumNodes; ++i)
+        {
+            SceneAnimNode node = nodes.get(i);
+            Integer parent = (node.parent != null) ? nodeIndex.get(node.parent) : null;
+
+            mNodeParent[i] = (parent != null) ? parent : -1;
+            mNodeChannel[i] = node.channelId;
+            mNodeTransform[i] = node.sceneObject.getTransform();
+            mNodeGlobal[i] = new Matrix4f(node.globalTransform);
+        }
+        mMeshes = meshes.toArray(new SkinnedMesh[meshes.size()]);
+        mNodeReach = computeReach();
+    }
+
+    /*
+     * Compute how far the bind pose of each animated node
+     * reaches, children are visited before their parents.
+     */
+    private float[] computeReach()
+    {
+        float[] reach = new float[mNumNodes];
+
+        for (int i = mNumNodes - 1; i >= 0; --i)
+        {
+            int parent = mNodeParent[i];
+
+            if ((parent < 0) || (mNodeChannel[i] == STATIC_NODE))
+            {
+                continue;
+            }
+            Matrix4f child = mNodeGlobal[i];
+            Matrix4f p = mNodeGlobal[parent];
+            float dx = child.m30() - p.m30();
+            float dy = child.m31() - p.m31();
+            float dz = child.m32() - p.m32();
+            float d = (float) Math.sqrt(dx * dx + dy * dy + dz * dz) + reach[i];
+
+            reach[parent] = Math.max(reach[parent], d);
+        }
+        return reach;
+    }
+
+    /**
+     * Find the channels which animate minor bones.
+     * <p>
+     * A bone is minor if it and the bones below it span less than
+     * a fraction of the whole skeleton in the bind pose. Fingers,
+     * toes and the ends of the limbs are usually minor.
+     *
+     * @param fraction fraction of the size of the skeleton
+     * @return true for each channel of the animation which only
+     *         animates minor bones
+     * @see GVRAnimationLOD#setMinorBoneFraction(float)
+     */
+    public boolean[] findMinorChannels(float fraction)
+    {
+        boolean[] minor = new boolean[animation.getNumChannels()];
+        float size = 0;
+
+        for (int i = 0; i < mNumNodes; ++i)
+        {
+            size = Math.max(size, mNodeReach[i]);
+        }
+        for (int i = 0; i < mNumNodes; ++i)
+        {
+            int channel = mNodeChannel[i];
+
+            if ((channel >= 0) && (mNodeReach[i] < fraction * size))
+            {
+                minor[channel] = true;
+            }
+        }
+        return minor;
     }
 
     protected SceneAnimNode createAnimationTree(GVRSceneObject node, SceneAnimNode parent)
@@ -107,8 +249,32 @@ public class GVRSkinningController extends GVRAnimationController {
         return internalNode;
     }
 
+    /*
+     * Add the animated skeleton to the node list in depth first order.
+     */
+    private void flattenTree(SceneAnimNode node, List<SceneAnimNode> nodes, Map<SceneAnimNode, Integer> nodeIndex)
+    {
+        nodeIndex.put(node, nodes.size());
+        nodes.add(node);
+        for (SceneAnimNode child : node.children)
+        {
+            flattenTree(child, nodes, nodeIndex);
+        }
+    }
+
     private class MeshVisitor implements GVRSceneObject.ComponentVisitor
     {
+        private final List<SceneAnimNode> mNodes;
+        private final Map<SceneAnimNode, Integer> mNodeIndex;
+        private final List<SkinnedMesh> mMeshes;
+
+        MeshVisitor(List<SceneAnimNode> nodes, Map<SceneAnimNode, Integer> nodeIndex, List<SkinnedMesh> meshes)
+        {
+            mNodes = nodes;
+            mNodeIndex = nodeIndex;
+            mMeshes = meshes;
+        }
+
         public boolean visit(GVRComponent c)
         {
             GVRRenderData rd = (GVRRenderData) c;
@@ -116,16 +282,85 @@ public class GVRSkinningController extends GVRAnimationController {
 
             if (mesh != null)
             {
-                setupBone(rd.getOwnerObject());
+                SkinnedMesh skin = setupBones(rd.getOwnerObject(), mesh, mNodes, mNodeIndex);
+                if (skin != null)
+                {
+                    mMeshes.add(skin);
+                }
             }
             return true;
         }
     }
 
+    /*
+     * Find the skeleton nodes for the bones of a mesh.
+     * Nodes which were pruned from the animated skeleton
+     * are added at the end of the node list as static nodes.
+     */
+    protected SkinnedMesh setupBones(GVRSceneObject node, GVRMesh mesh,
+                                     List<SceneAnimNode> nodes, Map<SceneAnimNode, Integer> nodeIndex)
+    {
+        List<GVRBone> bones = mesh.getBones();
+
+        Log.v(TAG, "setupBones checking mesh with %d vertices", mesh.getVertexBuffer().getVertexCount());
+        if (bones.isEmpty())
+        {
+            return null;
+        }
+        SkinnedMesh skin = new SkinnedMesh(mesh, node.getTransform(), bones.size());
+        for (int b = 0; b < skin.numBones; ++b)
+        {
+            GVRBone bone = bones.get(b);
+
+            bone.setSceneObject(node);
+            skin.offsetMatrix[b] = bone.getOffsetMatrix();
+            skin.boneNode[b] = -1;
+            new Matrix4f().get(skin.palette, b * 16);
+
+            GVRSceneObject skeletalNode = sceneRoot.getSceneObjectByName(bone.getName());
+            if (skeletalNode == null) {
+                Log.w(TAG, "what? cannot find the skeletal node for bone: %s", bone.toString());
+                continue;
+            }
+            addToBoneMap(skeletalNode, bone);
+            SceneAnimNode animNode = nodeByName.get(skeletalNode.getName());
+            if (animNode == null)
+            {
+                continue;
+            }
+            Integer index = nodeIndex.get(animNode);
+            if (index == null)
+            {
+                animNode.channelId = STATIC_NODE;
+                index = nodes.size();
+                nodeIndex.put(animNode, index);
+                nodes.add(animNode);
+            }
+            skin.boneNode[b] = index;
+        }
+        return skin;
+    }
+
+    private void addToBoneMap(GVRSceneObject skeletalNode, GVRBone bone)
+    {
+        List<GVRBone> boneList = boneMap.get(skeletalNode);
+        if (boneList == null) {
+            boneList = new ArrayList<GVRBone>();
+            boneMap.put(skeletalNode, boneList);
+        }
+        boneList.add(bone);
+    }
+
+    /**
+     * Add the bones of a mesh to {@link #boneMap}.
+     * @deprecated the constructor sets up the bones with
+     *             {@link #setupBones(GVRSceneObject, GVRMesh, List, Map)}
+     *             and no longer calls this method.
+     */
+    @Deprecated
     protected void setupBone(GVRSceneObject node) {
         GVRMesh mesh;
         if (node.getRenderData() != null && (mesh = node.getRenderData().getMesh()) != null) {
-            Log.v(TAG, "setupBone checking mesh with %d vertices", mesh.getVertexBuffer().getVertexCount());
             for (GVRBone bone : mesh.getBones())
             {
                 bone.setSceneObject(node);
@@ -135,14 +370,7 @@ public class GVRSkinningController extends GVRAnimationController {
                     Log.w(TAG, "what? cannot find the skeletal node for bone: %s", bone.toString());
                     continue;
                 }
-
-                // Create look-up table for bones
-                List<GVRBone> boneList = boneMap.get(skeletalNode);
-                if (boneList == null) {
-                    boneList = new ArrayList<GVRBone>();
-                    boneMap.put(skeletalNode, boneList);
-                }
-                boneList.add(bone);
+                addToBoneMap(skeletalNode, bone);
             }
         }
     }
@@ -154,25 +382,80 @@ public class GVRSkinningController extends GVRAnimationController {
     protected void animateImpl(float animationTick) {
         Matrix4f[] animationTransform = animation.getTransforms(animationTick);
 
-        updateTransforms(animRoot, new Matrix4f(), animationTransform);
-        for (Entry<GVRSceneObject, List<GVRBone>> ent : boneMap.entrySet())
+        updateTransforms(animationTransform);
+        for (int m = 0; m < mMeshes.length; ++m)
         {
-            // Transform all bone splits (a bone can be split into multiple instances if they influence
-            // different meshes)
-            SceneAnimNode node = nodeByName.get(ent.getKey().getName());
-            if (node == null)
+            updateBoneMatrices(mMeshes[m]);
+        }
+    }
+
+    /*
+     * Compute the global pose of the animated skeleton nodes.
+     */
+    protected void updateTransforms(Matrix4f[] animationTransform) {
+        for (int i = 0; i < mNumNodes; ++i)
+        {
+            int channel = mNodeChannel[i];
+            int parent = mNodeParent[i];
+            Matrix4f local;
+
+            if (channel == STATIC_NODE)
+            {
+                continue;
+            }
+            if (channel >= 0)
+            {
+                local = animationTransform[channel];
+            }
+            else
+            {
+                // Default local transform
+                mNodeTransform[i].getLocalModelMatrix(mTempArray);
+                local = mLocal.set(mTempArray);
+            }
+            if (parent >= 0)
             {
-                return;
+                mNodeGlobal[parent].mul(local, mNodeGlobal[i]);
             }
-            for (GVRBone bone : ent.getValue())
+            else
             {
-                updateBoneMatrices(bone, node);
+                mNodeGlobal[i].set(local);
             }
         }
     }
 
+    /*
+     * Compute the final matrices of all the bones of a mesh
+     * and send them to the mesh.
+     */
+    protected void updateBoneMatrices(SkinnedMesh skin) {
+        skin.owner.getModelMatrix(mTempArray);
+        mMeshInverse.set(mTempArray).invert();
+
+        for (int b = 0; b < skin.numBones; ++b)
+        {
+            int node = skin.boneNode[b];
+
+            if (node < 0)
+            {
+                continue;
+            }
+            mNodeGlobal[node].mul(skin.offsetMatrix[b], mFinal);
+            mMeshInverse.mul(mFinal, mFinal);
+            mFinal.get(skin.palette, b * 16);
+        }
+        skin.mesh.setBoneMatrices(skin.palette, skin.numBones);
+    }
+
+    /**
+     * Compute the global pose of a subtree of {@link SceneAnimNode}s.
+     * @deprecated {@link #animateImpl(float)} no longer calls this method,
+     *             it updates the flattened skeleton with
+     *             {@link #updateTransforms(Matrix4f[])}, which does not allocate.
+     */
+    @Deprecated
     protected void updateTransforms(SceneAnimNode node, Matrix4f parentTransform, Matrix4f[] animationTransform) {
-        if (node.channelId != -1) {
+        if (node.channelId >= 0) {
             node.localTransform.set(animationTransform[node.channelId]);
         } else {
             // Default local transform
@@ -186,6 +469,15 @@ public class GVRSkinningController extends GVRAnimationController {
         }
     }
 
+    /**
+     * Compute the final matrix of one bone from the pose computed by
+     * {@link #updateTransforms(SceneAnimNode, Matrix4f, Matrix4f[])}
+     * and send it to the bone.
+     * @deprecated {@link #animateImpl(float)} no longer calls this method,
+     *             it computes all the bones of a mesh at once with
+     *             {@link #updateBoneMatrices(SkinnedMesh)}, which does not allocate.
+     */
+    @Deprecated
     protected void updateBoneMatrices(GVRBone bone, SceneAnimNode node) {
         Matrix4f finalMatrix = new Matrix4f().set(bone.getOffsetMatrix());
 
@@ -216,4 +508,4 @@ public class GVRSkinningController extends GVRAnimationController {
 
         return keep;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long the stages of each frame take.
+ * <p>
+ * The profiler lives in native code. The renderer times culling,
+ * sorting, shadow maps, drawing and its calls into Java, the view
+ * manager times the runnables and the draw frame listeners it runs
+ * before drawing. Every frame the time of each stage is kept in a
+ * ring buffer of the last {@link #HISTORY_SIZE} frames and in a
+ * histogram, from which percentiles are computed.
+ * <p>
+ * Recording uses fixed arrays, it does not allocate or lock.
+ * The profiler is off by default, a disabled timer only tests a flag.
+ * It is switched on with {@link #setEnabled(boolean)}, the
+ * {@code profile-start} command of the debug shell or by adding a
+ * {@link GVRStatsLine.GVRProfilerColumn} to a statistics line.
+ * <pre>
+ *     GVRProfiler.setEnabled(true);
+ *     ...
+ *     Log.d(TAG, GVRProfiler.dump());
+ * </pre>
+ */
+public final class GVRProfiler {
+    /**
+     * The stages of a frame. The stages nest where the work nests,
+     * {@link #SHADOW_MAPS} includes culling and drawing the shadow maps.
+     */
+    public enum Stage {
+        /** Frustum culling */
+        CULL,
+        /** Occlusion culling */
+        OCCLUSION_CULL,
+        /** Sorting the render data for drawing */
+        STATE_SORT,
+        /** Rendering the shadow maps */
+        SHADOW_MAPS,
+        /** Drawing the render data, one call per render data */
+        RENDER_DATA,
+        /** Calls from native code into Java */
+        JNI_UPCALL,
+        /** Runnables run on the GL thread before drawing */
+        RUNNABLES,
+        /** {@link org.gearvrf.GVRDrawFrameListener}s */
+        FRAME_LISTENERS,
+        /** The whole frame */
+        FRAME
+    }
+
+    /** Number of frames kept by {@link #getHistory(Stage, int[])} */
+    public static final int HISTORY_SIZE = 256;
+
+    /** Index of the number of recorded frames in the counters */
+    public static final int COUNTER_FRAMES = 0;
+    /** Index of the total time of a stage in the counters */
+    public static final int COUNTER_NANOS = 1;
+    /** Index of the number of timed calls in the counters */
+    public static final int COUNTER_CALLS = 2;
+    /** Index of the first histogram bucket in the counters */
+    public static final int COUNTER_BUCKETS = 3;
+
+    static final int BUCKETS_PER_OCTAVE = 8;
+    static final int NUM_BUCKETS = 160;
+    static final int BUCKET_BASE = 1000;
+
+    /** Size of the array filled by {@link #getCounters(Stage, long[])} */
+    public static final int COUNTER_COUNT = COUNTER_BUCKETS + NUM_BUCKETS;
+
+    private static final float NANO_TO_MILLIS = 1000000.0f;
+    private static volatile boolean sEnabled = false;
+
+    private GVRProfiler() {
+    }
+
+    /**
+     * Test if the profiler records frames.
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Start or stop recording frames. Stopping keeps the recorded
+     * frames, starting again adds to them.
+     * @param enabled true to record frames
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        NativeProfiler.setEnabled(enabled);
+    }
+
+    /**
+     * Clear all the recorded frames.
+     */
+    public static void reset() {
+        NativeProfiler.reset();
+    }
+
+    /**
+     * Record the current frame and start a new one.
+     * Called by the view manager once per frame.
+     */
+    public static void endFrame() {
+        if (sEnabled) {
+            NativeProfiler.endFrame();
+        }
+    }
+
+    /**
+     * Start timing a stage.
+     * @return the start time to pass to {@link #end(Stage, long)},
+     *         0 if the profiler is disabled
+     */
+    public static long begin() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Add the time since {@link #begin()} to the current frame of a stage.
+     * @param stage the stage timed
+     * @param start value returned by {@link #begin()}
+     */
+    public static void end(Stage stage, long start) {
+        if (start != 0) {
+            NativeProfiler.record(stage.ordinal(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Copy the counters of a stage: the number of frames recorded,
+     * the total time and number of calls and the histogram of the
+     * frame times. Two copies can be subtracted to get the statistics
+     * of the frames in between.
+     * @param stage the stage to get
+     * @param counters array of at least {@link #COUNTER_COUNT} values
+     */
+    public static void getCounters(Stage stage, long[] counters) {
+        if (counters.length < COUNTER_COUNT) {
+            throw new IllegalArgumentException("Counters must hold at least " + COUNTER_COUNT + " values");
+        }
+        NativeProfiler.getCounters(stage.ordinal(), counters);
+    }
+
+    /**
+     * Copy the times of the last frames of a stage, oldest first.
+     * @param stage the stage to get
+     * @param nanos array of at least {@link #HISTORY_SIZE} times in nanoseconds
+     * @return the number of times copied
+     */
+    public static int getHistory(Stage stage, int[] nanos) {
+        if (nanos.length < HISTORY_SIZE) {
+            throw new IllegalArgumentException("History must hold at least " + HISTORY_SIZE + " values");
+        }
+        return NativeProfiler.getHistory(stage.ordinal(), nanos);
+    }
+
+    /**
+     * Estimate a percentile of the frame times of a stage from the
+     * difference of two copies of its counters.
+     * @param counters counters from {@link #getCounters(Stage, long[])}
+     * @param baseline older counters of the same stage, null to use all frames
+     * @param fraction the percentile, between 0 and 1
+     * @return the time in nanoseconds, 0 if no frames were recorded
+     */
+    public static float getPercentile(long[] counters, long[] baseline, float fraction) {
+        long total = 0;
+        for (int b = 0; b < NUM_BUCKETS; ++b) {
+            total += bucketCount(counters, baseline, b);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        float target = fraction * total;
+        long below = 0;
+        for (int b = 0; b < NUM_BUCKETS; ++b) {
+            long count = bucketCount(counters, baseline, b);
+            if ((count > 0) && (below + count >= target)) {
+                float t = Math.max(0.0f, (target - below) / count);
+                float upper = bucketBound(b);
+
+                if (b == 0) {
+                    return upper * t;
+                }
+                // buckets are spaced evenly on a log scale
+                float lower = bucketBound(b - 1);
+                return lower * (float) Math.pow(upper / lower, t);
+            }
+            below += count;
+        }
+        return bucketBound(NUM_BUCKETS - 1);
+    }
+
+    /**
+     * Describe the last frames of every stage as a table: the number
+     * of calls per frame, the mean, median, 90th and 99th percentile
+     * and the largest time per frame in milliseconds.
+     * @return the table, one line per stage
+     */
+    public static String dump() {
+        final int[] history = new int[HISTORY_SIZE];
+        final long[] counters = new long[COUNTER_COUNT];
+        StringBuilder sb = new StringBuilder();
+        int frames = getHistory(Stage.FRAME, history);
+
+        sb.append(String.format("%s, last %d frames (ms)", sEnabled ? "profiling" : "profiler stopped", frames));
+        sb.append(System.lineSeparator());
+        sb.append(String.format("%-16s %8s %8s %8s %8s %8s %8s",
+                "stage", "calls", "mean", "p50", "p90", "p99", "max"));
+        for (Stage stage : Stage.values()) {
+            getCounters(stage, counters);
+            int n = getHistory(stage, history);
+            if ((n == 0) || (counters[COUNTER_CALLS] == 0)) {
+                continue;
+            }
+            Arrays.sort(history, 0, n);
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += history[i];
+            }
+            sb.append(System.lineSeparator());
+            sb.append(String.format("%-16s %8.1f %8.3f %8.3f %8.3f %8.3f %8.3f",
+                    stage.name().toLowerCase(),
+                    (float) counters[COUNTER_CALLS] / counters[COUNTER_FRAMES],
+                    sum / n / NANO_TO_MILLIS,
+                    history[(n - 1) / 2] / NANO_TO_MILLIS,
+                    history[(n - 1) * 90 / 100] / NANO_TO_MILLIS,
+                    history[(n - 1) * 99 / 100] / NANO_TO_MILLIS,
+                    history[n - 1] / NANO_TO_MILLIS));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the table from {@link #dump()} to a console.
+     * @param console the console to write to
+     */
+    public static void dump(GVRConsole console) {
+        for (String line : dump().split(System.lineSeparator())) {
+            console.writeLine("%s", line);
+        }
+    }
+
+    private static long bucketCount(long[] counters, long[] baseline, int bucket) {
+        long count = counters[COUNTER_BUCKETS + bucket];
+        if (baseline != null) {
+            count -= baseline[COUNTER_BUCKETS + bucket];
+        }
+        return Math.max(count, 0);
+    }
+
+    /*
+     * Upper bound of a bucket, bucket b > 0 holds times from
+     * BUCKET_BASE * 2^((b - 1) / 8) up to BUCKET_BASE * 2^(b / 8).
+     */
+    private static float bucketBound(int bucket) {
+        return BUCKET_BASE * (float) Math.pow(2.0, (double) bucket / BUCKETS_PER_OCTAVE);
+    }
+}
+
+class NativeProfiler {
+    static native void setEnabled(boolean enabled);
+
+    static native void reset();
+
+    static native void endFrame();
+
+    static native void record(int stage, long nanos);
+
+    static native void getCounters(int stage, long[] counters);
+
+    static native int getHistory(int stage, int[] nanos);
+}
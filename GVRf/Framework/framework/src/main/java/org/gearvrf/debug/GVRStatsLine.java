@@ -17,6 +17,7 @@ package org.gearvrf.debug;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.gearvrf.GVRTime;
@@ -224,7 +225,9 @@ public class GVRStatsLine {
         protected static String sDefaultDecimalFormat = "0.##";
         protected DecimalFormat mDecimalFormat = new DecimalFormat(sDefaultDecimalFormat);
 
-        protected List<T> mData = new ArrayList<T>();
+        // values are kept unboxed, this is called every frame
+        private double[] mData = new double[64];
+        private int mDataSize = 0;
 
         /**
          * Constructor.
@@ -238,12 +241,12 @@ public class GVRStatsLine {
         @Override
         public synchronized void reset() {
             super.reset();
-            mData.clear();
+            mDataSize = 0;
         }
 
         @Override
         protected synchronized void onStartLine() {
-            mData.clear();
+            mDataSize = 0;
         }
 
         @Override
@@ -251,22 +254,50 @@ public class GVRStatsLine {
             if (value == null) {
                 return;
             }
+            addValue(value.doubleValue());
+        }
 
-            mData.add(value);
+        /**
+         * Adds a data point to the statistics without boxing it.
+         * @param value The value to be added.
+         */
+        public synchronized void addValue(double value) {
+            if (mDataSize == mData.length) {
+                mData = Arrays.copyOf(mData, mDataSize * 2);
+            }
+            mData[mDataSize++] = value;
+        }
+
+        /**
+         * @return The number of data points added since the line started.
+         */
+        protected synchronized int getDataSize() {
+            return mDataSize;
+        }
+
+        /**
+         * @param index The index of a data point, less than {@link #getDataSize()}.
+         * @return The data point.
+         */
+        protected synchronized double getData(int index) {
+            if ((index < 0) || (index >= mDataSize)) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + mDataSize);
+            }
+            return mData[index];
         }
 
         @Override
         public synchronized Object getStat() {
-            switch (mData.size()) {
+            switch (mDataSize) {
                 case 0:
                     return "n/a";
                 case 1: {
-                    return formatDecimal(mData.get(0).doubleValue());
+                    return formatDecimal(mData[0]);
                 }
                 default: {
-                    DescriptiveResult res = Stats.computeDescriptive(mData);
+                    DescriptiveResult res = Stats.computeDescriptive(mData, mDataSize);
                     return String.format("%s (n=%d, sd=%s)",
-                                         formatDecimal(res.mean), mData.size(),
+                                         formatDecimal(res.mean), mDataSize,
                                          formatDecimal(res.stdev));
                 }
             }
@@ -284,4 +315,87 @@ public class GVRStatsLine {
             mDecimalFormat = new DecimalFormat(fmt);
         }
     }
+
+    /**
+     * This class represents a column showing a stage of the frame timed by
+     * the {@link GVRProfiler}. It prints the mean time per frame in milliseconds
+     * of the frames recorded during a period, with the median, the 90th and
+     * the 99th percentile estimated from the profiler histogram.
+     * Creating the column enables the profiler.
+     */
+    public static class GVRProfilerColumn extends GVRColumnBase<Float> {
+        private static final float NANO_TO_MILLIS = 1000000.0f;
+
+        protected DecimalFormat mDecimalFormat = new DecimalFormat(GVRStandardColumn.sDefaultDecimalFormat);
+        private final GVRProfiler.Stage mStage;
+        private final long[] mBaseline = new long[GVRProfiler.COUNTER_COUNT];
+        private final long[] mCounters = new long[GVRProfiler.COUNTER_COUNT];
+
+        /**
+         * Constructor.
+         * @param name
+         *         The name of the statistic column. It will be printed in the log line.
+         * @param stage
+         *         The stage of the frame to show.
+         */
+        public GVRProfilerColumn(String name, GVRProfiler.Stage stage) {
+            super(name);
+            mStage = stage;
+            GVRProfiler.setEnabled(true);
+        }
+
+        @Override
+        public synchronized void reset() {
+            super.reset();
+            Arrays.fill(mBaseline, 0);
+        }
+
+        @Override
+        protected synchronized void onStartLine() {
+            GVRProfiler.getCounters(mStage, mBaseline);
+        }
+
+        /**
+         * The values come from the profiler, added values are ignored.
+         */
+        @Override
+        public void addValue(Float value) {
+        }
+
+        @Override
+        public synchronized Object getStat() {
+            GVRProfiler.getCounters(mStage, mCounters);
+            long[] baseline = mBaseline;
+            if (mCounters[GVRProfiler.COUNTER_FRAMES] < baseline[GVRProfiler.COUNTER_FRAMES]) {
+                // the profiler was reset since the line started
+                baseline = null;
+            }
+            long frames = mCounters[GVRProfiler.COUNTER_FRAMES];
+            long nanos = mCounters[GVRProfiler.COUNTER_NANOS];
+            if (baseline != null) {
+                frames -= baseline[GVRProfiler.COUNTER_FRAMES];
+                nanos -= baseline[GVRProfiler.COUNTER_NANOS];
+            }
+            if (frames <= 0) {
+                return "n/a";
+            }
+            return String.format("%s (n=%d, p50=%s, p90=%s, p99=%s)",
+                                 formatMillis((float) nanos / frames), frames,
+                                 formatMillis(GVRProfiler.getPercentile(mCounters, baseline, 0.5f)),
+                                 formatMillis(GVRProfiler.getPercentile(mCounters, baseline, 0.9f)),
+                                 formatMillis(GVRProfiler.getPercentile(mCounters, baseline, 0.99f)));
+        }
+
+        protected String formatMillis(float nanos) {
+            return mDecimalFormat.format(nanos / NANO_TO_MILLIS);
+        }
+
+        /**
+         * Sets the format string for decimals.
+         * @param fmt The format string. See {@link DecimalFormat}.
+         */
+        public void setNumberFormat(String fmt) {
+            mDecimalFormat = new DecimalFormat(fmt);
+        }
+    }
 }
@@ -69,6 +69,29 @@ public class ShellCommandHandler implements ShellDependent {
         return GVRVersion.CURRENT;
     }
 
+    @Command(description="Prints the frame profiler statistics")
+    public String profile() {
+        return GVRProfiler.dump();
+    }
+
+    @Command(description="Starts the frame profiler", abbrev="pon")
+    public String profileStart() {
+        GVRProfiler.setEnabled(true);
+        return "profiling";
+    }
+
+    @Command(description="Stops the frame profiler, keeping its statistics", abbrev="poff")
+    public String profileStop() {
+        GVRProfiler.setEnabled(false);
+        return "profiler stopped";
+    }
+
+    @Command(description="Clears the frame profiler statistics", abbrev="pr")
+    public String profileReset() {
+        GVRProfiler.reset();
+        return "profiler reset";
+    }
+
     @Command
     public Object help() {
         return mHelpHandler.help();
@@ -21,6 +21,7 @@ import android.view.MotionEvent;
 import org.gearvrf.GVRCamera;
 import org.gearvrf.GVRCollider;
 import org.gearvrf.GVRContext;
+import org.gearvrf.GVREventManager;
 import org.gearvrf.GVREventReceiver;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRMeshCollider;
@@ -662,6 +663,20 @@ public abstract class GVRCursorController implements IEventReceiver
         void onEvent(GVRCursorController controller, boolean isActive);
     }
 
+    static
+    {
+        // onEvent is sent every frame, call it without reflection
+        GVREventManager.addDispatcher(IControllerEvent.class, "onEvent",
+                                      new GVREventManager.TwoParamDispatcher()
+        {
+            @Override
+            public void dispatch(Object handler, Object arg0, Object arg1)
+            {
+                ((IControllerEvent) handler).onEvent((GVRCursorController) arg0, (Boolean) arg1);
+            }
+        });
+    }
+
     /**
      * Add a {@link IControllerEvent} to receive updates from this
      * {@link GVRCursorController}.
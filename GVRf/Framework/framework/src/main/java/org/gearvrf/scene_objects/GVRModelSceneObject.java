@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.gearvrf.GVRAssetLoader;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRScene;
 import org.gearvrf.GVRSceneObject;
@@ -34,6 +35,7 @@ import org.gearvrf.utility.Log;
 
 public class GVRModelSceneObject extends GVRSceneObject {
     protected List<GVRAnimation> mAnimations;
+    protected GVRAssetLoader.LoadTimes mLoadTimes;
 
     /**
      * Holds a loaded model.
@@ -56,6 +58,25 @@ public class GVRModelSceneObject extends GVRSceneObject {
         return mAnimations;
     }
 
+    /**
+     * Gets how long each stage of loading the model took.
+     *
+     * @return load times, null if the model was not loaded
+     *         by {@link GVRAssetLoader} or is still loading.
+     */
+    public GVRAssetLoader.LoadTimes getLoadTimes() {
+        return mLoadTimes;
+    }
+
+    /**
+     * Called by {@link GVRAssetLoader} when the model has been loaded.
+     *
+     * @param loadTimes how long each stage of loading took
+     */
+    public void setLoadTimes(GVRAssetLoader.LoadTimes loadTimes) {
+        mLoadTimes = loadTimes;
+    }
+
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {
         super.prettyPrint(sb, indent);
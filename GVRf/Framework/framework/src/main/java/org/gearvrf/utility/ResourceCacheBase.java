@@ -18,28 +18,76 @@ package org.gearvrf.utility;
 import org.gearvrf.GVRAndroidResource;
 
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Basic cache-by-resource-description.
  *
  * Keeps system from reloading resources, so long as a previous copy is still in
  * memory.
+ * <p>
+ * By default the cache only holds weak references, whether a resource
+ * survives is up to the garbage collector. Calling
+ * {@link #setBudget(long, SizeEstimator)} also keeps the most recently
+ * used resources alive until their estimated size exceeds the budget.
+ * The least recently used resources are evicted first, they stay
+ * in the cache as weak references as long as they are in use elsewhere.
+ * Resources can be {@linkplain #pin(GVRAndroidResource) pinned} so
+ * they are never evicted.
  *
  * @since 2.0.2
  */
 public class ResourceCacheBase<T> {
     private static final String TAG = Log.tag(ResourceCacheBase.class);
 
+    /**
+     * Estimates the memory a cached resource takes.
+     */
+    public interface SizeEstimator<T> {
+        /**
+         * @param resource cached resource
+         * @return number of bytes the resource takes
+         */
+        long sizeOf(T resource);
+    }
+
+    private static class Entry<T> {
+        final T resource;
+        final long size;
+
+        Entry(T resource, long size) {
+            this.resource = resource;
+            this.size = size;
+        }
+    }
+
     private final Map<GVRAndroidResource, WeakReference<T>> cache //
             = new ConcurrentHashMap<GVRAndroidResource, WeakReference<T>>();
 
+    // Strongly held resources in access order, guarded by itself
+    private final LinkedHashMap<GVRAndroidResource, Entry<T>> recent //
+            = new LinkedHashMap<GVRAndroidResource, Entry<T>>(16, 0.75f, true);
+    private final Map<GVRAndroidResource, Integer> pinned //
+            = new HashMap<GVRAndroidResource, Integer>();
+    private SizeEstimator<? super T> estimator = null;
+    private long budget = 0;
+    private long size = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
     /** Save a weak reference to the resource */
     public void put(GVRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
 
         cache.put(androidResource, new WeakReference<T>(resource));
+        hold(androidResource, resource);
     }
 
     /** Get the cached resource, or {@code null} */
@@ -48,17 +96,155 @@ public class ResourceCacheBase<T> {
         if (reference == null) {
             // Not in map
             // Log.d(TAG, "get(%s) returning %s", androidResource, null);
+            misses.incrementAndGet();
             return null;
         }
         T cached = reference.get();
         if (cached == null) {
             // In map, but not in memory
             cache.remove(androidResource);
+            misses.incrementAndGet();
         } else {
             // No one will ever read this stream
             androidResource.closeStream();
+            hits.incrementAndGet();
+            hold(androidResource, cached);
         }
         // Log.d(TAG, "get(%s) returning %s", androidResource, cached);
         return cached;
     }
+
+    /**
+     * Keep recently used resources alive up to a memory budget.
+     * A budget of 0 goes back to only holding weak references.
+     *
+     * @param maxBytes  number of bytes the cache may keep alive
+     * @param estimator estimates the size of each resource
+     */
+    public void setBudget(long maxBytes, SizeEstimator<? super T> estimator) {
+        synchronized (recent) {
+            this.budget = Math.max(maxBytes, 0);
+            this.estimator = (budget > 0) ? estimator : null;
+            if (this.estimator == null) {
+                recent.clear();
+                size = 0;
+            } else {
+                trim();
+            }
+        }
+    }
+
+    /**
+     * @return number of bytes the cache may keep alive, 0 if there is no budget
+     */
+    public long getBudget() {
+        synchronized (recent) {
+            return budget;
+        }
+    }
+
+    /**
+     * @return estimated number of bytes the cache keeps alive
+     */
+    public long getSize() {
+        synchronized (recent) {
+            return size;
+        }
+    }
+
+    /**
+     * Keep a resource from being evicted while it is in use.
+     * Calls nest, each call needs a matching {@link #unpin(GVRAndroidResource)}.
+     *
+     * @param androidResource resource description the resource was cached with
+     */
+    public void pin(GVRAndroidResource androidResource) {
+        synchronized (recent) {
+            Integer count = pinned.get(androidResource);
+            pinned.put(androidResource, (count == null) ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * Let a pinned resource be evicted again.
+     *
+     * @param androidResource resource description passed to {@link #pin(GVRAndroidResource)}
+     */
+    public void unpin(GVRAndroidResource androidResource) {
+        synchronized (recent) {
+            Integer count = pinned.get(androidResource);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                pinned.put(androidResource, count - 1);
+            } else {
+                pinned.remove(androidResource);
+                trim();
+            }
+        }
+    }
+
+    /** @return number of calls to {@link #get(GVRAndroidResource)} which found the resource */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return number of calls to {@link #get(GVRAndroidResource)} which did not find the resource */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return number of resources evicted to stay within the budget */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s hits %d misses %d evictions %d size %d budget %d",
+                getClass().getSimpleName(), getHits(), getMisses(), getEvictions(),
+                getSize(), getBudget());
+    }
+
+    /*
+     * Strongly hold a resource and mark it most recently used.
+     */
+    private void hold(GVRAndroidResource androidResource, T resource) {
+        synchronized (recent) {
+            if (estimator == null) {
+                return;
+            }
+            Entry<T> entry = recent.get(androidResource);
+            if ((entry != null) && (entry.resource == resource)) {
+                return;
+            }
+            if (entry != null) {
+                size -= entry.size;
+            }
+            entry = new Entry<T>(resource, Math.max(estimator.sizeOf(resource), 0));
+            recent.put(androidResource, entry);
+            size += entry.size;
+            trim();
+        }
+    }
+
+    /*
+     * Drop the least recently used resources which are not pinned
+     * until the cache is within its budget. Must hold the lock.
+     */
+    private void trim() {
+        Iterator<Map.Entry<GVRAndroidResource, Entry<T>>> iter = recent.entrySet().iterator();
+
+        while ((size > budget) && iter.hasNext()) {
+            Map.Entry<GVRAndroidResource, Entry<T>> e = iter.next();
+
+            if (!pinned.containsKey(e.getKey())) {
+                Log.d(TAG, "evict resource %s from cache", e.getKey());
+                size -= e.getValue().size;
+                iter.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
 }
@@ -0,0 +1,358 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "aabb_tree.h"
+
+namespace gvr {
+
+static float halfArea(const glm::vec3& minCorner, const glm::vec3& maxCorner)
+{
+    glm::vec3 e(maxCorner - minCorner);
+    return e.x * e.y + e.y * e.z + e.z * e.x;
+}
+
+AABBTree::AABBTree(float margin) :
+        mRoot(NULL_NODE),
+        mFreeList(NULL_NODE),
+        mProxyCount(0),
+        mMargin(margin)
+{
+}
+
+void AABBTree::clear()
+{
+    mNodes.clear();
+    mRoot = NULL_NODE;
+    mFreeList = NULL_NODE;
+    mProxyCount = 0;
+}
+
+int AABBTree::allocateNode()
+{
+    int nodeIndex;
+
+    if (mFreeList != NULL_NODE)
+    {
+        nodeIndex = mFreeList;
+        mFreeList = mNodes[nodeIndex].Parent;
+    }
+    else
+    {
+        nodeIndex = mNodes.size();
+        mNodes.push_back(Node());
+    }
+    Node& node = mNodes[nodeIndex];
+    node.UserData = nullptr;
+    node.Parent = NULL_NODE;
+    node.Child1 = NULL_NODE;
+    node.Child2 = NULL_NODE;
+    node.Height = 0;
+    return nodeIndex;
+}
+
+void AABBTree::freeNode(int nodeIndex)
+{
+    Node& node = mNodes[nodeIndex];
+    node.Parent = mFreeList;
+    node.Height = -1;
+    node.UserData = nullptr;
+    mFreeList = nodeIndex;
+}
+
+int AABBTree::insert(const glm::vec3& minCorner, const glm::vec3& maxCorner, void* userData)
+{
+    int proxy = allocateNode();
+    Node& node = mNodes[proxy];
+    glm::vec3 margin((maxCorner - minCorner) * mMargin + glm::vec3(0.001f));
+
+    node.MinCorner = minCorner - margin;
+    node.MaxCorner = maxCorner + margin;
+    node.UserData = userData;
+    insertLeaf(proxy);
+    ++mProxyCount;
+    return proxy;
+}
+
+void AABBTree::remove(int proxy)
+{
+    if ((proxy < 0) || (proxy >= (int) mNodes.size()) || !mNodes[proxy].isLeaf())
+    {
+        return;
+    }
+    removeLeaf(proxy);
+    freeNode(proxy);
+    --mProxyCount;
+}
+
+bool AABBTree::update(int proxy, const glm::vec3& minCorner, const glm::vec3& maxCorner)
+{
+    Node& node = mNodes[proxy];
+
+    if (glm::all(glm::lessThanEqual(node.MinCorner, minCorner)) &&
+        glm::all(glm::greaterThanEqual(node.MaxCorner, maxCorner)))
+    {
+        return false;                   // still inside the fat box
+    }
+    glm::vec3 margin((maxCorner - minCorner) * mMargin + glm::vec3(0.001f));
+
+    removeLeaf(proxy);
+    node.MinCorner = minCorner - margin;
+    node.MaxCorner = maxCorner + margin;
+    insertLeaf(proxy);
+    return true;
+}
+
+/*
+ * Recompute the bounds and height of an interior node from its children.
+ */
+void AABBTree::refit(int nodeIndex)
+{
+    Node& node = mNodes[nodeIndex];
+    const Node& child1 = mNodes[node.Child1];
+    const Node& child2 = mNodes[node.Child2];
+
+    node.MinCorner = glm::min(child1.MinCorner, child2.MinCorner);
+    node.MaxCorner = glm::max(child1.MaxCorner, child2.MaxCorner);
+    node.Height = 1 + std::max(child1.Height, child2.Height);
+}
+
+void AABBTree::insertLeaf(int leaf)
+{
+    if (mRoot == NULL_NODE)
+    {
+        mRoot = leaf;
+        mNodes[leaf].Parent = NULL_NODE;
+        return;
+    }
+    /*
+     * Descend the tree choosing the child which
+     * gives the smallest increase in surface area.
+     */
+    glm::vec3 leafMin(mNodes[leaf].MinCorner);
+    glm::vec3 leafMax(mNodes[leaf].MaxCorner);
+    int index = mRoot;
+
+    while (!mNodes[index].isLeaf())
+    {
+        const Node& node = mNodes[index];
+        int child1 = node.Child1;
+        int child2 = node.Child2;
+        float area = halfArea(node.MinCorner, node.MaxCorner);
+        float combinedArea = halfArea(glm::min(node.MinCorner, leafMin), glm::max(node.MaxCorner, leafMax));
+        float cost = 2.0f * combinedArea;               // cost of a new parent for this node and the leaf
+        float inheritance = 2.0f * (combinedArea - area);  // minimum cost of pushing the leaf further down
+        float cost1, cost2;
+        const Node& c1 = mNodes[child1];
+        const Node& c2 = mNodes[child2];
+        float area1 = halfArea(glm::min(c1.MinCorner, leafMin), glm::max(c1.MaxCorner, leafMax));
+        float area2 = halfArea(glm::min(c2.MinCorner, leafMin), glm::max(c2.MaxCorner, leafMax));
+
+        cost1 = (c1.isLeaf() ? area1 : area1 - halfArea(c1.MinCorner, c1.MaxCorner)) + inheritance;
+        cost2 = (c2.isLeaf() ? area2 : area2 - halfArea(c2.MinCorner, c2.MaxCorner)) + inheritance;
+        if ((cost < cost1) && (cost < cost2))
+        {
+            break;
+        }
+        index = (cost1 < cost2) ? child1 : child2;
+    }
+    /*
+     * Make a new parent for the sibling and the leaf.
+     */
+    int sibling = index;
+    int oldParent = mNodes[sibling].Parent;
+    int newParent = allocateNode();
+    Node& parent = mNodes[newParent];
+
+    parent.Parent = oldParent;
+    parent.Child1 = sibling;
+    parent.Child2 = leaf;
+    parent.MinCorner = glm::min(leafMin, mNodes[sibling].MinCorner);
+    parent.MaxCorner = glm::max(leafMax, mNodes[sibling].MaxCorner);
+    parent.Height = mNodes[sibling].Height + 1;
+    if (oldParent != NULL_NODE)
+    {
+        if (mNodes[oldParent].Child1 == sibling)
+        {
+            mNodes[oldParent].Child1 = newParent;
+        }
+        else
+        {
+            mNodes[oldParent].Child2 = newParent;
+        }
+    }
+    else
+    {
+        mRoot = newParent;
+    }
+    mNodes[sibling].Parent = newParent;
+    mNodes[leaf].Parent = newParent;
+
+    /*
+     * Walk back up the tree fixing heights and bounds.
+     */
+    index = mNodes[leaf].Parent;
+    while (index != NULL_NODE)
+    {
+        index = balance(index);
+        refit(index);
+        index = mNodes[index].Parent;
+    }
+}
+
+void AABBTree::removeLeaf(int leaf)
+{
+    if (leaf == mRoot)
+    {
+        mRoot = NULL_NODE;
+        return;
+    }
+    int parent = mNodes[leaf].Parent;
+    int grandParent = mNodes[parent].Parent;
+    int sibling = (mNodes[parent].Child1 == leaf) ? mNodes[parent].Child2 : mNodes[parent].Child1;
+
+    if (grandParent != NULL_NODE)
+    {
+        // Destroy the parent and connect the sibling to the grandparent
+        if (mNodes[grandParent].Child1 == parent)
+        {
+            mNodes[grandParent].Child1 = sibling;
+        }
+        else
+        {
+            mNodes[grandParent].Child2 = sibling;
+        }
+        mNodes[sibling].Parent = grandParent;
+        freeNode(parent);
+
+        int index = grandParent;
+        while (index != NULL_NODE)
+        {
+            index = balance(index);
+            refit(index);
+            index = mNodes[index].Parent;
+        }
+    }
+    else
+    {
+        mRoot = sibling;
+        mNodes[sibling].Parent = NULL_NODE;
+        freeNode(parent);
+    }
+}
+
+/*
+ * Perform a left or right rotation if node A is imbalanced.
+ * Returns the index of the node which replaces A.
+ */
+int AABBTree::balance(int iA)
+{
+    Node& A = mNodes[iA];
+
+    if (A.isLeaf() || (A.Height < 2))
+    {
+        return iA;
+    }
+    int iB = A.Child1;
+    int iC = A.Child2;
+    Node& B = mNodes[iB];
+    Node& C = mNodes[iC];
+    int diff = C.Height - B.Height;
+
+    if (diff > 1)                       // rotate C up
+    {
+        int iF = C.Child1;
+        int iG = C.Child2;
+        Node& F = mNodes[iF];
+        Node& G = mNodes[iG];
+
+        C.Child1 = iA;
+        C.Parent = A.Parent;
+        A.Parent = iC;
+        if (C.Parent != NULL_NODE)
+        {
+            if (mNodes[C.Parent].Child1 == iA)
+            {
+                mNodes[C.Parent].Child1 = iC;
+            }
+            else
+            {
+                mNodes[C.Parent].Child2 = iC;
+            }
+        }
+        else
+        {
+            mRoot = iC;
+        }
+        if (F.Height > G.Height)
+        {
+            C.Child2 = iF;
+            A.Child2 = iG;
+            G.Parent = iA;
+        }
+        else
+        {
+            C.Child2 = iG;
+            A.Child2 = iF;
+            F.Parent = iA;
+        }
+        refit(iA);
+        refit(iC);
+        return iC;
+    }
+    if (diff < -1)                      // rotate B up
+    {
+        int iD = B.Child1;
+        int iE = B.Child2;
+        Node& D = mNodes[iD];
+        Node& E = mNodes[iE];
+
+        B.Child1 = iA;
+        B.Parent = A.Parent;
+        A.Parent = iB;
+        if (B.Parent != NULL_NODE)
+        {
+            if (mNodes[B.Parent].Child1 == iA)
+            {
+                mNodes[B.Parent].Child1 = iB;
+            }
+            else
+            {
+                mNodes[B.Parent].Child2 = iB;
+            }
+        }
+        else
+        {
+            mRoot = iB;
+        }
+        if (D.Height > E.Height)
+        {
+            B.Child2 = iD;
+            A.Child1 = iE;
+            E.Parent = iA;
+        }
+        else
+        {
+            B.Child2 = iE;
+            A.Child1 = iD;
+            D.Parent = iA;
+        }
+        refit(iA);
+        refit(iB);
+        return iB;
+    }
+    return iA;
+}
+
+}
@@ -0,0 +1,198 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Incremental bounding box tree used to index the colliders in a scene.
+ ***************************************************************************/
+
+#ifndef AABB_TREE_H_
+#define AABB_TREE_H_
+
+#include <algorithm>
+#include <functional>
+#include <limits>
+#include <vector>
+#include "glm/glm.hpp"
+
+namespace gvr {
+
+/**
+ * Dynamic tree of axially aligned bounding boxes.
+ *
+ * Each object in the tree is a leaf referenced by a proxy ID.
+ * Leaves store an enlarged ("fat") box so that objects which
+ * move a little do not have to be reinserted. Insertion picks
+ * the sibling which least increases the surface area of the tree
+ * and the tree is kept balanced with rotations, so objects
+ * can be added, moved and removed without rebuilding.
+ *
+ * The tree is not thread safe, the Scene guards it with
+ * the collider lock.
+ * @see Scene::lockColliderTree
+ */
+class AABBTree
+{
+public:
+    static const int NULL_NODE = -1;
+
+    /**
+     * @param margin fraction of the box size a fat box is enlarged by
+     */
+    explicit AABBTree(float margin = 0.1f);
+
+    /**
+     * Add an object to the tree.
+     * @param minCorner minimum corner of the object bounds
+     * @param maxCorner maximum corner of the object bounds
+     * @param userData  object to associate with the proxy
+     * @return proxy ID used to update or remove the object
+     */
+    int insert(const glm::vec3& minCorner, const glm::vec3& maxCorner, void* userData);
+
+    /**
+     * Remove an object from the tree.
+     * @param proxy ID returned by insert
+     */
+    void remove(int proxy);
+
+    /**
+     * Update the bounds of an object in the tree.
+     * The object is only reinserted if the new bounds
+     * are not inside the fat box it already has.
+     * @return true if the object was reinserted
+     */
+    bool update(int proxy, const glm::vec3& minCorner, const glm::vec3& maxCorner);
+
+    /**
+     * Remove all of the objects in the tree.
+     */
+    void clear();
+
+    void* getUserData(int proxy) const { return mNodes[proxy].UserData; }
+    int   getProxyCount() const { return mProxyCount; }
+    int   getHeight() const { return (mRoot == NULL_NODE) ? 0 : mNodes[mRoot].Height; }
+
+    /**
+     * Visit the objects whose boxes are penetrated by a ray
+     * in order of increasing distance to where the ray enters the box.
+     *
+     * The visitor is called as visitor(userData, entryDistance) and
+     * returns the farthest distance still of interest. Returning the
+     * distance of the closest hit found so far stops the traversal
+     * once every remaining box starts beyond it.
+     *
+     * @param rayStart      origin of the ray
+     * @param rayDir        direction of the ray, distances are
+     *                      in units of its length
+     * @param maxDistance   ignore boxes farther than this
+     * @param visitor       function called for each candidate
+     */
+    template <class Visitor>
+    void rayCast(const glm::vec3& rayStart, const glm::vec3& rayDir, float maxDistance, Visitor visitor) const
+    {
+        if (mRoot == NULL_NODE)
+        {
+            return;
+        }
+        const float BIG = std::numeric_limits<float>::max();
+        glm::vec3 invDir((rayDir.x != 0.0f) ? 1.0f / rayDir.x : BIG,
+                         (rayDir.y != 0.0f) ? 1.0f / rayDir.y : BIG,
+                         (rayDir.z != 0.0f) ? 1.0f / rayDir.z : BIG);
+        float entry;
+
+        mQueue.clear();
+        if (intersect(mNodes[mRoot], rayStart, invDir, maxDistance, entry))
+        {
+            mQueue.push_back(QueueEntry(entry, mRoot));
+        }
+        while (!mQueue.empty())
+        {
+            std::pop_heap(mQueue.begin(), mQueue.end(), std::greater<QueueEntry>());
+            QueueEntry e = mQueue.back();
+            mQueue.pop_back();
+
+            if (e.first > maxDistance)
+            {
+                break;                  // everything left is farther away
+            }
+            const Node& node = mNodes[e.second];
+            if (node.isLeaf())
+            {
+                maxDistance = std::min(maxDistance, visitor(node.UserData, e.first));
+                continue;
+            }
+            if (intersect(mNodes[node.Child1], rayStart, invDir, maxDistance, entry))
+            {
+                mQueue.push_back(QueueEntry(entry, node.Child1));
+                std::push_heap(mQueue.begin(), mQueue.end(), std::greater<QueueEntry>());
+            }
+            if (intersect(mNodes[node.Child2], rayStart, invDir, maxDistance, entry))
+            {
+                mQueue.push_back(QueueEntry(entry, node.Child2));
+                std::push_heap(mQueue.begin(), mQueue.end(), std::greater<QueueEntry>());
+            }
+        }
+    }
+
+private:
+    AABBTree(const AABBTree&) = delete;
+    AABBTree& operator=(const AABBTree&) = delete;
+
+    struct Node
+    {
+        glm::vec3   MinCorner;
+        glm::vec3   MaxCorner;
+        void*       UserData;
+        int         Parent;     // next free node when on the free list
+        int         Child1;
+        int         Child2;
+        int         Height;     // 0 for leaves, -1 for free nodes
+
+        bool isLeaf() const { return Child1 == NULL_NODE; }
+    };
+    typedef std::pair<float, int> QueueEntry;
+
+    int  allocateNode();
+    void freeNode(int nodeIndex);
+    void insertLeaf(int leaf);
+    void removeLeaf(int leaf);
+    int  balance(int nodeIndex);
+    void refit(int nodeIndex);
+
+    static bool intersect(const Node& node, const glm::vec3& rayStart,
+                          const glm::vec3& invDir, float maxDistance, float& entry)
+    {
+        glm::vec3 t0((node.MinCorner - rayStart) * invDir);
+        glm::vec3 t1((node.MaxCorner - rayStart) * invDir);
+        glm::vec3 tnear(glm::min(t0, t1));
+        glm::vec3 tfar(glm::max(t0, t1));
+        float tmin = std::max(std::max(tnear.x, tnear.y), std::max(tnear.z, 0.0f));
+        float tmax = std::min(std::min(tfar.x, tfar.y), std::min(tfar.z, maxDistance));
+
+        entry = tmin;
+        return tmin <= tmax;
+    }
+
+    std::vector<Node>   mNodes;
+    int                 mRoot;
+    int                 mFreeList;
+    int                 mProxyCount;
+    float               mMargin;
+    mutable std::vector<QueueEntry> mQueue;    // reused by rayCast to avoid allocation
+};
+
+}
+#endif
@@ -28,39 +28,109 @@
 #include "objects/components/camera_rig.h"
 #include "objects/components/perspective_camera.h"
 #include "objects/components/render_data.h"
+#include "objects/components/lod_group.h"
 #include "objects/components/mesh_collider.h"
 
 namespace gvr {
 
+/*
+ * Returns false if the object or one of its ancestors is a level
+ * of detail which its LOD group did not select. The levels stay
+ * enabled, only the FrustumCuller skips the hidden ones.
+ */
+static bool isSelectedLevel(const SceneObject* object)
+{
+    for (const SceneObject* parent = object->parent(); parent != NULL; parent = parent->parent())
+    {
+        const LODGroup* lod = static_cast<const LODGroup*>(parent->getComponent(LODGroup::getComponentType()));
+
+        if ((lod != NULL) && lod->enabled() && !lod->isSelected(object))
+        {
+            return false;
+        }
+        object = parent;
+    }
+    return true;
+}
+
+/*
+ * Hit test a single collider against a ray in world coordinates.
+ * Returns false if the collider or its owner is disabled or
+ * in a hidden level of detail, if only visible colliders are picked and this one is not visible
+ * or if the hit is beyond the collider's pick distance.
+ */
+static bool hitCollider(Collider* collider, bool visibleOnly,
+                        const glm::vec3& ray_start, const glm::vec3& ray_dir,
+                        ColliderData& data)
+{
+    SceneObject* owner = collider->owner_object();
+
+    if (!collider->enabled() || (owner == NULL) || !owner->enabled() || !isSelectedLevel(owner))
+    {
+        return false;
+    }
+    if (visibleOnly && !collider->isVisible())
+    {
+        return false;
+    }
+    data = collider->isHit(owner, ray_start, ray_dir);
+    if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance))
+    {
+        data.IsHit = false;
+    }
+    return data.IsHit;
+}
+
+/*
+ * Distance in world coordinates from the origin of the ray
+ * to where it hit the collider. ColliderData::Distance is
+ * in the coordinate space of the collider for some collider types.
+ */
+static float worldHitDistance(const ColliderData& data, const glm::vec3& ray_start)
+{
+    glm::vec4 p(data.HitPosition, 1);
+    Transform* t = (data.ObjectHit != NULL) ? data.ObjectHit->transform() : NULL;
+
+    if (t != NULL)
+    {
+        p = t->getModelMatrix() * p;
+    }
+    return glm::distance(ray_start, glm::vec3(p));
+}
+
 /*
  * Intersects all the colliders in the scene with the input ray
  * and returns the list of collisions.
+ * Only the colliders whose bounds the ray penetrates are hit tested.
  */
 void Picker::pickScene(Scene* scene, std::vector<ColliderData>& picklist, Transform* t,
                        float ox, float oy, float oz, float dx, float dy, float dz)
 {
     glm::vec3 ray_start(ox, oy, oz);
     glm::vec3 ray_dir(dx, dy, dz);
-    const std::vector<Component*>& colliders = scene->lockColliders();
     const glm::mat4& model_matrix = t->getModelMatrix();
+    bool visibleOnly = scene->getPickVisible();
+    const AABBTree& tree = scene->lockColliderTree();
+    const std::vector<Collider*>& unbounded = scene->getUnboundedColliders();
+    ColliderData data;
 
     Collider::transformRay(model_matrix, ray_start, ray_dir);
-    for (auto it = colliders.begin(); it != colliders.end(); ++it)
+    for (auto it = unbounded.begin(); it != unbounded.end(); ++it)
     {
-        Collider* collider = static_cast<Collider*>(*it);
-        SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled())
+        if (hitCollider(*it, visibleOnly, ray_start, ray_dir, data))
         {
-            ColliderData data = collider->isHit(owner, ray_start, ray_dir);
-            if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance))
-            {
-                data.IsHit = false;
-            }
-            if (data.IsHit) {
-                picklist.push_back(data);
-            }
+            picklist.push_back(data);
         }
     }
+    tree.rayCast(ray_start, ray_dir, std::numeric_limits<float>::infinity(),
+                 [&](void* userData, float entry)
+    {
+        if (hitCollider(static_cast<Collider*>(userData), visibleOnly, ray_start, ray_dir, data))
+        {
+            picklist.push_back(data);
+        }
+        return std::numeric_limits<float>::infinity();
+    });
     std::sort(picklist.begin(), picklist.end(), compareColliderData);
     scene->unlockColliders();
 }
@@ -68,6 +138,9 @@ void Picker::pickScene(Scene* scene, std::vector<ColliderData>& picklist, Transf
 /*
  * Intersects all the colliders in the scene with the input ray
  * and returns the one closest to the camera.
+ * Colliders are visited in order of distance to their bounds
+ * and the search stops when the remaining ones are all
+ * farther away than the closest hit.
  */
 void Picker::pickClosest(Scene* scene,
                          ColliderData& closest,
@@ -77,28 +150,41 @@ void Picker::pickClosest(Scene* scene,
 {
     glm::vec3 ray_start(ox, oy, oz);
     glm::vec3 ray_dir(dx, dy, dz);
-    const std::vector<Component*>& colliders = scene->lockColliders();
     const glm::mat4& model_matrix = t->getModelMatrix();
+    bool visibleOnly = scene->getPickVisible();
+    const AABBTree& tree = scene->lockColliderTree();
+    const std::vector<Collider*>& unbounded = scene->getUnboundedColliders();
+    float closestDistance = std::numeric_limits<float>::infinity();
+    ColliderData data;
 
     closest.Distance = std::numeric_limits<float>::infinity();
     Collider::transformRay(model_matrix, ray_start, ray_dir);
-    for (auto it = colliders.begin(); it != colliders.end(); ++it)
+    for (auto it = unbounded.begin(); it != unbounded.end(); ++it)
     {
-        Collider* collider = static_cast<Collider*>(*it);
-        SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled())
+        if (hitCollider(*it, visibleOnly, ray_start, ray_dir, data))
         {
-            ColliderData data = collider->isHit(owner, ray_start, ray_dir);
-            if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance))
+            float dist = worldHitDistance(data, ray_start);
+            if (dist < closestDistance)
             {
-                data.IsHit = false;
+                closestDistance = dist;
+                closest = data;
             }
-            if (data.IsHit && (data.Distance < closest.Distance))
+        }
+    }
+    tree.rayCast(ray_start, ray_dir, closestDistance,
+                 [&](void* userData, float entry)
+    {
+        if (hitCollider(static_cast<Collider*>(userData), visibleOnly, ray_start, ray_dir, data))
+        {
+            float dist = worldHitDistance(data, ray_start);
+            if (dist < closestDistance)
             {
+                closestDistance = dist;
                 closest = data;
             }
         }
-    }
+        return closestDistance;
+    });
     scene->unlockColliders();
 }
 
@@ -134,6 +220,7 @@ void Picker::pickBounds(Scene* scene,
             if (collider->enabled() &&
                 (owner != NULL) &&
                 owner->enabled() &&
+                isSelectedLevel(owner) &&
                 (bsphere[3] > 0) &&
                 (bsphere[3] != std::numeric_limits<float>::infinity()))
             {
@@ -163,7 +250,7 @@ void Picker::pickSceneObject(SceneObject *scene_object, float ox, float oy, floa
     {
         return;
     }
-    else if (collider->enabled() && scene_object->enabled())
+    else if (collider->enabled() && scene_object->enabled() && isSelectedLevel(scene_object))
     {
         glm::vec3 rayStart(ox, oy, oz);
         glm::vec3 rayDir(dx, dy, dz);
@@ -216,7 +303,7 @@ void Picker::pickVisible(Scene* scene, Transform* t, std::vector<ColliderData>&
     {
         Collider* collider = static_cast<Collider*>(*it);
         SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled())
+        if (collider->enabled() && (owner != NULL) && owner->enabled() && isSelectedLevel(owner))
         {
             ColliderData data(collider);
             Transform* trans = owner->transform();
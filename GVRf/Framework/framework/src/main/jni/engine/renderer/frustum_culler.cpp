@@ -0,0 +1,468 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * View frustum culling of the scene graph.
+ ***************************************************************************/
+
+#include <algorithm>
+#include "frustum_culler.h"
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+#include "objects/components/lod_group.h"
+
+namespace gvr {
+
+enum
+{
+    OUTSIDE, INTERSECT, INSIDE
+};
+
+/*
+ * Scenes smaller than this are culled on the calling thread.
+ */
+static const int PARALLEL_THRESHOLD = 4096;
+
+/*
+ * Approximate number of objects culled by a single task.
+ */
+static const int TASK_SIZE = 1024;
+
+static const int MAX_WORKERS = 3;
+
+FrustumCuller::FrustumCuller() :
+        mRoot(nullptr),
+        mHierarchyVersion(0),
+        mTaskCount(0),
+        mCameraPosition(0, 0, 0),
+        mSelectLOD(true),
+        mViewFrame(0),
+        mViewPosition(0, 0, 0),
+        mViewScale(1.0f),
+        mWorkerCount(0),
+        mWorkersStarted(false),
+        mNextTask(0),
+        mGeneration(0),
+        mWorkersDone(0),
+        mQuit(false)
+{
+}
+
+FrustumCuller::~FrustumCuller()
+{
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        mQuit = true;
+    }
+    mWake.notify_all();
+    for (auto it = mWorkers.begin(); it != mWorkers.end(); ++it)
+    {
+        it->join();
+    }
+}
+
+void FrustumCuller::cull(SceneObject* root, const glm::vec3& cameraPosition, const float frustum[6][4],
+                         bool doCull, bool selectLOD, std::vector<SceneObject*>& visible)
+{
+    mTaskCount = 0;
+    visible.clear();
+    if (root == nullptr)
+    {
+        mNodes.clear();
+        mRoot = nullptr;
+        return;
+    }
+    std::copy(&frustum[0][0], &frustum[0][0] + 6 * 4, &mFrustum[0][0]);
+    mCameraPosition = cameraPosition;
+    mSelectLOD = selectLOD;
+    if (selectLOD)
+    {
+        ++mViewFrame;
+        mViewPosition = cameraPosition;
+    }
+
+    // 1. Flatten the scene graph again if its structure changed since the last frame
+    unsigned int version = SceneObject::hierarchyVersion();
+    if ((root != mRoot) || (version != mHierarchyVersion) || mNodes.empty())
+    {
+        mRoot = root;
+        mHierarchyVersion = version;
+        mNodes.clear();
+        flatten(root, nullptr);
+    }
+    if (mNodes.empty())
+    {
+        return;
+    }
+
+    // 2. Cull small scenes on this thread, split larger ones across the workers
+    if (!doCull || (mNodes.size() < PARALLEL_THRESHOLD) || !startWorkers())
+    {
+        cullRange(addTask(0, mNodes.size(), 0, doCull));
+    }
+    else
+    {
+        // culling the root updates the bounds of the whole
+        // scene graph before the workers start reading them
+        split(0, 0, true);
+        mNextTask = 0;
+        {
+            std::lock_guard<std::mutex> lock(mLock);
+            mWorkersDone = 0;
+            ++mGeneration;
+        }
+        mWake.notify_all();
+        runTasks();
+        std::unique_lock<std::mutex> lock(mLock);
+        mDone.wait(lock, [this]() { return mWorkersDone == mWorkerCount; });
+    }
+
+    // 3. Collect the visible objects in depth first order
+    size_t total = 0;
+    for (int i = 0; i < mTaskCount; ++i)
+    {
+        total += mTasks[i].Visible.size();
+    }
+    visible.reserve(total);
+    for (int i = 0; i < mTaskCount; ++i)
+    {
+        const std::vector<SceneObject*>& v = mTasks[i].Visible;
+        visible.insert(visible.end(), v.begin(), v.end());
+    }
+}
+
+float FrustumCuller::viewSize(SceneObject* object) const
+{
+    unsigned int frame = object->viewFrame();
+
+    // both eyes may be culled separately, accept the previous cull too
+    if ((frame == 0) || ((mViewFrame - frame) > 1))
+    {
+        return 0;
+    }
+    const BoundingVolume& bv = object->getBoundingVolume();
+    float radius = bv.radius();
+    float distance = glm::length(bv.center() - mViewPosition);
+
+    return radius * mViewScale / std::max(distance, radius);
+}
+
+/*
+ * Add an enabled object and its descendants to the
+ * flattened scene graph in depth first order.
+ * Only the structure is kept, the bounds are read
+ * from the objects while culling.
+ * @param parentLOD enabled LOD group of the parent of the object
+ */
+void FrustumCuller::flatten(SceneObject* object, const LODGroup* parentLOD)
+{
+    if (!object->enabled())
+    {
+        return;
+    }
+    int index = mNodes.size();
+    size_t first = mChildren.size();
+
+    object->appendChildren(mChildren);
+    size_t last = mChildren.size();
+    mNodes.emplace_back();
+    CullNode& node = mNodes.back();
+    node.Object = object;
+    node.RData = object->render_data();
+    node.LOD = static_cast<LODGroup*>(object->getComponent(LODGroup::getComponentType()));
+    node.ParentLOD = (parentLOD && parentLOD->hasLevel(object)) ? parentLOD : nullptr;
+    node.Flags = (last > first) ? TEST_MESH : 0;
+    if (node.LOD && !node.LOD->enabled())
+    {
+        node.LOD = nullptr;
+    }
+    const LODGroup* lod = node.LOD;
+    for (size_t i = first; i < last; ++i)
+    {
+        flatten(mChildren[i], lod);
+    }
+    mChildren.resize(first);
+    mNodes[index].SubtreeEnd = mNodes.size();
+}
+
+/*
+ * Cull the top of the scene graph on this thread and make
+ * tasks for the subtrees below it. Subtrees larger than TASK_SIZE
+ * are split further, small siblings are merged into one task.
+ */
+void FrustumCuller::split(int index, int planeMask, bool needCull)
+{
+    CullTask& task = addTask(index, index, planeMask, needCull);
+
+    if (!cullNode(mNodes[index], planeMask, needCull, task.Visible))
+    {
+        return;
+    }
+    const int subtreeEnd = mNodes[index].SubtreeEnd;
+    int child = index + 1;
+
+    while (child < subtreeEnd)
+    {
+        int end = mNodes[child].SubtreeEnd;
+
+        if (needCull && ((end - child) > TASK_SIZE))
+        {
+            split(child, planeMask, needCull);
+            child = end;
+            continue;
+        }
+        while ((end < subtreeEnd) && ((end - child) < TASK_SIZE))
+        {
+            int next = mNodes[end].SubtreeEnd;
+            if (needCull && ((next - end) > TASK_SIZE))
+            {
+                break;
+            }
+            end = next;
+        }
+        addTask(child, end, planeMask, needCull);
+        child = end;
+    }
+}
+
+FrustumCuller::CullTask& FrustumCuller::addTask(int begin, int end, int planeMask, bool needCull)
+{
+    if (mTaskCount >= (int) mTasks.size())
+    {
+        mTasks.emplace_back();
+    }
+    CullTask& task = mTasks[mTaskCount++];
+    task.Begin = begin;
+    task.End = end;
+    task.PlaneMask = planeMask;
+    task.NeedCull = needCull;
+    task.Visible.clear();
+    return task;
+}
+
+/*
+ * Cull a single object and update the culling state
+ * for its children. If the object has an LOD group its
+ * level of detail is selected before its children are culled.
+ * @return false if the descendants of the object are culled too
+ */
+bool FrustumCuller::cullNode(const CullNode& node, int& planeMask, bool& needCull,
+                             std::vector<SceneObject*>& visible) const
+{
+    SceneObject* object = node.Object;
+    RenderData* rdata = node.RData;
+
+    if (node.ParentLOD && (node.ParentLOD->selected() != object))
+    {
+        // level of detail which is not selected
+        object->setCullStatus(true);
+        return false;
+    }
+    const BoundingVolume& bv = object->getBoundingVolume();
+    if (node.LOD && mSelectLOD)
+    {
+        // selected even if the object is outside so the levels
+        // seen by other cameras, like shadow maps, are current
+        node.LOD->selectLevel(mCameraPosition);
+    }
+
+    int result = INSIDE;
+    if (needCull)
+    {
+        if (!object->visible())
+        {
+            object->setCullStatus(true);
+            return false;
+        }
+        result = testBox(bv.min_corner(), bv.max_corner(), planeMask);
+        if (result == OUTSIDE)
+        {
+            // hierarchical bounds outside, cull the object and its descendants
+            object->setCullStatus(true);
+            return false;
+        }
+    }
+    if (mSelectLOD)
+    {
+        object->setViewFrame(mViewFrame);
+    }
+    if (needCull)
+    {
+        if (result == INTERSECT)
+        {
+            // test the object by itself, its children are tested separately
+            if ((rdata == nullptr) || (rdata->pass_count() == 0) || (rdata->pass(0)->material() == nullptr))
+            {
+                return true;
+            }
+            if (node.Flags & TEST_MESH)
+            {
+                const BoundingVolume& meshbv = object->getMeshBoundingVolume();
+                int meshMask = planeMask;
+                if (testBox(meshbv.min_corner(), meshbv.max_corner(), meshMask) == OUTSIDE)
+                {
+                    return true;
+                }
+            }
+        }
+        else
+        {
+            // completely inside, no need to test the descendants
+            needCull = false;
+        }
+    }
+    object->setCullStatus(false);
+    visible.push_back(object);
+    if (rdata != nullptr)
+    {
+        /*
+         * Every sort key uses the distance: transparent objects are
+         * sorted back to front by it and opaque objects with the same
+         * state front to back (see RenderSorter::makeKey).
+         */
+        glm::vec3 d(bv.center() - mCameraPosition);
+        rdata->set_camera_distance(glm::dot(d, d));
+    }
+    return true;
+}
+
+void FrustumCuller::cullRange(CullTask& task) const
+{
+    std::vector<CullLevel>& stack = task.Stack;
+    int i = task.Begin;
+
+    stack.clear();
+    stack.push_back({ task.End, task.PlaneMask, task.NeedCull });
+    while (!stack.empty())
+    {
+        const CullLevel level = stack.back();
+
+        if (i >= level.End)
+        {
+            stack.pop_back();
+            continue;
+        }
+        const CullNode& node = mNodes[i];
+        int planeMask = level.PlaneMask;
+        bool needCull = level.NeedCull;
+
+        if (cullNode(node, planeMask, needCull, task.Visible))
+        {
+            ++i;
+            if (node.SubtreeEnd > i)
+            {
+                stack.push_back({ node.SubtreeEnd, planeMask, needCull });
+            }
+        }
+        else
+        {
+            i = node.SubtreeEnd;
+        }
+    }
+}
+
+/*
+ * Test a bounding box against the frustum planes not in the plane mask.
+ * Only the box corners farthest along and against each plane normal
+ * need to be tested. Planes the box is completely inside of are
+ * added to the plane mask so descendants can skip them.
+ */
+int FrustumCuller::testBox(const glm::vec3& minCorner, const glm::vec3& maxCorner, int& planeMask) const
+{
+    bool inside = true;
+
+    for (int p = 0; p < 6; ++p)
+    {
+        if ((planeMask >> p) & 1)
+        {
+            continue;
+        }
+        const float* plane = mFrustum[p];
+        float farthest = plane[0] * ((plane[0] > 0) ? maxCorner.x : minCorner.x)
+                         + plane[1] * ((plane[1] > 0) ? maxCorner.y : minCorner.y)
+                         + plane[2] * ((plane[2] > 0) ? maxCorner.z : minCorner.z) + plane[3];
+        if (farthest <= 0)
+        {
+            return OUTSIDE;
+        }
+        float nearest = plane[0] * ((plane[0] > 0) ? minCorner.x : maxCorner.x)
+                        + plane[1] * ((plane[1] > 0) ? minCorner.y : maxCorner.y)
+                        + plane[2] * ((plane[2] > 0) ? minCorner.z : maxCorner.z) + plane[3];
+        if (nearest > 0)
+        {
+            planeMask |= (1 << p);
+        }
+        else
+        {
+            inside = false;
+        }
+    }
+    return inside ? INSIDE : INTERSECT;
+}
+
+/*
+ * Start the worker threads the first time a large scene is culled.
+ * @return true if there are worker threads
+ */
+bool FrustumCuller::startWorkers()
+{
+    if (!mWorkersStarted)
+    {
+        int n = std::min((int) std::thread::hardware_concurrency() - 1, MAX_WORKERS);
+
+        mWorkersStarted = true;
+        mWorkerCount = std::max(n, 0);
+        for (int i = 0; i < mWorkerCount; ++i)
+        {
+            mWorkers.push_back(std::thread(&FrustumCuller::workerMain, this));
+        }
+    }
+    return mWorkerCount > 0;
+}
+
+void FrustumCuller::runTasks()
+{
+    int t;
+    while ((t = mNextTask.fetch_add(1)) < mTaskCount)
+    {
+        cullRange(mTasks[t]);
+    }
+}
+
+void FrustumCuller::workerMain()
+{
+    int generation = 0;
+    std::unique_lock<std::mutex> lock(mLock);
+
+    while (true)
+    {
+        mWake.wait(lock, [this, generation]() { return mQuit || (mGeneration != generation); });
+        if (mQuit)
+        {
+            return;
+        }
+        generation = mGeneration;
+        lock.unlock();
+        runTasks();
+        lock.lock();
+        if (++mWorkersDone == mWorkerCount)
+        {
+            mDone.notify_one();
+        }
+    }
+}
+
+}
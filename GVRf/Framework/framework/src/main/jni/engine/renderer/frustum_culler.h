@@ -0,0 +1,187 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * View frustum culling of the scene graph.
+ ***************************************************************************/
+
+#ifndef FRUSTUM_CULLER_H_
+#define FRUSTUM_CULLER_H_
+
+#include <atomic>
+#include <condition_variable>
+#include <mutex>
+#include <thread>
+#include <vector>
+#include "glm/glm.hpp"
+
+namespace gvr {
+class SceneObject;
+class RenderData;
+class LODGroup;
+
+/**
+ * Culls the scene graph against a view frustum.
+ *
+ * The scene graph is flattened into an array of objects in
+ * depth first order. Each entry knows where its subtree ends
+ * so culling is a linear walk over the array which skips the
+ * subtrees whose bounds are outside the frustum. The array is
+ * only rebuilt when the structure of the scene graph changes.
+ * Scenes with many objects are split into ranges which are
+ * culled in parallel by a small pool of worker threads.
+ *
+ * All of the arrays and output lists are kept from frame to frame
+ * so culling does not allocate memory once they are big enough
+ * for the scene. The culler is not reentrant, the Renderer
+ * serializes calls to it.
+ *
+ * The levels of detail of each LODGroup are selected while culling.
+ * Only the selected level is visited, the other levels are
+ * culled with their descendants. The culls from the main
+ * camera rig also stamp the objects they find in view, so
+ * others, like animations, can tell how big an object was
+ * on the screen or if it was culled.
+ *
+ * @see Renderer::cullFromCamera
+ */
+class FrustumCuller
+{
+public:
+    FrustumCuller();
+    ~FrustumCuller();
+
+    /**
+     * Cull the scene graph under the given root against a view frustum.
+     *
+     * The cull status of the objects is updated and the camera
+     * distance of the render data of each visible object is computed.
+     *
+     * @param root              root of the scene graph
+     * @param cameraPosition    camera position in world coordinates
+     * @param frustum           planes of the view frustum
+     * @param doCull            false to accept every enabled object
+     * @param selectLOD         true for the cameras of the main camera rig, which
+     *                          select levels of detail and record the objects
+     *                          in view, false to show the levels selected last
+     * @param visible           gets the visible objects in depth first order
+     */
+    void cull(SceneObject* root, const glm::vec3& cameraPosition, const float frustum[6][4],
+              bool doCull, bool selectLOD, std::vector<SceneObject*>& visible);
+
+    /**
+     * Set how the main camera rig projects sizes onto the screen,
+     * which is element [1][1] of its projection matrix.
+     * Used by viewSize for the following culls.
+     */
+    void setViewScale(float scale) { mViewScale = scale; }
+
+    /**
+     * Get the size of an object on the screen as seen by the
+     * last cull from the main camera rig.
+     *
+     * @param object scene object to get the size of
+     * @return the height of the bounding sphere of the object
+     *         as a fraction of the screen height, or 0 if the object
+     *         was culled. Objects which contain the camera return
+     *         at least the view scale, about 1.
+     */
+    float viewSize(SceneObject* object) const;
+
+private:
+    FrustumCuller(const FrustumCuller&) = delete;
+    FrustumCuller& operator=(const FrustumCuller&) = delete;
+
+    enum
+    {
+        TEST_MESH = 1               // mesh bounds must be tested separately from the hierarchy
+    };
+
+    /*
+     * Scene object in the flattened scene graph.
+     */
+    struct CullNode
+    {
+        SceneObject*    Object;
+        RenderData*     RData;
+        LODGroup*       LOD;        // level of detail group attached to the object
+        const LODGroup* ParentLOD;  // group which selects the object if it is a level
+        int             SubtreeEnd; // index after the last descendant
+        int             Flags;
+    };
+
+    /*
+     * Culling state of an ancestor of the object being culled.
+     */
+    struct CullLevel
+    {
+        int     End;        // end of the ancestor's subtree
+        int     PlaneMask;  // frustum planes its descendants are inside of
+        bool    NeedCull;   // false if the ancestor is completely inside the frustum
+    };
+
+    /*
+     * Range of the flattened scene culled as a unit.
+     * Objects culled while splitting the scene have an empty range.
+     */
+    struct CullTask
+    {
+        int     Begin;
+        int     End;
+        int     PlaneMask;
+        bool    NeedCull;
+        std::vector<SceneObject*>   Visible;
+        std::vector<CullLevel>      Stack;
+    };
+
+    void        flatten(SceneObject* object, const LODGroup* parentLOD);
+    void        split(int index, int planeMask, bool needCull);
+    CullTask&   addTask(int begin, int end, int planeMask, bool needCull);
+    bool        cullNode(const CullNode& node, int& planeMask, bool& needCull,
+                         std::vector<SceneObject*>& visible) const;
+    void        cullRange(CullTask& task) const;
+    void        runTasks();
+    bool        startWorkers();
+    void        workerMain();
+    int         testBox(const glm::vec3& minCorner, const glm::vec3& maxCorner, int& planeMask) const;
+
+    std::vector<CullNode>       mNodes;
+    SceneObject*                mRoot;          // root mNodes was built from
+    unsigned int                mHierarchyVersion;
+    std::vector<SceneObject*>   mChildren;      // scratch list used while flattening
+    std::vector<CullTask>       mTasks;         // reused, only the first mTaskCount are valid
+    int                         mTaskCount;
+    float                       mFrustum[6][4];
+    glm::vec3                   mCameraPosition;
+    bool                        mSelectLOD;
+    unsigned int                mViewFrame;     // number of culls from the main camera rig
+    glm::vec3                   mViewPosition;  // camera position of the last cull from the main camera rig
+    float                       mViewScale;     // projection scale of the main camera rig
+
+    std::vector<std::thread>    mWorkers;
+    int                         mWorkerCount;
+    bool                        mWorkersStarted;
+    std::mutex                  mLock;
+    std::condition_variable     mWake;
+    std::condition_variable     mDone;
+    std::atomic<int>            mNextTask;
+    int                         mGeneration;
+    int                         mWorkersDone;
+    bool                        mQuit;
+};
+
+}
+#endif
@@ -29,6 +29,7 @@
 #include "gl/gl_light.h"
 #include "gl_renderer.h"
 #include "objects/scene.h"
+#include "util/gvr_profiler.h"
 
 namespace gvr
 {
@@ -263,6 +264,7 @@ namespace gvr
             (post_effects->pass_count() == 0))
         {
             clearBuffers(*camera);
+            Profiler::Scope scope(Profiler::RENDER_DATA, render_data_vector->size());
             for (auto it = render_data_vector->begin();
                  it != render_data_vector->end();
                  ++it)
@@ -286,6 +288,7 @@ namespace gvr
             GL(glBindFramebuffer(GL_FRAMEBUFFER, renderTexture->getFrameBufferId()));
             GL(glViewport(0, 0, renderTexture->width(), renderTexture->height()));
             GL(clearBuffers(*camera));
+            Profiler::Scope scope(Profiler::RENDER_DATA, render_data_vector->size());
             for (auto it = render_data_vector->begin();
                  it != render_data_vector->end();
                  ++it)
@@ -0,0 +1,363 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "glm/gtc/matrix_inverse.hpp"
+#include "null_renderer.h"
+#include "objects/scene.h"
+#include "objects/render_pass.h"
+#include "objects/components/camera.h"
+#include "util/gvr_profiler.h"
+
+namespace gvr
+{
+    int NullMaterial::bindToShader(Shader* shader, Renderer* renderer)
+    {
+        int texUnit = 0;
+        bool fail = false;
+
+        forEachTexture([&fail, &texUnit](const char* texname, Texture* tex) mutable
+        {
+            if (tex && tex->getImage())
+            {
+                ++texUnit;
+            }
+            else
+            {
+                fail = true;
+            }
+        });
+        if (fail)
+        {
+            return -1;
+        }
+        uniforms_.bindBuffer(shader, renderer);
+        return texUnit;
+    }
+
+    ShaderData* NullRenderer::createMaterial(const char* uniform_desc, const char* texture_desc)
+    {
+        return new NullMaterial(uniform_desc, texture_desc);
+    }
+
+    RenderData* NullRenderer::createRenderData()
+    {
+        return new RenderData();
+    }
+
+    RenderData* NullRenderer::createRenderData(RenderData* copy)
+    {
+        return new RenderData(*copy);
+    }
+
+    RenderPass* NullRenderer::createRenderPass()
+    {
+        return new RenderPass();
+    }
+
+    RenderTarget* NullRenderer::createRenderTarget(Scene* scene)
+    {
+        return new RenderTarget(scene);
+    }
+
+    RenderTarget* NullRenderer::createRenderTarget(RenderTexture* renderTexture, bool isMultiview)
+    {
+        return new RenderTarget(renderTexture, isMultiview);
+    }
+
+    RenderTarget* NullRenderer::createRenderTarget(RenderTexture* renderTexture, const RenderTarget* renderTarget)
+    {
+        return new RenderTarget(renderTexture, renderTarget);
+    }
+
+    RenderTexture* NullRenderer::createRenderTexture(const RenderTextureInfo& info)
+    {
+        return new NullRenderTexture(info.fboWidth, info.fboHeight, info.multisamples);
+    }
+
+    RenderTexture* NullRenderer::createRenderTexture(int width, int height, int sample_count,
+                                                     int jcolor_format, int jdepth_format,
+                                                     bool resolve_depth,
+                                                     const TextureParameters* texparams, int number_views)
+    {
+        return new NullRenderTexture(width, height, sample_count);
+    }
+
+    RenderTexture* NullRenderer::createRenderTexture(int width, int height, int sample_count, int layers, int jdepth_format)
+    {
+        return new NullRenderTexture(width, height, sample_count);
+    }
+
+    UniformBlock* NullRenderer::createUniformBlock(const char* desc, int binding,
+                                                   const char* name, int maxelems)
+    {
+        if (maxelems <= 1)
+        {
+            return new NullUniformBlock(desc, binding, name);
+        }
+        return new NullUniformBlock(desc, binding, name, maxelems);
+    }
+
+    Image* NullRenderer::createImage(int type, int format)
+    {
+        switch (type)
+        {
+            case Image::ImageType::BITMAP:
+            case Image::ImageType::CUBEMAP:
+            case Image::ImageType::FLOAT_BITMAP:
+                return new NullImage(static_cast<Image::ImageType>(type), format);
+        }
+        return NULL;
+    }
+
+    Texture* NullRenderer::createTexture(int type)
+    {
+        Texture* tex = new Texture(type);
+        tex->setImage(new NullImage());
+        return tex;
+    }
+
+    Texture* NullRenderer::createSharedTexture(int id)
+    {
+        return createTexture(Texture::TextureType::TEXTURE_2D);
+    }
+
+    Shader* NullRenderer::createShader(int id, const char* signature,
+                                       const char* uniformDescriptor,
+                                       const char* textureDescriptor,
+                                       const char* vertexDescriptor,
+                                       const char* vertexShader,
+                                       const char* fragmentShader)
+    {
+        return new NullShader(id, signature, uniformDescriptor, textureDescriptor, vertexDescriptor,
+                              vertexShader, fragmentShader);
+    }
+
+    VertexBuffer* NullRenderer::createVertexBuffer(const char* desc, int vcount)
+    {
+        return new NullVertexBuffer(desc, vcount);
+    }
+
+    IndexBuffer* NullRenderer::createIndexBuffer(int bytesPerIndex, int icount)
+    {
+        return new NullIndexBuffer(bytesPerIndex, icount);
+    }
+
+    Light* NullRenderer::createLight(const char* uniformDescriptor, const char* textureDescriptor)
+    {
+        return new NullLight(uniformDescriptor, textureDescriptor);
+    }
+
+    NullRenderer::NullRenderer() : transform_ubo_{nullptr, nullptr}
+    {
+        const char* desc;
+
+        desc = " mat4 u_view_[2]; mat4 u_mvp_[2]; mat4 u_mv_[2]; mat4 u_mv_it_[2]; mat4 u_view_i_[2]; mat4 u_model; float u_right; uint u_render_mask; ";
+        transform_ubo_[1] = createUniformBlock(desc, TRANSFORM_UBO_INDEX, "Transform_ubo", 0);
+
+        desc = " mat4 u_view; mat4 u_mvp; mat4 u_mv; mat4 u_mv_it; mat4 u_view_i; mat4 u_model; float u_right;";
+        transform_ubo_[0] = createUniformBlock(desc, TRANSFORM_UBO_INDEX, "Transform_ubo", 0);
+    }
+
+    /*
+     * Follows GLRenderer::renderRenderTarget without the GL state changes.
+     * Post effects are run pass by pass but there are no framebuffers to switch.
+     */
+    void NullRenderer::renderRenderTarget(Scene* scene, jobject javaSceneObject, RenderTarget* renderTarget,
+                                          ShaderManager* shader_manager,
+                                          RenderTexture* post_effect_render_texture_a,
+                                          RenderTexture* post_effect_render_texture_b)
+    {
+        resetStats();
+        renderTarget->beginRendering(this);
+
+        Camera* camera = renderTarget->getCamera();
+        RenderData* post_effects = camera->post_effect_data();
+        RenderState& rstate = renderTarget->getRenderState();
+        rstate.javaSceneObject = javaSceneObject;
+        rstate.scene = scene;
+        rstate.shader_manager = shader_manager;
+        rstate.uniforms.u_view = camera->getViewMatrix();
+        rstate.uniforms.u_proj = camera->getProjectionMatrix();
+        rstate.uniforms.u_view_inv = glm::inverse(camera->getViewMatrix());
+        rstate.shadow_map = nullptr;
+        rstate.lightsChanged = false;
+        std::vector<RenderData*>* render_data_vector = renderTarget->getRenderDataVector();
+        LightList& lights = scene->getLights();
+
+        if (!rstate.is_shadow)
+        {
+            rstate.render_mask = camera->render_mask();
+            if (rstate.is_multiview)
+            {
+                rstate.render_mask = RenderData::RenderMaskBit::Right |
+                                     RenderData::RenderMaskBit::Left;
+            }
+            rstate.uniforms.u_right = ((camera->render_mask() & RenderData::RenderMaskBit::Right) != 0) ? 1 : 0;
+            rstate.material_override = NULL;
+            rstate.lightsChanged = lights.isDirty();
+
+            if (lights.usingUniformBlock())
+            {
+                rstate.shadow_map = lights.updateLightBlock(this);
+            }
+            else
+            {
+                rstate.shadow_map = lights.scanLights();
+            }
+        }
+        {
+            Profiler::Scope scope(Profiler::RENDER_DATA, render_data_vector->size());
+            for (auto it = render_data_vector->begin(); it != render_data_vector->end(); ++it)
+            {
+                RenderData* rdata = *it;
+                if (!rstate.is_shadow || rdata->cast_shadows())
+                {
+                    renderRenderData(rstate, rdata);
+                }
+            }
+        }
+        if ((post_effects != NULL) &&
+            (post_effect_render_texture_a != nullptr) &&
+            (post_effects->pass_count() > 0))
+        {
+            RenderTexture* input_texture = post_effect_render_texture_a;
+            int npost = post_effects->pass_count();
+
+            for (int i = 0; i < npost; ++i)
+            {
+                renderPostEffectData(rstate, input_texture, post_effects, i);
+                input_texture = (i % 2 == 0) ? post_effect_render_texture_b : post_effect_render_texture_a;
+            }
+        }
+        renderTarget->endRendering(this);
+    }
+
+    void NullRenderer::makeShadowMaps(Scene* scene, jobject javaSceneObject, ShaderManager* shader_manager)
+    {
+        scene->getLights().makeShadowMaps(scene, javaSceneObject, shader_manager);
+    }
+
+    /*
+     * There are no occlusion queries without a GPU so
+     * everything in the view frustum is visible.
+     */
+    void NullRenderer::occlusion_cull(RenderState& rstate, std::vector<SceneObject*>& scene_objects, std::vector<RenderData*>* render_data_vector)
+    {
+        if (!occlusion_cull_init(rstate, scene_objects, render_data_vector))
+        {
+            return;
+        }
+        for (auto it = scene_objects.begin(); it != scene_objects.end(); ++it)
+        {
+            SceneObject* scene_object = *it;
+            addRenderData(scene_object->render_data(), rstate, *render_data_vector);
+            rstate.scene->pick(scene_object);
+        }
+        rstate.scene->unlockColliders();
+    }
+
+    void NullRenderer::renderMesh(RenderState& rstate, RenderData* render_data)
+    {
+        Mesh* mesh = render_data->mesh();
+        int indexCount = mesh->getIndexCount();
+        ShaderData* curr_material = rstate.material_override;
+
+        if (rstate.is_shadow && curr_material)
+        {
+            const char* depthShaderName = mesh->hasBones() ? "GVRDepthShader$a_bone_weights$a_bone_indices" : "GVRDepthShader";
+            Shader* shader = rstate.shader_manager->findShader(depthShaderName);
+
+            if (shader == nullptr)
+            {
+                rstate.scene->makeDepthShaders(rstate.javaSceneObject);
+                shader = rstate.shader_manager->findShader(depthShaderName);
+                if (shader == nullptr)
+                {
+                    LOGE("Renderer::renderMesh cannot find depth shader %s", depthShaderName);
+                    return;
+                }
+            }
+            if (curr_material->updateGPU(this, render_data) >= 0)
+            {
+                numberTriangles += indexCount;
+                numberDrawCalls++;
+                render_data->updateGPU(this, shader);
+                renderMaterialShader(rstate, render_data, curr_material, shader);
+            }
+            return;
+        }
+        for (int curr_pass = 0; curr_pass < render_data->pass_count(); ++curr_pass)
+        {
+            numberTriangles += indexCount;
+            numberDrawCalls++;
+            curr_material = render_data->pass(curr_pass)->material();
+            int shader_id = render_data->get_shader(rstate.is_multiview, curr_pass);
+            Shader* shader = rstate.shader_manager->getShader(shader_id);
+            renderWithShader(rstate, shader, render_data, curr_material, curr_pass);
+        }
+        render_data->clearDirty();
+    }
+
+    void NullRenderer::renderMaterialShader(RenderState& rstate, RenderData* render_data,
+                                            ShaderData* curr_material, Shader* shader)
+    {
+        NullMaterial* material = static_cast<NullMaterial*>(curr_material);
+
+        shader->useShader(rstate.is_multiview);
+        if (material->bindToShader(shader, this) >= 0)
+        {
+            if (shader->usesMatrixUniforms())
+            {
+                UniformBlock* transformBlock = getTransformUbo(rstate.is_multiview ? 1 : 0);
+                updateTransforms(rstate, transformBlock, render_data);
+                transformBlock->bindBuffer(shader, this);
+            }
+            if (shader->useLights())
+            {
+                rstate.scene->getLights().useLights(this, shader);
+            }
+            Mesh* mesh = render_data->mesh();
+            mesh->getVertexBuffer()->bindToShader(shader, mesh->getIndexBuffer());
+        }
+    }
+
+    bool NullRenderer::renderWithShader(RenderState& rstate, Shader* shader, RenderData* renderData, ShaderData* shaderData, int renderPass)
+    {
+        if (shader == NULL)
+        {
+            LOGE("SHADER: shader not found");
+            return false;
+        }
+        if (shaderData->updateGPU(this, renderData) >= 0)
+        {
+            renderData->updateGPU(this, shader);
+            renderMaterialShader(rstate, renderData, shaderData, shader);
+            return true;
+        }
+        return false;
+    }
+
+    void NullRenderer::updatePostEffectMesh(Mesh* copy_mesh)
+    {
+        float positions[] = { -1.0f, -1.0f, 0.0f, -1.0f, 1.0f, 0.0f, 1.0f, -1.0f, 0.0f, 1.0f, 1.0f, 0.0f };
+        float uvs[] = { 0.0f, 0.0, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f, 1.0f };
+        unsigned short faces[] = { 0, 2, 1, 1, 2, 3 };
+
+        copy_mesh->setVertices(positions, sizeof(positions) / sizeof(positions[0]));
+        copy_mesh->setFloatVec("a_texcoord", uvs, sizeof(uvs) / sizeof(uvs[0]));
+        copy_mesh->setTriangles(faces, sizeof(faces) / sizeof(faces[0]));
+    }
+
+}
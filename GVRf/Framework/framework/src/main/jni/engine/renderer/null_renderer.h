@@ -0,0 +1,280 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Renders a scene without a GPU.
+ ***************************************************************************/
+
+#ifndef FRAMEWORK_NULL_RENDERER_H
+#define FRAMEWORK_NULL_RENDERER_H
+
+#include <cstring>
+#include "renderer.h"
+#include "objects/shader_data.h"
+#include "objects/uniform_block.h"
+#include "objects/vertex_buffer.h"
+#include "objects/index_buffer.h"
+#include "objects/light.h"
+#include "objects/textures/texture.h"
+#include "objects/textures/render_texture.h"
+#include "objects/components/render_target.h"
+#include "shaders/shader.h"
+
+namespace gvr {
+
+/**
+ * Uniform block which keeps its data on the CPU.
+ * Uniforms are set exactly like the GL version so the
+ * cost of updating them is measured but nothing is sent anywhere.
+ */
+class NullUniformBlock : public UniformBlock
+{
+public:
+    explicit NullUniformBlock(const char* desc, int binding, const char* name)
+    : UniformBlock(desc, binding, name) { }
+
+    explicit NullUniformBlock(const char* desc, int binding, const char* name, int maxelems)
+    : UniformBlock(desc, binding, name, maxelems) { }
+
+    virtual bool updateGPU(Renderer*, int start = 0, int len = 0)
+    {
+        mIsDirty = false;
+        return true;
+    }
+
+    virtual bool bindBuffer(Shader*, Renderer*, int locationOffset = 0) { return true; }
+
+    virtual bool setFloatVec(const char* name, const float* val, int n)
+    {
+        return setData(name, val, n * sizeof(float));
+    }
+
+    virtual bool setIntVec(const char* name, const int* val, int n)
+    {
+        return setData(name, val, n * sizeof(int));
+    }
+
+private:
+    bool setData(const char* name, const void* val, int bytesize)
+    {
+        char* data = getData(name, bytesize);
+        if (data != NULL)
+        {
+            memcpy(data, val, bytesize);
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+};
+
+class NullMaterial : public ShaderData
+{
+public:
+    explicit NullMaterial(const char* uniform_desc, const char* texture_desc)
+    : ShaderData(texture_desc),
+      uniforms_(uniform_desc, MATERIAL_UBO_INDEX, "Material_ubo") { }
+
+    explicit NullMaterial(const char* uniform_desc, const char* texture_desc, int bindingPoint, const char* blockName)
+    : ShaderData(texture_desc),
+      uniforms_(uniform_desc, bindingPoint, blockName) { }
+
+    virtual UniformBlock& uniforms() { return uniforms_; }
+    virtual const UniformBlock& uniforms() const { return uniforms_; }
+    void useGPUBuffer(bool flag) { uniforms_.useGPUBuffer(flag); }
+
+    /*
+     * Visit the textures the way GLMaterial binds them.
+     * @return number of texture units which would be used
+     */
+    int bindToShader(Shader* shader, Renderer* renderer);
+
+protected:
+    NullUniformBlock uniforms_;
+};
+
+class NullLight : public Light
+{
+public:
+    explicit NullLight(const char* uniform_desc, const char* texture_desc)
+    : Light(),
+      uniforms_(uniform_desc, texture_desc, LIGHT_UBO_INDEX, "Lights_ubo") { }
+
+    virtual ShaderData& uniforms() { return uniforms_; }
+    virtual const ShaderData& uniforms() const { return uniforms_; }
+
+protected:
+    NullMaterial uniforms_;
+};
+
+/**
+ * Image which is always ready and never holds any pixels.
+ */
+class NullImage : public Image
+{
+public:
+    explicit NullImage(ImageType type = BITMAP, int format = 0) : Image(type, format) { }
+
+    virtual int getId() { return 0; }
+    virtual bool isReady() { return true; }
+    virtual void texParamsChanged(const TextureParameters&) { }
+};
+
+class NullRenderTexture : public RenderTexture
+{
+public:
+    explicit NullRenderTexture(int width, int height, int sample_count)
+    : RenderTexture(sample_count), mWidth(width), mHeight(height)
+    {
+        setImage(new NullImage());
+    }
+
+    virtual int width() const { return mWidth; }
+    virtual int height() const { return mHeight; }
+    virtual unsigned int getFrameBufferId() const { return 0; }
+    virtual void bind() { }
+    virtual void beginRendering(Renderer*) { }
+    virtual void endRendering(Renderer*) { }
+    virtual void startReadBack() { }
+    virtual bool readRenderResult(uint8_t* readback_buffer, long capacity) { return false; }
+    virtual bool readRenderResult(uint8_t* readback_buffer) { return false; }
+    virtual void setLayerIndex(int layer_index) { }
+
+private:
+    int mWidth;
+    int mHeight;
+};
+
+class NullShader : public Shader
+{
+public:
+    explicit NullShader(int id, const char* signature,
+                        const char* uniformDescriptor, const char* textureDescriptor,
+                        const char* vertexDescriptor, const char* vertexShader,
+                        const char* fragmentShader)
+    : Shader(id, signature, uniformDescriptor, textureDescriptor, vertexDescriptor,
+             vertexShader, fragmentShader) { }
+
+    virtual bool useShader(bool) { return true; }
+    virtual void bindLights(LightList& lights, Renderer* r) { }
+};
+
+class NullVertexBuffer : public VertexBuffer
+{
+public:
+    explicit NullVertexBuffer(const char* layout_desc, int vertexCount)
+    : VertexBuffer(layout_desc, vertexCount) { }
+
+    virtual bool updateGPU(Renderer* renderer, IndexBuffer* ibuf, Shader*)
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        if ((getVertexCount() == 0) || (getVertexData() == NULL))
+        {
+            return false;
+        }
+        if (ibuf)
+        {
+            ibuf->updateGPU(renderer);
+        }
+        mIsDirty = false;
+        return true;
+    }
+
+    virtual void bindToShader(Shader*, IndexBuffer*) { }
+};
+
+class NullIndexBuffer : public IndexBuffer
+{
+public:
+    explicit NullIndexBuffer(int bytesPerIndex, int icount)
+    : IndexBuffer(bytesPerIndex, icount) { }
+
+    virtual bool bindBuffer(Shader*) { return true; }
+
+    virtual bool updateGPU(Renderer*)
+    {
+        std::lock_guard<std::mutex> lock(mUpdateLock);
+        mIsDirty = false;
+        return (getIndexCount() > 0) && (getIndexData() != NULL);
+    }
+};
+
+/**
+ * Renderer which does not use a GPU.
+ *
+ * It creates objects which keep their data on the CPU and
+ * runs the same culling, sorting, light and transform updates
+ * as the GL renderer for every draw call. Draw calls and
+ * triangles are counted but nothing is drawn. This lets the
+ * CPU side of a frame be measured on a machine without a GPU.
+ * Select it with Renderer::getInstance("null") or
+ *     setprop debug.gearvrf.renderer null
+ */
+class NullRenderer : public Renderer
+{
+    friend class Renderer;
+
+protected:
+    NullRenderer();
+    virtual ~NullRenderer()
+    {
+        delete transform_ubo_[0];
+        delete transform_ubo_[1];
+    }
+
+public:
+    void restoreRenderStates(RenderData* render_data) { }
+    void setRenderStates(RenderData* render_data, RenderState& rstate) { }
+    Texture* createSharedTexture(int id);
+    virtual IndexBuffer* createIndexBuffer(int bytesPerIndex, int icount);
+    virtual VertexBuffer* createVertexBuffer(const char* descriptor, int vcount);
+    virtual void renderRenderTarget(Scene*, jobject javaSceneObject, RenderTarget* renderTarget, ShaderManager* shader_manager,
+                                    RenderTexture* post_effect_render_texture_a, RenderTexture* post_effect_render_texture_b);
+    void makeShadowMaps(Scene* scene, jobject javaSceneObject, ShaderManager* shader_manager);
+    void set_face_culling(int cull_face) { }
+    virtual RenderPass* createRenderPass();
+    virtual ShaderData* createMaterial(const char* uniform_desc, const char* texture_desc);
+    virtual RenderData* createRenderData();
+    virtual RenderData* createRenderData(RenderData*);
+    virtual UniformBlock* createUniformBlock(const char* desc, int binding, const char* name, int maxelems);
+    virtual Image* createImage(int type, int format);
+    virtual Texture* createTexture(int target = GL_TEXTURE_2D);
+    virtual RenderTarget* createRenderTarget(Scene*);
+    virtual RenderTarget* createRenderTarget(RenderTexture*, bool);
+    virtual RenderTarget* createRenderTarget(RenderTexture*, const RenderTarget*);
+    virtual RenderTexture* createRenderTexture(const RenderTextureInfo&);
+    virtual RenderTexture* createRenderTexture(int width, int height, int sample_count, int layers, int jdepth_format);
+    virtual RenderTexture* createRenderTexture(int width, int height, int sample_count,
+                                               int jcolor_format, int jdepth_format, bool resolve_depth,
+                                               const TextureParameters* texture_parameters, int number_views);
+    virtual Shader* createShader(int id, const char* signature,
+                                 const char* uniformDescriptor, const char* textureDescriptor,
+                                 const char* vertexDescriptor, const char* vertexShader,
+                                 const char* fragmentShader);
+    virtual Light* createLight(const char* uniformDescriptor, const char* textureDescriptor);
+    UniformBlock* getTransformUbo(int index) { return transform_ubo_[index]; }
+    virtual void updatePostEffectMesh(Mesh*);
+    virtual bool renderWithShader(RenderState& rstate, Shader* shader, RenderData* renderData, ShaderData* shaderData, int);
+
+private:
+    virtual void renderMesh(RenderState& rstate, RenderData* render_data);
+    virtual void renderMaterialShader(RenderState& rstate, RenderData* render_data, ShaderData* material, Shader* shader);
+    virtual void occlusion_cull(RenderState& rstate, std::vector<SceneObject*>& scene_objects, std::vector<RenderData*>* render_data_vector);
+
+    UniformBlock* transform_ubo_[2];
+};
+
+}
+#endif
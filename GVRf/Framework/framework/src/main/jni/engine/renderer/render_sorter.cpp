@@ -0,0 +1,218 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Sorts the render data list of a render target before rendering.
+ ***************************************************************************/
+
+#include <algorithm>
+#include <cstring>
+#include "render_sorter.h"
+#include "objects/components/render_data.h"
+
+namespace gvr {
+
+/*
+ * Bit layout of the sort key, from the top down.
+ */
+static const int ORDER_SHIFT = 48;          // 16 bits rendering order
+static const int SHADER_SHIFT = 38;         // 10 bits shader ID
+static const int PASS_SHIFT = 36;           // 2 bits number of passes
+static const int MATERIAL_SHIFT = 24;       // 12 bits material
+static const int CULL_SHIFT = 22;           // 2 bits cull face
+static const int STATE_SHIFT = 16;          // 6 bits render state
+static const int TRANSPARENT_SHIFT = 16;    // 32 bits distance for transparent objects
+
+static const int ORDER_BIAS = 0x8000;
+
+/*
+ * Bits of a positive float sort in the same order as its value.
+ */
+static inline uint32_t floatBits(float f)
+{
+    uint32_t bits;
+
+    if (!(f > 0.0f))
+    {
+        return 0;
+    }
+    memcpy(&bits, &f, sizeof(bits));
+    return bits;
+}
+
+/*
+ * Make the sort key for a render data.
+ * @return false if the rendering order does not fit in the key
+ */
+bool RenderSorter::makeKey(RenderData* rdata, uint64_t& key)
+{
+    int order = rdata->rendering_order() + ORDER_BIAS;
+
+    if ((order < 0) || (order > 0xFFFF))
+    {
+        return false;
+    }
+    key = (uint64_t) order << ORDER_SHIFT;
+    if ((rdata->rendering_order() >= RenderData::Transparent) &&
+        (rdata->rendering_order() < RenderData::Overlay))
+    {
+        // transparent objects are sorted back to front
+        key |= (uint64_t) ~floatBits(rdata->camera_distance()) << TRANSPARENT_SHIFT;
+        return true;
+    }
+    /*
+     * The material pointer and render state hash are folded into a few bits.
+     * A collision only puts two different states next to each other,
+     * it does not change how they are rendered.
+     */
+    uintptr_t material = reinterpret_cast<uintptr_t>(rdata->material(0));
+    int passes = std::min(rdata->pass_count(), 4) - 1;
+
+    key |= (uint64_t) (rdata->get_shader(0) & 0x3FF) << SHADER_SHIFT;
+    key |= (uint64_t) (std::max(passes, 0)) << PASS_SHIFT;
+    key |= (uint64_t) (((material >> 4) ^ (material >> 16)) & 0xFFF) << MATERIAL_SHIFT;
+    key |= (uint64_t) (rdata->cull_face(0) & 3) << CULL_SHIFT;
+    key |= (uint64_t) (rdata->getHashValue() & 0x3F) << STATE_SHIFT;
+    key |= floatBits(rdata->camera_distance()) >> 16;  // sign, exponent and 7 mantissa bits
+    return true;
+}
+
+void RenderSorter::sort(std::vector<RenderData*>& render_data_vector)
+{
+    const int n = render_data_vector.size();
+    bool coherent = (n == (int) mLastInput.size()) && (n == (int) mLastOrder.size()) &&
+                    std::equal(render_data_vector.begin(), render_data_vector.end(), mLastInput.begin());
+
+    if (n == 0)
+    {
+        mLastInput.clear();
+        return;
+    }
+    mEntries.resize(n);
+    for (int i = 0; i < n; ++i)
+    {
+        // start from the order of the last frame if the list did not change
+        int input = coherent ? mLastOrder[i] : i;
+        SortEntry& e = mEntries[i];
+
+        e.Input = input;
+        e.RData = render_data_vector[input];
+        if (!makeKey(e.RData, e.Key))
+        {
+            mLastInput.clear();
+            std::sort(render_data_vector.begin(), render_data_vector.end(),
+                      compareRenderDataByOrderShaderDistance);
+            return;
+        }
+    }
+    if (!coherent || !insertionSort(n))
+    {
+        radixSort();
+    }
+    mLastInput.assign(render_data_vector.begin(), render_data_vector.end());
+    mLastOrder.resize(n);
+    for (int i = 0; i < n; ++i)
+    {
+        mLastOrder[i] = mEntries[i].Input;
+        render_data_vector[i] = mEntries[i].RData;
+    }
+}
+
+/*
+ * Sort an almost sorted list by moving entries back into place.
+ * @return false if more than maxMoves entries had to be moved,
+ *         the list is then partially sorted
+ */
+bool RenderSorter::insertionSort(int maxMoves)
+{
+    const int n = mEntries.size();
+    int moves = 0;
+
+    for (int i = 1; i < n; ++i)
+    {
+        if (mEntries[i - 1].Key <= mEntries[i].Key)
+        {
+            continue;
+        }
+        SortEntry e = mEntries[i];
+        int j = i;
+
+        do
+        {
+            mEntries[j] = mEntries[j - 1];
+            --j;
+        }
+        while ((j > 0) && (mEntries[j - 1].Key > e.Key));
+        mEntries[j] = e;
+        moves += i - j;
+        if (moves > maxMoves)
+        {
+            return false;
+        }
+    }
+    return true;
+}
+
+/*
+ * Least significant digit first radix sort of the keys one byte at a time.
+ * Bytes which are the same in every key are skipped.
+ */
+void RenderSorter::radixSort()
+{
+    const int n = mEntries.size();
+    uint32_t counts[8][256];
+
+    memset(counts, 0, sizeof(counts));
+    for (int i = 0; i < n; ++i)
+    {
+        uint64_t key = mEntries[i].Key;
+        for (int d = 0; d < 8; ++d)
+        {
+            ++counts[d][(key >> (d * 8)) & 0xFF];
+        }
+    }
+    mScratch.resize(n);
+    SortEntry* src = mEntries.data();
+    SortEntry* dst = mScratch.data();
+
+    for (int d = 0; d < 8; ++d)
+    {
+        uint32_t* count = counts[d];
+        uint32_t offset = 0;
+
+        if (count[(src[0].Key >> (d * 8)) & 0xFF] == (uint32_t) n)
+        {
+            continue;                   // every key has the same digit
+        }
+        for (int b = 0; b < 256; ++b)
+        {
+            uint32_t c = count[b];
+            count[b] = offset;
+            offset += c;
+        }
+        for (int i = 0; i < n; ++i)
+        {
+            dst[count[(src[i].Key >> (d * 8)) & 0xFF]++] = src[i];
+        }
+        std::swap(src, dst);
+    }
+    if (src != mEntries.data())
+    {
+        mEntries.swap(mScratch);
+    }
+}
+
+}
@@ -0,0 +1,87 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Sorts the render data list of a render target before rendering.
+ ***************************************************************************/
+
+#ifndef RENDER_SORTER_H_
+#define RENDER_SORTER_H_
+
+#include <cstdint>
+#include <vector>
+
+namespace gvr {
+class RenderData;
+
+/**
+ * Sorts render data by rendering order, render state and camera distance.
+ *
+ * Each render data gets a 64 bit key which packs, from the most
+ * significant bits down:
+ * - the rendering order
+ * - for transparent objects, the camera distance from back to front
+ * - otherwise the shader, the number of passes, the material,
+ *   the cull face, the render state and the quantized camera
+ *   distance from front to back
+ * Keys are sorted with a radix sort, skipping the digits which
+ * are the same for every key.
+ *
+ * The order of the last frame is kept. If the same list of render
+ * data is sorted again, it is put in the order of the last frame
+ * and fixed up with an insertion sort. This is abandoned for the
+ * radix sort if too many objects have to move.
+ *
+ * Rendering orders which do not fit into the key fall back to
+ * sorting with compareRenderDataByOrderShaderDistance.
+ *
+ * @see Renderer::state_sort
+ */
+class RenderSorter
+{
+public:
+    RenderSorter() { }
+
+    /**
+     * Sort a list of render data in place.
+     * The camera distances must have been computed by culling.
+     * @param render_data_vector list to sort
+     */
+    void sort(std::vector<RenderData*>& render_data_vector);
+
+private:
+    RenderSorter(const RenderSorter&) = delete;
+    RenderSorter& operator=(const RenderSorter&) = delete;
+
+    struct SortEntry
+    {
+        uint64_t    Key;
+        RenderData* RData;
+        int         Input;      // index in the unsorted list
+    };
+
+    static bool     makeKey(RenderData* rdata, uint64_t& key);
+    bool            insertionSort(int maxMoves);
+    void            radixSort();
+
+    std::vector<SortEntry>      mEntries;
+    std::vector<SortEntry>      mScratch;
+    std::vector<RenderData*>    mLastInput;     // unsorted list from the last frame
+    std::vector<int>            mLastOrder;     // input index of each sorted entry last frame
+};
+
+}
+#endif
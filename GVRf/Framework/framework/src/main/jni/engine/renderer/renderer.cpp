@@ -22,8 +22,10 @@
 #include "glm/gtc/matrix_inverse.hpp"
 #include "renderer.h"
 #include "objects/scene.h"
+#include "objects/components/perspective_camera.h"
 #include "objects/textures/texture.h"
 #include "objects/textures/render_texture.h"
+#include "util/gvr_profiler.h"
 
 #define MAX_INDICES 500
 #define BATCH_SIZE 60
@@ -43,79 +45,21 @@ Renderer::Renderer() : numberDrawCalls(0),
                        numLights(0),
                        batch_manager(nullptr), mLeftRenderTarget{nullptr, nullptr, nullptr},
                        mRightRenderTarget{nullptr, nullptr, nullptr},
-                       mMultiviewRenderTarget{nullptr, nullptr, nullptr}{
+                       mMultiviewRenderTarget{nullptr, nullptr, nullptr},
+                       transform_block_{nullptr, nullptr} {
     if(do_batching && !gRenderer->isVulkanInstance()) {
         batch_manager = new BatchManager(BATCH_SIZE, MAX_INDICES);
     }
 }
-void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
-        float frustum[6][4], std::vector<SceneObject*>& scene_objects,
-        bool need_cull, int planeMask) {
-
-    // frustumCull() return 3 possible values:
-    // 0 when the HBV of the object is completely outside the frustum: cull itself and all its children out
-    // 1 when the HBV of the object is intersecting the frustum but the object itself is not: cull it out and continue culling test with its children
-    // 2 when the HBV of the object is intersecting the frustum and the mesh BV of the object are intersecting (inside) the frustum: render itself and continue culling test with its children
-    // 3 when the HBV of the object is completely inside the frustum: render itself and all its children without further culling test
-    int cullVal;
-
-    if (!object->enabled()) {
-        return;
-    }
-
-    //allows for on demand calculation of the camera distance; usually matters
-    //when transparent objects are in play
-    RenderData* renderData = object->render_data();
-    if (nullptr != renderData) {
-        renderData->setCameraDistanceLambda([object, camera_position]() {
-            // Transform the bounding volume
-            BoundingVolume bounding_volume_ = object->getBoundingVolume();
-            glm::vec4 transformed_sphere_center(bounding_volume_.center(), 1.0f);
-
-            // Calculate distance from camera
-            glm::vec4 position(camera_position, 1.0f);
-            glm::vec4 difference = transformed_sphere_center - position;
-            float distance = glm::dot(difference, difference);
-
-            // this distance will be used when sorting transparent objects
-            return distance;
-        });
-    }
-
-    if (need_cull) {
-        cullVal = object->frustumCull(camera_position, frustum, planeMask);
-        if (cullVal == 0) {
-            object->setCullStatus(true);
-            return;
-        }
-
-        if (cullVal >= 2) {
-            object->setCullStatus(false);
-            scene_objects.push_back(object);
-        }
-
-        if (cullVal == 3) {
-            object->setCullStatus(false);
-            need_cull = false;
-        }
-    } else {
-        object->setCullStatus(false);
-        scene_objects.push_back(object);
-    }
-
-    const std::vector<SceneObject*> children = object->children();
-    for (auto it = children.begin(); it != children.end(); ++it) {
-        frustum_cull(camera_position, *it, frustum, scene_objects, need_cull, planeMask);
-    }
-}
-
-void Renderer::state_sort(std::vector<RenderData*>* render_data_vector) {
+void Renderer::state_sort(std::vector<RenderData*>* render_data_vector, RenderSorter& sorter) {
     // The current implementation of sorting is based on
     // 1. rendering order first to maintain specified order
     // 2. shader type second to minimize the gl cost of switching shader
     // 3. camera distance last to minimize overdraw
-    std::sort(render_data_vector->begin(), render_data_vector->end(),
-            compareRenderDataByOrderShaderDistance);
+    {
+        Profiler::Scope scope(Profiler::STATE_SORT);
+        sorter.sort(*render_data_vector);
+    }
 
     if (DEBUG_RENDERER) {
         LOGD("SORTING: After sorting");
@@ -153,18 +97,27 @@ bool isRenderPassEqual(RenderData* rdata1, RenderData* rdata2){
     return true;
 }
 
+/*
+ * Get the size of an object on the screen from the last
+ * cull of the main camera rig, 0 if the object was culled.
+ */
+float Renderer::getViewSize(SceneObject* object)
+{
+    std::lock_guard<std::mutex> lock(cull_lock_);
+    return frustum_culler_.viewSize(object);
+}
+
 /*
  * Perform view frustum culling from a specific camera viewpoint
  */
 void Renderer::cullFromCamera(Scene *scene, jobject javaSceneObject, Camera* camera,
         ShaderManager* shader_manager, std::vector<RenderData*>* render_data_vector, bool is_multiview)
 {
-    std::vector<SceneObject*> scene_objects;
+    std::lock_guard<std::mutex> lock(cull_lock_);
     LightList& lights = scene->getLights();
     RenderState rstate;
 
     render_data_vector->clear();
-    scene_objects.clear();
     rstate.is_multiview = is_multiview;
     rstate.material_override = NULL;
     rstate.shader_manager = shader_manager;
@@ -177,25 +130,45 @@ void Renderer::cullFromCamera(Scene *scene, jobject javaSceneObject, Camera* cam
     rstate.javaSceneObject = javaSceneObject;
     rstate.lightsChanged = lights.isDirty();
     glm::mat4 vp_matrix = glm::mat4(rstate.uniforms.u_proj * rstate.uniforms.u_view);
-    glm::vec3 campos(rstate.uniforms.u_view[3]);
+    // the view matrix is the inverse of the camera's model matrix,
+    // its translation is not the position of the camera
+    glm::vec3 campos(glm::inverse(rstate.uniforms.u_view)[3]);
 
     // Travese all scene objects in the scene as a tree and do frustum culling at the same time if enabled
-    // 1. Build the view frustum
+    // 1. Build the view frustum. Both eyes render what is culled from the
+    //    center camera of the main camera rig so it is culled against
+    //    a frustum containing the frustums of both eyes.
     float frustum[6][4];
-    build_frustum(frustum, (const float*) glm::value_ptr(vp_matrix));
+    const CameraRig* rig = scene->main_camera_rig();
+    if ((rig == nullptr) || (camera != rig->center_camera()) ||
+        (rig->left_camera() == nullptr) || (rig->right_camera() == nullptr) ||
+        !build_stereo_frustum(frustum, rig->left_camera(), rig->right_camera()))
+    {
+        build_frustum(frustum, (const float*) glm::value_ptr(vp_matrix));
+    }
 
-    // 2. Iteratively execute frustum culling for each root object (as well as its children objects recursively)
+    // 2. Execute frustum culling over the whole scene graph.
+    //    Levels of detail are only selected by the cameras of the main
+    //    camera rig, shadow maps and other render targets reuse them.
     SceneObject *object = scene->getRoot();
+    bool selectLOD = (rig == nullptr) || (camera == rig->center_camera()) ||
+                     (camera == rig->left_camera()) || (camera == rig->right_camera());
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: start frustum culling for root %s\n", object->name().c_str());
     }
-    //    frustum_cull(camera->owner_object()->transform()->position(), object, frustum, scene_objects, scene->get_frustum_culling(), 0);
-    frustum_cull(campos, object, frustum, scene_objects, scene->get_frustum_culling(), 0);
+    if (selectLOD) {
+        frustum_culler_.setViewScale(rstate.uniforms.u_proj[1][1]);
+    }
+    {
+        Profiler::Scope scope(Profiler::CULL);
+        frustum_culler_.cull(object, campos, frustum, scene->get_frustum_culling(), selectLOD, scene_objects_);
+    }
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: end frustum culling for root %s\n", object->name().c_str());
     }
     // 3. do occlusion culling, if enabled
-    occlusion_cull(rstate, scene_objects, render_data_vector);
+    Profiler::Scope scope(Profiler::OCCLUSION_CULL);
+    occlusion_cull(rstate, scene_objects_, render_data_vector);
 }
 
 
@@ -226,6 +199,56 @@ bool Renderer::occlusion_cull_init(RenderState& renderState, std::vector<SceneOb
 }
 
 
+/*
+ * Build one frustum which contains the view frustums of both eyes.
+ * Each plane is taken from the left or the right eye, whichever
+ * has all eight corners of both eye frustums on its inside.
+ * @return false if the eye frustums do not share a bounding frustum
+ */
+bool Renderer::build_stereo_frustum(float frustum[6][4], Camera* left_camera, Camera* right_camera) {
+    glm::mat4 vp[2] = {
+        left_camera->getProjectionMatrix() * left_camera->getViewMatrix(),
+        right_camera->getProjectionMatrix() * right_camera->getViewMatrix()
+    };
+    float eye_frustum[2][6][4];
+    glm::vec3 corners[16];
+    glm::vec3 eye_center(0.0f);
+
+    for (int e = 0; e < 2; ++e) {
+        glm::mat4 inv_vp = glm::inverse(vp[e]);
+
+        build_frustum(eye_frustum[e], (const float*) glm::value_ptr(vp[e]));
+        eye_center += 0.5f * glm::vec3(glm::affineInverse(e ? right_camera->getViewMatrix()
+                                                            : left_camera->getViewMatrix())[3]);
+        for (int c = 0; c < 8; ++c) {
+            glm::vec4 p = inv_vp * glm::vec4((c & 1) ? 1 : -1, (c & 2) ? 1 : -1, (c & 4) ? 1 : -1, 1);
+            corners[e * 8 + c] = glm::vec3(p) / p.w;
+        }
+    }
+    for (int p = 0; p < 6; ++p) {
+        int e;
+        for (e = 0; e < 2; ++e) {
+            const float* plane = eye_frustum[e][p];
+            int c;
+            for (c = 0; c < 16; ++c) {
+                const glm::vec3& v = corners[c];
+                float tolerance = 0.001f * glm::length(v - eye_center) + 0.0001f;
+                if (plane[0] * v.x + plane[1] * v.y + plane[2] * v.z + plane[3] < -tolerance) {
+                    break;
+                }
+            }
+            if (c == 16) {
+                break;
+            }
+        }
+        if (e == 2) {
+            return false;
+        }
+        std::copy(eye_frustum[e][p], eye_frustum[e][p] + 4, frustum[p]);
+    }
+    return true;
+}
+
 void Renderer::build_frustum(float frustum[6][4], const float *vp_matrix) {
     float t;
 
@@ -334,13 +357,53 @@ void Renderer::renderRenderData(RenderState& rstate, RenderData* render_data) {
     restoreRenderStates(render_data);
 }
 
+void TransformSlots::lookup(const UniformBlock& block, bool multiview)
+{
+    descriptor = block.getDescriptor();
+    u_model = block.getSlot("u_model");
+    u_right = block.getSlot("u_right");
+    if (multiview)
+    {
+        u_render_mask = block.getSlot("u_render_mask");
+        u_view = block.getSlot("u_view_");
+        u_mvp = block.getSlot("u_mvp_");
+        u_mv = block.getSlot("u_mv_");
+        u_mv_it = block.getSlot("u_mv_it_");
+        u_view_i = block.getSlot("u_view_i_");
+    }
+    else
+    {
+        u_render_mask = -1;
+        u_view = block.getSlot("u_view");
+        u_mvp = block.getSlot("u_mvp");
+        u_mv = block.getSlot("u_mv");
+        u_mv_it = block.getSlot("u_mv_it");
+        u_view_i = block.getSlot("u_view_i");
+    }
+}
+
 void Renderer::updateTransforms(RenderState& rstate, UniformBlock* transform_ubo, RenderData* renderData)
 {
     Transform* model = renderData->owner_object() ? renderData->owner_object()->transform() : nullptr;
+    int viewIndex = rstate.is_multiview ? 1 : 0;
+    TransformSlots& slots = transform_slots_[viewIndex];
+
+    /*
+     * The GL renderer uses the same transform block for every draw call.
+     * The Vulkan renderer has one per render data, all with the same descriptor.
+     */
+    if (transform_block_[viewIndex] != transform_ubo)
+    {
+        transform_block_[viewIndex] = transform_ubo;
+        if (slots.descriptor != transform_ubo->getDescriptor())
+        {
+            slots.lookup(*transform_ubo, rstate.is_multiview);
+        }
+    }
     rstate.uniforms.u_model = model ? model->getModelMatrix() : glm::mat4();
 //    rstate.uniforms.u_right = rstate.render_mask & RenderData::RenderMaskBit::Right;
-    transform_ubo->setMat4("u_model", rstate.uniforms.u_model);
-    transform_ubo->setFloat("u_right", (rstate.render_mask & RenderData::RenderMaskBit::Right) ? 1 : 0);
+    transform_ubo->setMat4(slots.u_model, rstate.uniforms.u_model);
+    transform_ubo->setFloat(slots.u_right, (rstate.render_mask & RenderData::RenderMaskBit::Right) ? 1.0f : 0.0f);
 
     if (rstate.is_multiview)
     {
@@ -357,23 +420,23 @@ void Renderer::updateTransforms(RenderState& rstate, UniformBlock* transform_ubo
             rstate.uniforms.u_view_inv_[0] = glm::inverse(rstate.uniforms.u_view_[0]);
             rstate.uniforms.u_view_inv_[1] = glm::inverse(rstate.uniforms.u_view_[1]);
         }
-        transform_ubo->setMat4("u_view_", rstate.uniforms.u_view_[0]);
-        transform_ubo->setMat4("u_mvp_", rstate.uniforms.u_mvp_[0]);
-        transform_ubo->setMat4("u_mv_", rstate.uniforms.u_mv_[0]);
-        transform_ubo->setMat4("u_mv_it_", rstate.uniforms.u_mv_it_[0]);
-        transform_ubo->setMat4("u_view_i_", rstate.uniforms.u_view_inv_[0]);
-        transform_ubo->setInt("u_render_mask",renderData->render_mask());
+        transform_ubo->setMat4(slots.u_view, rstate.uniforms.u_view_, 2);
+        transform_ubo->setMat4(slots.u_mvp, rstate.uniforms.u_mvp_, 2);
+        transform_ubo->setMat4(slots.u_mv, rstate.uniforms.u_mv_, 2);
+        transform_ubo->setMat4(slots.u_mv_it, rstate.uniforms.u_mv_it_, 2);
+        transform_ubo->setMat4(slots.u_view_i, rstate.uniforms.u_view_inv_, 2);
+        transform_ubo->setInt(slots.u_render_mask, renderData->render_mask());
     }
     else
     {
         rstate.uniforms.u_mv = rstate.uniforms.u_view * rstate.uniforms.u_model;
         rstate.uniforms.u_mv_it = glm::inverseTranspose(rstate.uniforms.u_mv);
         rstate.uniforms.u_mvp = rstate.uniforms.u_proj * rstate.uniforms.u_mv;
-        transform_ubo->setMat4("u_view", rstate.uniforms.u_view);
-        transform_ubo->setMat4("u_mvp", rstate.uniforms.u_mvp);
-        transform_ubo->setMat4("u_mv", rstate.uniforms.u_mv);
-        transform_ubo->setMat4("u_mv_it", rstate.uniforms.u_mv_it);
-        transform_ubo->setMat4("u_view_i", rstate.uniforms.u_view_inv);
+        transform_ubo->setMat4(slots.u_view, rstate.uniforms.u_view);
+        transform_ubo->setMat4(slots.u_mvp, rstate.uniforms.u_mvp);
+        transform_ubo->setMat4(slots.u_mv, rstate.uniforms.u_mv);
+        transform_ubo->setMat4(slots.u_mv_it, rstate.uniforms.u_mv_it);
+        transform_ubo->setMat4(slots.u_view_i, rstate.uniforms.u_view_inv);
     }
     transform_ubo->updateGPU(this);
 }
@@ -31,6 +31,8 @@
 #include "objects/bounding_volume.h"
 #include "shaders/shader_manager.h"
 #include "batch_manager.h"
+#include "frustum_culler.h"
+#include "render_sorter.h"
 
 typedef unsigned long Long;
 
@@ -79,6 +81,28 @@ struct ShaderUniformsPerObject {
     float       u_right;        // 1 = right eye, 0 = left
 };
 
+/*
+ * Slots of the uniforms in the transform block.
+ * They are looked up once for each transform block descriptor
+ * so updating the transforms for a draw call does not
+ * have to search for the uniforms by name.
+ */
+struct TransformSlots {
+    std::string descriptor;     // descriptor the slots were looked up in
+    int u_model;
+    int u_right;
+    int u_render_mask;
+    int u_view;
+    int u_mvp;
+    int u_mv;
+    int u_mv_it;
+    int u_view_i;
+
+    TransformSlots() : u_model(-1), u_right(-1), u_render_mask(-1), u_view(-1),
+                       u_mvp(-1), u_mv(-1), u_mv_it(-1), u_view_i(-1) { }
+    void lookup(const UniformBlock& block, bool multiview);
+};
+
 struct RenderState {
     int                     render_mask;
     int                     viewportX;
@@ -134,6 +158,7 @@ public:
         }
     }
     static int getVulkanPropValue();
+    static bool isNullRendererRequested();
     virtual ShaderData* createMaterial(const char* uniform_desc, const char* texture_desc) = 0;
     virtual RenderData* createRenderData() = 0;
     virtual RenderData* createRenderData(RenderData*) = 0;
@@ -156,6 +181,7 @@ public:
     virtual void initializeStats();
     virtual void cullFromCamera(Scene *scene, jobject javaSceneObject, Camera* camera,
                                 ShaderManager* shader_manager, std::vector<RenderData*>* render_data_vector,bool);
+    float getViewSize(SceneObject* object);
     virtual void set_face_culling(int cull_face) = 0;
 
     virtual void renderRenderData(RenderState& rstate, RenderData* render_data);
@@ -208,9 +234,7 @@ private:
     RenderTarget* mMultiviewRenderTarget[3];
     static bool isVulkan_;
     virtual void build_frustum(float frustum[6][4], const float *vp_matrix);
-    virtual void frustum_cull(glm::vec3 camera_position, SceneObject *object,
-            float frustum[6][4], std::vector<SceneObject*>& scene_objects,
-            bool continue_cull, int planeMask);
+    bool build_stereo_frustum(float frustum[6][4], Camera* left_camera, Camera* right_camera);
 
     Renderer(const Renderer& render_engine) = delete;
     Renderer(Renderer&& render_engine) = delete;
@@ -218,6 +242,11 @@ private:
     Renderer& operator=(Renderer&& render_engine) = delete;
     BatchManager* batch_manager;
     static Renderer* instance;
+    const UniformBlock* transform_block_[2];   // transform block the slots were last checked for
+    TransformSlots transform_slots_[2];         // indexed by RenderState::is_multiview
+    FrustumCuller frustum_culler_;
+    std::vector<SceneObject*> scene_objects_;   // visible objects, reused by each cull
+    std::mutex cull_lock_;
 
 protected:
     Renderer();
@@ -238,7 +267,7 @@ protected:
     int numberTriangles;
     bool useStencilBuffer_ = false;
 public:
-    virtual void state_sort(std::vector<RenderData*>* render_data_vector) ;
+    virtual void state_sort(std::vector<RenderData*>* render_data_vector, RenderSorter& sorter);
     int numLights;
     void setUseStencilBuffer(bool enable) { useStencilBuffer_ = enable; }
     bool useStencilBuffer(){
@@ -20,6 +20,7 @@
 #include "renderer.h"
 #include "gl_renderer.h"
 #include "vulkan_renderer.h"
+#include "null_renderer.h"
 #include <sys/system_properties.h>
 #include <cstring>
 
@@ -29,11 +30,16 @@ bool Renderer::isVulkan_ = false;
 
 /***
     We are implementing Vulkan. Enable through system properties.
+    The headless renderer is selected by asking for type "null"
+    or through system properties.
 ***/
 Renderer* Renderer::getInstance(std::string type){
     if( nullptr == instance ) {
         int vulkanPropValue = getVulkanPropValue();
-        if(vulkanPropValue) {
+        if((type == "null") || isNullRendererRequested()) {
+            LOGI("Null renderer: nothing will be drawn");
+            instance = new NullRenderer();
+        } else if(vulkanPropValue) {
             instance = new VulkanRenderer(vulkanPropValue);
 
             if(static_cast<VulkanRenderer*>(instance)->getCore() != NULL)
@@ -85,4 +91,13 @@ int Renderer::getVulkanPropValue(){
     return vulkanPropValue;
 }
 
+bool Renderer::isNullRendererRequested(){
+    // Debug setting selecting the headless renderer:
+    //     setprop debug.gearvrf.renderer null
+    const prop_info *pi = __system_property_find("debug.gearvrf.renderer");
+    char buffer[PROP_VALUE_MAX];
+
+    return pi && (__system_property_read(pi,0,buffer) > 0) && (strcmp(buffer,"null") == 0);
+}
+
 }
@@ -33,6 +33,7 @@
 #include "vulkan/vulkan_render_data.h"
 #include "vulkan/vk_texture.h"
 #include "vulkan/vk_bitmap_image.h"
+#include "util/gvr_profiler.h"
 
 #include <glslang/Include/Common.h>
 
@@ -236,6 +237,7 @@ void VulkanRenderer::updatePostEffectMesh(Mesh* copy_mesh)
 }
 
 void VulkanRenderer::renderRenderDataVector(RenderState& rstate,std::vector<RenderData*>& render_data_vector, std::vector<RenderData*>& render_data_list){
+    Profiler::Scope scope(Profiler::RENDER_DATA, render_data_vector.size());
     for (auto rdata = render_data_vector.begin(); rdata != render_data_vector.end(); ++rdata)
     {
         if (!(rstate.render_mask & (*rdata)->render_mask()))
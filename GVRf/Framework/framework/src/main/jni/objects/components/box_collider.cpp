@@ -121,4 +121,24 @@ namespace gvr {
         }
         return hitData;
     }
+
+    /*
+     * Compute the world bounds of the box.
+     * @param owner     SceneObject which owns this collider.
+     * @param bounds    gets the bounds in world coordinates
+     */
+    bool BoxCollider::getWorldBounds(SceneObject* owner, BoundingVolume& bounds)
+    {
+        Transform* t = owner->transform();
+        BoundingVolume box;
+
+        if (t == NULL)
+        {
+            return false;
+        }
+        box.expand(half_extents_);
+        box.expand(-half_extents_);
+        bounds.transform(box, t->getModelMatrix());
+        return true;
+    }
 }
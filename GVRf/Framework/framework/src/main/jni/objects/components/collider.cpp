@@ -55,6 +55,16 @@ namespace gvr
         scene->removeCollider(this);
     }
 
+    void Collider::invalidateBounds()
+    {
+        Scene* scene = scene_;
+
+        if (scene != nullptr)
+        {
+            scene->markColliderDirty(this);
+        }
+    }
+
 /*
  * Transform a sphere in world coordinates to be in the coordinate space of a model.
  * @param model_matrix 4x4 matrix to transform model into world coordinates
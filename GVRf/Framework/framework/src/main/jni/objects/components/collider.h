@@ -29,6 +29,7 @@
 
 namespace gvr {
 class Collider;
+class BoundingVolume;
 
 /*
  * Information from a collision when a collider is picked.
@@ -91,6 +92,48 @@ public:
      */
     virtual ColliderData isHit(SceneObject* owner, const float sphere[]) = 0;
 
+    /*
+     * Compute the world space bounding box of this collider.
+     *
+     * The bounds are used to place the collider in the spatial
+     * index of the scene so they only need to enclose the collider.
+     *
+     * @param owner     SceneObject which owns this collider.
+     * @param bounds    gets the bounding box in world coordinates
+     *
+     * @returns false if the collider has no finite bounds,
+     *          it is then tested against every pick ray.
+     */
+    virtual bool getWorldBounds(SceneObject* owner, BoundingVolume& bounds) {
+        return false;
+    }
+
+    /*
+     * Returns true if the geometry the world bounds of this collider
+     * were last computed from has been edited in place since.
+     * The scene refits these colliders before each pick.
+     *
+     * @param owner     SceneObject which owns this collider.
+     */
+    virtual bool geometryChanged(SceneObject* owner) {
+        return false;
+    }
+
+    /*
+     * Called when the world bounds of this collider may have changed.
+     * The scene updates its collider tree before the next pick.
+     */
+    void invalidateBounds();
+
+    /*
+     * Returns true if the owner of this collider was visible
+     * the last time the scene was culled.
+     * This is only maintained when the scene only picks visible objects.
+     */
+    bool isVisible() const {
+        return visible_;
+    }
+
     virtual long shape_type() {
         return COLLIDER_SHAPE_UNKNOWN;
     }
@@ -112,11 +155,26 @@ public:
     static void transformSphere(const glm::mat4& model_matrix, float* sphere);
 
 protected:
-    Collider() : Component(Collider::getComponentType()), pick_distance_(0) {}
-    explicit Collider(long long type) : Component(type), pick_distance_(0) {}
+    Collider() : Component(Collider::getComponentType()), pick_distance_(0),
+                 scene_(nullptr), tree_proxy_(-1), bounds_dirty_(false),
+                 unbounded_(false), visible_(false) {}
+    explicit Collider(long long type) : Component(type), pick_distance_(0),
+                 scene_(nullptr), tree_proxy_(-1), bounds_dirty_(false),
+                 unbounded_(false), visible_(false) {}
 
     float pick_distance_;
 
+private:
+    friend class Scene;
+
+    // Maintained by the Scene the collider belongs to
+    Scene*  scene_;
+    int     tree_proxy_;    // ID in the scene collider tree, -1 if not in the tree
+    bool    bounds_dirty_;  // true if in the scene's list of colliders to update
+    bool    unbounded_;     // true if in the scene's list of colliders without bounds
+    bool    visible_;       // true if in the scene's visible collider list
+
+protected:
     Collider(const Collider& collider) = delete;
     Collider(Collider&& collider) = delete;
     Collider& operator=(const Collider& collider) = delete;
@@ -0,0 +1,157 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Selects one of several versions of an object based on camera distance.
+ ***************************************************************************/
+
+#include <algorithm>
+#include "lod_group.h"
+#include "objects/scene_object.h"
+
+namespace gvr {
+
+LODGroup::LODGroup() :
+        Component(LODGroup::getComponentType()),
+        mHysteresis(0.1f),
+        mCurrent(NOT_SELECTED),
+        mSelected(nullptr)
+{
+}
+
+void LODGroup::addRange(float range, SceneObject* sceneObject)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    auto it = std::upper_bound(mLevels.begin(), mLevels.end(), range,
+                               [](float r, const Level& level) { return r < level.Range; });
+
+    mLevels.insert(it, { range, 0, 0, sceneObject });
+    mCurrent = NOT_SELECTED;
+    mSelected = nullptr;
+    updateBounds();
+    // the culler has to find out which children are levels
+    SceneObject::dirtyHierarchy();
+}
+
+void LODGroup::setHysteresis(float hysteresis)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    mHysteresis = std::max(hysteresis, 0.0f);
+    updateBounds();
+}
+
+void LODGroup::set_owner_object(SceneObject* owner_object)
+{
+    Component::set_owner_object(owner_object);
+    SceneObject::dirtyHierarchy();
+}
+
+void LODGroup::set_enable(bool enable)
+{
+    Component::set_enable(enable);
+    SceneObject::dirtyHierarchy();
+}
+
+bool LODGroup::hasLevel(const SceneObject* sceneObject) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    for (auto it = mLevels.begin(); it != mLevels.end(); ++it)
+    {
+        if (it->Object == sceneObject)
+        {
+            return true;
+        }
+    }
+    return false;
+}
+
+bool LODGroup::isSelected(const SceneObject* sceneObject) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    if (sceneObject == mSelected)
+    {
+        return true;
+    }
+    for (auto it = mLevels.begin(); it != mLevels.end(); ++it)
+    {
+        if (it->Object == sceneObject)
+        {
+            return false;
+        }
+    }
+    return true;
+}
+
+/*
+ * Squared distances are compared so the camera
+ * distance does not need a square root.
+ */
+void LODGroup::updateBounds()
+{
+    for (auto it = mLevels.begin(); it != mLevels.end(); ++it)
+    {
+        float enter = it->Range * (1.0f + mHysteresis);
+        float leave = it->Range * std::max(1.0f - mHysteresis, 0.0f);
+
+        it->Enter = enter * enter;
+        it->Leave = leave * leave;
+    }
+}
+
+/*
+ * Squared distance from the camera to the center of the bounds of a level.
+ */
+static float distanceSquared(SceneObject* object, const glm::vec3& cameraPosition)
+{
+    glm::vec3 d(object->getBoundingVolume().center() - cameraPosition);
+    return glm::dot(d, d);
+}
+
+const SceneObject* LODGroup::selectLevel(const glm::vec3& cameraPosition)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    const int n = mLevels.size();
+    int level = mCurrent;
+
+    /*
+     * Keep the current level until the camera is well past its boundaries.
+     * Showing no level (-1) has only the boundary with the first level.
+     */
+    if ((level >= -1) && (level < n))
+    {
+        if (((level < 0) ||
+             (distanceSquared(mLevels[level].Object, cameraPosition) >= mLevels[level].Leave)) &&
+            ((level + 1 == n) ||
+             (distanceSquared(mLevels[level + 1].Object, cameraPosition) < mLevels[level + 1].Enter)))
+        {
+            return mSelected;
+        }
+    }
+    level = -1;
+    for (int i = n - 1; i >= 0; --i)
+    {
+        float range = mLevels[i].Range;
+        if (distanceSquared(mLevels[i].Object, cameraPosition) >= range * range)
+        {
+            level = i;
+            break;
+        }
+    }
+    mCurrent = level;
+    mSelected = (level >= 0) ? mLevels[level].Object : nullptr;
+    return mSelected;
+}
+
+}
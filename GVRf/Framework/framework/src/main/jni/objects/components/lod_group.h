@@ -0,0 +1,128 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Selects one of several versions of an object based on camera distance.
+ ***************************************************************************/
+
+#ifndef LOD_GROUP_H_
+#define LOD_GROUP_H_
+
+#include <mutex>
+#include <vector>
+#include "glm/glm.hpp"
+#include "component.h"
+
+namespace gvr {
+
+/**
+ * Level of detail group attached to the parent of the
+ * scene objects which are the levels of detail.
+ *
+ * Each level is a child of the owner which is shown when the camera
+ * is at least a given distance from the center of the level's bounds.
+ * The level is selected by the FrustumCuller while it culls the scene
+ * graph, the levels which are not selected are culled with their
+ * descendants. The levels stay enabled so selecting a level
+ * does not change the scene graph; the Picker asks the group
+ * with isSelected() so it does not hit hidden levels either.
+ *
+ * Switching levels happens only after the camera has moved a fraction
+ * of the range past the boundary between two levels so an object
+ * near the boundary does not flicker between them. The same holds at
+ * the smallest range, between showing no level and the first one.
+ *
+ * @see FrustumCuller
+ */
+class LODGroup : public Component
+{
+public:
+    LODGroup();
+
+    static long long getComponentType() { return COMPONENT_TYPE_LOD_GROUP; }
+
+    /**
+     * Add a level which is shown when the camera is farther than
+     * the given distance and closer than the next larger range.
+     * @param range         minimum distance from the camera
+     * @param sceneObject   child of the owner shown in this range
+     */
+    void addRange(float range, SceneObject* sceneObject);
+
+    /**
+     * Set the fraction of the range the camera must move past
+     * a level boundary before the level changes.
+     */
+    void setHysteresis(float hysteresis);
+
+    float getHysteresis() const { return mHysteresis; }
+
+    /**
+     * @return true if the scene object is shown at one of the levels
+     */
+    bool hasLevel(const SceneObject* sceneObject) const;
+
+    /**
+     * @return false if the scene object is one of the levels
+     *         and it is not the selected one, true otherwise
+     */
+    bool isSelected(const SceneObject* sceneObject) const;
+
+    /**
+     * Select the level to show for a camera position.
+     * The bounds of the owner must be up to date,
+     * so those of the levels are too.
+     * @param cameraPosition    camera position in world coordinates
+     * @return scene object of the selected level, null if the
+     *         camera is closer than the smallest range
+     */
+    const SceneObject* selectLevel(const glm::vec3& cameraPosition);
+
+    /**
+     * @return the scene object of the level selected last,
+     *         null if no level is shown
+     */
+    const SceneObject* selected() const { return mSelected; }
+
+    virtual void set_owner_object(SceneObject* owner_object);
+    virtual void set_enable(bool enable);
+
+private:
+    LODGroup(const LODGroup&) = delete;
+    LODGroup(LODGroup&&) = delete;
+    LODGroup& operator=(const LODGroup&) = delete;
+    LODGroup& operator=(LODGroup&&) = delete;
+
+    void updateBounds();
+
+    static const int NOT_SELECTED = -2;   // no level selected since the levels changed
+
+    struct Level
+    {
+        float           Range;
+        float           Enter;      // squared distance to switch to this level from a closer one
+        float           Leave;      // squared distance to switch to a closer level
+        SceneObject*    Object;
+    };
+
+    mutable std::mutex  mLock;
+    std::vector<Level>  mLevels;    // sorted by range
+    float               mHysteresis;
+    int                 mCurrent;   // index of the selected level, -1 if none, NOT_SELECTED
+    const SceneObject*  mSelected;
+};
+
+}
+#endif
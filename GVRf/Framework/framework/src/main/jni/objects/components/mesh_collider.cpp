@@ -32,19 +32,22 @@ namespace gvr
 {
     MeshCollider::MeshCollider(Mesh* mesh) :
             Collider(getComponentType()), mesh_(mesh), pickCoordinates_(false),
-            useMeshBounds_(false)
+            useMeshBounds_(false),
+            boundsVertices_(NULL), boundsVersion_(-1)
     {
     }
 
     MeshCollider::MeshCollider(Mesh* mesh, bool pickCoordinates) :
             Collider(getComponentType()), mesh_(mesh), pickCoordinates_(pickCoordinates),
-            useMeshBounds_(false)
+            useMeshBounds_(false),
+            boundsVertices_(NULL), boundsVersion_(-1)
     {
     }
 
     MeshCollider::MeshCollider(bool useMeshBounds) :
             Collider(getComponentType()), mesh_(NULL), pickCoordinates_(false),
-            useMeshBounds_(useMeshBounds)
+            useMeshBounds_(useMeshBounds),
+            boundsVertices_(NULL), boundsVersion_(-1)
     {
     }
 
@@ -266,38 +269,37 @@ static void populateSurfaceCoords(const Mesh& mesh, ColliderData& colliderData)
 
 /*
  * Hit test the input ray against the triangles of the given mesh.
+ * The bounding volume hierarchy of the mesh is used to
+ * avoid testing triangles the ray cannot reach.
  * @param mesh  mesh to hit test
  * @param rayStart  start of the pick ray in model coordinates
  * @param rayDir    direction of the pick ray in model coordinates
  * @param pickCoordinates whether or not coordinate picking info will be generated
  * @return ColliderData with the hit point and distance in model coordinates
  */
-    ColliderData MeshCollider::isHit(const Mesh& mesh, const glm::vec3& rayStart, const glm::vec3& rayDir, bool pickCoordinates)
+    ColliderData MeshCollider::isHit(Mesh& mesh, const glm::vec3& rayStart, const glm::vec3& rayDir, bool pickCoordinates)
     {
         ColliderData data;
-        if (mesh.getVertexCount() > 0)
+        std::shared_ptr<const MeshBVH> bvh = mesh.getBVH();
+
+        if (bvh)
         {
-            mesh.forAllTriangles([&data, rayStart, rayDir](int iter, const float* v1, const float* v2, const float* v3) mutable
+            glm::vec3 hitPos;
+            int faceIndex;
+            /*
+             * Compute the point where the ray penetrates the mesh in
+             * the coordinate space of the mesh. The hit point will
+             * be in mesh coordinates as will the distance.
+             */
+            float distance = bvh->intersect(rayStart, rayDir, hitPos, faceIndex);
+            if (distance > 0)
             {
-                /*
-                 * Compute the point where the ray penetrates the mesh in
-                 * the coordinate space of the mesh. The hit point will
-                 * be in mesh coordinates as will the distance.
-                 */
-                glm::vec3 hitPos;
-                glm::vec3 A(v1[0], v1[1], v1[2]);
-                glm::vec3 B(v2[0], v2[1], v2[2]);
-                glm::vec3 C(v3[0], v3[1], v3[2]);
-                float distance = rayTriangleIntersect(hitPos, rayStart, rayDir, A, B, C);
-                if ((distance > 0) && (distance < data.Distance))
-                {
-                    data.IsHit = true;
-                    data.HitPosition = hitPos;
-                    data.Distance = distance;
-                    data.FaceIndex = iter;
-                }
-            });
-            if(pickCoordinates && data.IsHit)
+                data.IsHit = true;
+                data.HitPosition = hitPos;
+                data.Distance = distance;
+                data.FaceIndex = faceIndex;
+            }
+            if (pickCoordinates && data.IsHit)
             {
                 populateSurfaceCoords(mesh, data);
             }
@@ -351,76 +353,103 @@ static void populateSurfaceCoords(const Mesh& mesh, ColliderData& colliderData)
     }
 
     /*
-     * Find the vertex in the mesh closest to the center the input sphere
+     * Find the vertex in the mesh closest to the center the input sphere.
+     * Meshes without triangles have no hierarchy, every vertex is tested.
      * @param mesh      mesh with vertices to compare
      * @param sphere    sphere center and radius
      */
-    ColliderData MeshCollider::isHit(const Mesh& mesh, const float sphere[])
+    ColliderData MeshCollider::isHit(Mesh& mesh, const float sphere[])
     {
         ColliderData data;
-        float minDist = std::numeric_limits<float>::infinity();
+        std::shared_ptr<const MeshBVH> bvh = mesh.getBVH();
+
+        if (!bvh)
+        {
+            float best = sphere[3] * sphere[3];
+
+            mesh.forAllVertices("a_position", [&](int vertIndex, const float* vertex)
+            {
+                glm::vec3 h(vertex[0] - sphere[0], vertex[1] - sphere[1], vertex[2] - sphere[2]);
+                float dist2 = glm::dot(h, h);
 
-        mesh.forAllVertices("a_position", [minDist, sphere, data](int vertIndex, const float* vertex) mutable
+                if (dist2 < best)
+                {
+                    best = dist2;
+                    data.IsHit = true;
+                    data.HitPosition = glm::vec3(vertex[0], vertex[1], vertex[2]);
+                    data.FaceIndex = vertIndex;
+                }
+            });
+        }
+        else
         {
-            float x = vertex[0] - sphere[0];
-            float y = vertex[1] - sphere[1];
-            float z = vertex[2] - sphere[2];
-            float dist = (x * x) + (y * y) + (z * z);
+            glm::vec3 hitPos;
+            int vertIndex;
+            float dist = bvh->closestVertex(sphere, hitPos, vertIndex);
 
-            dist = sqrt(dist);
-            if ((dist < sphere[3]) && (dist < minDist)) // bounding sphere itersects this sphere?
+            if (dist >= 0)                      // bounding sphere intersects this sphere?
             {
                 data.IsHit = true;
-                data.HitPosition.x = vertex[0];         // vertex that was hit
-                data.HitPosition.y = vertex[1];
-                data.HitPosition.z = vertex[2];
-                data.FaceIndex = vertIndex;             // index of vertex that was hit
-                minDist = dist;
+                data.HitPosition = hitPos;      // vertex that was hit
+                data.FaceIndex = vertIndex;     // index of vertex that was hit
             }
-        });
+        }
         return data;
     }
 
-    float MeshCollider::rayTriangleIntersect(glm::vec3& hitPos, const glm::vec3& rayStart,
-                                             const glm::vec3& rayDir,
-                                             const glm::vec3& V1, const glm::vec3& V2,
-                                             const glm::vec3& V3)
+    /*
+     * Compute the world bounds of the collider from
+     * the bounding volume of the mesh it uses.
+     * The vertices the bounds were computed from are
+     * remembered so edits to them can be detected.
+     * @param owner     SceneObject which owns this collider.
+     * @param bounds    gets the bounds in world coordinates
+     */
+    bool MeshCollider::getWorldBounds(SceneObject* owner, BoundingVolume& bounds)
     {
-        glm::vec3 e1(V2 - V1);
-        glm::vec3 e2(V3 - V1);
-        glm::vec3 P = glm::cross(rayDir, e2);
-        glm::vec3 T(glm::vec3(rayStart) - V1);
-        float det = glm::dot(e1, P);
-        const float EPSILON = 0.00001f;
-
-        if (det > -EPSILON && det < EPSILON)
-        {
-            return -1;
-        }
-
-        float inv_det = 1.0f / det;
-        float u = glm::dot(T, P) * inv_det;
+        Mesh* mesh = boundsMesh(owner);
+        Transform* t = owner->transform();
 
-        if (u < 0.0f || u > 1.0f)
+        if ((mesh == NULL) || (t == NULL))
         {
-            return -1;
+            boundsVertices_ = NULL;
+            return false;
         }
+        boundsVertices_ = mesh->getVertexBuffer();
+        boundsVersion_ = boundsVertices_->getPositionVersion();
+        bounds.transform(mesh->getBoundingVolume(), t->getModelMatrix());
+        return true;
+    }
 
-        glm::vec3 Q = glm::cross(T, e1);
-        float v = glm::dot(glm::vec3(rayDir), Q) * inv_det;
+    /*
+     * Returns true if the vertex positions of the mesh
+     * have changed since the world bounds were computed.
+     * @param owner     SceneObject which owns this collider.
+     */
+    bool MeshCollider::geometryChanged(SceneObject* owner)
+    {
+        Mesh* mesh = boundsMesh(owner);
 
-        if (v < 0.0f || (u + v) > 1.0f)
+        if ((mesh == NULL) || (boundsVertices_ == NULL))
         {
-            return -1;
+            return false;
         }
+        const VertexBuffer* vbuf = mesh->getVertexBuffer();
+        return (vbuf != boundsVertices_) || (vbuf->getPositionVersion() != boundsVersion_);
+    }
 
-        float t = glm::dot(e2, Q) * inv_det;
+    /*
+     * Get the mesh the bounds of the collider come from,
+     * its own mesh or that of the render data of the owner.
+     */
+    Mesh* MeshCollider::boundsMesh(SceneObject* owner) const
+    {
+        RenderData* rd = owner->render_data();
 
-        if (t > EPSILON)
+        if ((mesh_ == NULL) && (rd != NULL))
         {
-            hitPos = (1.0f - u - v) * V1 + u * V2 + v * V3;
-            return t;
+            return rd->mesh();
         }
-        return -1;
+        return mesh_;
     }
 }
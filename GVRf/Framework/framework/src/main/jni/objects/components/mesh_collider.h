@@ -27,6 +27,7 @@
 
 namespace gvr {
 class Mesh;
+class VertexBuffer;
 class BoundingVolume;
 
 class MeshCollider: public Collider {
@@ -46,6 +47,7 @@ public:
 
     void set_mesh(Mesh* mesh) {
         mesh_ = mesh;
+        invalidateBounds();
     }
 
     bool pickCoordinatesEnabled(){
@@ -54,22 +56,27 @@ public:
 
     ColliderData isHit(SceneObject* owner, const float sphere[]);
     ColliderData isHit(SceneObject* owner, const glm::vec3& rayStart, const glm::vec3& rayDir);
+    bool getWorldBounds(SceneObject* owner, BoundingVolume& bounds);
+    bool geometryChanged(SceneObject* owner);
     static ColliderData isHit(const BoundingVolume& bounds, const glm::vec3& rayStart, const glm::vec3& rayDir);
     static ColliderData isHit(const BoundingVolume& bounds, const float sphere[]);
-    static ColliderData isHit(const Mesh& mesh, const float sphere[]);
+    static ColliderData isHit(Mesh& mesh, const float sphere[]);
 
 private:
     MeshCollider(const MeshCollider& mesh_collider) = delete;
     MeshCollider(MeshCollider&& mesh_collider) = delete;
     MeshCollider& operator=(const MeshCollider& mesh_collider) = delete;
     MeshCollider& operator=(MeshCollider&& mesh_collider) = delete;
-    static ColliderData isHit(const Mesh& mesh, const glm::vec3& rayStart, const glm::vec3& rayDir, bool pickCoordinates);
-    static float rayTriangleIntersect(glm::vec3& hitPos, const glm::vec3& rayStart, const glm::vec3& rayDir,
-                               const glm::vec3& V1, const glm::vec3& V2, const glm::vec3& V3);
+    static ColliderData isHit(Mesh& mesh, const glm::vec3& rayStart, const glm::vec3& rayDir, bool pickCoordinates);
+    Mesh* boundsMesh(SceneObject* owner) const;
 private:
     bool useMeshBounds_;
     bool pickCoordinates_;
     Mesh* mesh_;
+
+    // vertices the world bounds were computed from
+    const VertexBuffer* boundsVertices_;
+    int boundsVersion_;
 };
 }
 #endif
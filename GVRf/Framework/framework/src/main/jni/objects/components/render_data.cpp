@@ -19,6 +19,7 @@
 #include "util/jni_utils.h"
 #include "objects/scene.h"
 #include "shaders/shader.h"
+#include "util/gvr_profiler.h"
 #include <glslang/Include/Common.h> //@todo remove; for to_string
 
 namespace gvr {
@@ -83,7 +84,13 @@ void RenderData::set_mesh(Mesh* mesh)
         SceneObject* owner = owner_object();
         if (owner)
         {
+            Collider* collider = static_cast<Collider*>(owner->getComponent(Collider::getComponentType()));
+
             owner->dirtyHierarchicalBoundingVolume();
+            if (collider)
+            {
+                collider->invalidateBounds();
+            }
         }
     }
 }
@@ -115,11 +122,6 @@ void RenderData::adjustRenderingOrderForTransparency(bool hasAlpha)
     }
 }
 
-void RenderData::setCameraDistanceLambda(std::function<float()> func)
-{
-    cameraDistanceLambda_ = func;
-}
-
 void RenderData::setStencilFunc(int func, int ref, int mask) {
     stencilFuncFunc_= func;
     stencilFuncRef_ = ref;
@@ -146,6 +148,7 @@ void RenderData::setStencilTest(bool flag) {
  */
 void RenderData::bindShader(JNIEnv* env, jobject localSceneObject, bool isMultiview)
 {
+    Profiler::Scope scope(Profiler::JNI_UPCALL);
     env->CallVoidMethod(bindShaderObject_, bindShaderMethod_, localSceneObject, isMultiview);
 }
 
@@ -232,6 +235,7 @@ const std::string& RenderData::getHashCode()
         render_data_string.append(std::to_string(dest_alpha_blend_func_));
         render_data_string.append(std::to_string(mesh_->getVertexBuffer()->getDescriptor()));
         hash_code = render_data_string;
+        hash_value_ = std::hash<std::string>()(hash_code);
         hash_code_dirty_ = false;
     }
     return hash_code;
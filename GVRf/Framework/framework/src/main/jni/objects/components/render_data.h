@@ -341,16 +341,20 @@ public:
         return render_data_flags.draw_mode_;
     }
 
-    float camera_distance()
+    float camera_distance() const
     {
-        if (nullptr != cameraDistanceLambda_)
-        {
-            camera_distance_ = cameraDistanceLambda_();
-            cameraDistanceLambda_ = nullptr;
-        }
         return camera_distance_;
     }
 
+    /*
+     * Set the squared distance from the camera used for sorting.
+     * It is computed during culling for the visible render data.
+     */
+    void set_camera_distance(float distance)
+    {
+        camera_distance_ = distance;
+    }
+
     void set_draw_mode(GLenum draw_mode)
     {
         render_data_flags.draw_mode_ = draw_mode;
@@ -366,7 +370,16 @@ public:
 
     int             get_shader(bool useMultiview =false, int pass =0) const { return render_pass_list_[pass]->get_shader(useMultiview); }
     const std::string&     getHashCode();
-    void            setCameraDistanceLambda(std::function<float()> func);
+
+    /*
+     * Hash of the render state string from getHashCode.
+     * Render data with the same state have the same value.
+     */
+    size_t getHashValue()
+    {
+        getHashCode();
+        return hash_value_;
+    }
 
     void setStencilFunc(int func, int ref, int mask);
 
@@ -405,6 +418,7 @@ protected:
     UniformBlock* bones_ubo_;
     Batch* batch_;
     std::string hash_code;
+    size_t hash_value_ = 0;
     std::vector<RenderPass*> render_pass_list_;
     int source_alpha_blend_func_;
     int dest_alpha_blend_func_;
@@ -414,9 +428,8 @@ protected:
     float offset_units_;
     float sample_coverage_;
 
-    float camera_distance_;
+    float camera_distance_ = 0;
     TextureCapturer *texture_capturer;
-    std::function<float()> cameraDistanceLambda_ = nullptr;
 
     int stencilFuncFunc_ = 0;
     int stencilFuncRef_ = 0;
@@ -105,7 +105,7 @@ void RenderTarget::cullFromCamera(Scene* scene, jobject javaSceneObject, Camera*
 
     renderer->cullFromCamera(scene, javaSceneObject, camera,shader_manager, mRenderDataVector.get(),mRenderState.is_multiview);
     scene->getLights().shadersRebuilt();
-    renderer->state_sort(mRenderDataVector.get());
+    renderer->state_sort(mRenderDataVector.get(), mRenderSorter);
 }
 
 RenderTarget::~RenderTarget()
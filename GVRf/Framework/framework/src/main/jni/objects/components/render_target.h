@@ -77,6 +77,7 @@ protected:
     RenderState     mRenderState;
     RenderTexture*  mRenderTexture = nullptr;
     std::shared_ptr<std::vector<RenderData*>> mRenderDataVector;
+    RenderSorter    mRenderSorter;
 };
 
 }
@@ -200,4 +200,46 @@ ColliderData SphereCollider::isHit(const glm::mat4& model_matrix, const glm::vec
     }
     return hitData;
 }
+
+/*
+ * Compute the world bounds of the sphere.
+ * The center and radius are determined the same way as
+ * they are for hit testing.
+ * @param owner     SceneObject which owns this collider.
+ * @param bounds    gets the bounds in world coordinates
+ */
+bool SphereCollider::getWorldBounds(SceneObject* owner, BoundingVolume& bounds)
+{
+    glm::vec3   sphCenter(0, 0, 0);
+    float       radius = radius_;
+    RenderData* rd = owner->render_data();
+    Transform*  t = owner->transform();
+    BoundingVolume sphere;
+
+    if (t == NULL)
+    {
+        return false;
+    }
+    if (rd != NULL)
+    {
+        Mesh* mesh = rd->mesh();
+        if (mesh != NULL)
+        {
+            const BoundingVolume& meshbv = mesh->getBoundingVolume();
+            sphCenter = meshbv.center();
+            if (radius <= 0)
+            {
+                radius = meshbv.radius();
+            }
+        }
+    }
+    if (radius <= 0)
+    {
+        radius = 1;
+    }
+    sphere.expand(sphCenter + glm::vec3(radius));
+    sphere.expand(sphCenter - glm::vec3(radius));
+    bounds.transform(sphere, t->getModelMatrix());
+    return true;
+}
 }
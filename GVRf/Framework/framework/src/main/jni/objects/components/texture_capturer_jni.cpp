@@ -6,6 +6,7 @@
 #include "shaders/shader_manager.h"
 #include "util/gvr_jni.h"
 #include "util/gvr_log.h"
+#include "util/gvr_profiler.h"
 #include "glm/gtc/type_ptr.hpp"
 
 namespace gvr {
@@ -82,6 +83,7 @@ Java_org_gearvrf_NativeTextureCapturer_callbackFromNative(JNIEnv * env,
                 "callbackFromNative", "(ILjava/lang/String;)V");
     }
 
+    Profiler::Scope scope(Profiler::JNI_UPCALL);
     jstring strInfo = info ? env->NewStringUTF(info) : 0;
     env->CallVoidMethod(obj, sCallbackMethod, msg, strInfo);
 }
@@ -55,18 +55,8 @@ void Transform::invalidate(bool rotationUpdated)
     invalidate();
     if (rotationUpdated)
     {
-        // scale rotation_ if needed to avoid overflow
-        static const float threshold = sqrt(FLT_MAX) / 2.0f;
-        static const float scale_factor = 0.5f / sqrt(FLT_MAX);
         mutex_.lock();
-        if (rotation_.w > threshold || rotation_.x > threshold ||
-            rotation_.y > threshold || rotation_.z > threshold)
-        {
-            rotation_.w *= scale_factor;
-            rotation_.x *= scale_factor;
-            rotation_.y *= scale_factor;
-            rotation_.z *= scale_factor;
-        }
+        rescaleRotation();
         mutex_.unlock();
     }
     if (owner)
@@ -76,6 +66,25 @@ void Transform::invalidate(bool rotationUpdated)
     }
 }
 
+/*
+ * Scale rotation_ if needed to avoid overflow.
+ * The caller must hold the mutex.
+ */
+void Transform::rescaleRotation()
+{
+    static const float threshold = sqrt(FLT_MAX) / 2.0f;
+    static const float scale_factor = 0.5f / sqrt(FLT_MAX);
+
+    if (rotation_.w > threshold || rotation_.x > threshold ||
+        rotation_.y > threshold || rotation_.z > threshold)
+    {
+        rotation_.w *= scale_factor;
+        rotation_.x *= scale_factor;
+        rotation_.y *= scale_factor;
+        rotation_.z *= scale_factor;
+    }
+}
+
 glm::mat4 Transform::getModelMatrix(bool forceRecalculate) {
     if (!isModelMatrixValid() || forceRecalculate) {
         mutex_.lock();
@@ -118,6 +127,15 @@ glm::mat4 Transform::getLocalModelMatrix() {
 }
 
 void Transform::setModelMatrix(glm::mat4 matrix) {
+    setLocalMatrix(matrix);
+    invalidate(true);
+}
+
+/*
+ * Decompose a local matrix into position, rotation and scale
+ * without invalidating the transform.
+ */
+void Transform::setLocalMatrix(const glm::mat4& matrix) {
     glm::vec3 scale;
     glm::quat rotation;
     glm::vec3 translation;
@@ -130,7 +148,6 @@ void Transform::setModelMatrix(glm::mat4 matrix) {
     scale_ = scale;
     rotation_ = glm::conjugate(rotation);
     mutex_.unlock();
-    invalidate(true);
 }
 
 void Transform::translate(float x, float y, float z) {
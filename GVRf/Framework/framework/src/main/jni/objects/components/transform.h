@@ -248,6 +248,11 @@ public:
     void setModelMatrix(glm::mat4 mat);
 
 private:
+    friend class TransformBatch;
+
+    void rescaleRotation();
+    void setLocalMatrix(const glm::mat4& matrix);
+
     Transform(const Transform& transform) = delete;
     Transform(Transform&& transform) = delete;
     Transform& operator=(const Transform& transform) = delete;
@@ -0,0 +1,266 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Reads and writes a set of transforms at once.
+ ***************************************************************************/
+
+#include <cstring>
+#include <unordered_set>
+#include "transform_batch.h"
+#include "transform.h"
+#include "objects/scene_object.h"
+#include "glm/gtc/type_ptr.hpp"
+
+namespace gvr {
+
+int TransformBatch::componentSize(int attribute)
+{
+    switch (attribute)
+    {
+        case POSITION:      return 3;
+        case ROTATION:      return 4;
+        case SCALE:         return 3;
+        case LOCAL_TRS:     return 10;
+        case LOCAL_MATRIX:  return 16;
+        case MODEL_MATRIX:  return 16;
+        default:            return 0;
+    }
+}
+
+void TransformBatch::add(Transform* transform)
+{
+    mEntries.push_back({ transform, nullptr, true });
+    mRootsValid = false;
+}
+
+void TransformBatch::remove(Transform* transform)
+{
+    for (auto it = mEntries.begin(); it != mEntries.end(); ++it)
+    {
+        if (it->Trans == transform)
+        {
+            mEntries.erase(it);
+            mRootsValid = false;
+            return;
+        }
+    }
+}
+
+void TransformBatch::swapRemove(int index)
+{
+    if ((index >= 0) && (index < (int) mEntries.size()))
+    {
+        mEntries[index] = mEntries.back();
+        mEntries.pop_back();
+        mRootsValid = false;
+    }
+}
+
+void TransformBatch::clear()
+{
+    mEntries.clear();
+    mRootsValid = false;
+}
+
+bool TransformBatch::read(int attribute, float* dst)
+{
+    const int n = mEntries.size();
+
+    switch (attribute)
+    {
+        case POSITION:
+        for (int i = 0; i < n; ++i, dst += 3)
+        {
+            Transform* t = mEntries[i].Trans;
+            std::lock_guard<std::mutex> lock(t->mutex_);
+            dst[0] = t->position_.x;
+            dst[1] = t->position_.y;
+            dst[2] = t->position_.z;
+        }
+        return true;
+
+        case ROTATION:
+        for (int i = 0; i < n; ++i, dst += 4)
+        {
+            Transform* t = mEntries[i].Trans;
+            std::lock_guard<std::mutex> lock(t->mutex_);
+            dst[0] = t->rotation_.w;
+            dst[1] = t->rotation_.x;
+            dst[2] = t->rotation_.y;
+            dst[3] = t->rotation_.z;
+        }
+        return true;
+
+        case SCALE:
+        for (int i = 0; i < n; ++i, dst += 3)
+        {
+            Transform* t = mEntries[i].Trans;
+            std::lock_guard<std::mutex> lock(t->mutex_);
+            dst[0] = t->scale_.x;
+            dst[1] = t->scale_.y;
+            dst[2] = t->scale_.z;
+        }
+        return true;
+
+        case LOCAL_TRS:
+        for (int i = 0; i < n; ++i, dst += 10)
+        {
+            Transform* t = mEntries[i].Trans;
+            std::lock_guard<std::mutex> lock(t->mutex_);
+            dst[0] = t->position_.x;
+            dst[1] = t->position_.y;
+            dst[2] = t->position_.z;
+            dst[3] = t->rotation_.w;
+            dst[4] = t->rotation_.x;
+            dst[5] = t->rotation_.y;
+            dst[6] = t->rotation_.z;
+            dst[7] = t->scale_.x;
+            dst[8] = t->scale_.y;
+            dst[9] = t->scale_.z;
+        }
+        return true;
+
+        case LOCAL_MATRIX:
+        for (int i = 0; i < n; ++i, dst += 16)
+        {
+            glm::mat4 m = mEntries[i].Trans->getLocalModelMatrix();
+            memcpy(dst, glm::value_ptr(m), 16 * sizeof(float));
+        }
+        return true;
+
+        case MODEL_MATRIX:
+        for (int i = 0; i < n; ++i, dst += 16)
+        {
+            glm::mat4 m = mEntries[i].Trans->getModelMatrix();
+            memcpy(dst, glm::value_ptr(m), 16 * sizeof(float));
+        }
+        return true;
+
+        default:
+        return false;
+    }
+}
+
+bool TransformBatch::write(int attribute, const float* src)
+{
+    const int n = mEntries.size();
+    const int size = componentSize(attribute);
+
+    if ((size == 0) || (attribute == MODEL_MATRIX))
+    {
+        return false;
+    }
+    /*
+     * Invalidating a transform invalidates the subtree below its owner,
+     * so only the transforms without an ancestor in the batch are invalidated.
+     */
+    updateRoots();
+    for (int i = 0; i < n; ++i, src += size)
+    {
+        Transform* t = mEntries[i].Trans;
+
+        if (attribute == LOCAL_MATRIX)
+        {
+            t->setLocalMatrix(glm::make_mat4(src));
+        }
+        else
+        {
+            std::lock_guard<std::mutex> lock(t->mutex_);
+            setValues(t, attribute, src);
+        }
+        if (mEntries[i].IsRoot)
+        {
+            t->invalidate(false);
+        }
+    }
+    return true;
+}
+
+/*
+ * Set the position, rotation and / or scale of a transform.
+ * The caller must hold the mutex of the transform.
+ */
+void TransformBatch::setValues(Transform* t, int attribute, const float* src)
+{
+    switch (attribute)
+    {
+        case POSITION:
+        t->position_ = glm::vec3(src[0], src[1], src[2]);
+        break;
+
+        case ROTATION:
+        t->rotation_ = glm::quat(src[0], src[1], src[2], src[3]);
+        t->rescaleRotation();
+        break;
+
+        case SCALE:
+        t->scale_ = glm::vec3(src[0], src[1], src[2]);
+        break;
+
+        case LOCAL_TRS:
+        t->position_ = glm::vec3(src[0], src[1], src[2]);
+        t->rotation_ = glm::quat(src[3], src[4], src[5], src[6]);
+        t->scale_ = glm::vec3(src[7], src[8], src[9]);
+        t->rescaleRotation();
+        break;
+    }
+}
+
+/*
+ * Find the transforms which do not have an ancestor in the batch.
+ * This is only done again when the batch or the scene graph changes.
+ */
+void TransformBatch::updateRoots()
+{
+    unsigned int version = SceneObject::hierarchyVersion();
+    bool valid = mRootsValid && (version == mHierarchyVersion);
+
+    for (auto it = mEntries.begin(); valid && (it != mEntries.end()); ++it)
+    {
+        valid = (it->Owner == it->Trans->owner_object());
+    }
+    if (valid)
+    {
+        return;
+    }
+    std::unordered_set<SceneObject*> owners;
+
+    for (auto it = mEntries.begin(); it != mEntries.end(); ++it)
+    {
+        it->Owner = it->Trans->owner_object();
+        if (it->Owner)
+        {
+            owners.insert(it->Owner);
+        }
+    }
+    for (auto it = mEntries.begin(); it != mEntries.end(); ++it)
+    {
+        it->IsRoot = true;
+        for (SceneObject* o = it->Owner ? it->Owner->parent() : nullptr; o; o = o->parent())
+        {
+            if (owners.count(o))
+            {
+                it->IsRoot = false;
+                break;
+            }
+        }
+    }
+    mHierarchyVersion = version;
+    mRootsValid = true;
+}
+
+}
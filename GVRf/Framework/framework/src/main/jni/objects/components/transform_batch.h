@@ -0,0 +1,113 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Reads and writes a set of transforms at once.
+ ***************************************************************************/
+
+#ifndef TRANSFORM_BATCH_H_
+#define TRANSFORM_BATCH_H_
+
+#include <vector>
+#include "objects/hybrid_object.h"
+
+namespace gvr {
+class Transform;
+class SceneObject;
+
+/**
+ * Copies positions, rotations, scales or matrices of a list of
+ * transforms to and from a float array in one call.
+ *
+ * The values of each transform are packed one after the other:
+ * - POSITION      3 floats x, y, z
+ * - ROTATION      4 floats w, x, y, z
+ * - SCALE         3 floats x, y, z
+ * - LOCAL_TRS     10 floats, the position, rotation and scale above
+ * - LOCAL_MATRIX  16 floats, column major
+ * - MODEL_MATRIX  16 floats, column major, read only
+ *
+ * After a write each changed subtree of the scene graph is
+ * invalidated once. Transforms which have an ancestor in the
+ * batch are invalidated with that ancestor. Writing LOCAL_TRS
+ * replaces three setter calls and three invalidations.
+ */
+class TransformBatch : public HybridObject
+{
+public:
+    enum Attribute
+    {
+        POSITION = 0,
+        ROTATION,
+        SCALE,
+        LOCAL_TRS,
+        LOCAL_MATRIX,
+        MODEL_MATRIX
+    };
+
+    TransformBatch() : mHierarchyVersion(0), mRootsValid(false) { }
+
+    static int  componentSize(int attribute);
+
+    void        add(Transform* transform);
+    void        remove(Transform* transform);
+
+    /**
+     * Remove the transform at an index by moving the
+     * last transform into its place.
+     * @param index index of the transform to remove
+     */
+    void        swapRemove(int index);
+    void        clear();
+    int         size() const { return mEntries.size(); }
+
+    /**
+     * Copy an attribute of all the transforms into an array.
+     * @param attribute attribute to copy
+     * @param dst       destination with room for size() * componentSize(attribute) floats
+     * @return false if the attribute is not valid
+     */
+    bool        read(int attribute, float* dst);
+
+    /**
+     * Set an attribute of all the transforms from an array.
+     * @param attribute attribute to set, MODEL_MATRIX cannot be written
+     * @param src       source with size() * componentSize(attribute) floats
+     * @return false if the attribute is not valid
+     */
+    bool        write(int attribute, const float* src);
+
+private:
+    TransformBatch(const TransformBatch&) = delete;
+    TransformBatch& operator=(const TransformBatch&) = delete;
+
+    void        updateRoots();
+    static void setValues(Transform* t, int attribute, const float* src);
+
+    struct Entry
+    {
+        Transform*   Trans;
+        SceneObject* Owner;     // owner when the roots were found
+        bool         IsRoot;    // no ancestor in the batch
+    };
+
+    std::vector<Entry>  mEntries;
+    unsigned int        mHierarchyVersion;
+    bool                mRootsValid;
+};
+
+}
+#endif
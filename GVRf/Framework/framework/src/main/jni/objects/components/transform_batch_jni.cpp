@@ -0,0 +1,160 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "transform_batch.h"
+
+#include "util/gvr_jni.h"
+#include "util/gvr_log.h"
+
+namespace gvr {
+extern "C" {
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeTransformBatch_ctor(JNIEnv * env, jobject obj);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_add(JNIEnv * env, jobject obj,
+        jlong jbatch, jlong jtransform);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_remove(JNIEnv * env, jobject obj,
+        jlong jbatch, jlong jtransform);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_clear(JNIEnv * env, jobject obj,
+        jlong jbatch);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_set(JNIEnv * env, jobject obj,
+        jlong jbatch, jlongArray jtransforms, jint count);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_edit(JNIEnv * env, jobject obj,
+        jlong jbatch, jlongArray jedits, jint count);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeTransformBatch_read(JNIEnv * env, jobject obj,
+        jlong jbatch, jint attribute, jobject jbuffer);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeTransformBatch_write(JNIEnv * env, jobject obj,
+        jlong jbatch, jint attribute, jobject jbuffer);
+}
+
+/*
+ * Get the address of a direct buffer if it can hold the
+ * attribute for every transform in the batch.
+ */
+static float* getBatchBuffer(JNIEnv* env, TransformBatch* batch, int attribute, jobject jbuffer)
+{
+    float* data = static_cast<float*>(env->GetDirectBufferAddress(jbuffer));
+    jlong capacity = env->GetDirectBufferCapacity(jbuffer);
+
+    if ((data == nullptr) || (capacity < (jlong) batch->size() * TransformBatch::componentSize(attribute)))
+    {
+        LOGE("TransformBatch: buffer is not direct or too small");
+        return nullptr;
+    }
+    return data;
+}
+
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_NativeTransformBatch_ctor(JNIEnv * env, jobject obj) {
+    return reinterpret_cast<jlong>(new TransformBatch());
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_add(JNIEnv * env, jobject obj,
+        jlong jbatch, jlong jtransform) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    batch->add(reinterpret_cast<Transform*>(jtransform));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_remove(JNIEnv * env, jobject obj,
+        jlong jbatch, jlong jtransform) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    batch->remove(reinterpret_cast<Transform*>(jtransform));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_clear(JNIEnv * env, jobject obj,
+        jlong jbatch) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    batch->clear();
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_set(JNIEnv * env, jobject obj,
+        jlong jbatch, jlongArray jtransforms, jint count) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    jlong* transforms = env->GetLongArrayElements(jtransforms, 0);
+
+    batch->clear();
+    for (int i = 0; i < count; ++i)
+    {
+        batch->add(reinterpret_cast<Transform*>(transforms[i]));
+    }
+    env->ReleaseLongArrayElements(jtransforms, transforms, JNI_ABORT);
+}
+
+/*
+ * Apply the additions and swap removals made in Java since the
+ * last call, two longs each: 0 and the transform to add or 1 and
+ * the index of the transform to replace with the last one.
+ */
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransformBatch_edit(JNIEnv * env, jobject obj,
+        jlong jbatch, jlongArray jedits, jint count) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    jlong* edits = env->GetLongArrayElements(jedits, 0);
+
+    for (int i = 0; i < count; ++i)
+    {
+        jlong value = edits[i * 2 + 1];
+
+        if (edits[i * 2] == 0)
+        {
+            batch->add(reinterpret_cast<Transform*>(value));
+        }
+        else
+        {
+            batch->swapRemove(static_cast<int>(value));
+        }
+    }
+    env->ReleaseLongArrayElements(jedits, edits, JNI_ABORT);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeTransformBatch_read(JNIEnv * env, jobject obj,
+        jlong jbatch, jint attribute, jobject jbuffer) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    float* data = getBatchBuffer(env, batch, attribute, jbuffer);
+    return (data != nullptr) && batch->read(attribute, data);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeTransformBatch_write(JNIEnv * env, jobject obj,
+        jlong jbatch, jint attribute, jobject jbuffer) {
+    TransformBatch* batch = reinterpret_cast<TransformBatch*>(jbatch);
+    float* data = getBatchBuffer(env, batch, attribute, jbuffer);
+    return (data != nullptr) && batch->write(attribute, data);
+}
+
+}
@@ -114,6 +114,14 @@ JNIEXPORT jfloatArray JNICALL
 Java_org_gearvrf_NativeTransform_getLocalModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform);
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_copyModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_copyLocalModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix);
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeTransform_setModelMatrix(JNIEnv * env,
         jobject obj, jlong jtransform, jfloatArray mat);
@@ -346,6 +354,22 @@ Java_org_gearvrf_NativeTransform_getLocalModelMatrix(JNIEnv * env,
     return jmatrix;
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_copyModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix) {
+    Transform* transform = reinterpret_cast<Transform*>(jtransform);
+    glm::mat4 matrix = transform->getModelMatrix();
+    env->SetFloatArrayRegion(jmatrix, 0, 16, glm::value_ptr(matrix));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeTransform_copyLocalModelMatrix(JNIEnv * env,
+        jobject obj, jlong jtransform, jfloatArray jmatrix) {
+    Transform* transform = reinterpret_cast<Transform*>(jtransform);
+    glm::mat4 matrix = transform->getLocalModelMatrix();
+    env->SetFloatArrayRegion(jmatrix, 0, 16, glm::value_ptr(matrix));
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeTransform_setModelMatrix(JNIEnv * env,
 		jobject obj, jlong jtransform, jfloatArray mat){
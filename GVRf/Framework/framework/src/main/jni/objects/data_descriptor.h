@@ -126,6 +126,21 @@ namespace gvr {
         const DataEntry* find(const char* name) const;
         DataEntry* find(const char* name);
 
+        /**
+         * Get the slot of a named entry.
+         * The slot does not change for the life of the descriptor
+         * and is the same for all descriptors made from the same string.
+         * Look it up once and use it to set the entry
+         * without searching for the name every time.
+         * @param name name of entry to find.
+         * @return slot of the entry, -1 if not found
+         * @see UniformBlock::setMat4(int, const glm::mat4&)
+         */
+        int getSlot(const char* name) const
+        {
+            return (name != nullptr) ? findName(name) : -1;
+        }
+
         /*
          * Get the number of bytes occupied by the named entry.
          * For vertex arrays, it is the number of bytes occupied
@@ -13,11 +13,12 @@
 namespace gvr {
 
     IndexBuffer::IndexBuffer(int bytesPerIndex, int count)
-    : mIndexCount(0),
-      mIndexData(NULL),
-      mIndexByteSize(0),
+    : mUpdateLock(),
       mIsDirty(false),
-      mUpdateLock()
+      mVersion(0),
+      mIndexByteSize(0),
+      mIndexCount(0),
+      mIndexData(NULL)
     {
         if (bytesPerIndex > 0)
         {
@@ -74,6 +75,7 @@ namespace gvr {
         dest = reinterpret_cast<unsigned short*>(mIndexData);
         memcpy(dest, src, srcSize * sizeof(short));
         mIsDirty = true;
+        ++mVersion;
         return true;
     }
 
@@ -99,6 +101,7 @@ namespace gvr {
         dest = reinterpret_cast<unsigned int*>(mIndexData);
         memcpy(dest, src, srcSize * sizeof(int));
         mIsDirty = true;
+        ++mVersion;
         return true;
     }
 
@@ -87,6 +87,13 @@ namespace gvr {
         bool    getShortVec(unsigned short* dest, int destSize) const;
 
         bool            isDirty() const { return mIsDirty; }
+
+        /**
+         * Return the number of times the index data has been updated.
+         * Unlike the dirty flag this is not reset when the
+         * indices are copied to the GPU.
+         */
+        int             getVersion() const { return mVersion; }
         virtual bool    bindBuffer(Shader*) = 0;
         virtual bool    updateGPU(Renderer*) = 0;
         void            dump() const;
@@ -97,6 +104,7 @@ namespace gvr {
 
         mutable std::mutex mUpdateLock;
         mutable bool    mIsDirty;
+        int     mVersion;           // incremented each time indices change
         int     mIndexByteSize;     // index size in bytes (either 2 or 4)
         int     mIndexCount;        // current number of vertices
         char*   mIndexData;         // index data buffer
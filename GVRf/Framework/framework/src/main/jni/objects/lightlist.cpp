@@ -23,6 +23,7 @@
 #include "objects/light.h"
 #include "objects/scene.h"
 #include "shaders/shader.h"
+#include "util/gvr_profiler.h"
 
 #define LIGHT_ADDED 1
 #define LIGHT_REMOVED 2
@@ -276,6 +277,7 @@ void LightList::useLights(Renderer* renderer, Shader* shader)
 
 void LightList::makeShadowMaps(Scene* scene, jobject jscene, ShaderManager* shaderManager)
 {
+    Profiler::Scope scope(Profiler::SHADOW_MAPS);
     std::lock_guard < std::recursive_mutex > lock(mLock);
     int layerIndex = 0;
     int numShadowMaps = 0;
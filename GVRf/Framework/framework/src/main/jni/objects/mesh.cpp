@@ -24,7 +24,13 @@ namespace gvr
     : mVertices(nullptr),
       mIndices(nullptr),
       have_bounding_volume_(false),
-      vertexBoneData_()
+      mBoundsVertices(nullptr),
+      mBoundsVertexVersion(-1),
+      vertexBoneData_(),
+      mBVHVertices(nullptr),
+      mBVHIndices(nullptr),
+      mBVHVertexVersion(-1),
+      mBVHIndexVersion(-1)
     {
         mVertices = Renderer::getInstance()->createVertexBuffer(descriptor, 0);
     }
@@ -32,7 +38,13 @@ namespace gvr
     Mesh::Mesh(VertexBuffer& vbuf)
     : mVertices(&vbuf), mIndices(nullptr),
       have_bounding_volume_(false),
-      vertexBoneData_()
+      mBoundsVertices(nullptr),
+      mBoundsVertexVersion(-1),
+      vertexBoneData_(),
+      mBVHVertices(nullptr),
+      mBVHIndices(nullptr),
+      mBVHVertexVersion(-1),
+      mBVHIndexVersion(-1)
     {
     }
 
@@ -62,23 +74,58 @@ namespace gvr
     }
 
 // an array of size:6 with Xmin, Ymin, Zmin and Xmax, Ymax, Zmax values
+// recomputed if the vertex positions have changed since
     const BoundingVolume &Mesh::getBoundingVolume()
     {
-        if (have_bounding_volume_)
+        if (have_bounding_volume_ &&
+            (mBoundsVertices == mVertices) &&
+            (mBoundsVertexVersion == mVertices->getPositionVersion()))
         {
             return bounding_volume;
         }
+        mBoundsVertices = mVertices;
+        mBoundsVertexVersion = mVertices->getPositionVersion();
         mVertices->getBoundingVolume(bounding_volume);
         have_bounding_volume_ = true;
         return bounding_volume;
     }
 
-    void Mesh::getTransformedBoundingBoxInfo(glm::mat4 *Mat, float* transformed_bounding_box)
+    std::shared_ptr<const MeshBVH> Mesh::getBVH()
     {
-        if (!have_bounding_volume_)
+        std::lock_guard<std::mutex> lock(mBVHLock);
+        int indexVersion = mIndices ? mIndices->getVersion() : 0;
+
+        if (mVertices == nullptr)
+        {
+            return nullptr;
+        }
+        if ((mBVHVertices == mVertices) &&
+            (mBVHIndices == mIndices) &&
+            (mBVHVertexVersion == mVertices->getPositionVersion()) &&
+            (mBVHIndexVersion == indexVersion))
+        {
+            return mBVH;
+        }
+        std::shared_ptr<MeshBVH> bvh = std::make_shared<MeshBVH>();
+
+        mBVHVertices = mVertices;
+        mBVHIndices = mIndices;
+        mBVHVertexVersion = mVertices->getPositionVersion();
+        mBVHIndexVersion = indexVersion;
+        if (bvh->build(*mVertices, mIndices))
         {
-            getBoundingVolume();
+            mBVH = bvh;
         }
+        else
+        {
+            mBVH.reset();
+        }
+        return mBVH;
+    }
+
+    void Mesh::getTransformedBoundingBoxInfo(glm::mat4 *Mat, float* transformed_bounding_box)
+    {
+        getBoundingVolume();
 
         glm::mat4 M = *Mat;
         float a, b;
@@ -22,6 +22,7 @@
 
 #include <map>
 #include <memory>
+#include <mutex>
 #include <vector>
 #include <string>
 #include <set>
@@ -36,6 +37,7 @@
 #include "objects/vertex_bone_data.h"
 #include "objects/vertex_buffer.h"
 #include "objects/index_buffer.h"
+#include "objects/mesh_bvh.h"
 #include "bounding_volume.h"
 
 namespace gvr {
@@ -87,6 +89,16 @@ public:
 
     const BoundingVolume& getBoundingVolume();
 
+    /*
+     * Get the bounding volume hierarchy for the triangles of this mesh.
+     * The hierarchy is built the first time it is requested and
+     * rebuilt if the vertex positions or indices have changed since.
+     * A shared pointer is returned so a caller may keep using
+     * the hierarchy while another thread replaces it.
+     * @return hierarchy or null if the mesh has no triangles
+     */
+    std::shared_ptr<const MeshBVH> getBVH();
+
     bool hasBones() const
     {
         return vertexBoneData_.getNumBones();
@@ -115,10 +127,20 @@ protected:
     VertexBuffer* mVertices;
     bool have_bounding_volume_;
     BoundingVolume bounding_volume;
+    const VertexBuffer* mBoundsVertices;    // vertex buffer the bounds were computed from
+    int mBoundsVertexVersion;
 
     // Bone data for the shader
     VertexBoneData vertexBoneData_;
     std::unordered_set<std::shared_ptr<u_short>> dirty_flags_;
+
+    // Picking hierarchy and the buffer state it was built from
+    std::mutex mBVHLock;
+    std::shared_ptr<const MeshBVH> mBVH;
+    const VertexBuffer* mBVHVertices;
+    const IndexBuffer* mBVHIndices;
+    int mBVHVertexVersion;
+    int mBVHIndexVersion;
 };
 }
 #endif
\ No newline at end of file
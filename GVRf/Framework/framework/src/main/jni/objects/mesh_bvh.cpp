@@ -0,0 +1,530 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <algorithm>
+#include <cmath>
+#include <limits>
+#include "mesh_bvh.h"
+#include "vertex_buffer.h"
+#include "index_buffer.h"
+#include "util/gvr_log.h"
+
+namespace gvr
+{
+    static const int BVH_MAX_DEPTH = 64;
+    static const int BVH_LEAF_SIZE = 4;         // always stop splitting at this many triangles
+    static const int BVH_MAX_LEAF_SIZE = 16;    // never keep more than this many in a leaf
+    static const int BVH_BIN_COUNT = 12;
+
+    static float halfArea(const glm::vec3& minCorner, const glm::vec3& maxCorner)
+    {
+        glm::vec3 e(maxCorner - minCorner);
+        return e.x * e.y + e.y * e.z + e.z * e.x;
+    }
+
+    bool MeshBVH::build(const VertexBuffer& vbuf, const IndexBuffer* ibuf)
+    {
+        int index, offset, size;
+
+        mNodes.clear();
+        mPositions.clear();
+        mTriangles.clear();
+        mFaceIDs.clear();
+        mAllVerticesUsed = true;
+        if (!vbuf.getInfo("a_position", index, offset, size))
+        {
+            return false;
+        }
+        const float* vertData = vbuf.getVertexData();
+        int nverts = vbuf.getVertexCount();
+        int stride = vbuf.getVertexSize();
+
+        if ((vertData == nullptr) || (nverts <= 0))
+        {
+            return false;
+        }
+        offset /= sizeof(float);
+        mPositions.resize(nverts);
+        for (int i = 0; i < nverts; ++i)
+        {
+            const float* v = vertData + (i * stride) + offset;
+            mPositions[i] = glm::vec3(v[0], v[1], v[2]);
+        }
+        if (ibuf && (ibuf->getIndexCount() > 0) && ibuf->getIndexData())
+        {
+            int n = ibuf->getIndexCount() - (ibuf->getIndexCount() % 3);
+
+            mTriangles.resize(n);
+            if (ibuf->getIndexSize() == 2)
+            {
+                const unsigned short* src = reinterpret_cast<const unsigned short*>(ibuf->getIndexData());
+                for (int i = 0; i < n; ++i)
+                {
+                    mTriangles[i] = src[i];
+                }
+            }
+            else
+            {
+                const unsigned int* src = ibuf->getIndexData();
+                for (int i = 0; i < n; ++i)
+                {
+                    mTriangles[i] = src[i];
+                }
+            }
+        }
+        else
+        {
+            int n = nverts - (nverts % 3);
+
+            mTriangles.resize(n);
+            for (int i = 0; i < n; ++i)
+            {
+                mTriangles[i] = i;
+            }
+        }
+        int ntris = mTriangles.size() / 3;
+        if (ntris == 0)
+        {
+            return false;
+        }
+        for (auto it = mTriangles.begin(); it != mTriangles.end(); ++it)
+        {
+            if ((*it < 0) || (*it >= nverts))
+            {
+                LOGE("MeshBVH: index %d out of range, mesh has %d vertices", *it, nverts);
+                mTriangles.clear();
+                return false;
+            }
+        }
+        /*
+         * Vertices which are in no triangle are not in any leaf,
+         * closestVertex has to test every vertex if there are some.
+         */
+        std::vector<bool> used(nverts, false);
+        int numUsed = 0;
+        for (auto it = mTriangles.begin(); it != mTriangles.end(); ++it)
+        {
+            if (!used[*it])
+            {
+                used[*it] = true;
+                ++numUsed;
+            }
+        }
+        mAllVerticesUsed = (numUsed == nverts);
+        /*
+         * Compute the bounds and centroid of each triangle.
+         * These are indexed by face ID so only mFaceIDs
+         * needs to be reordered while subdividing.
+         */
+        std::vector<glm::vec3> centroids(ntris);
+        std::vector<glm::vec3> minCorners(ntris);
+        std::vector<glm::vec3> maxCorners(ntris);
+
+        mFaceIDs.resize(ntris);
+        for (int f = 0; f < ntris; ++f)
+        {
+            const glm::vec3& A = mPositions[mTriangles[3 * f]];
+            const glm::vec3& B = mPositions[mTriangles[3 * f + 1]];
+            const glm::vec3& C = mPositions[mTriangles[3 * f + 2]];
+
+            minCorners[f] = glm::min(A, glm::min(B, C));
+            maxCorners[f] = glm::max(A, glm::max(B, C));
+            centroids[f] = (minCorners[f] + maxCorners[f]) * 0.5f;
+            mFaceIDs[f] = f;
+        }
+        mNodes.reserve(2 * (ntris / BVH_LEAF_SIZE) + 1);
+        mNodes.push_back(Node());
+        subdivide(0, 0, ntris, 0, centroids, minCorners, maxCorners);
+
+        /*
+         * Put the triangle indices in leaf order so each leaf
+         * references a contiguous range.
+         */
+        std::vector<int> sorted(mTriangles.size());
+        for (int i = 0; i < ntris; ++i)
+        {
+            int f = mFaceIDs[i];
+            sorted[3 * i] = mTriangles[3 * f];
+            sorted[3 * i + 1] = mTriangles[3 * f + 1];
+            sorted[3 * i + 2] = mTriangles[3 * f + 2];
+        }
+        mTriangles.swap(sorted);
+        return true;
+    }
+
+/*
+ * Split the triangles from first to first + count into two
+ * groups using the surface area heuristic evaluated at
+ * BVH_BIN_COUNT evenly spaced planes along the longest
+ * axis of the triangle centroids.
+ */
+    void MeshBVH::subdivide(int nodeIndex, int first, int count, int depth,
+                            std::vector<glm::vec3>& centroids,
+                            std::vector<glm::vec3>& minCorners,
+                            std::vector<glm::vec3>& maxCorners)
+    {
+        glm::vec3 nodeMin(std::numeric_limits<float>::max());
+        glm::vec3 nodeMax(-std::numeric_limits<float>::max());
+        glm::vec3 centerMin(nodeMin);
+        glm::vec3 centerMax(nodeMax);
+
+        for (int i = first; i < first + count; ++i)
+        {
+            int f = mFaceIDs[i];
+            nodeMin = glm::min(nodeMin, minCorners[f]);
+            nodeMax = glm::max(nodeMax, maxCorners[f]);
+            centerMin = glm::min(centerMin, centroids[f]);
+            centerMax = glm::max(centerMax, centroids[f]);
+        }
+        mNodes[nodeIndex].MinCorner = nodeMin;
+        mNodes[nodeIndex].MaxCorner = nodeMax;
+        mNodes[nodeIndex].First = first;
+        mNodes[nodeIndex].Count = count;
+        if ((count <= BVH_LEAF_SIZE) || (depth >= BVH_MAX_DEPTH))
+        {
+            return;
+        }
+        glm::vec3 extent(centerMax - centerMin);
+        int axis = 0;
+
+        if (extent.y > extent[axis])
+        {
+            axis = 1;
+        }
+        if (extent.z > extent[axis])
+        {
+            axis = 2;
+        }
+        if (extent[axis] <= 0.0f)
+        {
+            return;                     // all centroids coincide, cannot split
+        }
+        struct Bin
+        {
+            glm::vec3 MinCorner;
+            glm::vec3 MaxCorner;
+            int       Count;
+        };
+        Bin bins[BVH_BIN_COUNT];
+        float scale = BVH_BIN_COUNT / extent[axis];
+        float origin = centerMin[axis];
+
+        for (int b = 0; b < BVH_BIN_COUNT; ++b)
+        {
+            bins[b].MinCorner = glm::vec3(std::numeric_limits<float>::max());
+            bins[b].MaxCorner = glm::vec3(-std::numeric_limits<float>::max());
+            bins[b].Count = 0;
+        }
+        for (int i = first; i < first + count; ++i)
+        {
+            int f = mFaceIDs[i];
+            int b = std::min(BVH_BIN_COUNT - 1, (int) ((centroids[f][axis] - origin) * scale));
+            bins[b].MinCorner = glm::min(bins[b].MinCorner, minCorners[f]);
+            bins[b].MaxCorner = glm::max(bins[b].MaxCorner, maxCorners[f]);
+            bins[b].Count++;
+        }
+        /*
+         * Sweep from both sides to accumulate the cost
+         * of the triangles on each side of every plane.
+         */
+        float leftCost[BVH_BIN_COUNT - 1];
+        glm::vec3 boxMin(std::numeric_limits<float>::max());
+        glm::vec3 boxMax(-std::numeric_limits<float>::max());
+        int n = 0;
+
+        for (int b = 0; b < BVH_BIN_COUNT - 1; ++b)
+        {
+            n += bins[b].Count;
+            boxMin = glm::min(boxMin, bins[b].MinCorner);
+            boxMax = glm::max(boxMax, bins[b].MaxCorner);
+            leftCost[b] = (n > 0) ? n * halfArea(boxMin, boxMax) : 0.0f;
+        }
+        float bestCost = std::numeric_limits<float>::max();
+        int bestSplit = -1;
+
+        boxMin = glm::vec3(std::numeric_limits<float>::max());
+        boxMax = glm::vec3(-std::numeric_limits<float>::max());
+        n = 0;
+        for (int b = BVH_BIN_COUNT - 1; b > 0; --b)
+        {
+            n += bins[b].Count;
+            boxMin = glm::min(boxMin, bins[b].MinCorner);
+            boxMax = glm::max(boxMax, bins[b].MaxCorner);
+            if ((n == 0) || (n == count))
+            {
+                continue;
+            }
+            float cost = leftCost[b - 1] + n * halfArea(boxMin, boxMax);
+            if (cost < bestCost)
+            {
+                bestCost = cost;
+                bestSplit = b;
+            }
+        }
+        if (bestSplit < 0)
+        {
+            return;
+        }
+        if ((bestCost >= count * halfArea(nodeMin, nodeMax)) && (count <= BVH_MAX_LEAF_SIZE))
+        {
+            return;                     // splitting is not cheaper than testing all triangles
+        }
+        auto mid = std::partition(mFaceIDs.begin() + first, mFaceIDs.begin() + first + count,
+                                  [&centroids, axis, origin, scale, bestSplit](int f)
+        {
+            int b = std::min(BVH_BIN_COUNT - 1, (int) ((centroids[f][axis] - origin) * scale));
+            return b < bestSplit;
+        });
+        int leftCount = (mid - mFaceIDs.begin()) - first;
+
+        if ((leftCount == 0) || (leftCount == count))
+        {
+            return;
+        }
+        int left = mNodes.size();
+        mNodes.push_back(Node());
+        subdivide(left, first, leftCount, depth + 1, centroids, minCorners, maxCorners);
+        int right = mNodes.size();
+        mNodes.push_back(Node());
+        subdivide(right, first + leftCount, count - leftCount, depth + 1, centroids, minCorners, maxCorners);
+        mNodes[nodeIndex].First = right;
+        mNodes[nodeIndex].Count = 0;
+    }
+
+/*
+ * Slab test of the ray against the bounding box of a node.
+ * @param entry gets the parametric distance where the ray enters the box
+ * @return true if the box is hit closer than maxDist
+ */
+    bool MeshBVH::intersectBox(const Node& node, const glm::vec3& rayStart,
+                               const glm::vec3& invDir, float maxDist, float& entry)
+    {
+        glm::vec3 t0((node.MinCorner - rayStart) * invDir);
+        glm::vec3 t1((node.MaxCorner - rayStart) * invDir);
+        glm::vec3 tnear(glm::min(t0, t1));
+        glm::vec3 tfar(glm::max(t0, t1));
+        float tmin = std::max(std::max(tnear.x, tnear.y), std::max(tnear.z, 0.0f));
+        float tmax = std::min(std::min(tfar.x, tfar.y), std::min(tfar.z, maxDist));
+
+        entry = tmin;
+        return tmin <= tmax;
+    }
+
+    float MeshBVH::intersect(const glm::vec3& rayStart, const glm::vec3& rayDir,
+                             glm::vec3& hitPos, int& faceIndex) const
+    {
+        if (mNodes.empty())
+        {
+            return -1;
+        }
+        const float BIG = std::numeric_limits<float>::max();
+        glm::vec3 invDir((rayDir.x != 0.0f) ? 1.0f / rayDir.x : BIG,
+                         (rayDir.y != 0.0f) ? 1.0f / rayDir.y : BIG,
+                         (rayDir.z != 0.0f) ? 1.0f / rayDir.z : BIG);
+        struct Entry
+        {
+            int     Node;
+            float   Distance;
+        };
+        Entry stack[2 * BVH_MAX_DEPTH + 2];
+        int top = 0;
+        float best = BIG;
+        float entry;
+
+        if (!intersectBox(mNodes[0], rayStart, invDir, best, entry))
+        {
+            return -1;
+        }
+        stack[top].Node = 0;
+        stack[top++].Distance = entry;
+        while (top > 0)
+        {
+            Entry e = stack[--top];
+            if (e.Distance > best)
+            {
+                continue;
+            }
+            int nodeIndex = e.Node;
+            const Node& node = mNodes[nodeIndex];
+
+            if (node.Count > 0)
+            {
+                const int* tri = &mTriangles[3 * node.First];
+                for (int i = 0; i < node.Count; ++i, tri += 3)
+                {
+                    glm::vec3 p;
+                    float t = rayTriangleIntersect(p, rayStart, rayDir,
+                                                   mPositions[tri[0]],
+                                                   mPositions[tri[1]],
+                                                   mPositions[tri[2]]);
+                    if ((t > 0) && (t < best))
+                    {
+                        best = t;
+                        hitPos = p;
+                        faceIndex = mFaceIDs[node.First + i];
+                    }
+                }
+                continue;
+            }
+            int left = nodeIndex + 1;
+            int right = node.First;
+            float leftEntry, rightEntry;
+            bool hitLeft = intersectBox(mNodes[left], rayStart, invDir, best, leftEntry);
+            bool hitRight = intersectBox(mNodes[right], rayStart, invDir, best, rightEntry);
+
+            /*
+             * Push the farther child first so the nearer one
+             * is visited first and can shorten the ray.
+             */
+            if (hitLeft && hitRight)
+            {
+                if (leftEntry < rightEntry)
+                {
+                    stack[top].Node = right;
+                    stack[top++].Distance = rightEntry;
+                    stack[top].Node = left;
+                    stack[top++].Distance = leftEntry;
+                }
+                else
+                {
+                    stack[top].Node = left;
+                    stack[top++].Distance = leftEntry;
+                    stack[top].Node = right;
+                    stack[top++].Distance = rightEntry;
+                }
+            }
+            else if (hitLeft)
+            {
+                stack[top].Node = left;
+                stack[top++].Distance = leftEntry;
+            }
+            else if (hitRight)
+            {
+                stack[top].Node = right;
+                stack[top++].Distance = rightEntry;
+            }
+        }
+        return (best < BIG) ? best : -1;
+    }
+
+    float MeshBVH::closestVertex(const float sphere[], glm::vec3& hitPos, int& vertexIndex) const
+    {
+        if (mNodes.empty())
+        {
+            return -1;
+        }
+        glm::vec3 center(sphere[0], sphere[1], sphere[2]);
+        float radius2 = sphere[3] * sphere[3];
+        float best = radius2;
+        int stack[2 * BVH_MAX_DEPTH + 2];
+        int top = 0;
+
+        vertexIndex = -1;
+        if (!mAllVerticesUsed)
+        {
+            for (int i = 0; i < (int) mPositions.size(); ++i)
+            {
+                glm::vec3 h(mPositions[i] - center);
+                float dist2 = glm::dot(h, h);
+                if (dist2 < best)
+                {
+                    best = dist2;
+                    vertexIndex = i;
+                }
+            }
+        }
+        else
+        {
+            stack[top++] = 0;
+        }
+        while (top > 0)
+        {
+            int nodeIndex = stack[--top];
+            const Node& node = mNodes[nodeIndex];
+            glm::vec3 d(glm::max(glm::max(node.MinCorner - center, center - node.MaxCorner), glm::vec3(0)));
+
+            if (glm::dot(d, d) >= best)
+            {
+                continue;               // box is outside the sphere or farther than best vertex
+            }
+            if (node.Count == 0)
+            {
+                stack[top++] = node.First;
+                stack[top++] = nodeIndex + 1;
+                continue;
+            }
+            const int* tri = &mTriangles[3 * node.First];
+            for (int i = 0; i < 3 * node.Count; ++i)
+            {
+                glm::vec3 h(mPositions[tri[i]] - center);
+                float dist2 = glm::dot(h, h);
+                if (dist2 < best)
+                {
+                    best = dist2;
+                    vertexIndex = tri[i];
+                }
+            }
+        }
+        if (vertexIndex < 0)
+        {
+            return -1;
+        }
+        hitPos = mPositions[vertexIndex];
+        return sqrt(best);
+    }
+
+    float MeshBVH::rayTriangleIntersect(glm::vec3& hitPos, const glm::vec3& rayStart,
+                                        const glm::vec3& rayDir,
+                                        const glm::vec3& V1, const glm::vec3& V2,
+                                        const glm::vec3& V3)
+    {
+        glm::vec3 e1(V2 - V1);
+        glm::vec3 e2(V3 - V1);
+        glm::vec3 P = glm::cross(rayDir, e2);
+        glm::vec3 T(glm::vec3(rayStart) - V1);
+        float det = glm::dot(e1, P);
+        const float EPSILON = 0.00001f;
+
+        if (det > -EPSILON && det < EPSILON)
+        {
+            return -1;
+        }
+
+        float inv_det = 1.0f / det;
+        float u = glm::dot(T, P) * inv_det;
+
+        if (u < 0.0f || u > 1.0f)
+        {
+            return -1;
+        }
+
+        glm::vec3 Q = glm::cross(T, e1);
+        float v = glm::dot(glm::vec3(rayDir), Q) * inv_det;
+
+        if (v < 0.0f || (u + v) > 1.0f)
+        {
+            return -1;
+        }
+
+        float t = glm::dot(e2, Q) * inv_det;
+
+        if (t > EPSILON)
+        {
+            hitPos = (1.0f - u - v) * V1 + u * V2 + v * V3;
+            return t;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Bounding volume hierarchy over the triangles of a mesh.
+ ***************************************************************************/
+
+#ifndef MESH_BVH_H_
+#define MESH_BVH_H_
+
+#include <vector>
+#include "glm/glm.hpp"
+
+namespace gvr {
+class VertexBuffer;
+class IndexBuffer;
+
+/**
+ * Axially aligned bounding box hierarchy used to accelerate
+ * ray and sphere queries against the triangles of a mesh.
+ *
+ * The hierarchy is built with a binned surface area heuristic.
+ * It keeps its own copy of the vertex positions and triangle
+ * indices so it remains valid while the vertex and index
+ * buffers are being updated. Mesh builds it lazily the first
+ * time it is needed and discards it when the positions or
+ * indices change.
+ *
+ * @see Mesh::getBVH
+ * @see MeshCollider
+ */
+class MeshBVH
+{
+public:
+    MeshBVH() : mAllVerticesUsed(true) { }
+
+    /**
+     * Construct the hierarchy from the positions and indices of a mesh.
+     * If there is no index buffer, every three consecutive vertices
+     * are treated as a triangle.
+     * @param vbuf  vertex buffer with "a_position" attribute
+     * @param ibuf  index buffer with triangles, may be null
+     * @return true if hierarchy was built, false if there are no triangles
+     */
+    bool build(const VertexBuffer& vbuf, const IndexBuffer* ibuf);
+
+    /**
+     * Find the closest triangle penetrated by a ray.
+     * @param rayStart  origin of the ray in mesh coordinates
+     * @param rayDir    direction of the ray in mesh coordinates
+     * @param hitPos    gets the hit point in mesh coordinates
+     * @param faceIndex gets the index of the triangle hit
+     * @return parametric distance along the ray of the hit, -1 if nothing was hit
+     */
+    float intersect(const glm::vec3& rayStart, const glm::vec3& rayDir,
+                    glm::vec3& hitPos, int& faceIndex) const;
+
+    /**
+     * Find the mesh vertex closest to the center of a sphere
+     * which is inside the sphere. Only the vertices of triangles
+     * are in the hierarchy, if the mesh has other vertices
+     * every vertex is tested.
+     * @param sphere        sphere center and radius in mesh coordinates
+     * @param hitPos        gets the position of the closest vertex
+     * @param vertexIndex   gets the index of the closest vertex
+     * @return distance from the sphere center to the vertex, -1 if no vertex is inside
+     */
+    float closestVertex(const float sphere[], glm::vec3& hitPos, int& vertexIndex) const;
+
+    int getTriangleCount() const { return mFaceIDs.size(); }
+    int getNodeCount() const { return mNodes.size(); }
+
+    static float rayTriangleIntersect(glm::vec3& hitPos, const glm::vec3& rayStart, const glm::vec3& rayDir,
+                                      const glm::vec3& V1, const glm::vec3& V2, const glm::vec3& V3);
+
+private:
+    MeshBVH(const MeshBVH&) = delete;
+    MeshBVH& operator=(const MeshBVH&) = delete;
+
+    /*
+     * Interior nodes have Count == 0, their left child
+     * immediately follows them and First is the right child.
+     * Leaf nodes reference Count triangles starting at First.
+     */
+    struct Node
+    {
+        glm::vec3   MinCorner;
+        int         First;
+        glm::vec3   MaxCorner;
+        int         Count;
+    };
+
+    void subdivide(int nodeIndex, int first, int count, int depth,
+                   std::vector<glm::vec3>& centroids,
+                   std::vector<glm::vec3>& minCorners,
+                   std::vector<glm::vec3>& maxCorners);
+
+    static bool intersectBox(const Node& node, const glm::vec3& rayStart,
+                             const glm::vec3& invDir, float maxDist, float& entry);
+
+    std::vector<Node>       mNodes;
+    std::vector<glm::vec3>  mPositions; // vertex positions
+    std::vector<int>        mTriangles; // 3 vertex indices per triangle in leaf order
+    std::vector<int>        mFaceIDs;   // original face index for each triangle in leaf order
+    bool                    mAllVerticesUsed;   // every vertex is in a triangle
+};
+
+}
+#endif
@@ -18,6 +18,8 @@
  * JNI
  ***************************************************************************/
 
+#include <algorithm>
+#include "glm/gtc/type_ptr.hpp"
 #include "mesh.h"
 
 #include "util/gvr_log.h"
@@ -38,6 +40,9 @@ namespace gvr {
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeMesh_setBones(JNIEnv* env,
                                          jobject obj, jlong jmesh, jlongArray jBonePtrArray);
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMesh_setBoneMatrices(JNIEnv* env,
+                                                jobject obj, jlong jmesh, jfloatArray jmatrices, jint numBones);
 };
 
     JNIEXPORT jlong JNICALL
@@ -92,6 +97,18 @@ namespace gvr {
         env->ReleaseLongArrayElements(jBonePtrArray, bonesPtr, JNI_ABORT);
     }
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeMesh_setBoneMatrices(JNIEnv * env, jobject obj, jlong jmesh,
+                                                jfloatArray jmatrices, jint numBones) {
+        Mesh* mesh = reinterpret_cast<Mesh*>(jmesh);
+        std::vector<glm::mat4>& boneMatrices = mesh->getVertexBoneData().getBoneMatrices();
+        int n = std::min((int) boneMatrices.size(), (int) numBones);
+
+        if (n > 0) {
+            env->GetFloatArrayRegion(jmatrices, 0, n * 16, glm::value_ptr(boneMatrices[0]));
+        }
+    }
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeMesh_getSphereBound(JNIEnv * env,
                                                jobject obj, jlong jmesh, jfloatArray jsphere) {
@@ -17,12 +17,15 @@
  * Holds scene objects. Can be used by engines.
  ***************************************************************************/
 
+#include <cmath>
 #include <gl/gl_render_data.h>
 #include "scene.h"
 
 #include "engine/exporter/exporter.h"
 #include "gl/gl_material.h"
 #include "objects/components/shadow_map.h"
+#include "objects/bounding_volume.h"
+#include "util/gvr_profiler.h"
 
 namespace gvr {
 
@@ -93,6 +96,7 @@ void Scene::makeDepthShaders(jobject jscene)
     int rc = get_java_env(&env);
     if (env && (rc >= 0))
     {
+        Profiler::Scope scope(Profiler::JNI_UPCALL);
         env->CallVoidMethod(jscene, makeDepthShadersMethod_);
         if (rc > 0)
         {
@@ -117,15 +121,34 @@ void Scene::removeAllSceneObjects() {
 
 void Scene::clearAllColliders() {
     lockColliders();
+    for (auto it = allColliders.begin(); it != allColliders.end(); ++it) {
+        Collider* collider = static_cast<Collider*>(*it);
+        collider->scene_ = nullptr;
+        collider->tree_proxy_ = -1;
+        collider->bounds_dirty_ = false;
+        collider->unbounded_ = false;
+        collider->visible_ = false;
+    }
     allColliders.clear();
     visibleColliders.clear();
+    colliderTree.clear();
+    dirtyColliders.clear();
+    unboundedColliders.clear();
     unlockColliders();
 }
 
+void Scene::clearVisibleColliders() {
+    for (auto it = visibleColliders.begin(); it != visibleColliders.end(); ++it) {
+        static_cast<Collider*>(*it)->visible_ = false;
+    }
+    visibleColliders.clear();
+}
+
 void Scene::pick(SceneObject* sceneobj) {
     if (pick_visible_) {
          Collider* collider = static_cast<Collider*>(sceneobj->getComponent(Collider::getComponentType()));
         if (collider) {
+            collider->visible_ = true;
             visibleColliders.push_back(collider);
         }
      }
@@ -136,6 +159,9 @@ void Scene::addCollider(Collider* collider) {
     if (it == allColliders.end()) {
         lockColliders();
         allColliders.push_back(collider);
+        collider->scene_ = this;
+        collider->bounds_dirty_ = true;
+        dirtyColliders.push_back(collider);
         unlockColliders();
     }
 }
@@ -145,10 +171,107 @@ void Scene::removeCollider(Collider* collider) {
     if (it != allColliders.end()) {
         lockColliders();
         allColliders.erase(it);
+        removeFromColliderTree(collider);
+        if (collider->bounds_dirty_) {
+            dirtyColliders.erase(std::remove(dirtyColliders.begin(), dirtyColliders.end(), collider),
+                                 dirtyColliders.end());
+        }
+        collider->scene_ = nullptr;
+        collider->bounds_dirty_ = false;
         unlockColliders();
     }
 }
 
+void Scene::markColliderDirty(Collider* collider) {
+    std::lock_guard<std::mutex> lock(collider_mutex_);
+    if ((collider->scene_ == this) && !collider->bounds_dirty_) {
+        collider->bounds_dirty_ = true;
+        dirtyColliders.push_back(collider);
+    }
+}
+
+const AABBTree& Scene::lockColliderTree() {
+    collider_mutex_.lock();
+    for (auto it = dirtyColliders.begin(); it != dirtyColliders.end(); ++it) {
+        Collider* collider = *it;
+        collider->bounds_dirty_ = false;
+        updateColliderBounds(collider);
+    }
+    dirtyColliders.clear();
+    /*
+     * Meshes edited in place do not mark their colliders dirty,
+     * compare the vertices each collider was bounded with.
+     */
+    for (auto it = allColliders.begin(); it != allColliders.end(); ++it) {
+        Collider* collider = static_cast<Collider*>(*it);
+        SceneObject* owner = collider->owner_object();
+
+        if ((owner != nullptr) && (collider->tree_proxy_ >= 0) && collider->geometryChanged(owner)) {
+            updateColliderBounds(collider);
+        }
+    }
+    return colliderTree;
+}
+
+/*
+ * Recompute the world bounds of a collider and move it
+ * in the collider tree. Colliders without finite bounds
+ * (no mesh yet, degenerate transforms) are kept in a separate
+ * list which the picker tests every time.
+ * The collider lock must be held.
+ */
+void Scene::updateColliderBounds(Collider* collider) {
+    SceneObject* owner = collider->owner_object();
+    BoundingVolume bounds;
+    bool finite = (owner != nullptr) && collider->getWorldBounds(owner, bounds);
+
+    if (finite) {
+        const glm::vec3& minCorner = bounds.min_corner();
+        const glm::vec3& maxCorner = bounds.max_corner();
+        for (int i = 0; i < 3; ++i) {
+            if (!std::isfinite(minCorner[i]) || !std::isfinite(maxCorner[i]) ||
+                (minCorner[i] > maxCorner[i])) {
+                finite = false;
+                break;
+            }
+        }
+        if (finite) {
+            if (collider->tree_proxy_ < 0) {
+                collider->tree_proxy_ = colliderTree.insert(minCorner, maxCorner, collider);
+            } else {
+                colliderTree.update(collider->tree_proxy_, minCorner, maxCorner);
+            }
+            if (collider->unbounded_) {
+                unboundedColliders.erase(std::remove(unboundedColliders.begin(), unboundedColliders.end(), collider),
+                                         unboundedColliders.end());
+                collider->unbounded_ = false;
+            }
+            return;
+        }
+    }
+    if (!collider->unbounded_) {
+        removeFromColliderTree(collider);
+        unboundedColliders.push_back(collider);
+        collider->unbounded_ = true;
+    }
+}
+
+/*
+ * Take a collider out of the collider tree or the unbounded list.
+ * The collider lock must be held.
+ */
+void Scene::removeFromColliderTree(Collider* collider) {
+    if (collider->tree_proxy_ >= 0) {
+        colliderTree.remove(collider->tree_proxy_);
+        collider->tree_proxy_ = -1;
+    }
+    if (collider->unbounded_) {
+        unboundedColliders.erase(std::remove(unboundedColliders.begin(), unboundedColliders.end(), collider),
+                                 unboundedColliders.end());
+        collider->unbounded_ = false;
+    }
+}
+
 /**
  * Called when the main scene is first presented for render.
  */
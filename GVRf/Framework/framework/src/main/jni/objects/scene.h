@@ -31,6 +31,7 @@
 #include "engine/renderer/renderer.h"
 #include "objects/lightlist.h"
 #include "objects/scene_object.h"
+#include "engine/picker/aabb_tree.h"
 
 
 namespace gvr {
@@ -145,13 +146,20 @@ public:
      */
     void removeCollider(Collider* collider);
 
+    /*
+     * Called when the world bounds of a collider in this scene
+     * may have changed. The collider tree is not updated
+     * until it is next locked for picking.
+     */
+    void markColliderDirty(Collider* collider);
+
     /*
      * Clear the visible collider list.
      * This list is constructed every frame during culling
      * to contain only the pickable objects that are visible.
      * This function does not lock the collider list!
      */
-    void clearVisibleColliders() { visibleColliders.clear(); }
+    void clearVisibleColliders();
 
     /*
      * Called during culling to add a scene object's
@@ -170,6 +178,26 @@ public:
         return pick_visible_ ? visibleColliders : allColliders;
     }
 
+    /*
+     * Lock the collider list and get the spatial index of the colliders.
+     * The tree contains all of the colliders in the scene which
+     * have finite bounds, whether or not they are visible.
+     * Colliders which moved or whose mesh vertices were edited
+     * since the last pick are updated first.
+     * You should call unlockColliders after you are done with the tree.
+     * @see getUnboundedColliders
+     */
+    const AABBTree& lockColliderTree();
+
+    /*
+     * Get the colliders which are not in the collider tree
+     * because they do not have finite bounds.
+     * Only call this while the colliders are locked.
+     */
+    const std::vector<Collider*>& getUnboundedColliders() const {
+        return unboundedColliders;
+    }
+
     /*
      * Unlock the collider list.
      * Don't call this unless you have called lockColliders first.
@@ -200,6 +228,8 @@ private:
     Scene& operator=(const Scene& scene) = delete;
     Scene& operator=(Scene&& scene) = delete;
     void clearAllColliders();
+    void updateColliderBounds(Collider* collider);
+    void removeFromColliderTree(Collider* collider);
 
 
 private:
@@ -216,6 +246,9 @@ private:
     LightList lights_;
     std::vector<Component*> allColliders;
     std::vector<Component*> visibleColliders;
+    AABBTree colliderTree;
+    std::vector<Collider*> dirtyColliders;
+    std::vector<Collider*> unboundedColliders;
 };
 
 }
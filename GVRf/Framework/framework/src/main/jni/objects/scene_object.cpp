@@ -28,6 +28,8 @@
 
 namespace gvr {
 
+std::atomic<unsigned int> SceneObject::hierarchy_version_(0);
+
 SceneObject::SceneObject() :
         HybridObject(), name_(""), children_(), visible_(true), transform_dirty_(false), in_frustum_(
                 false),  enabled_(true),query_currently_issued_(false), vis_count_(0),
@@ -49,6 +51,15 @@ bool SceneObject::attachComponent(Component* component) {
     }
     component->set_owner_object(this);
     components_.push_back(component);
+    if (component->getType() == RenderData::getComponentType())
+    {
+        dirtyHierarchy();
+        Collider* collider = static_cast<Collider*>(getComponent(Collider::getComponentType()));
+        if (collider)
+        {
+            collider->invalidateBounds();
+        }
+    }
     SceneObject* par = parent();
     if (par)
     {
@@ -98,6 +109,15 @@ Component* SceneObject::detachComponent(long long type)
             }
             component->set_owner_object(NULL);
             components_.erase(it);
+            if (type == RenderData::getComponentType())
+            {
+                dirtyHierarchy();
+                Collider* collider = static_cast<Collider*>(getComponent(Collider::getComponentType()));
+                if (collider)
+                {
+                    collider->invalidateBounds();
+                }
+            }
             return component;
         }
     }
@@ -147,6 +167,7 @@ void SceneObject::addChildObject(SceneObject* self, SceneObject* child) {
         std::lock_guard < std::mutex > lock(children_mutex_);
         children_.push_back(child);
     }
+    dirtyHierarchy();
     child->parent_ = self;
     child->onTransformChanged();
 }
@@ -244,6 +265,7 @@ void SceneObject::removeChildObject(SceneObject* child)
             std::lock_guard < std::mutex > lock(children_mutex_);
             children_.erase(std::remove(children_.begin(), children_.end(), child), children_.end());
         }
+        dirtyHierarchy();
         child->parent_ = NULL;
         child->onTransformChanged();
     }
@@ -258,6 +280,11 @@ void SceneObject::onTransformChanged()
     }
     setTransformDirty();
     dirtyHierarchicalBoundingVolume();
+    Collider* collider = static_cast<Collider*>(getComponent(Collider::getComponentType()));
+    if (collider)
+    {
+        collider->invalidateBounds();
+    }
     if (getChildrenCount() > 0)
     {
         std::lock_guard<std::mutex> lock(children_mutex_);
@@ -291,6 +318,7 @@ void SceneObject::clear()
         child->onTransformChanged();
     }
     children_.clear();
+    dirtyHierarchy();
 }
 
 int SceneObject::getChildrenCount() const {
@@ -315,6 +343,15 @@ void SceneObject::getDescendants(std::vector<SceneObject*>& descendants) {
     }
 }
 
+/*
+ * Add the immediate children of this object to the end
+ * of the input list without copying the child list first.
+ */
+void SceneObject::appendChildren(std::vector<SceneObject*>& children) {
+    std::lock_guard < std::mutex > lock(children_mutex_);
+    children.insert(children.end(), children_.begin(), children_.end());
+}
+
 void SceneObject::dirtyHierarchicalBoundingVolume() {
     if (bounding_volume_dirty_) {
         return;
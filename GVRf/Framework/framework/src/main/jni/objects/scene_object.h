@@ -21,6 +21,7 @@
 #define SCENE_OBJECT_H_
 
 #include <algorithm>
+#include <atomic>
 #include <mutex>
 
 #include "objects/hybrid_object.h"
@@ -55,7 +56,10 @@ public:
     }
 
     void set_enable(bool enable) {
-        enabled_ = enable;
+        if (enabled_ != enable) {
+            enabled_ = enable;
+            dirtyHierarchy();
+        }
     }
 
     void set_in_frustum(bool in_frustum = true) {
@@ -121,6 +125,19 @@ public:
     bool isCulled(){
     	return cull_status_;
     }
+
+    /*
+     * Number of the last cull from the main camera rig which
+     * found the object in view, set by the FrustumCuller.
+     */
+    void setViewFrame(unsigned int frame) {
+        view_frame_ = frame;
+    }
+
+    unsigned int viewFrame() const {
+        return view_frame_;
+    }
+
     std::vector<SceneObject*> children() {
         std::lock_guard < std::mutex > lock(children_mutex_);
         return std::vector<SceneObject*>(children_);
@@ -129,6 +146,7 @@ public:
     void addChildObject(SceneObject* self, SceneObject* child);
     void removeChildObject(SceneObject* child);
     void getDescendants(std::vector<SceneObject*>& descendants);
+    void appendChildren(std::vector<SceneObject*>& children);
     void clear();
     int getChildrenCount() const;
     SceneObject* getChildByIndex(int index);
@@ -141,6 +159,13 @@ public:
     bool intersectsBoundingVolume(SceneObject *scene_object);
     void dirtyHierarchicalBoundingVolume();
     BoundingVolume& getBoundingVolume();
+    /*
+     * Bounding volume of this object's own mesh in world coordinates.
+     * It is updated by getBoundingVolume.
+     */
+    const BoundingVolume& getMeshBoundingVolume() const {
+        return mesh_bounding_volume;
+    }
     void onTransformChanged();
     bool onAddChild(SceneObject* addme, SceneObject* root);
     bool onRemoveChild(SceneObject* removeme, SceneObject* root);
@@ -148,12 +173,27 @@ public:
     void onRemovedFromScene(Scene* scene);
     int frustumCull(glm::vec3 camera_position, const float frustum[6][4], int& planeMask);
 
+    /*
+     * Incremented whenever objects are added, removed, enabled or disabled
+     * or render data is attached or detached anywhere in any scene graph.
+     * Used to tell when cached copies of the scene graph are stale.
+     */
+    static unsigned int hierarchyVersion() {
+        return hierarchy_version_;
+    }
+
+    static void dirtyHierarchy() {
+        ++hierarchy_version_;
+    }
+
 private:
+    static std::atomic<unsigned int> hierarchy_version_;
     std::string name_;
     std::vector<Component*> components_;
     SceneObject* parent_ = nullptr;
     std::vector<SceneObject*> children_;
     bool cull_status_;
+    unsigned int view_frame_ = 0;
     bool transform_dirty_;
     BoundingVolume transformed_bounding_volume_;
     bool bounding_volume_dirty_;
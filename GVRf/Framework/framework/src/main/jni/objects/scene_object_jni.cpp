@@ -18,6 +18,7 @@
  ***************************************************************************/
 
 #include "scene_object.h"
+#include "engine/renderer/renderer.h"
 
 #include "util/gvr_log.h"
 #include "util/gvr_jni.h"
@@ -80,6 +81,10 @@ extern "C" {
     Java_org_gearvrf_NativeSceneObject_getBoundingVolume(JNIEnv * env,
             jobject obj, jlong jSceneObject);
 
+    JNIEXPORT jfloat JNICALL
+    Java_org_gearvrf_NativeSceneObject_getViewSize(JNIEnv * env,
+            jobject obj, jlong jSceneObject);
+
     JNIEXPORT jfloatArray JNICALL
     Java_org_gearvrf_NativeSceneObject_expandBoundingVolumeByPoint(JNIEnv * env,
             jobject obj, jlong jSceneObject, jfloat pointX, jfloat pointY, jfloat pointZ);
@@ -220,6 +225,13 @@ Java_org_gearvrf_NativeSceneObject_getBoundingVolume(JNIEnv * env,
     return boundingVolumeToArray(env, bvol);
 }
 
+JNIEXPORT jfloat JNICALL
+Java_org_gearvrf_NativeSceneObject_getViewSize(JNIEnv * env,
+        jobject obj, jlong jSceneObject) {
+    SceneObject* sceneObject = reinterpret_cast<SceneObject*>(jSceneObject);
+    return Renderer::getInstance()->getViewSize(sceneObject);
+}
+
 JNIEXPORT jfloatArray JNICALL
 Java_org_gearvrf_NativeSceneObject_expandBoundingVolumeByPoint(JNIEnv * env,
         jobject obj, jlong jSceneObject, jfloat pointX, jfloat pointY, jfloat pointZ) {
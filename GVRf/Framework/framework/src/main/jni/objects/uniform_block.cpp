@@ -153,6 +153,60 @@ namespace gvr
         return false;
     }
 
+    bool UniformBlock::setInt(int slot, int val)
+    {
+        char *data = getSlotData(slot, sizeof(int));
+        if (data != NULL)
+        {
+            *((int *) data) = val;
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
+    bool UniformBlock::setFloat(int slot, float val)
+    {
+        char *data = getSlotData(slot, sizeof(float));
+        if (data != NULL)
+        {
+            *((float *) data) = val;
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
+    bool UniformBlock::setVec4(int slot, const glm::vec4 &val)
+    {
+        char *data = getSlotData(slot, 4 * sizeof(float));
+        if (data != NULL)
+        {
+            memcpy(data, glm::value_ptr(val), 4 * sizeof(float));
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
+    bool UniformBlock::setMat4(int slot, const glm::mat4 &val)
+    {
+        return setMat4(slot, &val, 1);
+    }
+
+    bool UniformBlock::setMat4(int slot, const glm::mat4 *val, int n)
+    {
+        int bytesize = n * 16 * sizeof(float);
+        char *data = getSlotData(slot, bytesize);
+        if (data != NULL)
+        {
+            memcpy(data, glm::value_ptr(*val), bytesize);
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
     const glm::vec2* UniformBlock::getVec2(const char* name) const
     {
         int size = 2 * sizeof(float);
@@ -271,6 +325,19 @@ namespace gvr
         return data;
     }
 
+    char* UniformBlock::getSlotData(int slot, int bytesize)
+    {
+        if ((slot < 0) || (slot >= (int) mLayout.size()))
+            return NULL;
+        DataEntry& u = mLayout[slot];
+        char* data = (char*) mUniformData;
+
+        if ((data == NULL) || (bytesize > u.Size))
+            return NULL;
+        u.IsSet = true;
+        return data + u.Offset;
+    }
+
     std::string UniformBlock::makeShaderLayout()
     {
         std::ostringstream stream;
@@ -198,6 +198,53 @@ namespace gvr
          */
         virtual bool setMat4(const char *name, const glm::mat4 &val);
 
+        /**
+         * Set the value of an integer uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param val integer value to set.
+         * @returns true if successfully set, false if the slot is invalid.
+         * @see getSlot
+         */
+        bool setInt(int slot, int val);
+
+        /**
+         * Set the value of a floating point uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param val float value to set.
+         * @returns true if successfully set, false if the slot is invalid.
+         * @see getSlot
+         */
+        bool setFloat(int slot, float val);
+
+        /**
+         * Set the value of a 4D vector uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param val 4D vector value to set.
+         * @returns true if successfully set, false if the slot is invalid.
+         * @see getSlot
+         */
+        bool setVec4(int slot, const glm::vec4 &val);
+
+        /**
+         * Set the value of a 4x4 matrix uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param val 4x4 matrix value to set.
+         * @returns true if successfully set, false if the slot is invalid.
+         * @see getSlot
+         */
+        bool setMat4(int slot, const glm::mat4 &val);
+
+        /**
+         * Set the value of a 4x4 matrix array uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param val pointer to the first matrix.
+         * @param n number of matrices to set.
+         * @returns true if successfully set, false if the slot is invalid
+         *          or the uniform has less than n matrices.
+         * @see getSlot
+         */
+        bool setMat4(int slot, const glm::mat4 *val, int n);
+
         /**
          * Get the value of a 2D vector uniform.
          * If the named uniform is not a 2D vector this function
@@ -376,6 +423,15 @@ namespace gvr
 
         const char* getData(const char *name, int &bytesize) const;
 
+        /**
+         * Get a pointer to the value for a uniform by slot.
+         * @param slot slot of the uniform from getSlot.
+         * @param bytesize number of bytes which will be stored.
+         * @return pointer to start of uniform value or NULL if
+         *         the slot is invalid or the uniform is smaller than bytesize.
+         */
+        char* getSlotData(int slot, int bytesize);
+
         int mBindingPoint;           // shader binding point
         unsigned int mOwnData : 1;   // true if this uniform block owns its data
         unsigned int mUseBuffer : 1; // true if this uniform block uses a GPU buffer
@@ -7,6 +7,7 @@
 #include "vertex_buffer.h"
 #include "util/gvr_log.h"
 #include <sstream>
+#include <cstring>
 
 namespace gvr {
 
@@ -150,6 +151,10 @@ namespace gvr {
             src += srcStride;
         }
         markDirty();
+        if (strcmp(attributeName, "a_position") == 0)
+        {
+            ++mPositionVersion;
+        }
         attr->IsSet = true;
         return true;
     }
@@ -334,6 +339,42 @@ namespace gvr {
         return true;
     }
 
+    bool VertexBuffer::setData(const void* src, int byteSize, int vertexCount)
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+
+        if ((src == NULL) || (byteSize < getTotalSize() * vertexCount))
+        {
+            LOGE("VertexBuffer: cannot set vertex data, %d bytes is not enough for %d vertices", byteSize, vertexCount);
+            return false;
+        }
+        if (!setVertexCount(vertexCount))
+        {
+            return false;
+        }
+        memcpy(mVertexData, src, getDataSize());
+        forEachEntry([](DataEntry& e) { e.IsSet = true; });
+        markDirty();
+        ++mPositionVersion;
+        return true;
+    }
+
+    bool VertexBuffer::getData(void* dest, int byteSize) const
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+
+        if ((dest == NULL) || (byteSize < getDataSize()))
+        {
+            LOGE("VertexBuffer: cannot get vertex data, %d bytes is not enough for %d", byteSize, getDataSize());
+            return false;
+        }
+        if (mVertexData != NULL)
+        {
+            memcpy(dest, mVertexData, getDataSize());
+        }
+        return true;
+    }
+
     bool VertexBuffer::setVertexCount(int count)
     {
         if ((mVertexCount != 0) && (mVertexCount != count))
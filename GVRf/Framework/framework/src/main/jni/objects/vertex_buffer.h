@@ -58,6 +58,14 @@ namespace gvr {
          */
         int getDataSize() const     { return getTotalSize() * mVertexCount; }
 
+        /**
+         * Return the number of times the vertex positions have been updated.
+         * Objects which cache data derived from the positions
+         * (like the picking hierarchy in Mesh) compare this
+         * against the value they were built with to detect changes.
+         */
+        int getPositionVersion() const { return mPositionVersion; }
+
         /**
          * Set all the values for an float vertex attribute.
          * If the named entry is not an float vector in the descriptor
@@ -128,6 +136,31 @@ namespace gvr {
          */
         bool            getIntVec(const char* attributeName, int* data, int dataByteSize, int dataStride) const;
 
+        /**
+         * Set the data for all the vertex attributes at once.
+         * The source holds {@code vertexCount} vertices laid out
+         * exactly like this vertex buffer (see getVertexSize).
+         * All the attributes are marked as set.
+         *
+         * @param src         pointer to interleaved vertex data.
+         * @param byteSize    number of bytes in the source.
+         * @param vertexCount number of vertices in the source.
+         * @returns true if successfully set, false if the size is wrong
+         *          or the vertex count cannot be changed.
+         * @see getData
+         */
+        bool            setData(const void* src, int byteSize, int vertexCount);
+
+        /**
+         * Copy the data for all the vertex attributes.
+         * @param dest        pointer to destination area.
+         * @param byteSize    number of bytes available at the destination,
+         *                    must be at least getDataSize().
+         * @returns true if copied, false if the destination is too small.
+         * @see setData
+         */
+        bool            getData(void* dest, int byteSize) const;
+
         bool            forAllVertices(const char* attrName, std::function<void (int iter, const float* vertex)> func) const;
         bool            forAllVertices(std::function<void (int iter, const float* vertex)> func) const;
         bool            getInfo(const char* attributeName, int& index, int& offset, int& size) const;
@@ -146,6 +179,7 @@ namespace gvr {
         int             mVertexCount;       // current number of vertices
         char*           mVertexData;        // vertex data buffer
         int             mBoneFlags = 0;     // indicates which vertex attributes are bones
+        int             mPositionVersion = 0; // incremented when a_position changes
     };
 
 } // end gvrf
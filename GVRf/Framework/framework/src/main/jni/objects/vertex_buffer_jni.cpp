@@ -79,6 +79,14 @@ namespace gvr {
     JNIEXPORT int JNICALL
     Java_org_gearvrf_NativeVertexBuffer_getBoundingVolume(JNIEnv* env, jobject obj,
                                                          jlong jvbuf, jfloatArray outputArray);
+    JNIEXPORT bool JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_getData(JNIEnv* env, jobject obj,
+                                                jlong jvbuf, jobject jbuffer);
+    JNIEXPORT bool JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_setData(JNIEnv* env, jobject obj,
+                                                jlong jvbuf, jobject jbuffer, jint vertexCount);
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_getDataSize(JNIEnv* env, jobject obj, jlong jvbuf);
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeVertexBuffer_dump(JNIEnv* env, jobject obj,
                                                           jlong jvbuf, jstring attrName);
@@ -325,4 +333,39 @@ Java_org_gearvrf_NativeVertexBuffer_dump(JNIEnv* env, jobject obj,
 
 }
 
+JNIEXPORT bool JNICALL
+Java_org_gearvrf_NativeVertexBuffer_getData(JNIEnv* env, jobject obj,
+                                            jlong jvbuf, jobject jbuffer)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    void* bufptr = env->GetDirectBufferAddress(jbuffer);
+
+    if (bufptr == NULL)
+    {
+        return false;
+    }
+    return vbuf->getData(bufptr, env->GetDirectBufferCapacity(jbuffer));
+}
+
+JNIEXPORT bool JNICALL
+Java_org_gearvrf_NativeVertexBuffer_setData(JNIEnv* env, jobject obj,
+                                            jlong jvbuf, jobject jbuffer, jint vertexCount)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    const void* bufptr = env->GetDirectBufferAddress(jbuffer);
+
+    if (bufptr == NULL)
+    {
+        return false;
+    }
+    return vbuf->setData(bufptr, env->GetDirectBufferCapacity(jbuffer), vertexCount);
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeVertexBuffer_getDataSize(JNIEnv* env, jobject obj, jlong jvbuf)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    return vbuf->getDataSize();
+}
+
 }
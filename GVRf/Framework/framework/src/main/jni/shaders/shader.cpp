@@ -19,6 +19,7 @@
 
 #include <jni_utils.h>
 #include "shader.h"
+#include "util/gvr_profiler.h"
 
 namespace gvr {
     
@@ -72,6 +73,7 @@ void Shader::calcMatrix(float* inputMatrices, int inputSize, float* outputMatric
 {
     if (mJavaVM && mJavaShaderClass && mCalcMatrixMethod)
     {
+        Profiler::Scope scope(Profiler::JNI_UPCALL);
         JNIEnv *env = getCurrentEnv(mJavaVM);
         jobject inputBuffer = env->NewDirectByteBuffer((void *) inputMatrices, inputSize);
         jobject outputBuffer = env->NewDirectByteBuffer((void *) outputMatrices, outputSize);
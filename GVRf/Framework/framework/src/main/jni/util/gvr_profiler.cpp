@@ -0,0 +1,137 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Per stage frame profiler.
+ ***************************************************************************/
+
+#include <algorithm>
+#include <climits>
+#include <cmath>
+#include "gvr_profiler.h"
+
+namespace gvr {
+
+std::atomic<bool> Profiler::sEnabled(false);
+std::atomic<long long> Profiler::sFrames(0);
+std::atomic<long long> Profiler::sLastFrameTime(0);
+Profiler::StageData Profiler::sStages[Profiler::STAGE_COUNT];
+
+void Profiler::setEnabled(bool enabled)
+{
+    if (enabled && !sEnabled.load())
+    {
+        // the first frame starts now, not when the profiler was last used
+        sLastFrameTime.store(0);
+        for (int s = 0; s < STAGE_COUNT; ++s)
+        {
+            sStages[s].PendingNanos.store(0, std::memory_order_relaxed);
+            sStages[s].PendingCalls.store(0, std::memory_order_relaxed);
+        }
+    }
+    sEnabled.store(enabled);
+}
+
+/*
+ * Bucket 0 holds times below BUCKET_BASE, bucket b > 0 holds times
+ * from BUCKET_BASE * 2^((b - 1) / 8) up to BUCKET_BASE * 2^(b / 8).
+ * The last bucket also holds all the longer times.
+ */
+int Profiler::bucketIndex(long long nanos)
+{
+    if (nanos < BUCKET_BASE)
+    {
+        return 0;
+    }
+    int b = 1 + (int) (BUCKETS_PER_OCTAVE * std::log2((double) nanos / BUCKET_BASE));
+    return std::min(b, NUM_BUCKETS - 1);
+}
+
+void Profiler::endFrame()
+{
+    if (!enabled())
+    {
+        return;
+    }
+    long long now = getNanoTime();
+    long long last = sLastFrameTime.exchange(now);
+
+    if (last == 0)
+    {
+        // nothing to record before the first frame
+        return;
+    }
+    add(FRAME, now - last);
+
+    int slot = (int) (sFrames.load(std::memory_order_relaxed) % HISTORY_SIZE);
+    for (int s = 0; s < STAGE_COUNT; ++s)
+    {
+        StageData& data = sStages[s];
+        long long nanos = data.PendingNanos.exchange(0, std::memory_order_relaxed);
+        int calls = data.PendingCalls.exchange(0, std::memory_order_relaxed);
+
+        data.TotalNanos.fetch_add(nanos, std::memory_order_relaxed);
+        data.TotalCalls.fetch_add(calls, std::memory_order_relaxed);
+        data.History[slot].store((int) std::min(nanos, (long long) INT_MAX), std::memory_order_relaxed);
+        data.Buckets[bucketIndex(nanos)].fetch_add(1, std::memory_order_relaxed);
+    }
+    sFrames.fetch_add(1, std::memory_order_release);
+}
+
+void Profiler::reset()
+{
+    sFrames.store(0);
+    for (int s = 0; s < STAGE_COUNT; ++s)
+    {
+        StageData& data = sStages[s];
+
+        data.TotalNanos.store(0, std::memory_order_relaxed);
+        data.TotalCalls.store(0, std::memory_order_relaxed);
+        for (int b = 0; b < NUM_BUCKETS; ++b)
+        {
+            data.Buckets[b].store(0, std::memory_order_relaxed);
+        }
+    }
+}
+
+void Profiler::getCounters(Stage stage, long long* counters)
+{
+    const StageData& data = sStages[stage];
+
+    counters[COUNTER_FRAMES] = sFrames.load(std::memory_order_acquire);
+    counters[COUNTER_NANOS] = data.TotalNanos.load(std::memory_order_relaxed);
+    counters[COUNTER_CALLS] = data.TotalCalls.load(std::memory_order_relaxed);
+    for (int b = 0; b < NUM_BUCKETS; ++b)
+    {
+        counters[COUNTER_BUCKETS + b] = data.Buckets[b].load(std::memory_order_relaxed);
+    }
+}
+
+int Profiler::getHistory(Stage stage, int* nanos)
+{
+    const StageData& data = sStages[stage];
+    long long frames = sFrames.load(std::memory_order_acquire);
+    int count = (int) std::min(frames, (long long) HISTORY_SIZE);
+    long long first = frames - count;
+
+    for (int i = 0; i < count; ++i)
+    {
+        nanos[i] = data.History[(first + i) % HISTORY_SIZE].load(std::memory_order_relaxed);
+    }
+    return count;
+}
+
+}
@@ -0,0 +1,174 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Per stage frame profiler.
+ ***************************************************************************/
+
+#ifndef GVR_PROFILER_H_
+#define GVR_PROFILER_H_
+
+#include <atomic>
+#include "util/gvr_time.h"
+
+namespace gvr {
+
+/**
+ * Measures how long the stages of each frame take.
+ *
+ * Scoped timers add the time spent in a stage to the current frame
+ * of that stage. Once per frame endFrame moves the totals into a
+ * ring buffer of the last frames and into a histogram with
+ * logarithmic buckets, from which percentiles are computed.
+ *
+ * Everything is kept in fixed size arrays of atomics, recording
+ * never allocates or locks so timers can be used from any thread.
+ * Readers may see the counters of a frame which is being recorded,
+ * the statistics are only approximate while the profiler runs.
+ *
+ * When the profiler is disabled a timer only tests a flag.
+ * The stages nest where the work nests, the shadow map stage
+ * includes the culling and drawing of the shadow maps.
+ *
+ * The stages must match org.gearvrf.debug.GVRProfiler.Stage.
+ */
+class Profiler
+{
+public:
+    enum Stage
+    {
+        CULL = 0,           // frustum culling, FrustumCuller::cull
+        OCCLUSION_CULL,     // occlusion culling
+        STATE_SORT,         // sorting render data for drawing
+        SHADOW_MAPS,        // rendering shadow maps
+        RENDER_DATA,        // drawing the render data of the render targets
+        JNI_UPCALL,         // calls from native code into Java
+        RUNNABLES,          // Java runnables run on the GL thread before drawing
+        FRAME_LISTENERS,    // Java draw frame listeners
+        FRAME,              // time between two calls to endFrame
+        STAGE_COUNT
+    };
+
+    static const int HISTORY_SIZE = 256;    // frames kept in the ring buffers
+    static const int BUCKETS_PER_OCTAVE = 8;
+    static const int NUM_BUCKETS = 160;     // 1 microsecond to about 1 second
+    static const int BUCKET_BASE = 1000;    // upper bound of the first bucket in nanoseconds
+
+    /*
+     * Indices into the array filled by getCounters.
+     */
+    enum Counter
+    {
+        COUNTER_FRAMES = 0,     // frames recorded since the last reset
+        COUNTER_NANOS,          // total time of the stage
+        COUNTER_CALLS,          // total number of timed calls
+        COUNTER_BUCKETS,        // first of the NUM_BUCKETS histogram counts
+        COUNTER_COUNT = COUNTER_BUCKETS + NUM_BUCKETS
+    };
+
+    static bool enabled()
+    {
+        return sEnabled.load(std::memory_order_relaxed);
+    }
+
+    static void setEnabled(bool enabled);
+
+    /**
+     * Add the time of some calls to the current frame of a stage.
+     */
+    static void add(Stage stage, long long nanos, int calls = 1)
+    {
+        StageData& data = sStages[stage];
+        data.PendingNanos.fetch_add(nanos, std::memory_order_relaxed);
+        data.PendingCalls.fetch_add(calls, std::memory_order_relaxed);
+    }
+
+    /**
+     * Record the current frame of every stage and start a new one.
+     * Called once per frame, from one thread at a time.
+     */
+    static void endFrame();
+
+    /**
+     * Clear all the recorded frames.
+     */
+    static void reset();
+
+    /**
+     * Copy the counters of a stage.
+     * @param counters gets COUNTER_COUNT values, see Counter
+     */
+    static void getCounters(Stage stage, long long* counters);
+
+    /**
+     * Copy the times of the last frames of a stage, oldest first.
+     * @param nanos gets up to HISTORY_SIZE times in nanoseconds
+     * @return the number of times copied
+     */
+    static int getHistory(Stage stage, int* nanos);
+
+    /**
+     * Times the lifetime of the scope it is declared in.
+     * Reading the clock takes tens of nanoseconds, short calls
+     * made many times a frame, like draw calls, are timed
+     * together by a scope around their loop.
+     */
+    class Scope
+    {
+    public:
+        explicit Scope(Stage stage, int calls = 1) :
+                mStage(stage), mCalls(calls), mStart(Profiler::enabled() ? getNanoTime() : 0)
+        {
+        }
+
+        ~Scope()
+        {
+            if (mStart != 0)
+            {
+                Profiler::add(mStage, getNanoTime() - mStart, mCalls);
+            }
+        }
+
+    private:
+        Scope(const Scope&) = delete;
+        Scope& operator=(const Scope&) = delete;
+
+        Stage       mStage;
+        int         mCalls;
+        long long   mStart;
+    };
+
+private:
+    struct StageData
+    {
+        std::atomic<long long>      PendingNanos;
+        std::atomic<int>            PendingCalls;
+        std::atomic<long long>      TotalNanos;
+        std::atomic<long long>      TotalCalls;
+        std::atomic<int>            History[HISTORY_SIZE];
+        std::atomic<unsigned int>   Buckets[NUM_BUCKETS];
+    };
+
+    static int bucketIndex(long long nanos);
+
+    static std::atomic<bool>        sEnabled;
+    static std::atomic<long long>   sFrames;
+    static std::atomic<long long>   sLastFrameTime;
+    static StageData                sStages[STAGE_COUNT];
+};
+
+}
+#endif
@@ -0,0 +1,109 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "gvr_profiler.h"
+
+#include "util/gvr_jni.h"
+
+namespace gvr {
+
+extern "C" {
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_setEnabled(JNIEnv * env,
+        jobject obj, jboolean enabled);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_reset(JNIEnv * env,
+        jobject obj);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_endFrame(JNIEnv * env,
+        jobject obj);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_record(JNIEnv * env,
+        jobject obj, jint stage, jlong nanos);
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_getCounters(JNIEnv * env,
+        jobject obj, jint stage, jlongArray jcounters);
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_debug_NativeProfiler_getHistory(JNIEnv * env,
+        jobject obj, jint stage, jintArray jnanos);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_setEnabled(JNIEnv * env,
+        jobject obj, jboolean enabled) {
+    Profiler::setEnabled(enabled);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_reset(JNIEnv * env,
+        jobject obj) {
+    Profiler::reset();
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_endFrame(JNIEnv * env,
+        jobject obj) {
+    Profiler::endFrame();
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_record(JNIEnv * env,
+        jobject obj, jint stage, jlong nanos) {
+    if ((stage >= 0) && (stage < Profiler::STAGE_COUNT)) {
+        Profiler::add(static_cast<Profiler::Stage>(stage), nanos);
+    }
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeProfiler_getCounters(JNIEnv * env,
+        jobject obj, jint stage, jlongArray jcounters) {
+    if ((stage < 0) || (stage >= Profiler::STAGE_COUNT) ||
+        (env->GetArrayLength(jcounters) < Profiler::COUNTER_COUNT)) {
+        return;
+    }
+    jlong counters[Profiler::COUNTER_COUNT];
+    long long values[Profiler::COUNTER_COUNT];
+
+    Profiler::getCounters(static_cast<Profiler::Stage>(stage), values);
+    for (int i = 0; i < Profiler::COUNTER_COUNT; ++i) {
+        counters[i] = values[i];
+    }
+    env->SetLongArrayRegion(jcounters, 0, Profiler::COUNTER_COUNT, counters);
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_debug_NativeProfiler_getHistory(JNIEnv * env,
+        jobject obj, jint stage, jintArray jnanos) {
+    if ((stage < 0) || (stage >= Profiler::STAGE_COUNT) ||
+        (env->GetArrayLength(jnanos) < Profiler::HISTORY_SIZE)) {
+        return 0;
+    }
+    int values[Profiler::HISTORY_SIZE];
+    jint nanos[Profiler::HISTORY_SIZE];
+    int count = Profiler::getHistory(static_cast<Profiler::Stage>(stage), values);
+
+    for (int i = 0; i < count; ++i) {
+        nanos[i] = values[i];
+    }
+    env->SetIntArrayRegion(jnanos, 0, count, nanos);
+    return count;
+}
+
+}
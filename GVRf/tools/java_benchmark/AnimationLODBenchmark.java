@@ -0,0 +1,445 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.gearvrf.GVRBone;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.animation.GVRAnimationEngine;
+import org.gearvrf.animation.GVRRepeatMode;
+import org.gearvrf.animation.keyframe.GVRAnimationBehavior;
+import org.gearvrf.animation.keyframe.GVRAnimationChannel;
+import org.gearvrf.animation.keyframe.GVRAnimationLOD;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
+import org.gearvrf.animation.keyframe.GVRSkinningController;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+/**
+ * Measures the key frame animations of a crowd of skinned
+ * characters with and without a GVRAnimationLOD.
+ * <p>
+ * Builds 100 characters with a 65 bone humanoid skeleton.
+ * 30% of them are culled, the others are spaced evenly in distance
+ * from the camera, from 0.6 of the screen height down. The crowd is animated three ways:
+ * evaluating the channels each time the node and the skinning
+ * controllers ask for them, as GVRKeyFrameAnimation did before,
+ * evaluating them once per frame, and with a level of detail policy.
+ * It prints the milliseconds per frame and the characters evaluated
+ * per frame of each, and for the policy how many characters each
+ * update interval has and how many of them are evaluated per frame.
+ * <p>
+ * Exits with an error if, with the policy, a culled character was
+ * evaluated, a visible one was not evaluated at its interval, the
+ * characters at an interval were not spread evenly over the frames,
+ * the minor bones of small characters moved or those of large ones
+ * did not, or a character coming back into view was not evaluated
+ * in its first frame.
+ */
+public class AnimationLODBenchmark {
+    private static final int NUM_CHARACTERS = 100;
+    private static final float CULLED_FRACTION = 0.3f;
+    private static final float LARGEST_SIZE = 0.6f;
+    private static final float DISTANCE_STEP = 0.25f;     // distance between characters relative to the closest
+    private static final int NUM_KEYS = 30;
+    private static final float TICKS_PER_SECOND = 30;
+    private static final float FRAME_TIME = 1.0f / 60;
+    private static final int WARMUP_FRAMES = 2000;
+
+    private static final int EVALUATE_TWICE = 0;
+    private static final int EVALUATE_ONCE = 1;
+    private static final int EVALUATE_LOD = 2;
+    private static final String[] MODE_NAMES = { "evaluated twice", "evaluated once", "GVRAnimationLOD" };
+
+    static int sFrame = 0;
+
+    /*
+     * Counts the frames the animation is evaluated in.
+     * Without the cache it evaluates the channels every time
+     * it is asked, like GVRKeyFrameAnimation did before.
+     */
+    static class CountingAnimation extends GVRKeyFrameAnimation {
+        final boolean cached;
+        int evaluations = 0;
+        int lastFrame = -1;
+
+        CountingAnimation(GVRSceneObject target, float durationTicks, boolean cached) {
+            super("walk", target, durationTicks, TICKS_PER_SECOND);
+            this.cached = cached;
+        }
+
+        @Override
+        protected Matrix4f[] getTransforms(float animationTime) {
+            if (lastFrame != sFrame) {
+                lastFrame = sFrame;
+                ++evaluations;
+            }
+            if (cached) {
+                return super.getTransforms(animationTime);
+            }
+            for (int i = 0; i < getNumChannels(); ++i) {
+                getChannel(i).animate(animationTime, mTransforms[i]);
+            }
+            return mTransforms;
+        }
+
+        Matrix4f getTransform(int channel, Matrix4f dest) {
+            return dest.set(mTransforms[channel]);
+        }
+    }
+
+    static class Character {
+        final GVRSceneObject root;
+        final CountingAnimation animation;
+        final float size;
+
+        Character(GVRSceneObject root, CountingAnimation animation, float size) {
+            this.root = root;
+            this.animation = animation;
+            this.size = size;
+        }
+    }
+
+    public static void main(String[] args) {
+        int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        GVRAnimationLOD lod = new GVRAnimationLOD();
+        boolean passed = true;
+
+        // whole update intervals so each character is evaluated a fixed number of times
+        frames -= frames % lod.getMaxUpdateInterval();
+        for (int mode = EVALUATE_TWICE; mode <= EVALUATE_LOD; ++mode) {
+            passed &= run(mode, lod, frames);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Animate the crowd one way.
+     * @return false if a check of the level of detail failed
+     */
+    static boolean run(int mode, GVRAnimationLOD lod, int frames) {
+        GVRContext context = new GVRContext();
+        GVRAnimationEngine engine = new GVRAnimationEngine(context) { };
+        List<Character> characters = new ArrayList<Character>();
+        int numCulled = (int) (NUM_CHARACTERS * CULLED_FRACTION);
+        int numBones = 0;
+
+        for (int i = 0; i < NUM_CHARACTERS; ++i) {
+            List<String> boneNames = new ArrayList<String>();
+            GVRSceneObject root = makeSkeleton(context, boneNames);
+            CountingAnimation animation = makeAnimation(root, boneNames, mode != EVALUATE_TWICE);
+            float size = (i < numCulled) ? 0 : LARGEST_SIZE / (1 + (i - numCulled) * DISTANCE_STEP);
+
+            makeMesh(context, root, boneNames);
+            animation.prepare();
+            if (mode == EVALUATE_LOD) {
+                animation.setLOD(lod);
+            }
+            animation.setRepeatMode(GVRRepeatMode.REPEATED);
+            animation.setRepeatCount(-1);
+            animation.start(engine);
+            root.setViewSize(size);
+            characters.add(new Character(root, animation, size));
+            numBones = boneNames.size();
+        }
+
+        for (int f = 0; f < WARMUP_FRAMES; ++f) {
+            ++sFrame;
+            context.drawFrame(FRAME_TIME);
+        }
+
+        int[] intervals = new int[NUM_CHARACTERS];
+        int maxInterval = lod.getMaxUpdateInterval();
+        int[] perInterval = new int[maxInterval + 1];
+        int[] maxPerFrame = new int[maxInterval + 1];
+        int[] evaluatedAt = new int[maxInterval + 1];
+        Matrix4f[] minorStart = new Matrix4f[NUM_CHARACTERS];
+        Matrix4f[] majorStart = new Matrix4f[NUM_CHARACTERS];
+        boolean[] minor = minorChannels(characters.get(0), lod);
+        int minorChannel = indexOf(minor, true);
+        int majorChannel = indexOf(minor, false);
+        int numMinor = 0;
+
+        for (boolean m : minor) {
+            numMinor += m ? 1 : 0;
+        }
+        for (int i = 0; i < NUM_CHARACTERS; ++i) {
+            Character c = characters.get(i);
+
+            intervals[i] = lod.getUpdateInterval(c.size);
+            ++perInterval[intervals[i]];
+            c.animation.evaluations = 0;
+            minorStart[i] = c.animation.getTransform(minorChannel, new Matrix4f());
+            majorStart[i] = c.animation.getTransform(majorChannel, new Matrix4f());
+        }
+
+        long elapsed = 0;
+        long evaluations = 0;
+        for (int f = 0; f < frames; ++f) {
+            ++sFrame;
+            long start = System.nanoTime();
+            context.drawFrame(FRAME_TIME);
+            elapsed += System.nanoTime() - start;
+
+            Arrays.fill(evaluatedAt, 0);
+            for (int i = 0; i < NUM_CHARACTERS; ++i) {
+                if (characters.get(i).animation.lastFrame == sFrame) {
+                    ++evaluatedAt[intervals[i]];
+                    ++evaluations;
+                }
+            }
+            for (int k = 0; k <= maxInterval; ++k) {
+                maxPerFrame[k] = Math.max(maxPerFrame[k], evaluatedAt[k]);
+            }
+        }
+
+        if (mode == EVALUATE_TWICE) {
+            System.out.printf("%d characters, %d bones (%d minor), %d culled, %d frames%n",
+                    NUM_CHARACTERS, numBones, numMinor, numCulled, frames);
+        }
+        System.out.printf("  %-16s %7.3f ms per frame, %5.1f characters evaluated per frame%n",
+                MODE_NAMES[mode], elapsed / 1e6 / frames, (double) evaluations / frames);
+        if (mode != EVALUATE_LOD) {
+            return true;
+        }
+        for (int k = 0; k <= maxInterval; ++k) {
+            if (perInterval[k] > 0) {
+                System.out.printf("    %s: %d characters, at most %d evaluated per frame%n",
+                        (k == 0) ? "culled" : ("every " + k + " frames"), perInterval[k], maxPerFrame[k]);
+            }
+        }
+        return checkCounts(characters, intervals, frames)
+                & checkStagger(perInterval, maxPerFrame)
+                & checkMinorBones(characters, lod, minorChannel, majorChannel, minorStart, majorStart)
+                & checkBackInView(context, characters, intervals);
+    }
+
+    /*
+     * Culled characters are never evaluated, visible
+     * ones once in each of their update intervals.
+     */
+    static boolean checkCounts(List<Character> characters, int[] intervals, int frames) {
+        boolean passed = true;
+
+        for (int i = 0; i < characters.size(); ++i) {
+            int expected = (intervals[i] == 0) ? 0 : frames / intervals[i];
+            int evaluations = characters.get(i).animation.evaluations;
+
+            if (evaluations != expected) {
+                System.err.printf("character %d of size %.3f was evaluated %d times instead of %d%n",
+                        i, characters.get(i).size, evaluations, expected);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /*
+     * The characters at a reduced rate are spread
+     * evenly over the frames of their interval.
+     */
+    static boolean checkStagger(int[] perInterval, int[] maxPerFrame) {
+        boolean passed = true;
+
+        for (int k = 2; k < perInterval.length; ++k) {
+            int even = (perInterval[k] + k - 1) / k;
+
+            if (maxPerFrame[k] > even) {
+                System.err.printf("%d of %d characters at every %d frames were evaluated in one frame%n",
+                        maxPerFrame[k], perInterval[k], k);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /*
+     * Below the minor bone size the minor bones keep the pose
+     * they had after the warm up while the others move.
+     * Above it both move.
+     */
+    static boolean checkMinorBones(List<Character> characters, GVRAnimationLOD lod, int minorChannel,
+                                   int majorChannel, Matrix4f[] minorStart, Matrix4f[] majorStart) {
+        Matrix4f m = new Matrix4f();
+        boolean passed = true;
+
+        for (int i = 0; i < characters.size(); ++i) {
+            Character c = characters.get(i);
+
+            if (c.size <= 0) {
+                continue;
+            }
+            boolean minorMoved = !c.animation.getTransform(minorChannel, m).equals(minorStart[i]);
+            boolean majorMoved = !c.animation.getTransform(majorChannel, m).equals(majorStart[i]);
+
+            if (!majorMoved || (minorMoved == lod.freezesMinorBones(c.size))) {
+                System.err.printf("character %d of size %.3f: major bones %s, minor bones %s%n",
+                        i, c.size, majorMoved ? "moved" : "still", minorMoved ? "moved" : "still");
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /*
+     * Culled characters which come back into view, even
+     * at the lowest rate, are evaluated in the first frame.
+     */
+    static boolean checkBackInView(GVRContext context, List<Character> characters, int[] intervals) {
+        boolean passed = true;
+
+        for (Character c : characters) {
+            if (c.size <= 0) {
+                c.root.setViewSize(0.01f);
+            }
+        }
+        ++sFrame;
+        context.drawFrame(FRAME_TIME);
+        for (int i = 0; i < characters.size(); ++i) {
+            Character c = characters.get(i);
+
+            if ((intervals[i] == 0) && (c.animation.lastFrame != sFrame)) {
+                System.err.printf("character %d was not evaluated when it came into view%n", i);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    static boolean[] minorChannels(Character c, GVRAnimationLOD lod) {
+        return new GVRSkinningController(c.root, c.animation).findMinorChannels(lod.getMinorBoneFraction());
+    }
+
+    static int indexOf(boolean[] values, boolean value) {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("The skeleton has no " + (value ? "minor" : "major") + " bones");
+    }
+
+    /*
+     * A humanoid skeleton of 65 bones: a spine with a neck and
+     * head, and on each side an arm with twist bones, a hand
+     * with five fingers and a leg with a foot and toes.
+     */
+    static GVRSceneObject makeSkeleton(GVRContext context, List<String> boneNames) {
+        GVRSceneObject root = makeNode(context, null, "root", 0, 0, 0, boneNames);
+        GVRSceneObject hips = makeNode(context, root, "hips", 0, 1, 0, boneNames);
+        GVRSceneObject spine = hips;
+
+        for (int i = 0; i < 3; ++i) {
+            spine = makeNode(context, spine, "spine" + i, 0, 0.15f, 0, boneNames);
+        }
+        makeNode(context, makeNode(context, spine, "neck", 0, 0.1f, 0, boneNames), "head", 0, 0.12f, 0, boneNames);
+        for (int side = -1; side <= 1; side += 2) {
+            String s = (side < 0) ? "L" : "R";
+            GVRSceneObject arm = makeNode(context, spine, "shoulder" + s, side * 0.08f, 0.05f, 0, boneNames);
+            GVRSceneObject leg = makeNode(context, hips, "upLeg" + s, side * 0.1f, -0.05f, 0, boneNames);
+
+            arm = makeNode(context, arm, "upperArm" + s, side * 0.1f, 0, 0, boneNames);
+            arm = makeNode(context, arm, "upperArmTwist" + s, side * 0.14f, 0, 0, boneNames);
+            arm = makeNode(context, arm, "foreArm" + s, side * 0.14f, 0, 0, boneNames);
+            arm = makeNode(context, arm, "foreArmTwist" + s, side * 0.12f, 0, 0, boneNames);
+            arm = makeNode(context, arm, "hand" + s, side * 0.12f, 0, 0, boneNames);
+            for (int f = 0; f < 5; ++f) {
+                GVRSceneObject finger = arm;
+                for (int i = 0; i < 3; ++i) {
+                    finger = makeNode(context, finger, "finger" + s + f + i, side * 0.03f, 0, (f - 2) * 0.02f, boneNames);
+                }
+            }
+            leg = makeNode(context, leg, "leg" + s, 0, -0.45f, 0, boneNames);
+            leg = makeNode(context, leg, "foot" + s, 0, -0.42f, 0, boneNames);
+            leg = makeNode(context, leg, "toeBase" + s, 0, -0.06f, 0.1f, boneNames);
+            for (int t = 0; t < 4; ++t) {
+                makeNode(context, leg, "toe" + s + t, side * (t - 1.5f) * 0.015f, 0, 0.04f, boneNames);
+            }
+        }
+        return root;
+    }
+
+    static GVRSceneObject makeNode(GVRContext context, GVRSceneObject parent, String name,
+                                   float x, float y, float z, List<String> boneNames) {
+        GVRSceneObject node = new GVRSceneObject(context);
+
+        node.setName(name);
+        node.getTransform().setPosition(x, y, z);
+        if (parent != null) {
+            parent.addChildObject(node);
+        }
+        boneNames.add(name);
+        return node;
+    }
+
+    /*
+     * Every bone but the root swings around its own axis.
+     */
+    static CountingAnimation makeAnimation(GVRSceneObject root, List<String> boneNames, boolean cached) {
+        CountingAnimation animation = new CountingAnimation(root, NUM_KEYS - 1, cached);
+        Quaternionf q = new Quaternionf();
+        float[] scale = { 1, 1, 1 };
+
+        for (int b = 1; b < boneNames.size(); ++b) {
+            String name = boneNames.get(b);
+            GVRSceneObject node = root.getSceneObjectByName(name);
+            GVRAnimationChannel channel = new GVRAnimationChannel(name, 1, NUM_KEYS, 1,
+                    GVRAnimationBehavior.DEFAULT, GVRAnimationBehavior.DEFAULT);
+
+            channel.setPosKeyVector(0, 0, node.getTransform().getPositionX(),
+                    node.getTransform().getPositionY(), node.getTransform().getPositionZ());
+            channel.setScaleKeyVector(0, 0, scale);
+            for (int k = 0; k < NUM_KEYS; ++k) {
+                float angle = 0.5f * (float) Math.sin(k * 2 * Math.PI / (NUM_KEYS - 1) + b);
+                channel.setRotKeyQuaternion(k, k, q.rotationAxis(angle, b % 3, 1, (b + 1) % 2).normalize());
+            }
+            animation.addChannel(channel);
+        }
+        return animation;
+    }
+
+    /*
+     * A mesh skinned to every bone.
+     */
+    static void makeMesh(GVRContext context, GVRSceneObject root, List<String> boneNames) {
+        GVRSceneObject owner = new GVRSceneObject(context);
+        GVRRenderData renderData = new GVRRenderData(context);
+        GVRMesh mesh = new GVRMesh(context, 1000);
+        List<GVRBone> bones = new ArrayList<GVRBone>();
+        float[] offset = new float[16];
+
+        for (String name : boneNames) {
+            GVRBone bone = new GVRBone(context);
+
+            root.getSceneObjectByName(name).getTransform().getModelMatrix(offset);
+            new Matrix4f().set(offset).invert().get(offset);
+            bone.setName(name);
+            bone.setOffsetMatrix(offset);
+            bones.add(bone);
+        }
+        owner.setName("body");
+        root.addChildObject(owner);
+        mesh.setBones(bones);
+        renderData.setMesh(mesh);
+        owner.attachRenderData(renderData);
+    }
+}
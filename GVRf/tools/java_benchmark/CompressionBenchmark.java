@@ -0,0 +1,532 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.gearvrf.animation.keyframe.GVRCompressedFloatAnimation;
+import org.gearvrf.animation.keyframe.GVRCompressedQuatAnimation;
+import org.gearvrf.animation.keyframe.GVRFloatAnimation;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
+import org.gearvrf.animation.keyframe.GVRQuatAnimation;
+import org.joml.Quaternionf;
+
+/**
+ * Measures the memory and evaluation time of compressed key frame
+ * animations and checks their error.
+ * <p>
+ * Makes a synthetic motion capture clip of 80 bones with 30 keys per
+ * second, 180 seconds by default. The root walks along a wavy path,
+ * every bone turns with two slow sine waves and noise, 3e-4 radians
+ * by default, the other positions and all the scales are constant.
+ * Each channel,
+ * the position, rotation and scale keys of one bone, is compressed
+ * with the default tolerances of GVRKeyFrameAnimation. It prints the
+ * keys kept, the bytes of key data and the nanoseconds to evaluate
+ * a channel, stepping through the clip frame by frame and at random
+ * times, with plain and with compressed keys.
+ * <p>
+ * The compressed channels are evaluated at the time of every source
+ * key. Exits with an error if a value is farther from the source key
+ * than the tolerance plus the quantization step, or if an empty,
+ * single key, constant or sign flipped channel is not compressed
+ * correctly.
+ * <p>
+ * It also rebuilds the channels from their quantized keys, as the
+ * model cache reads them back, and exits with an error if they do not
+ * evaluate to the same values as the channels compressed at import.
+ * For comparison it prints the keys and the error of compressing the
+ * decoded keys a second time, as the model cache did before.
+ */
+public class CompressionBenchmark {
+    private static final int NUM_BONES = 80;
+    private static final int KEYS_PER_SECOND = 30;
+    private static final float FRAMES_PER_KEY = 2;             // 60 Hz frames
+    private static final float DEFAULT_ROTATION_NOISE = 3e-4f;
+    private static final float WALK_SPEED = 0.5f / KEYS_PER_SECOND;
+    private static final int RANDOM_TIMES = 4096;
+    private static final int ROUNDS = 3;
+
+    private static final float POSITION_TOLERANCE = GVRKeyFrameAnimation.DEFAULT_POSITION_TOLERANCE;
+    private static final float ROTATION_TOLERANCE = GVRKeyFrameAnimation.DEFAULT_ROTATION_TOLERANCE;
+    private static final float SCALE_TOLERANCE = GVRKeyFrameAnimation.DEFAULT_SCALE_TOLERANCE;
+
+    /*
+     * Positions and scales are quantized to 65535 steps of their range.
+     * The three stored quaternion components are quantized to 32767
+     * steps of [-1/sqrt(2), 1/sqrt(2)]. Rounding them moves the unit
+     * quaternion by less than two steps, which turns it by less than
+     * twice that angle.
+     */
+    private static final int FLOAT_STEPS = 65535;
+    private static final float ROTATION_STEP = 4 * 2.0f / (0x7FFF * (float) Math.sqrt(2.0));
+
+    static float sSink = 0;
+
+    /*
+     * Position, rotation and scale keys of one bone,
+     * plain and compressed.
+     */
+    static class Channel {
+        final GVRFloatAnimation position;
+        final GVRQuatAnimation rotation;
+        final GVRFloatAnimation scale;
+        GVRCompressedFloatAnimation compressedPosition;
+        GVRCompressedQuatAnimation compressedRotation;
+        GVRCompressedFloatAnimation compressedScale;
+
+        Channel(GVRFloatAnimation position, GVRQuatAnimation rotation, GVRFloatAnimation scale) {
+            this.position = position;
+            this.rotation = rotation;
+            this.scale = scale;
+        }
+
+        void compress() {
+            compressedPosition = GVRCompressedFloatAnimation.compress(position, POSITION_TOLERANCE);
+            compressedRotation = GVRCompressedQuatAnimation.compress(rotation, ROTATION_TOLERANCE);
+            compressedScale = GVRCompressedFloatAnimation.compress(scale, SCALE_TOLERANCE);
+        }
+
+        long plainBytes() {
+            return 4L * (position.getNumKeys() * 4 + rotation.getNumKeys() * 5 + scale.getNumKeys() * 4);
+        }
+
+        long compressedBytes() {
+            return compressedPosition.getKeyDataSize() + compressedRotation.getKeyDataSize()
+                    + compressedScale.getKeyDataSize();
+        }
+    }
+
+    public static void main(String[] args) {
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 180;
+        float noise = (args.length > 1) ? Float.parseFloat(args[1]) : DEFAULT_ROTATION_NOISE;
+        int numKeys = seconds * KEYS_PER_SECOND + 1;
+        Random random = new Random(42);
+        Channel[] channels = new Channel[NUM_BONES];
+
+        for (int b = 0; b < NUM_BONES; ++b) {
+            channels[b] = makeChannel(b, numKeys, noise, random);
+        }
+        long start = System.nanoTime();
+        for (Channel c : channels) {
+            c.compress();
+        }
+        double compressMs = (System.nanoTime() - start) / 1e6;
+
+        long plainBytes = 0;
+        long compressedBytes = 0;
+        int[] kept = new int[3];
+        float[] maxError = new float[3];
+        float[] maxExcess = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+
+        for (Channel c : channels) {
+            plainBytes += c.plainBytes();
+            compressedBytes += c.compressedBytes();
+            kept[0] += c.compressedPosition.getNumKeys();
+            kept[1] += c.compressedRotation.getNumKeys();
+            kept[2] += c.compressedScale.getNumKeys();
+            measureFloatError(c.position, c.compressedPosition, POSITION_TOLERANCE, 0, maxError, maxExcess);
+            measureRotationError(c.rotation, c.compressedRotation, 1, maxError, maxExcess);
+            measureFloatError(c.scale, c.compressedScale, SCALE_TOLERANCE, 2, maxError, maxExcess);
+        }
+
+        System.out.printf("%d bones, %d keys per channel (%d s at %d keys per second), rotation noise %.2g%n",
+                NUM_BONES, numKeys, seconds, KEYS_PER_SECOND, noise);
+        System.out.printf("  compressed in %.1f ms%n", compressMs);
+        System.out.printf("  key data %.2f MB -> %.2f MB, %d -> %d bytes per channel%n",
+                plainBytes / 1e6, compressedBytes / 1e6, plainBytes / NUM_BONES, compressedBytes / NUM_BONES);
+        String[] names = { "position", "rotation", "scale" };
+        float[] tolerances = { POSITION_TOLERANCE, ROTATION_TOLERANCE, SCALE_TOLERANCE };
+        for (int i = 0; i < 3; ++i) {
+            System.out.printf("  %-8s keys kept %7d of %7d, largest error %.3g, tolerance %.3g%n",
+                    names[i], kept[i], numKeys * NUM_BONES, maxError[i], tolerances[i]);
+        }
+
+        double[] sequential = new double[2];
+        double[] randomAccess = new double[2];
+        float[] times = new float[RANDOM_TIMES];
+
+        for (int i = 0; i < RANDOM_TIMES; ++i) {
+            times[i] = random.nextFloat() * (numKeys - 1);
+        }
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int mode = 0; mode < 2; ++mode) {
+                sequential[mode] = timeSequential(channels, mode == 1, numKeys);
+                randomAccess[mode] = timeRandom(channels, mode == 1, times, numKeys);
+            }
+        }
+        System.out.printf("  ns per channel    plain  compressed%n");
+        System.out.printf("    sequential   %8.1f  %8.1f%n", sequential[0], sequential[1]);
+        System.out.printf("    random       %8.1f  %8.1f%n", randomAccess[0], randomAccess[1]);
+
+        boolean passed = true;
+        for (int i = 0; i < 3; ++i) {
+            if (maxExcess[i] > 0) {
+                System.err.printf("%s error is %.3g over the tolerance plus the quantization step%n",
+                        names[i], maxExcess[i]);
+                passed = false;
+            }
+        }
+        passed &= checkReload(channels);
+        passed &= checkEdgeCases();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Bone 0 is the root, which walks along a wavy path.
+     * The other bones keep their offset from their parent.
+     * Every bone turns around a fixed axis with a few sine
+     * waves of different frequencies plus noise.
+     * @param noise standard deviation of the noise angle in radians
+     */
+    static Channel makeChannel(int bone, int numKeys, float noise, Random random) {
+        float[] pos = new float[numKeys * 4];
+        float[] rot = new float[numKeys * 5];
+        float[] scl = new float[numKeys * 4];
+        Quaternionf q = new Quaternionf();
+        Quaternionf jitter = new Quaternionf();
+        float noisePerAxis = noise / (float) Math.sqrt(3.0);
+        float ax = random.nextFloat() - 0.5f;
+        float ay = random.nextFloat() - 0.5f;
+        float az = random.nextFloat() - 0.5f;
+        float len = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+        float f0 = 0.005f + random.nextFloat() * 0.025f;
+        float f1 = 0.02f + random.nextFloat() * 0.04f;
+        float phase = random.nextFloat() * 6.28f;
+        float offset = 0.05f + random.nextFloat() * 0.3f;
+
+        for (int k = 0; k < numKeys; ++k) {
+            float t = k;
+            float angle = 0.6f * (float) Math.sin(f0 * t + phase) + 0.05f * (float) Math.sin(f1 * t);
+
+            pos[k * 4] = t;
+            if (bone == 0) {
+                pos[k * 4 + 1] = WALK_SPEED * t;
+                pos[k * 4 + 2] = 1.0f + 0.03f * (float) Math.sin(0.4f * t);
+                pos[k * 4 + 3] = 2.0f * (float) Math.sin(0.005f * t);
+            } else {
+                pos[k * 4 + 2] = offset;
+            }
+            q.rotationAxis(angle, ax / len, ay / len, az / len);
+            jitter.rotationXYZ((float) random.nextGaussian() * noisePerAxis,
+                    (float) random.nextGaussian() * noisePerAxis,
+                    (float) random.nextGaussian() * noisePerAxis);
+            q.mul(jitter).normalize();
+            rot[k * 5] = t;
+            rot[k * 5 + 1] = q.x;
+            rot[k * 5 + 2] = q.y;
+            rot[k * 5 + 3] = q.z;
+            rot[k * 5 + 4] = q.w;
+            scl[k * 4] = t;
+            scl[k * 4 + 1] = 1;
+            scl[k * 4 + 2] = 1;
+            scl[k * 4 + 3] = 1;
+        }
+        return new Channel(new GVRFloatAnimation(pos, 4), new GVRQuatAnimation(rot), new GVRFloatAnimation(scl, 4));
+    }
+
+    /*
+     * Evaluate the compressed keys at the time of each source key.
+     * Records the largest difference of a value and by how much it
+     * exceeds the tolerance plus the quantization step of the value.
+     */
+    static void measureFloatError(GVRFloatAnimation source, GVRCompressedFloatAnimation compressed,
+                                  float tolerance, int slot, float[] maxError, float[] maxExcess) {
+        int numKeys = source.getNumKeys();
+        float[] key = new float[3];
+        float[] value = new float[3];
+        float[] lo = new float[3];
+        float[] hi = new float[3];
+
+        Arrays.fill(lo, Float.MAX_VALUE);
+        Arrays.fill(hi, -Float.MAX_VALUE);
+        for (int k = 0; k < numKeys; ++k) {
+            source.getKey(k, key);
+            for (int v = 0; v < 3; ++v) {
+                lo[v] = Math.min(lo[v], key[v]);
+                hi[v] = Math.max(hi[v], key[v]);
+            }
+        }
+        for (int k = 0; k < numKeys; ++k) {
+            source.getKey(k, key);
+            compressed.animate(source.getTime(k), value);
+            for (int v = 0; v < 3; ++v) {
+                float error = Math.abs(value[v] - key[v]);
+                float bound = tolerance + (hi[v] - lo[v]) / FLOAT_STEPS;
+
+                maxError[slot] = Math.max(maxError[slot], error);
+                maxExcess[slot] = Math.max(maxExcess[slot], error - bound);
+            }
+        }
+    }
+
+    static void measureRotationError(GVRQuatAnimation source, GVRCompressedQuatAnimation compressed,
+                                     int slot, float[] maxError, float[] maxExcess) {
+        int numKeys = source.getNumKeys();
+        float[] key = new float[4];
+        float[] value = new float[4];
+
+        for (int k = 0; k < numKeys; ++k) {
+            source.getKey(k, key);
+            compressed.animate(source.getTime(k), value);
+            float error = rotationAngle(key, value);
+
+            maxError[slot] = Math.max(maxError[slot], error);
+            maxExcess[slot] = Math.max(maxExcess[slot], error - (ROTATION_TOLERANCE + ROTATION_STEP));
+        }
+    }
+
+    /*
+     * Angle between the rotations of two unit quaternions, computed
+     * from the distance between them, 2 sin(angle / 4), which keeps
+     * its precision for small angles. q and -q are the same rotation.
+     */
+    static float rotationAngle(float[] a, float[] b) {
+        float dot = a[0] * b[0] + a[1] * b[1] + a[2] * b[2] + a[3] * b[3];
+        float sign = (dot < 0) ? -1.0f : 1.0f;
+        float d = 0;
+
+        for (int i = 0; i < 4; ++i) {
+            float diff = a[i] - sign * b[i];
+            d += diff * diff;
+        }
+        return 4.0f * (float) Math.asin(Math.min(1.0, Math.sqrt(d) * 0.5));
+    }
+
+    /*
+     * Evaluate every channel each 60 Hz frame of the clip.
+     * @return nanoseconds per channel
+     */
+    static double timeSequential(Channel[] channels, boolean compressed, int numKeys) {
+        float[] pos = new float[3];
+        float[] rot = new float[4];
+        float[] scl = new float[3];
+        int frames = (int) ((numKeys - 1) * FRAMES_PER_KEY);
+        long start = System.nanoTime();
+
+        for (int f = 0; f < frames; ++f) {
+            float time = f / FRAMES_PER_KEY;
+            for (Channel c : channels) {
+                evaluate(c, compressed, time, pos, rot, scl);
+            }
+        }
+        return (double) (System.nanoTime() - start) / ((long) frames * channels.length);
+    }
+
+    /*
+     * Evaluate every channel at times spread at random over the clip,
+     * like animations seeking or blending clips at other times.
+     * @return nanoseconds per channel
+     */
+    static double timeRandom(Channel[] channels, boolean compressed, float[] times, int numKeys) {
+        float[] pos = new float[3];
+        float[] rot = new float[4];
+        float[] scl = new float[3];
+        int evaluations = (int) ((numKeys - 1) * FRAMES_PER_KEY);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < evaluations; ++i) {
+            float time = times[i % times.length];
+            for (Channel c : channels) {
+                evaluate(c, compressed, time, pos, rot, scl);
+            }
+        }
+        return (double) (System.nanoTime() - start) / ((long) evaluations * channels.length);
+    }
+
+    static void evaluate(Channel c, boolean compressed, float time, float[] pos, float[] rot, float[] scl) {
+        if (compressed) {
+            c.compressedPosition.animate(time, pos);
+            c.compressedRotation.animate(time, rot);
+            c.compressedScale.animate(time, scl);
+        } else {
+            c.position.animate(time, pos);
+            c.rotation.animate(time, rot);
+            c.scale.animate(time, scl);
+        }
+        sSink += pos[0] + rot[3] + scl[2];
+    }
+
+    /*
+     * A model loaded from the cache gets its compressed channels
+     * back from the stored quantized keys. Rebuilt that way they
+     * must evaluate to exactly the values they had after import.
+     * Compressing the decoded keys again removes keys against
+     * values which are already off by up to the tolerance, so its
+     * error can reach about twice the tolerance.
+     * @return false if a rebuilt channel differs
+     */
+    static boolean checkReload(Channel[] channels) {
+        float[] maxError = new float[3];
+        float[] maxExcess = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+        int[] keptAgain = new int[3];
+        int differences = 0;
+
+        for (Channel c : channels) {
+            GVRCompressedFloatAnimation position = reload(c.compressedPosition);
+            GVRCompressedQuatAnimation rotation = GVRCompressedQuatAnimation.fromCompressed(
+                    c.compressedRotation.getKeyTimes().clone(), c.compressedRotation.getKeyValues().clone());
+            GVRCompressedFloatAnimation scale = reload(c.compressedScale);
+
+            differences += countDifferences(c.position, c.compressedPosition, position);
+            differences += countDifferences(c.rotation, c.compressedRotation, rotation);
+            differences += countDifferences(c.scale, c.compressedScale, scale);
+
+            GVRCompressedFloatAnimation positionAgain = GVRCompressedFloatAnimation.compress(
+                    decode(c.compressedPosition, 4), POSITION_TOLERANCE);
+            GVRCompressedQuatAnimation rotationAgain = GVRCompressedQuatAnimation.compress(
+                    (GVRQuatAnimation) decode(c.compressedRotation, 5), ROTATION_TOLERANCE);
+
+            keptAgain[0] += positionAgain.getNumKeys();
+            keptAgain[1] += rotationAgain.getNumKeys();
+            measureFloatError(c.position, positionAgain, POSITION_TOLERANCE, 0, maxError, maxExcess);
+            measureRotationError(c.rotation, rotationAgain, 1, maxError, maxExcess);
+        }
+        System.out.printf("  compressed again from the decoded keys: position keys %d, largest error %.3g,"
+                + " rotation keys %d, largest error %.3g%n", keptAgain[0], maxError[0], keptAgain[1], maxError[1]);
+        return check("channels rebuilt from their quantized keys", differences == 0);
+    }
+
+    static GVRCompressedFloatAnimation reload(GVRCompressedFloatAnimation keys) {
+        return GVRCompressedFloatAnimation.fromCompressed(keys.getKeyTimes().clone(), keys.getKeyValues().clone(),
+                keys.getValueMin().clone(), keys.getValueStep().clone());
+    }
+
+    /*
+     * The decompressed keys, as the model cache wrote them before.
+     */
+    static GVRFloatAnimation decode(GVRCompressedFloatAnimation compressed, int keySize) {
+        int numKeys = compressed.getNumKeys();
+        GVRFloatAnimation plain = (keySize == 5) ? new GVRQuatAnimation(numKeys) : new GVRFloatAnimation(numKeys, keySize);
+        float[] value = new float[keySize - 1];
+
+        for (int k = 0; k < numKeys; ++k) {
+            compressed.getKey(k, value);
+            plain.setKey(k, compressed.getTime(k), value);
+        }
+        return plain;
+    }
+
+    /*
+     * Count the source key times at which two compressed
+     * animations do not give exactly the same values.
+     */
+    static int countDifferences(GVRFloatAnimation source, GVRCompressedFloatAnimation a, GVRCompressedFloatAnimation b) {
+        float[] va = new float[4];
+        float[] vb = new float[4];
+        int differences = (a.getNumKeys() != b.getNumKeys()) ? 1 : 0;
+
+        for (int k = 0; k < source.getNumKeys(); ++k) {
+            a.animate(source.getTime(k), va);
+            b.animate(source.getTime(k), vb);
+            differences += Arrays.equals(va, vb) ? 0 : 1;
+        }
+        return differences;
+    }
+
+    /*
+     * Channels without keys, with one key, with constant
+     * keys and with rotations which flip sign every other key.
+     * @return false if one was not compressed correctly
+     */
+    static boolean checkEdgeCases() {
+        boolean passed = true;
+        float[] value = { 7, 7, 7, 7 };
+
+        // no keys: nothing to evaluate, the values are left alone
+        GVRCompressedFloatAnimation empty = GVRCompressedFloatAnimation.compress(new GVRFloatAnimation(0, 4), SCALE_TOLERANCE);
+        GVRCompressedQuatAnimation emptyQuat = GVRCompressedQuatAnimation.compress(new GVRQuatAnimation(0), ROTATION_TOLERANCE);
+        empty.animate(1, value);
+        emptyQuat.animate(1, value);
+        passed &= check("empty channel", (empty.getNumKeys() == 0) && (emptyQuat.getNumKeys() == 0)
+                && (value[0] == 7) && (value[3] == 7));
+
+        // one key: its value at every time
+        float[] single = { 2, 0.5f, -3, 10 };
+        GVRCompressedFloatAnimation one = GVRCompressedFloatAnimation.compress(new GVRFloatAnimation(single, 4), POSITION_TOLERANCE);
+        float[] q = { 0.1f, 0.7f, -0.1f, 0.7f };
+        normalize(q);
+        GVRCompressedQuatAnimation oneQuat = GVRCompressedQuatAnimation.compress(
+                new GVRQuatAnimation(new float[] { 2, q[0], q[1], q[2], q[3] }), ROTATION_TOLERANCE);
+        boolean singleOk = (one.getNumKeys() == 1) && (oneQuat.getNumKeys() == 1);
+        for (float t = 0; t < 5; t += 1.5f) {
+            one.animate(t, value);
+            singleOk &= (value[0] == 0.5f) && (value[1] == -3) && (value[2] == 10);
+            oneQuat.animate(t, value);
+            singleOk &= rotationAngle(q, value) <= ROTATION_STEP;
+        }
+        passed &= check("single key channel", singleOk);
+
+        // constant keys: one key left
+        int n = 100;
+        float[] constant = new float[n * 4];
+        float[] constantQuat = new float[n * 5];
+        for (int k = 0; k < n; ++k) {
+            constant[k * 4] = k;
+            constant[k * 4 + 1] = 1;
+            constant[k * 4 + 2] = 2;
+            constant[k * 4 + 3] = 3;
+            constantQuat[k * 5] = k;
+            System.arraycopy(q, 0, constantQuat, k * 5 + 1, 4);
+        }
+        GVRCompressedFloatAnimation flat = GVRCompressedFloatAnimation.compress(new GVRFloatAnimation(constant, 4), SCALE_TOLERANCE);
+        GVRCompressedQuatAnimation flatQuat = GVRCompressedQuatAnimation.compress(new GVRQuatAnimation(constantQuat), ROTATION_TOLERANCE);
+        flat.animate(50.5f, value);
+        boolean constantOk = (flat.getNumKeys() == 1) && (flatQuat.getNumKeys() == 1)
+                && (value[0] == 1) && (value[1] == 2) && (value[2] == 3);
+        flatQuat.animate(50.5f, value);
+        passed &= check("constant channel", constantOk && (rotationAngle(q, value) <= ROTATION_STEP));
+
+        // q and -q are the same rotation, the keys of a smooth
+        // turn which flip sign are still within the tolerance
+        int numKeys = 300;
+        float[] flipped = new float[numKeys * 5];
+        Quaternionf r = new Quaternionf();
+        for (int k = 0; k < numKeys; ++k) {
+            float sign = ((k & 1) == 0) ? 1.0f : -1.0f;
+            r.rotationAxis(0.02f * k, 0.6f, 0.8f, 0);
+            flipped[k * 5] = k;
+            flipped[k * 5 + 1] = sign * r.x;
+            flipped[k * 5 + 2] = sign * r.y;
+            flipped[k * 5 + 3] = sign * r.z;
+            flipped[k * 5 + 4] = sign * r.w;
+        }
+        GVRQuatAnimation flippedSource = new GVRQuatAnimation(flipped);
+        GVRCompressedQuatAnimation flippedQuat = GVRCompressedQuatAnimation.compress(flippedSource, ROTATION_TOLERANCE);
+        float[] maxError = new float[1];
+        float[] maxExcess = { -Float.MAX_VALUE };
+        measureRotationError(flippedSource, flippedQuat, 0, maxError, maxExcess);
+        passed &= check("sign flipped rotations", maxExcess[0] <= 0);
+        return passed;
+    }
+
+    static boolean check(String name, boolean ok) {
+        if (ok) {
+            System.out.printf("  %s: ok%n", name);
+        } else {
+            System.err.printf("%s was not compressed correctly%n", name);
+        }
+        return ok;
+    }
+
+    static void normalize(float[] q) {
+        float len = (float) Math.sqrt(q[0] * q[0] + q[1] * q[1] + q[2] * q[2] + q[3] * q[3]);
+        for (int i = 0; i < 4; ++i) {
+            q[i] /= len;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVREventManager;
+import org.gearvrf.GVRPicker;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.IEvents;
+import org.gearvrf.IPickEvents;
+import org.gearvrf.script.IScriptFile;
+import org.gearvrf.script.IScriptable;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures how many events per second GVREventManager delivers.
+ * <p>
+ * Sends events to scene objects which each have one listener:
+ * a pick event, which has a direct dispatcher, an event of an
+ * interface without one, which is called by reflection, and an
+ * event with a float parameter, sent as a DirectEvent and as an
+ * array. Each is also sent the way the event manager did before
+ * the dispatchers, which looked up the method for each listener
+ * and invoked it by reflection.
+ * <p>
+ * Exits with an error if a listener missed an event or an event
+ * with the wrong parameters threw instead of being logged.
+ */
+public class EventBenchmark {
+    private static final int NUM_OBJECTS = 64;
+
+    public interface ISwipeEvents extends IEvents {
+        void onSwipe(GVRSceneObject sceneObject, GVRPicker.GVRPickedObject pickInfo);
+    }
+
+    public interface IScrollEvents extends IEvents {
+        void onScroll(GVRSceneObject sceneObject, float distance);
+    }
+
+    public static class Listener implements IPickEvents, ISwipeEvents, IScrollEvents {
+        int calls = 0;
+
+        public void onEnter(GVRSceneObject sceneObj, GVRPicker.GVRPickedObject collision) { }
+        public void onExit(GVRSceneObject sceneObj) { }
+        public void onInside(GVRSceneObject sceneObj, GVRPicker.GVRPickedObject collision) { ++calls; }
+        public void onPick(GVRPicker picker) { }
+        public void onNoPick(GVRPicker picker) { }
+        public void onSwipe(GVRSceneObject sceneObject, GVRPicker.GVRPickedObject pickInfo) { ++calls; }
+        public void onScroll(GVRSceneObject sceneObject, float distance) { ++calls; }
+    }
+
+    static class ScrollEvent extends GVREventManager.DirectEvent<IScrollEvents> {
+        GVRSceneObject sceneObject;
+        float distance;
+
+        @Override
+        public void dispatch(IScrollEvents handler) {
+            handler.onScroll(sceneObject, distance);
+        }
+
+        @Override
+        public Object[] getParams() {
+            return new Object[] { sceneObject, distance };
+        }
+    }
+
+    /*
+     * GVREventManager.sendEvent before the dispatchers.
+     * The listeners of the target are passed in, as GVREventReceiver
+     * does not give them out.
+     */
+    static class BaselineEventManager {
+        private final GVRContext mGvrContext;
+        private final WeakHashMap<Object, Map<String, Method>> mHandlerMethodCache =
+                new WeakHashMap<Object, Map<String, Method>>();
+
+        BaselineEventManager(GVRContext gvrContext) {
+            mGvrContext = gvrContext;
+        }
+
+        boolean sendEvent(Object target, List<IEvents> listeners, Class<? extends IEvents> eventsClass,
+                          String eventName, Object... params) {
+            boolean handled = false;
+
+            if (eventsClass.isInstance(target)) {
+                invokeMethod(target, findHandlerMethod(target, eventsClass, eventName, params), params);
+                handled = true;
+            }
+            for (IEvents listener : listeners) {
+                if (!eventsClass.isInstance(listener))
+                    continue;
+                invokeMethod(listener, findHandlerMethod(listener, eventsClass, eventName, params), params);
+                handled = true;
+            }
+            if ((target instanceof IScriptable) && (mGvrContext.getScriptManager() != null)) {
+                IScriptFile script = mGvrContext.getScriptManager().getScriptFile((IScriptable) target);
+                if (script != null) {
+                    handled |= script.invokeFunction(eventName, params);
+                }
+            }
+            return handled;
+        }
+
+        private Method findHandlerMethod(Object target, Class<? extends IEvents> eventsClass,
+                                         String eventName, Object[] params) {
+            synchronized (mHandlerMethodCache) {
+                Map<String, Method> targetCache = mHandlerMethodCache.get(target);
+                if ((targetCache != null) && targetCache.containsKey(eventName)) {
+                    return targetCache.get(eventName);
+                }
+            }
+            for (Method method : eventsClass.getMethods()) {
+                if (method.getName().equals(eventName) && (method.getParameterTypes().length == params.length)) {
+                    synchronized (mHandlerMethodCache) {
+                        Map<String, Method> targetCache = mHandlerMethodCache.get(target);
+                        if (targetCache == null) {
+                            targetCache = new TreeMap<String, Method>();
+                            mHandlerMethodCache.put(target, targetCache);
+                        }
+                        targetCache.put(eventName, method);
+                    }
+                    return method;
+                }
+            }
+            throw new RuntimeException(String.format("The interface contains no method %s", eventName));
+        }
+
+        private void invokeMethod(Object target, Method method, Object[] params) {
+            try {
+                method.invoke(target, params);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    interface Sender {
+        void send(GVRSceneObject target, int i);
+    }
+
+    static ThreadMXBean sThreads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    static double sBytesPerEvent;
+
+    public static void main(String[] args) {
+        final int events = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        final GVRContext context = new GVRContext();
+        final GVREventManager manager = context.getEventManager();
+        final BaselineEventManager baseline = new BaselineEventManager(context);
+        final GVRSceneObject[] objects = new GVRSceneObject[NUM_OBJECTS];
+        final Listener[] listeners = new Listener[NUM_OBJECTS];
+        final ScrollEvent scroll = new ScrollEvent();
+        final List<List<IEvents>> listenerLists = new ArrayList<List<IEvents>>();
+
+        for (int i = 0; i < NUM_OBJECTS; ++i) {
+            objects[i] = new GVRSceneObject(context);
+            listeners[i] = new Listener();
+            objects[i].getEventReceiver().addListener(listeners[i]);
+            listenerLists.add(new CopyOnWriteArrayList<IEvents>(new IEvents[] { listeners[i] }));
+        }
+        @SuppressWarnings("unchecked")
+        final List<IEvents>[] listenersOf = listenerLists.toArray(new List[NUM_OBJECTS]);
+        final GVRPicker.GVRPickedObject hit = new GVRPicker.GVRPickedObject(objects[0]);
+
+        System.out.printf("%d events to %d objects with one listener each, million events per second%n",
+                events, NUM_OBJECTS);
+        System.out.printf("%-22s %8s %8s %8s %14s%n", "event", "before", "now", "speedup", "bytes/event");
+        report("pick, direct", events, objects, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                baseline.sendEvent(target, listenersOf[i % NUM_OBJECTS], IPickEvents.class, "onInside", target, hit);
+            }
+        }, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                manager.sendEvent(target, IPickEvents.class, "onInside", target, hit);
+            }
+        });
+        report("swipe, reflection", events, objects, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                baseline.sendEvent(target, listenersOf[i % NUM_OBJECTS], ISwipeEvents.class, "onSwipe", target, hit);
+            }
+        }, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                manager.sendEvent(target, ISwipeEvents.class, "onSwipe", target, hit);
+            }
+        });
+        report("scroll, array", events, objects, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                baseline.sendEvent(target, listenersOf[i % NUM_OBJECTS], IScrollEvents.class, "onScroll", target, (float) i);
+            }
+        }, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                manager.sendEvent(target, IScrollEvents.class, "onScroll", new Object[] { target, (float) i });
+            }
+        });
+        report("scroll, DirectEvent", events, objects, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                baseline.sendEvent(target, listenersOf[i % NUM_OBJECTS], IScrollEvents.class, "onScroll", target, (float) i);
+            }
+        }, new Sender() {
+            public void send(GVRSceneObject target, int i) {
+                scroll.sceneObject = target;
+                scroll.distance = i;
+                manager.sendEvent(target, IScrollEvents.class, "onScroll", scroll);
+            }
+        });
+
+        boolean passed = true;
+        long expected = 4L * ROUNDS * 2 * (WARMUP + events) / NUM_OBJECTS;
+        for (Listener listener : listeners) {
+            if (listener.calls != expected) {
+                System.err.printf("a listener got %d events instead of %d%n", listener.calls, expected);
+                passed = false;
+                break;
+            }
+        }
+
+        // parameters swapped after the dispatcher is cached
+        try {
+            manager.sendEvent(objects[0], IPickEvents.class, "onInside", hit, objects[0]);
+            manager.sendEvent(objects[0], ISwipeEvents.class, "onSwipe", hit, objects[0]);
+        } catch (RuntimeException e) {
+            System.err.println("an event with the wrong parameters threw " + e);
+            passed = false;
+        }
+        if (context.getErrorCount() != 2) {
+            System.err.printf("%d errors were logged for 2 events with the wrong parameters%n",
+                    context.getErrorCount());
+            passed = false;
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static final int ROUNDS = 3;
+    private static final int WARMUP = 200000;
+
+    static void report(String name, int events, GVRSceneObject[] objects, Sender before, Sender now) {
+        double beforeRate = 0;
+        double nowRate = 0;
+        double beforeBytes = 0;
+
+        for (int r = 0; r < ROUNDS; ++r) {
+            beforeRate = Math.max(beforeRate, measure(before, objects, events));
+            beforeBytes = sBytesPerEvent;
+            nowRate = Math.max(nowRate, measure(now, objects, events));
+        }
+        System.out.printf("%-22s %8.2f %8.2f %7.1fx %6.0f -> %4.0f%n", name, beforeRate, nowRate,
+                nowRate / beforeRate, beforeBytes, sBytesPerEvent);
+    }
+
+    /*
+     * @return million events per second
+     */
+    static double measure(Sender sender, GVRSceneObject[] objects, int events) {
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; ++i) {
+            sender.send(objects[i % NUM_OBJECTS], i);
+        }
+        long bytes = sThreads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < events; ++i) {
+            sender.send(objects[i % NUM_OBJECTS], i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sBytesPerEvent = (double) (sThreads.getThreadAllocatedBytes(thread) - bytes) / events;
+        return events / (elapsed / 1000.0);
+    }
+}
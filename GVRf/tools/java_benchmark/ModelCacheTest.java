@@ -0,0 +1,679 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gearvrf.animation.GVRAnimator;
+import org.gearvrf.animation.keyframe.GVRAnimationBehavior;
+import org.gearvrf.animation.keyframe.GVRAnimationChannel;
+import org.gearvrf.animation.keyframe.GVRCompressedFloatAnimation;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
+import org.gearvrf.scene_objects.GVRModelSceneObject;
+import org.joml.Matrix4f;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+
+/**
+ * Checks that a model read back from the model cache is the model
+ * which was written.
+ * <p>
+ * Builds a model as the importer does: skinned and plain meshes
+ * with short and int indices, materials with uniforms, a texture
+ * file and the BRDF lookup texture, nodes sharing the meshes and
+ * materials and an animation with a plain and a compressed channel.
+ * It writes the model with {@link GVRModelCache}, loads it into a new
+ * model and compares the two field by field.
+ * <p>
+ * It then changes a source file, the application version and the
+ * format version, truncates the cache file, renames the shader
+ * in it and makes the model refuse the animator after the nodes were
+ * added. Each of them must make the load fail, leave the model as
+ * it was and delete the cache file.
+ * <p>
+ * Exits with an error if a field differs or a broken cache is used.
+ */
+public class ModelCacheTest {
+    private static final String MODEL_FILE = "model.fbx";
+    private static final String TEXTURE_FILE = "texture.png";
+    private static final String SKINNED_DESCRIPTOR = "float3 a_position float2 a_texcoord float4 a_bone_weights int4 a_bone_indices";
+    private static final String PLAIN_DESCRIPTOR = "float3 a_position float3 a_normal";
+    private static final EnumSet<GVRImportSettings> SETTINGS =
+            EnumSet.of(GVRImportSettings.USE_MODEL_CACHE, GVRImportSettings.COMPRESS_ANIMATIONS);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final float TOLERANCE = 1e-5f;
+
+    private static int sErrors = 0;
+
+    /*
+     * The shader the materials of the model use, it is
+     * found again by its class name when loading.
+     */
+    public static class TestShader extends GVRShader {
+        public TestShader() {
+            super("float4 u_color; int u_flags; float u_weights[3]",
+                  "sampler2D u_texture; sampler2D brdfLUTTexture", SKINNED_DESCRIPTOR);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File dir = Files.createTempDirectory("gvrf_model_cache").toFile();
+        GVRContext context = new GVRContext();
+
+        try {
+            writeFile(new File(dir, MODEL_FILE), "model");
+            writeFile(new File(dir, TEXTURE_FILE), "texture");
+            context.setContext(new Context(new File(dir, "cache")));
+            run(context, new GVRResourceVolume(dir, MODEL_FILE), dir);
+        } finally {
+            deleteAll(dir);
+        }
+        if (sErrors > 0) {
+            System.err.printf("%d fields differ or broken caches were used%n", sErrors);
+            System.exit(1);
+        }
+    }
+
+    static void run(final GVRContext context, final GVRResourceVolume volume, final File dir) throws IOException {
+        GVRSceneObject model = writeModel(context, volume);
+        File cacheFile = findCacheFile(context);
+
+        System.out.printf("model cache %s, %d bytes%n", cacheFile.getName(), cacheFile.length());
+        GVRAssetLoader.AssetRequest request = new GVRAssetLoader.AssetRequest();
+        GVRJassimpAdapter adapter = new GVRJassimpAdapter();
+        GVRModelSceneObject loaded = newModel(context);
+
+        if (!new GVRModelCache(context, volume, SETTINGS).load(request, loaded, adapter)) {
+            error("the model was not loaded from the cache");
+            return;
+        }
+        compareModels(model, loaded, request, adapter, context);
+        System.out.println("  read back unchanged: " + ((sErrors == 0) ? "yes" : "no"));
+
+        checkInvalid(context, volume, "changed texture file", new Runnable() {
+            public void run() {
+                writeFile(new File(dir, TEXTURE_FILE), "another texture");
+            }
+        });
+        writeFile(new File(dir, TEXTURE_FILE), "texture");
+
+        final PackageInfo info = getPackageInfo(context);
+        checkInvalid(context, volume, "application update", new Runnable() {
+            public void run() {
+                ++info.versionCode;
+            }
+        });
+        --info.versionCode;
+
+        checkInvalid(context, volume, "format version", new Runnable() {
+            public void run() {
+                patchVersion(findCacheFile(context));
+            }
+        });
+        checkInvalid(context, volume, "truncated file", new Runnable() {
+            public void run() {
+                truncate(findCacheFile(context));
+            }
+        });
+        checkInvalid(context, volume, "unknown shader", new Runnable() {
+            public void run() {
+                renameShader(findCacheFile(context));
+            }
+        });
+
+        // fails after the nodes were added, they must be removed again
+        GVRModelSceneObject noAnimator = new GVRModelSceneObject(context) {
+            @Override
+            public boolean attachComponent(GVRComponent component) {
+                throw new IllegalStateException("cannot attach " + component.getClass().getSimpleName());
+            }
+        };
+        GVRSceneObject camera = new GVRSceneObject(context);
+
+        camera.setName("camera");
+        noAnimator.addChildObject(camera);
+        checkInvalid(context, volume, "error after the nodes", new Runnable() {
+            public void run() {
+            }
+        }, noAnimator);
+    }
+
+    static void checkInvalid(GVRContext context, GVRResourceVolume volume, String what, Runnable breakCache) {
+        checkInvalid(context, volume, what, breakCache, newModel(context));
+    }
+
+    /*
+     * Write the model to the cache, break the cache and load it.
+     * The model loaded into already has a child of its own.
+     */
+    static void checkInvalid(GVRContext context, GVRResourceVolume volume, String what, Runnable breakCache,
+                             GVRModelSceneObject model) {
+        writeModel(context, volume);
+        File cacheFile = findCacheFile(context);
+        breakCache.run();
+
+        GVRAssetLoader.AssetRequest request = new GVRAssetLoader.AssetRequest();
+        boolean loaded = new GVRModelCache(context, volume, SETTINGS).load(request, model, new GVRJassimpAdapter());
+        boolean deleted = !cacheFile.exists();
+        boolean unchanged = (model.getChildrenCount() == 1) && (model.getComponent(GVRAnimator.getComponentType()) == null)
+                && model.getAnimations().isEmpty() && !request.getLoadTimes().isFromCache();
+
+        System.out.printf("  %-22s loaded %-5s deleted %-5s model unchanged %s%n", what + ":", loaded, deleted, unchanged);
+        if (loaded || !deleted || !unchanged) {
+            error("the cache was used or kept: " + what);
+        }
+    }
+
+    static GVRModelSceneObject newModel(GVRContext context) {
+        GVRModelSceneObject model = new GVRModelSceneObject(context);
+        GVRSceneObject camera = new GVRSceneObject(context);
+
+        camera.setName("camera");
+        model.addChildObject(camera);
+        return model;
+    }
+
+    /*
+     * Build the model and write it to the cache,
+     * as the importer does after importing it.
+     */
+    static GVRSceneObject writeModel(GVRContext context, GVRResourceVolume volume) {
+        GVRModelCache cache = new GVRModelCache(context, volume, SETTINGS);
+        GVRSceneObject model = makeModel(context, cache);
+
+        if (!cache.write(model, 1, Arrays.asList(MODEL_FILE, TEXTURE_FILE))) {
+            throw new IllegalStateException("the model was not written to the cache");
+        }
+        return model;
+    }
+
+    /*
+     * A camera which is not part of the imported model, a body
+     * with an arm and a hand, and a node without a mesh with a
+     * leg under it. The hand has the mesh of the body and the
+     * arm has its material, the leg has those of neither.
+     */
+    static GVRSceneObject makeModel(GVRContext context, GVRModelCache cache) {
+        GVRSceneObject model = newModel(context);
+        GVRMesh skinned = makeMesh(context, SKINNED_DESCRIPTOR, 4, new int[] { 0, 1, 2, 2, 1, 3 }, 2);
+        GVRMesh plain = makeMesh(context, PLAIN_DESCRIPTOR, 3, new int[] { 0, 1, 2 }, 4);
+        GVRMaterial textured = new GVRMaterial(context, new GVRShaderId(TestShader.class));
+        GVRMaterial colored = new GVRMaterial(context, new GVRShaderId(TestShader.class));
+        GVRTextureParameters params = new GVRTextureParameters(context);
+        GVRTexture texture = new GVRTexture(context, params);
+
+        params.setWrapSType(GVRTextureParameters.TextureWrapType.GL_MIRRORED_REPEAT);
+        params.setWrapTType(GVRTextureParameters.TextureWrapType.GL_REPEAT);
+        params.setMinFilterType(GVRTextureParameters.TextureFilterType.GL_NEAREST);
+        params.setMagFilterType(null);
+        texture.setTexCoord("a_texcoord", "diffuse_coord");
+        cache.addTexture(texture, TEXTURE_FILE, params);
+
+        textured.setFloatArray("u_color", new float[] { 1, 0.5f, 0.25f, 1 });
+        textured.setIntArray("u_flags", new int[] { 3 });
+        textured.setFloatArray("u_weights", new float[] { 0.1f, 0.2f, 0.3f });
+        textured.setTexture("u_texture", texture);
+        textured.setTexture(GVRJassimpAdapter.BRDF_LOOKUP_TEXTURE, new GVRJassimpAdapter().getBrdfLookup(context));
+        colored.setFloatArray("u_color", new float[] { 0, 0, 1, 0.5f });
+
+        GVRSceneObject body = makeNode(context, model, "body", 0, 1, 0, skinned, textured);
+        GVRSceneObject empty = makeNode(context, model, "empty", 2, 0, -1, null, null);
+
+        makeNode(context, makeNode(context, body, "arm", 0.5f, 0, 0, plain, textured), "hand", 0.3f, 0, 0, skinned, colored);
+        makeNode(context, empty, "leg", 0, -1, 0, plain, colored);
+        model.attachComponent(makeAnimator(context, model));
+        return model;
+    }
+
+    static GVRSceneObject makeNode(GVRContext context, GVRSceneObject parent, String name, float x, float y, float z,
+                                   GVRMesh mesh, GVRMaterial material) {
+        GVRSceneObject node = new GVRSceneObject(context);
+        float[] matrix = new float[16];
+
+        node.setName(name);
+        new Matrix4f().translationRotateScale(x, y, z, 0.2f, 0.4f, 0, 0.894427f, 1, 2, 1).get(matrix);
+        node.getTransform().setModelMatrix(matrix);
+        if (mesh != null) {
+            GVRRenderData renderData = new GVRRenderData(context);
+
+            renderData.setMesh(mesh);
+            renderData.setMaterial(material);
+            node.attachRenderData(renderData);
+        }
+        parent.addChildObject(node);
+        return node;
+    }
+
+    /*
+     * A mesh with interleaved vertex data, 16 bit indices
+     * if it has fewer than 4 vertices and bones if skinned.
+     */
+    static GVRMesh makeMesh(GVRContext context, String descriptor, int vertexCount, int[] indices, int seed) {
+        GVRMesh mesh = new GVRMesh(context, descriptor);
+        int floatsPerVertex = descriptor.equals(SKINNED_DESCRIPTOR) ? 13 : 6;
+        ByteBuffer vertices = ByteBuffer.allocateDirect(4 * floatsPerVertex * vertexCount).order(ByteOrder.nativeOrder());
+
+        for (int i = 0; i < floatsPerVertex * vertexCount; ++i) {
+            vertices.putFloat(seed + 0.25f * i);
+        }
+        mesh.getVertexBuffer().setData(vertices, vertexCount);
+
+        GVRIndexBuffer indexBuffer = new GVRIndexBuffer(context, (vertexCount > 3) ? 2 : 4, indices.length);
+        if (vertexCount > 3) {
+            char[] shorts = new char[indices.length];
+            for (int i = 0; i < indices.length; ++i) {
+                shorts[i] = (char) indices[i];
+            }
+            indexBuffer.setShortVec(shorts);
+        } else {
+            indexBuffer.setIntVec(indices);
+        }
+        mesh.setIndexBuffer(indexBuffer);
+        if (descriptor.equals(SKINNED_DESCRIPTOR)) {
+            List<GVRBone> bones = new ArrayList<GVRBone>();
+            String[] names = { "body", "arm" };
+
+            for (int b = 0; b < names.length; ++b) {
+                GVRBone bone = new GVRBone(context);
+                float[] offset = new float[16];
+
+                new Matrix4f().translation(0, -b - seed, 0.5f).get(offset);
+                bone.setName(names[b]);
+                bone.setOffsetMatrix(offset);
+                bones.add(bone);
+            }
+            mesh.setBones(bones);
+        }
+        return mesh;
+    }
+
+    /*
+     * An animation of the body with plain keys and
+     * of the arm with compressed keys.
+     */
+    static GVRAnimator makeAnimator(GVRContext context, GVRSceneObject model) {
+        GVRAnimator animator = new GVRAnimator(context, false);
+        GVRKeyFrameAnimation animation = new GVRKeyFrameAnimation("wave", model, 40, 24);
+        GVRAnimationChannel body = new GVRAnimationChannel("body", 3, 2, 1,
+                GVRAnimationBehavior.DEFAULT, GVRAnimationBehavior.REPEAT);
+        GVRAnimationChannel arm = new GVRAnimationChannel("arm", 41, 41, 41,
+                GVRAnimationBehavior.CONSTANT, GVRAnimationBehavior.LINEAR);
+
+        for (int k = 0; k < 3; ++k) {
+            body.setPosKeyVector(k, 20 * k, 0, 1 + 0.1f * k, 0);
+        }
+        body.setRotKeyQuaternion(0, 0, new float[] { 0, 0, 0, 1 });
+        body.setRotKeyQuaternion(1, 40, new float[] { 0, 0.6f, 0, 0.8f });
+        body.setScaleKeyVector(0, 0, new float[] { 1, 1, 1 });
+        for (int k = 0; k <= 40; ++k) {
+            float a = 0.1f * k;
+
+            arm.setPosKeyVector(k, k, 0.5f, 0.1f * (float) Math.sin(a), 0);
+            arm.setRotKeyQuaternion(k, k, new float[] { 0, 0, (float) Math.sin(a / 2), (float) Math.cos(a / 2) });
+            arm.setScaleKeyVector(k, k, new float[] { 1, 1 + 0.2f * (float) Math.sin(a), 1 });
+        }
+        arm.compress(1e-3f, 1e-3f, 1e-3f);
+        animation.addChannel(body);
+        animation.addChannel(arm);
+        animation.prepare();
+        animator.addAnimation(animation);
+        return animator;
+    }
+
+    /*
+     * Compare the nodes, meshes, materials and animations of the
+     * model written and the model loaded, and what the load
+     * reported in the asset request.
+     */
+    static void compareModels(GVRSceneObject written, GVRModelSceneObject loaded, GVRAssetLoader.AssetRequest request,
+                              GVRJassimpAdapter adapter, GVRContext context) {
+        Map<Object, Object> pairs = new IdentityHashMap<Object, Object>();
+
+        check(loaded.getChildrenCount() == written.getChildrenCount(), "number of nodes");
+        check(loaded.getChildByIndex(0).getName().equals("camera"), "child added before the load");
+        for (int i = 1; i < Math.min(written.getChildrenCount(), loaded.getChildrenCount()); ++i) {
+            compareNodes(written.getChildByIndex(i), loaded.getChildByIndex(i), pairs, request, adapter, context);
+        }
+
+        int[] sharing = request.getLoadTimes().getSharing();
+        check(request.getLoadTimes().isFromCache(), "load time from the cache");
+        check(Arrays.equals(sharing, new int[] { 2, 4, 2, 4 }), "mesh and material sharing " + Arrays.toString(sharing));
+        check(request.getTextureRequests().size() == 1, "number of texture requests");
+
+        GVRAnimator animator = (GVRAnimator) written.getComponent(GVRAnimator.getComponentType());
+        GVRAnimator loadedAnimator = (GVRAnimator) loaded.getComponent(GVRAnimator.getComponentType());
+
+        if (loadedAnimator == null) {
+            error("animator");
+            return;
+        }
+        check(!loadedAnimator.autoStart(), "animator started");
+        check(loadedAnimator.getAnimationCount() == animator.getAnimationCount(), "number of animations");
+        check(loaded.getAnimations().size() == animator.getAnimationCount(), "animations of the model");
+        for (int i = 0; i < Math.min(animator.getAnimationCount(), loadedAnimator.getAnimationCount()); ++i) {
+            compareAnimations((GVRKeyFrameAnimation) animator.getAnimation(i),
+                    (GVRKeyFrameAnimation) loadedAnimator.getAnimation(i));
+        }
+    }
+
+    /*
+     * Meshes and materials are compared the first time they are
+     * found. After that the loaded node must have the same loaded
+     * object, so what the written nodes share stays shared.
+     */
+    static void compareNodes(GVRSceneObject written, GVRSceneObject loaded, Map<Object, Object> pairs,
+                             GVRAssetLoader.AssetRequest request, GVRJassimpAdapter adapter, GVRContext context) {
+        String name = written.getName();
+        GVRRenderData rdata = written.getRenderData();
+        GVRRenderData loadedData = loaded.getRenderData();
+
+        check(name.equals(loaded.getName()), name + " name");
+        check(maxDifference(written.getTransform().getLocalModelMatrix(),
+                loaded.getTransform().getLocalModelMatrix()) <= TOLERANCE, name + " matrix");
+        check((rdata == null) == (loadedData == null), name + " render data");
+        if ((rdata != null) && (loadedData != null)) {
+            if (pair(pairs, rdata.getMesh(), loadedData.getMesh(), name + " mesh")) {
+                compareMeshes(rdata.getMesh(), loadedData.getMesh(), name);
+            }
+            if (pair(pairs, rdata.getMaterial(), loadedData.getMaterial(), name + " material")) {
+                compareMaterials((GVRMaterial) rdata.getMaterial(), (GVRMaterial) loadedData.getMaterial(), name,
+                                 request, adapter, context);
+            }
+        }
+        check(loaded.getChildrenCount() == written.getChildrenCount(), name + " number of children");
+        for (int i = 0; i < Math.min(written.getChildrenCount(), loaded.getChildrenCount()); ++i) {
+            compareNodes(written.getChildByIndex(i), loaded.getChildByIndex(i), pairs, request, adapter, context);
+        }
+    }
+
+    /*
+     * @return true if the written object was not seen before
+     */
+    static boolean pair(Map<Object, Object> pairs, Object written, Object loaded, String what) {
+        Object seen = pairs.get(written);
+
+        if (seen != null) {
+            check(seen == loaded, what + " shared");
+            return false;
+        }
+        check(!pairs.containsValue(loaded), what + " not shared");
+        pairs.put(written, loaded);
+        return true;
+    }
+
+    static void compareMeshes(GVRMesh written, GVRMesh loaded, String name) {
+        GVRVertexBuffer vbuf = written.getVertexBuffer();
+        GVRVertexBuffer loadedVbuf = loaded.getVertexBuffer();
+        GVRIndexBuffer ibuf = written.getIndexBuffer();
+        GVRIndexBuffer loadedIbuf = loaded.getIndexBuffer();
+
+        check(vbuf.getDescriptor().equals(loadedVbuf.getDescriptor()), name + " vertex descriptor");
+        check(vbuf.getVertexCount() == loadedVbuf.getVertexCount(), name + " vertex count");
+        check(getData(vbuf).equals(getData(loadedVbuf)), name + " vertex data");
+        if (loadedIbuf == null) {
+            error(name + " index buffer");
+        } else {
+            check(ibuf.getIndexSize() == loadedIbuf.getIndexSize(), name + " index size");
+            check(ibuf.getIndexCount() == loadedIbuf.getIndexCount(), name + " index count");
+            if (ibuf.getIndexSize() == 2) {
+                check(ibuf.asCharBuffer().equals(loadedIbuf.asCharBuffer()), name + " indices");
+            } else {
+                check(ibuf.asIntBuffer().equals(loadedIbuf.asIntBuffer()), name + " indices");
+            }
+        }
+        check(written.getBones().size() == loaded.getBones().size(), name + " number of bones");
+        for (int b = 0; b < Math.min(written.getBones().size(), loaded.getBones().size()); ++b) {
+            GVRBone bone = written.getBones().get(b);
+            GVRBone loadedBone = loaded.getBones().get(b);
+
+            check(bone.getName().equals(loadedBone.getName()), name + " bone name");
+            check(bone.getOffsetMatrix().equals(loadedBone.getOffsetMatrix()), name + " bone " + bone.getName());
+        }
+    }
+
+    static ByteBuffer getData(GVRVertexBuffer vbuf) {
+        ByteBuffer data = ByteBuffer.allocate(vbuf.getDataSize()).order(ByteOrder.nativeOrder());
+
+        vbuf.getData(data);
+        data.flip();
+        return data;
+    }
+
+    static void compareMaterials(GVRMaterial written, GVRMaterial loaded, String name,
+                                 GVRAssetLoader.AssetRequest request, GVRJassimpAdapter adapter, GVRContext context) {
+        check(written.getShaderType().ID == loaded.getShaderType().ID, name + " shader");
+        for (String uniform : new String[] { "u_color", "u_flags", "u_weights" }) {
+            check(written.hasUniform(uniform) == loaded.hasUniform(uniform), name + " has " + uniform);
+            if (!written.hasUniform(uniform) || !loaded.hasUniform(uniform)) {
+                continue;
+            }
+            if (uniform.equals("u_flags")) {
+                check(Arrays.equals(written.getIntVec(uniform), loaded.getIntVec(uniform)), name + " " + uniform);
+            } else {
+                check(Arrays.equals(written.getFloatVec(uniform), loaded.getFloatVec(uniform)), name + " " + uniform);
+            }
+        }
+        check(new ArrayList<String>(written.getTextureNames()).equals(new ArrayList<String>(loaded.getTextureNames())),
+              name + " texture names");
+        for (String key : loaded.getTextureNames()) {
+            GVRTexture loadedTex = loaded.getTexture(key);
+
+            if (key.equals(GVRJassimpAdapter.BRDF_LOOKUP_TEXTURE)) {
+                check(loadedTex == adapter.getBrdfLookup(context), name + " BRDF lookup texture");
+                continue;
+            }
+            GVRTexture tex = written.getTexture(key);
+            GVRTextureParameters params = tex.getTextureParameters();
+            GVRTextureParameters loadedParams = loadedTex.getTextureParameters();
+            GVRAssetLoader.TextureRequest texRequest = null;
+
+            for (GVRAssetLoader.TextureRequest r : request.getTextureRequests()) {
+                if (r.Texture == loadedTex) {
+                    texRequest = r;
+                }
+            }
+            check((texRequest != null) && texRequest.TextureFile.equals(TEXTURE_FILE), name + " " + key + " file");
+            check(tex.getTexCoordAttr().equals(loadedTex.getTexCoordAttr())
+                  && tex.getTexCoordShaderVar().equals(loadedTex.getTexCoordShaderVar()), name + " " + key + " texcoord");
+            check((params.getWrapSType() == loadedParams.getWrapSType())
+                  && (params.getWrapTType() == loadedParams.getWrapTType())
+                  && (params.getMinFilterType() == loadedParams.getMinFilterType())
+                  && (params.getMagFilterType() == loadedParams.getMagFilterType()), name + " " + key + " parameters");
+        }
+    }
+
+    /*
+     * Compressed channels must come back with the same quantized
+     * keys, they are not compressed again. Plain keys are compared
+     * as they are.
+     */
+    static void compareAnimations(GVRKeyFrameAnimation written, GVRKeyFrameAnimation loaded) {
+        String name = written.getName();
+        float[] a = new float[3];
+        float[] b = new float[3];
+        float[] qa = new float[4];
+        float[] qb = new float[4];
+
+        check(name.equals(loaded.getName()), name + " animation name");
+        check(written.getDurationTicks() == loaded.getDurationTicks(), name + " duration");
+        check(written.getTicksPerSecond() == loaded.getTicksPerSecond(), name + " ticks per second");
+        check(written.getNumChannels() == loaded.getNumChannels(), name + " number of channels");
+        for (int i = 0; i < Math.min(written.getNumChannels(), loaded.getNumChannels()); ++i) {
+            GVRAnimationChannel channel = written.getChannel(i);
+            GVRAnimationChannel loadedChannel = loaded.getChannel(i);
+            String node = name + " " + channel.getNodeName();
+
+            check(channel.getNodeName().equals(loadedChannel.getNodeName()), node + " channel name");
+            check((channel.getPreState() == loadedChannel.getPreState())
+                  && (channel.getPostState() == loadedChannel.getPostState()), node + " behaviors");
+            check(channel.isCompressed() == loadedChannel.isCompressed(), node + " compressed");
+            if (channel.isCompressed() && loadedChannel.isCompressed()) {
+                compareCompressedKeys(channel.getPosAnimation(), loadedChannel.getPosAnimation(), node + " positions");
+                compareCompressedKeys(channel.getRotAnimation(), loadedChannel.getRotAnimation(), node + " rotations");
+                compareCompressedKeys(channel.getScaleAnimation(), loadedChannel.getScaleAnimation(), node + " scales");
+                continue;
+            }
+            check((channel.getNumPosKeys() == loadedChannel.getNumPosKeys())
+                  && (channel.getNumRotKeys() == loadedChannel.getNumRotKeys())
+                  && (channel.getNumScaleKeys() == loadedChannel.getNumScaleKeys()), node + " number of keys");
+            for (int k = 0; k < Math.min(channel.getNumPosKeys(), loadedChannel.getNumPosKeys()); ++k) {
+                channel.getPosKeyVector(k, a);
+                loadedChannel.getPosKeyVector(k, b);
+                check((channel.getPosKeyTime(k) == loadedChannel.getPosKeyTime(k))
+                      && (maxDifference(a, b) == 0), node + " position key " + k);
+            }
+            for (int k = 0; k < Math.min(channel.getNumRotKeys(), loadedChannel.getNumRotKeys()); ++k) {
+                channel.getRotKeyQuaternion(k, qa);
+                loadedChannel.getRotKeyQuaternion(k, qb);
+                check((channel.getRotKeyTime(k) == loadedChannel.getRotKeyTime(k))
+                      && (maxDifference(qa, qb) == 0), node + " rotation key " + k);
+            }
+            for (int k = 0; k < Math.min(channel.getNumScaleKeys(), loadedChannel.getNumScaleKeys()); ++k) {
+                channel.getScaleKeyVector(k, a);
+                loadedChannel.getScaleKeyVector(k, b);
+                check((channel.getScaleKeyTime(k) == loadedChannel.getScaleKeyTime(k))
+                      && (maxDifference(a, b) == 0), node + " scale key " + k);
+            }
+        }
+    }
+
+    static void compareCompressedKeys(Object written, Object loaded, String what) {
+        GVRCompressedFloatAnimation keys = (GVRCompressedFloatAnimation) written;
+        GVRCompressedFloatAnimation loadedKeys = (GVRCompressedFloatAnimation) loaded;
+
+        check(keys.getClass() == loadedKeys.getClass(), what + " type");
+        check(Arrays.equals(keys.getKeyTimes(), loadedKeys.getKeyTimes()), what + " times");
+        check(Arrays.equals(keys.getKeyValues(), loadedKeys.getKeyValues()), what + " values");
+        check(Arrays.equals(keys.getValueMin(), loadedKeys.getValueMin()), what + " ranges");
+        check(Arrays.equals(keys.getValueStep(), loadedKeys.getValueStep()), what + " steps");
+    }
+
+    static float maxDifference(float[] a, float[] b) {
+        float diff = 0;
+
+        for (int i = 0; i < a.length; ++i) {
+            diff = Math.max(diff, Math.abs(a[i] - b[i]));
+        }
+        return diff;
+    }
+
+    static void check(boolean ok, String what) {
+        if (!ok) {
+            error(what + " differs");
+        }
+    }
+
+    static void error(String message) {
+        System.err.println(message);
+        ++sErrors;
+    }
+
+    static File findCacheFile(GVRContext context) {
+        File[] files = new File(context.getContext().getCacheDir(), "gvrf_models").listFiles();
+
+        if ((files == null) || (files.length != 1)) {
+            throw new IllegalStateException("expected one model cache file");
+        }
+        return files[0];
+    }
+
+    static PackageInfo getPackageInfo(GVRContext context) {
+        Context app = context.getContext();
+
+        try {
+            return app.getPackageManager().getPackageInfo(app.getPackageName(), 0);
+        } catch (android.content.pm.PackageManager.NameNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /*
+     * Increment the format version which follows the magic number.
+     */
+    static void patchVersion(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            ByteBuffer version = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+
+            raf.getChannel().read(version, 4);
+            version.putInt(0, version.getInt(0) + 1);
+            version.clear();
+            raf.getChannel().write(version, 4);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static void truncate(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() / 2);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /*
+     * Change a letter of the shader class name, so the file can be
+     * read but making the materials fails.
+     */
+    static void renameShader(File file) {
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            byte[] shader = TestShader.class.getName().getBytes(UTF8);
+
+            for (int i = 0; i + shader.length <= bytes.length; ++i) {
+                if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + shader.length), shader)) {
+                    bytes[i + shader.length - 1] = 'X';
+                }
+            }
+            Files.write(file.toPath(), bytes);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static void writeFile(File file, String contents) {
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            stream.write(contents.getBytes(UTF8));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static void deleteAll(File file) {
+        File[] children = file.listFiles();
+
+        if (children != null) {
+            for (File child : children) {
+                deleteAll(child);
+            }
+        }
+        file.delete();
+    }
+}
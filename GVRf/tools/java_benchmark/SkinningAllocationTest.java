@@ -0,0 +1,284 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gearvrf.GVRBone;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.animation.keyframe.GVRAnimationBehavior;
+import org.gearvrf.animation.keyframe.GVRAnimationChannel;
+import org.gearvrf.animation.keyframe.GVRKeyFrameAnimation;
+import org.gearvrf.animation.keyframe.GVRSkinningController;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks that skinning does not allocate memory per frame.
+ * <p>
+ * Builds a synthetic skeleton with arms, legs and fingers, a few
+ * meshes skinned to it and a key frame animation of every bone,
+ * once with plain keys and once with compressed keys.
+ * After a warm up it animates the skeleton for a number of frames
+ * and counts the bytes the thread allocated with the JVM allocation
+ * counter. It also computes the pose with the old recursive
+ * update, which the controller keeps as deprecated methods, and
+ * compares the bone matrices.
+ * <p>
+ * Exits with an error if a frame allocates or the two poses differ.
+ */
+public class SkinningAllocationTest {
+    private static final int NUM_KEYS = 30;
+    private static final float TICKS_PER_SECOND = 30;
+    private static final float FRAME_TIME = 1.0f / 60;
+    private static final float TOLERANCE = 1e-4f;
+
+    /*
+     * Computes the pose the way the controller did before,
+     * through its deprecated methods.
+     */
+    static class RecursiveSkinningController extends GVRSkinningController {
+        RecursiveSkinningController(GVRSceneObject root, GVRKeyFrameAnimation animation) {
+            super(root, animation);
+        }
+
+        void animateRecursive(float timeInSeconds) {
+            float tick = (timeInSeconds * animation.getTicksPerSecond()) % (animation.getDurationTicks() + 1e-6f);
+            Matrix4f[] transforms = new Matrix4f[animation.getNumChannels()];
+
+            for (int i = 0; i < transforms.length; ++i) {
+                transforms[i] = new Matrix4f();
+                animation.getChannel(i).animate(tick, transforms[i]);
+            }
+            updateTransforms(animRoot, new Matrix4f(), transforms);
+            for (GVRSceneObject node : boneMap.keySet()) {
+                for (GVRBone bone : boneMap.get(node)) {
+                    updateBoneMatrices(bone, nodeByName.get(node.getName()));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+        boolean passed = run(false, frames);
+
+        passed &= run(true, frames);
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Animate a skeleton with plain or compressed keys.
+     * @return false if a frame allocated or the poses differ
+     */
+    static boolean run(boolean compressed, int frames) {
+        GVRContext context = new GVRContext();
+        List<String> boneNames = new ArrayList<String>();
+        GVRSceneObject root = makeSkeleton(context, boneNames);
+        List<GVRMesh> meshes = new ArrayList<GVRMesh>();
+        GVRKeyFrameAnimation animation = makeAnimation(root, boneNames);
+
+        for (int m = 0; m < 3; ++m) {
+            meshes.add(makeMesh(context, root, "mesh" + m, boneNames, m));
+        }
+        if (compressed) {
+            animation.compress();
+        }
+        animation.prepare();
+
+        GVRSkinningController skinning = new GVRSkinningController(root, animation);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        float time = 0;
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int f = 0; f < 20000; ++f, time += FRAME_TIME) {
+            skinning.animate(time);
+        }
+
+        // the counter may allocate itself, that is subtracted
+        long counterBytes = threads.getThreadAllocatedBytes(thread);
+        counterBytes = threads.getThreadAllocatedBytes(thread) - counterBytes;
+
+        long start = System.nanoTime();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int f = 0; f < frames; ++f, time += FRAME_TIME) {
+            skinning.animate(time);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - counterBytes;
+        long elapsed = System.nanoTime() - start;
+
+        float maxDiff = comparePoses(root, animation, meshes, time);
+
+        System.out.printf("%s keys: %d bones, %d skinned meshes, %d frames%n",
+                compressed ? "compressed" : "plain", boneNames.size(), meshes.size(), frames);
+        System.out.printf("  %.2f us per frame, %d bytes allocated (%.2f per frame)%n",
+                elapsed / 1000.0 / frames, allocated, (double) allocated / frames);
+        System.out.printf("  largest difference from the recursive update %g%n", maxDiff);
+        if (allocated > 0) {
+            System.err.println("skinning allocated memory per frame");
+            return false;
+        }
+        if (maxDiff > TOLERANCE) {
+            System.err.println("skinning gave different bone matrices than the recursive update");
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * A spine with a head, two arms with five fingers
+     * and two legs. The hips have no animation channel,
+     * their pose comes from their transform. The prop is
+     * not animated and not under an animated bone.
+     */
+    static GVRSceneObject makeSkeleton(GVRContext context, List<String> boneNames) {
+        GVRSceneObject root = makeNode(context, null, "root", 0, 0, 0, boneNames);
+        GVRSceneObject hips = makeNode(context, root, "hips", 0, 1, 0, null);
+        GVRSceneObject spine = hips;
+
+        makeNode(context, hips, "prop", 0, 0, 0.1f, null);
+
+        for (int i = 0; i < 3; ++i) {
+            spine = makeNode(context, spine, "spine" + i, 0, 0.2f, 0, boneNames);
+        }
+        makeNode(context, makeNode(context, spine, "neck", 0, 0.1f, 0, boneNames), "head", 0, 0.15f, 0, boneNames);
+        for (int side = -1; side <= 1; side += 2) {
+            String s = (side < 0) ? "L" : "R";
+            GVRSceneObject arm = spine;
+            GVRSceneObject leg = hips;
+
+            for (int i = 0; i < 3; ++i) {
+                arm = makeNode(context, arm, "arm" + s + i, side * 0.25f, 0, 0, boneNames);
+                leg = makeNode(context, leg, "leg" + s + i, side * 0.05f, -0.4f, 0, boneNames);
+            }
+            for (int f = 0; f < 5; ++f) {
+                GVRSceneObject finger = arm;
+                for (int i = 0; i < 3; ++i) {
+                    finger = makeNode(context, finger, "finger" + s + f + i, side * 0.03f, 0, (f - 2) * 0.02f, boneNames);
+                }
+            }
+        }
+        return root;
+    }
+
+    static GVRSceneObject makeNode(GVRContext context, GVRSceneObject parent, String name,
+                                   float x, float y, float z, List<String> boneNames) {
+        GVRSceneObject node = new GVRSceneObject(context);
+
+        node.setName(name);
+        node.getTransform().setPosition(x, y, z);
+        if (parent != null) {
+            parent.addChildObject(node);
+        }
+        if (boneNames != null) {
+            boneNames.add(name);
+        }
+        return node;
+    }
+
+    /*
+     * Every bone but the root swings around its own axis.
+     */
+    static GVRKeyFrameAnimation makeAnimation(GVRSceneObject root, List<String> boneNames) {
+        float duration = NUM_KEYS - 1;
+        GVRKeyFrameAnimation animation = new GVRKeyFrameAnimation("swing", root, duration, TICKS_PER_SECOND);
+        Quaternionf q = new Quaternionf();
+        float[] scale = { 1, 1, 1 };
+
+        for (int b = 1; b < boneNames.size(); ++b) {
+            String name = boneNames.get(b);
+            GVRSceneObject node = root.getSceneObjectByName(name);
+            GVRAnimationChannel channel = new GVRAnimationChannel(name, 1, NUM_KEYS, 1,
+                    GVRAnimationBehavior.DEFAULT, GVRAnimationBehavior.DEFAULT);
+
+            channel.setPosKeyVector(0, 0, node.getTransform().getPositionX(),
+                    node.getTransform().getPositionY(), node.getTransform().getPositionZ());
+            channel.setScaleKeyVector(0, 0, scale);
+            for (int k = 0; k < NUM_KEYS; ++k) {
+                float angle = 0.5f * (float) Math.sin(k * 2 * Math.PI / (NUM_KEYS - 1) + b);
+                channel.setRotKeyQuaternion(k, k, q.rotationAxis(angle, b % 3, 1, (b + 1) % 2).normalize());
+            }
+            animation.addChannel(channel);
+        }
+        return animation;
+    }
+
+    /*
+     * A mesh skinned to every other bone, starting at the first,
+     * and to the hips and the prop, which are not animated.
+     */
+    static GVRMesh makeMesh(GVRContext context, GVRSceneObject root, String name, List<String> boneNames, int first) {
+        GVRSceneObject owner = makeNode(context, root, name, 0, 0.5f * first, 0, null);
+        GVRRenderData renderData = new GVRRenderData(context);
+        GVRMesh mesh = new GVRMesh(context, 1000);
+        List<GVRBone> bones = new ArrayList<GVRBone>();
+        float[] offset = new float[16];
+
+        for (int b = first; b < boneNames.size(); b += 2) {
+            bones.add(makeBone(context, root, boneNames.get(b), offset));
+        }
+        bones.add(makeBone(context, root, "hips", offset));
+        bones.add(makeBone(context, root, "prop", offset));
+        mesh.setBones(bones);
+        renderData.setMesh(mesh);
+        owner.attachRenderData(renderData);
+        return mesh;
+    }
+
+    static GVRBone makeBone(GVRContext context, GVRSceneObject root, String name, float[] offset) {
+        GVRBone bone = new GVRBone(context);
+
+        root.getSceneObjectByName(name).getTransform().getModelMatrix(offset);
+        new Matrix4f().set(offset).invert().get(offset);
+        bone.setName(name);
+        bone.setOffsetMatrix(offset);
+        return bone;
+    }
+
+    /*
+     * Pose the skeleton both ways at the same time and
+     * return the largest difference of the bone matrices.
+     */
+    static float comparePoses(GVRSceneObject root, GVRKeyFrameAnimation animation, List<GVRMesh> meshes, float time) {
+        GVRSkinningController skinning = new GVRSkinningController(root, animation);
+        RecursiveSkinningController recursive = new RecursiveSkinningController(root, animation);
+        float[] bone = new float[16];
+        float maxDiff = 0;
+
+        skinning.animate(time);
+        recursive.animateRecursive(time);
+        for (GVRMesh mesh : meshes) {
+            float[] palette = mesh.getBoneMatrices();
+            List<GVRBone> bones = mesh.getBones();
+
+            for (int b = 0; b < bones.size(); ++b) {
+                bones.get(b).getFinalTransformMatrix().get(bone);
+                for (int i = 0; i < 16; ++i) {
+                    maxDiff = Math.max(maxDiff, Math.abs(bone[i] - palette[b * 16 + i]));
+                }
+            }
+        }
+        return maxDiff;
+    }
+}
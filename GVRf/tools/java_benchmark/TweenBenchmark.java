@@ -0,0 +1,346 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRTransform;
+import org.gearvrf.GVRTransformBatch;
+import org.gearvrf.animation.GVRAccelerateDecelerateInterpolator;
+import org.gearvrf.animation.GVRAnimation;
+import org.gearvrf.animation.GVRAnimationEngine;
+import org.gearvrf.animation.GVROnFinish;
+import org.gearvrf.animation.GVRPositionAnimation;
+import org.gearvrf.animation.GVRRepeatMode;
+import org.gearvrf.animation.GVRTweenEngine;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compares GVRTweenEngine with GVRAnimationEngine running the
+ * same position animations.
+ * <p>
+ * Starts 100, 1000 and 10000 ping-pong position animations with
+ * the accelerate/decelerate interpolator, durations between 1.25
+ * and 5.75 seconds and a repeat count, so some finish during the run,
+ * once as GVRPositionAnimations and once as tweens. Each set runs
+ * for a number of frames at 60 Hz. It prints the milliseconds
+ * per frame, the calls which go to native code on a device and
+ * the bytes allocated per frame.
+ * <p>
+ * The churn runs stop a tenth of the animations before each frame
+ * and start new ones on the same transforms, for which it also
+ * prints the transforms the tween engine sends to its batches.
+ * <p>
+ * Exits with an error if the tweens did not finish or end
+ * at the same positions as the animations, or if a tween
+ * without a duration or rotation axis could be started.
+ */
+public class TweenBenchmark {
+    private static final int[] COUNTS = { 100, 1000, 10000 };
+    private static final int ROUNDS = 3;
+    private static final int REPEAT_COUNT = 4;
+    private static final float FRAME_TIME = 1.0f / 60;
+    private static final float TOLERANCE = 1e-3f;
+    private static final int CHURN_PERIOD = 10;        // frames between restarts of a transform
+    private static final float CHURN_DURATION = 2.0f;
+
+    static ThreadMXBean sThreads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /*
+     * One set of animated transforms and the
+     * results of running it.
+     */
+    static abstract class Run {
+        final GVRContext context = new GVRContext();
+        final GVRTransform[] transforms;
+        int finished = 0;
+        double msPerFrame;
+        double callsPerFrame;
+        double bytesPerFrame;
+        double entriesPerFrame;
+
+        Run(int count) {
+            transforms = new GVRTransform[count];
+            for (int i = 0; i < count; ++i) {
+                transforms[i] = new GVRTransform(context);
+            }
+        }
+
+        /*
+         * No animation ends on a frame, GVRAnimation sums
+         * the frame times and the tween engine does not,
+         * they could round to different frames.
+         */
+        static float duration(int i) {
+            return 1.25f + (i % 10) * 0.5f;
+        }
+
+        abstract void start();
+
+        /*
+         * Called before each frame, the churn runs
+         * restart some of the animations.
+         */
+        void beforeFrame(int frame) {
+        }
+
+        void measure(int frames) {
+            long thread = Thread.currentThread().getId();
+
+            start();
+            GVRTransform.nativeCalls = 0;
+            GVRTransformBatch.entriesSent = 0;
+            long bytes = sThreads.getThreadAllocatedBytes(thread);
+            long begin = System.nanoTime();
+            for (int f = 0; f < frames; ++f) {
+                beforeFrame(f);
+                context.drawFrame(FRAME_TIME);
+            }
+            long elapsed = System.nanoTime() - begin;
+            bytesPerFrame = (double) (sThreads.getThreadAllocatedBytes(thread) - bytes) / frames;
+            msPerFrame = elapsed / 1e6 / frames;
+            callsPerFrame = (double) GVRTransform.nativeCalls / frames;
+            entriesPerFrame = (double) GVRTransformBatch.entriesSent / frames;
+        }
+    }
+
+    static class AnimationRun extends Run {
+        AnimationRun(int count) {
+            super(count);
+        }
+
+        @Override
+        void start() {
+            GVRAnimationEngine engine = new GVRAnimationEngine(context) { };
+            GVROnFinish onFinish = new GVROnFinish() {
+                @Override
+                public void finished(GVRAnimation animation) {
+                    ++finished;
+                }
+            };
+
+            for (int i = 0; i < transforms.length; ++i) {
+                new GVRPositionAnimation(transforms[i], duration(i), i, 1, 2)
+                        .setRepeatMode(GVRRepeatMode.PINGPONG)
+                        .setRepeatCount(REPEAT_COUNT)
+                        .setInterpolator(GVRAccelerateDecelerateInterpolator.getInstance())
+                        .setOnFinish(onFinish)
+                        .start(engine);
+            }
+        }
+    }
+
+    static class TweenRun extends Run {
+        TweenRun(int count) {
+            super(count);
+        }
+
+        @Override
+        void start() {
+            GVRTweenEngine engine = new GVRTweenEngine(context, 16) { };
+            GVRTweenEngine.OnFinish onFinish = new GVRTweenEngine.OnFinish() {
+                @Override
+                public void finished(GVRTweenEngine engine, int tween) {
+                    ++finished;
+                }
+            };
+
+            for (int i = 0; i < transforms.length; ++i) {
+                int tween = engine.position(transforms[i], duration(i), i, 1, 2);
+
+                engine.setRepeatMode(tween, GVRRepeatMode.PINGPONG)
+                        .setRepeatCount(tween, REPEAT_COUNT)
+                        .setInterpolator(tween, GVRTweenEngine.ACCELERATE_DECELERATE)
+                        .setOnFinish(tween, onFinish);
+            }
+        }
+    }
+
+    /*
+     * Linear position animations, each transform is
+     * stopped and started again every CHURN_PERIOD frames,
+     * a different tenth of them on each frame.
+     */
+    static class ChurnAnimationRun extends AnimationRun {
+        GVRAnimationEngine engine;
+        GVRAnimation[] animations;
+
+        ChurnAnimationRun(int count) {
+            super(count);
+        }
+
+        @Override
+        void start() {
+            engine = new GVRAnimationEngine(context) { };
+            animations = new GVRAnimation[transforms.length];
+            for (int i = 0; i < transforms.length; ++i) {
+                animations[i] = new GVRPositionAnimation(transforms[i], CHURN_DURATION, i, 0, 2).start(engine);
+            }
+        }
+
+        @Override
+        void beforeFrame(int frame) {
+            for (int i = frame % CHURN_PERIOD; i < transforms.length; i += CHURN_PERIOD) {
+                engine.stop(animations[i]);
+                animations[i] = new GVRPositionAnimation(transforms[i], CHURN_DURATION, i, frame, 2).start(engine);
+            }
+        }
+    }
+
+    static class ChurnTweenRun extends TweenRun {
+        GVRTweenEngine engine;
+        int[] tweens;
+
+        ChurnTweenRun(int count) {
+            super(count);
+        }
+
+        @Override
+        void start() {
+            engine = new GVRTweenEngine(context, 16) { };
+            tweens = new int[transforms.length];
+            for (int i = 0; i < transforms.length; ++i) {
+                tweens[i] = engine.position(transforms[i], CHURN_DURATION, i, 0, 2);
+            }
+        }
+
+        @Override
+        void beforeFrame(int frame) {
+            for (int i = frame % CHURN_PERIOD; i < transforms.length; i += CHURN_PERIOD) {
+                engine.stop(tweens[i]);
+                tweens[i] = engine.position(transforms[i], CHURN_DURATION, i, frame, 2);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 600;
+        boolean passed = true;
+
+        for (int r = 0; r < ROUNDS; ++r) {
+            new AnimationRun(COUNTS[1]).measure(frames);
+            new TweenRun(COUNTS[1]).measure(frames);
+        }
+        System.out.printf("%d frames, best of %d runs%n", frames, ROUNDS);
+        System.out.printf("%7s %21s %21s %17s%n", "", "ms per frame", "native calls/frame", "bytes/frame");
+        System.out.printf("%7s %10s %10s %10s %10s %8s %8s%n",
+                "tweens", "animation", "tween", "animation", "tween", "animation", "tween");
+        for (int count : COUNTS) {
+            AnimationRun animations = null;
+            TweenRun tweens = null;
+
+            for (int r = 0; r < ROUNDS; ++r) {
+                AnimationRun a = new AnimationRun(count);
+                TweenRun t = new TweenRun(count);
+
+                a.measure(frames);
+                t.measure(frames);
+                animations = ((animations == null) || (a.msPerFrame < animations.msPerFrame)) ? a : animations;
+                tweens = ((tweens == null) || (t.msPerFrame < tweens.msPerFrame)) ? t : tweens;
+            }
+            System.out.printf("%7d %10.3f %10.3f %10.0f %10.0f %8.0f %8.0f%n", count,
+                    animations.msPerFrame, tweens.msPerFrame,
+                    animations.callsPerFrame, tweens.callsPerFrame,
+                    animations.bytesPerFrame, tweens.bytesPerFrame);
+            passed &= check(animations, tweens);
+        }
+        System.out.printf("%nchurn, 1 in %d of the animations restarted before each frame%n", CHURN_PERIOD);
+        System.out.printf("%7s %21s %21s %21s%n", "", "ms per frame", "native calls/frame", "transforms sent");
+        System.out.printf("%7s %10s %10s %10s %10s %21s%n",
+                "tweens", "animation", "tween", "animation", "tween", "to batches/frame");
+        for (int count : COUNTS) {
+            AnimationRun animations = null;
+            TweenRun tweens = null;
+
+            for (int r = 0; r < ROUNDS; ++r) {
+                AnimationRun a = new ChurnAnimationRun(count);
+                TweenRun t = new ChurnTweenRun(count);
+
+                a.measure(frames);
+                t.measure(frames);
+                animations = ((animations == null) || (a.msPerFrame < animations.msPerFrame)) ? a : animations;
+                tweens = ((tweens == null) || (t.msPerFrame < tweens.msPerFrame)) ? t : tweens;
+            }
+            System.out.printf("%7d %10.3f %10.3f %10.0f %10.0f %21.0f%n", count,
+                    animations.msPerFrame, tweens.msPerFrame,
+                    animations.callsPerFrame, tweens.callsPerFrame, tweens.entriesPerFrame);
+            passed &= check(animations, tweens);
+        }
+        passed &= checkArguments();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * @return false if the tweens finished differently
+     *         or ended at other positions than the animations
+     */
+    static boolean check(AnimationRun animations, TweenRun tweens) {
+        float maxDiff = 0;
+
+        for (int i = 0; i < animations.transforms.length; ++i) {
+            GVRTransform a = animations.transforms[i];
+            GVRTransform t = tweens.transforms[i];
+
+            maxDiff = Math.max(maxDiff, difference(a.getPositionX(), t.getPositionX()));
+            maxDiff = Math.max(maxDiff, difference(a.getPositionY(), t.getPositionY()));
+            maxDiff = Math.max(maxDiff, difference(a.getPositionZ(), t.getPositionZ()));
+        }
+        if (animations.finished != tweens.finished) {
+            System.err.printf("%d animations finished, but %d tweens%n", animations.finished, tweens.finished);
+            return false;
+        }
+        if (maxDiff > TOLERANCE) {
+            System.err.printf("tweens ended up to %g away from the animations%n", maxDiff);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * @return false if a tween with a zero duration or
+     *         a zero rotation axis was started
+     */
+    static boolean checkArguments() {
+        GVRContext context = new GVRContext();
+        GVRTweenEngine engine = new GVRTweenEngine(context, 16) { };
+        GVRTransform transform = new GVRTransform(context);
+
+        try {
+            engine.position(transform, 0, 1, 2, 3);
+            System.err.println("a tween with a zero duration was started");
+            return false;
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            engine.rotateByAxis(transform, 1, 90, 0, 0, 0);
+            System.err.println("a rotation around a zero axis was started");
+            return false;
+        } catch (IllegalArgumentException e) {
+        }
+        return engine.getCount() == 0;
+    }
+
+    /*
+     * The targets go up to 10000 and GVRAnimation sums the frame
+     * times in a float, which drifts in long runs, so the
+     * difference is relative and the tolerance is loose.
+     */
+    static float difference(float a, float b) {
+        return Math.abs(a - b) / Math.max(1, Math.abs(a));
+    }
+}
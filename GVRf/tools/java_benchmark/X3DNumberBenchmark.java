@@ -0,0 +1,225 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compares X3DNumberScanner with parsing the same IndexedFaceSet
+ * attributes with a StringTokenizer, Float.parseFloat and Integer.parseInt.
+ * <p>
+ * Generates the point attribute of a Coordinate node with 10000, 100000
+ * and 1000000 points of three floats with six decimals, 2% of them in
+ * exponent form, and the coordIndex attribute of as many quads, four
+ * indices and a -1 for each face. Both are parsed both ways into the
+ * MeshCreator arrays the X3D loader fills. It prints the milliseconds
+ * per attribute and the bytes allocated per attribute, not counting
+ * the growth of the arrays, which are reused.
+ * <p>
+ * The benchmark is in the package of the scanner, which is package private.
+ * Exits with an error if the two ways give different numbers.
+ */
+public class X3DNumberBenchmark {
+    private static final int[] COUNTS = { 10000, 100000, 1000000 };
+    private static final int NUMBERS_PER_SIZE = 3000000;
+    private static final float EXPONENT_FRACTION = 0.02f;
+    private static final String SEPARATORS = " ,\t\r\n";
+
+    static ThreadMXBean sThreads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /*
+     * The attributes of one mesh and the results of parsing them one way.
+     */
+    static abstract class Run {
+        final X3Dobject.MeshCreator.FloatArray points = new X3Dobject.MeshCreator.FloatArray(64 * 3);
+        final X3Dobject.MeshCreator.IntArray indices = new X3Dobject.MeshCreator.IntArray(64);
+        double pointMs;
+        double indexMs;
+        double bytes;
+
+        abstract void parsePoints(String text);
+
+        abstract void parseIndices(String text);
+
+        void measure(String pointText, String indexText, int rounds) {
+            long thread = Thread.currentThread().getId();
+
+            // grow the arrays before measuring
+            parsePoints(pointText);
+            parseIndices(indexText);
+
+            long allocated = sThreads.getThreadAllocatedBytes(thread);
+            long begin = System.nanoTime();
+            for (int r = 0; r < rounds; ++r) {
+                parsePoints(pointText);
+            }
+            long middle = System.nanoTime();
+            for (int r = 0; r < rounds; ++r) {
+                parseIndices(indexText);
+            }
+            long end = System.nanoTime();
+            bytes = (double) (sThreads.getThreadAllocatedBytes(thread) - allocated) / (2 * rounds);
+            pointMs = (middle - begin) / 1e6 / rounds;
+            indexMs = (end - middle) / 1e6 / rounds;
+        }
+    }
+
+    static class ScannerRun extends Run {
+        final X3DNumberScanner scanner = new X3DNumberScanner();
+
+        @Override
+        void parsePoints(String text) {
+            points.clear();
+            scanner.reset(text);
+            scanner.nextFloats(points, 3);
+        }
+
+        @Override
+        void parseIndices(String text) {
+            indices.clear();
+            scanner.reset(text);
+            scanner.nextIndices(indices);
+        }
+    }
+
+    static class TokenizerRun extends Run {
+        @Override
+        void parsePoints(String text) {
+            StringTokenizer tokens = new StringTokenizer(text, SEPARATORS);
+
+            points.clear();
+            while (tokens.hasMoreTokens()) {
+                points.add(Float.parseFloat(tokens.nextToken()));
+            }
+        }
+
+        @Override
+        void parseIndices(String text) {
+            StringTokenizer tokens = new StringTokenizer(text, SEPARATORS);
+
+            indices.clear();
+            while (tokens.hasMoreTokens()) {
+                int index = Integer.parseInt(tokens.nextToken());
+
+                if (index != -1) {
+                    indices.add(index);
+                }
+            }
+        }
+    }
+
+    /*
+     * Point attribute as written by exporters, "x y z, x y z, ...".
+     */
+    static String makePoints(int count, Random random) {
+        StringBuilder text = new StringBuilder(count * 3 * 12);
+
+        for (int i = 0; i < count * 3; ++i) {
+            float v = random.nextFloat() * 200 - 100;
+
+            if (random.nextFloat() < EXPONENT_FRACTION) {
+                text.append(String.format(Locale.ROOT, "%.5e", v / 1000));
+            } else {
+                text.append(String.format(Locale.ROOT, "%.6f", v));
+            }
+            text.append(((i % 3) == 2) ? ", " : " ");
+        }
+        return text.toString();
+    }
+
+    /*
+     * coordIndex of quads, "a b c d -1, ...".
+     */
+    static String makeIndices(int count) {
+        StringBuilder text = new StringBuilder(count * 30);
+
+        for (int f = 0; f < count; ++f) {
+            for (int k = 0; k < 4; ++k) {
+                text.append((f + k) % count).append(' ');
+            }
+            text.append("-1, ");
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        boolean passed = true;
+
+        // let the JIT compile both ways before the first row
+        String warmupPoints = makePoints(COUNTS[0], random);
+        String warmupIndices = makeIndices(COUNTS[0]);
+        new ScannerRun().measure(warmupPoints, warmupIndices, 100);
+        new TokenizerRun().measure(warmupPoints, warmupIndices, 100);
+
+        System.out.printf("%8s %21s %21s %21s%n", "", "point ms", "coordIndex ms", "bytes/attribute");
+        System.out.printf("%8s %10s %10s %10s %10s %10s %10s%n",
+                "points", "tokenizer", "scanner", "tokenizer", "scanner", "tokenizer", "scanner");
+        for (int count : COUNTS) {
+            String pointText = makePoints(count, random);
+            String indexText = makeIndices(count);
+            int rounds = Math.max(3, NUMBERS_PER_SIZE / (count * 3));
+            TokenizerRun tokenizer = new TokenizerRun();
+            ScannerRun scanner = new ScannerRun();
+
+            tokenizer.measure(pointText, indexText, rounds);
+            scanner.measure(pointText, indexText, rounds);
+            System.out.printf("%8d %10.2f %10.2f %10.2f %10.2f %10.0f %10.0f%n", count,
+                    tokenizer.pointMs, scanner.pointMs, tokenizer.indexMs, scanner.indexMs,
+                    tokenizer.bytes, scanner.bytes);
+            passed &= check(tokenizer, scanner);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * @return false if the scanner read other numbers than the tokenizer
+     */
+    static boolean check(TokenizerRun tokenizer, ScannerRun scanner) {
+        int floatDiffs = 0;
+        int indexDiffs = 0;
+
+        if ((tokenizer.points.getSize() != scanner.points.getSize()) ||
+            (tokenizer.indices.getSize() != scanner.indices.getSize())) {
+            System.out.printf("the scanner read %d floats and %d indices, the tokenizer %d and %d%n",
+                    scanner.points.getSize(), scanner.indices.getSize(),
+                    tokenizer.points.getSize(), tokenizer.indices.getSize());
+            return false;
+        }
+        for (int i = 0; i < tokenizer.points.getSize(); ++i) {
+            if (Float.floatToIntBits(tokenizer.points.get(i)) != Float.floatToIntBits(scanner.points.get(i))) {
+                ++floatDiffs;
+            }
+        }
+        for (int i = 0; i < tokenizer.indices.getSize(); ++i) {
+            if (tokenizer.indices.get(i) != scanner.indices.get(i)) {
+                ++indexDiffs;
+            }
+        }
+        if ((floatDiffs > 0) || (indexDiffs > 0)) {
+            System.out.printf("%d floats and %d indices differ from the tokenizer%n", floatDiffs, indexDiffs);
+            return false;
+        }
+        return true;
+    }
+}
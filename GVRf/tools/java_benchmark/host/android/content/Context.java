@@ -0,0 +1,45 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.content;
+
+import java.io.File;
+
+import android.content.pm.PackageManager;
+
+/**
+ * Host version of an application context: a cache directory
+ * and the package manager with the version of the application.
+ */
+public class Context {
+    private final File mCacheDir;
+    private final PackageManager mPackageManager = new PackageManager();
+
+    public Context(File cacheDir) {
+        mCacheDir = cacheDir;
+    }
+
+    public File getCacheDir() {
+        return mCacheDir;
+    }
+
+    public PackageManager getPackageManager() {
+        return mPackageManager;
+    }
+
+    public String getPackageName() {
+        return "org.gearvrf.host";
+    }
+}
@@ -0,0 +1,54 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Host version of a resource: a file read through a stream.
+ */
+public class GVRAndroidResource {
+    private final File mFile;
+    private InputStream mStream;
+
+    public GVRAndroidResource(File file) {
+        mFile = file;
+    }
+
+    public InputStream getStream() {
+        if (mStream == null) {
+            try {
+                mStream = new FileInputStream(mFile);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return mStream;
+    }
+
+    public void closeStream() {
+        if (mStream != null) {
+            try {
+                mStream.close();
+            } catch (IOException e) {
+            }
+            mStream = null;
+        }
+    }
+}
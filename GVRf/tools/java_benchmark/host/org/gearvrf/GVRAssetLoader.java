@@ -0,0 +1,89 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Host version of the parts of the asset loader the model cache uses:
+ * the load times of a request and the textures it loads. Texture
+ * requests are only recorded.
+ */
+public class GVRAssetLoader {
+    public static class LoadTimes {
+        private boolean mFromCache;
+        private int mMeshes;
+        private int mMeshReferences;
+        private int mMaterials;
+        private int mMaterialReferences;
+
+        public void setFromCache(boolean fromCache) {
+            mFromCache = fromCache;
+        }
+
+        public boolean isFromCache() {
+            return mFromCache;
+        }
+
+        public void setParseTime(float ms) {
+        }
+
+        public void setMeshConversionTime(float ms, int meshesConverted) {
+        }
+
+        public void setSceneAssemblyTime(float ms) {
+        }
+
+        public void setSharing(int meshes, int meshReferences, int materials, int materialReferences) {
+            mMeshes = meshes;
+            mMeshReferences = meshReferences;
+            mMaterials = materials;
+            mMaterialReferences = materialReferences;
+        }
+
+        public int[] getSharing() {
+            return new int[] { mMeshes, mMeshReferences, mMaterials, mMaterialReferences };
+        }
+    }
+
+    public static class AssetRequest {
+        private final LoadTimes mLoadTimes = new LoadTimes();
+        private final List<TextureRequest> mTextureRequests = new ArrayList<TextureRequest>();
+
+        public LoadTimes getLoadTimes() {
+            return mLoadTimes;
+        }
+
+        public void loadTexture(TextureRequest request) {
+            mTextureRequests.add(request);
+        }
+
+        public List<TextureRequest> getTextureRequests() {
+            return mTextureRequests;
+        }
+    }
+
+    public static class TextureRequest {
+        public final GVRTexture Texture;
+        public final String TextureFile;
+
+        public TextureRequest(AssetRequest assetRequest, GVRTexture texture, String texFile) {
+            Texture = texture;
+            TextureFile = texFile;
+        }
+    }
+}
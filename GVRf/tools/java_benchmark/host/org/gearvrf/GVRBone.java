@@ -0,0 +1,73 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import org.joml.Matrix4f;
+
+/**
+ * Host version of a bone.
+ */
+public final class GVRBone extends GVRComponent {
+    private final Matrix4f mOffsetMatrix = new Matrix4f();
+    private final float[] mFinalTransform = new float[16];
+    private GVRSceneObject mSceneObject;
+    private String mName;
+
+    public GVRBone(GVRContext gvrContext) {
+        super(gvrContext);
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setOffsetMatrix(float[] offsetMatrix) {
+        mOffsetMatrix.set(offsetMatrix);
+    }
+
+    public Matrix4f getOffsetMatrix() {
+        return new Matrix4f(mOffsetMatrix);
+    }
+
+    public void setFinalTransformMatrix(float[] finalTransform) {
+        System.arraycopy(finalTransform, 0, mFinalTransform, 0, 16);
+    }
+
+    public void setFinalTransformMatrix(Matrix4f finalTransform) {
+        finalTransform.get(mFinalTransform);
+    }
+
+    public Matrix4f getFinalTransformMatrix() {
+        return new Matrix4f().set(mFinalTransform);
+    }
+
+    public GVRSceneObject getSceneObject() {
+        return mSceneObject;
+    }
+
+    public void setSceneObject(GVRSceneObject sceneObject) {
+        mSceneObject = sceneObject;
+    }
+
+    @Override
+    public String toString() {
+        return "GVRBone [name=" + mName + "]";
+    }
+}
@@ -0,0 +1,50 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Host version of a component.
+ */
+public class GVRComponent extends GVRHybridObject {
+    protected GVRSceneObject owner;
+
+    protected GVRComponent(GVRContext gvrContext) {
+        super(gvrContext);
+    }
+
+    protected GVRComponent(GVRContext gvrContext, long nativePointer) {
+        super(gvrContext, nativePointer);
+    }
+
+    /**
+     * @return type the component is attached to scene objects with
+     */
+    public long getType() {
+        return 0;
+    }
+
+    public GVRSceneObject getOwnerObject() {
+        return owner;
+    }
+
+    public void setOwnerObject(GVRSceneObject owner) {
+        this.owner = owner;
+    }
+
+    public GVRTransform getTransform() {
+        return (owner != null) ? owner.getTransform() : null;
+    }
+}
@@ -0,0 +1,99 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gearvrf.script.IScriptManager;
+
+import android.content.Context;
+
+/**
+ * Host version of the context: runs the draw frame listeners
+ * when the benchmark calls {@link #drawFrame(float)},
+ * counts the errors logged and has an application context.
+ */
+public class GVRContext {
+    private final List<GVRDrawFrameListener> mFrameListeners = new ArrayList<GVRDrawFrameListener>();
+    private GVREventManager mEventManager;
+    private int mErrorCount = 0;
+    private Context mContext;
+
+    public static void addResetOnRestartHandler(Runnable handler) {
+    }
+
+    public void registerDrawFrameListener(GVRDrawFrameListener frameListener) {
+        mFrameListeners.add(frameListener);
+    }
+
+    public void unregisterDrawFrameListener(GVRDrawFrameListener frameListener) {
+        mFrameListeners.remove(frameListener);
+    }
+
+    /**
+     * Run one frame, as the view manager does before drawing.
+     * @param frameTime seconds since the last frame
+     */
+    public void drawFrame(float frameTime) {
+        for (int i = 0; i < mFrameListeners.size(); ++i) {
+            mFrameListeners.get(i).onDrawFrame(frameTime);
+        }
+    }
+
+    /**
+     * The application context, its cache directory is the
+     * temporary directory unless {@link #setContext} was called.
+     */
+    public Context getContext() {
+        if (mContext == null) {
+            mContext = new Context(new File(System.getProperty("java.io.tmpdir")));
+        }
+        return mContext;
+    }
+
+    public void setContext(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Runs the task at once, there is no framework thread on the host.
+     */
+    public void runOnTheFrameworkThread(Runnable runnable) {
+        runnable.run();
+    }
+
+    public synchronized GVREventManager getEventManager() {
+        if (mEventManager == null) {
+            mEventManager = new GVREventManager(this);
+        }
+        return mEventManager;
+    }
+
+    public IScriptManager getScriptManager() {
+        return null;
+    }
+
+    public void logError(String message, Object sender) {
+        ++mErrorCount;
+        android.util.Log.e("GVRContext", message);
+    }
+
+    public int getErrorCount() {
+        return mErrorCount;
+    }
+}
@@ -0,0 +1,82 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Host version of an index buffer, the indices kept in a Java buffer.
+ */
+public class GVRIndexBuffer extends GVRHybridObject {
+    private final int mIndexSize;
+    private final int mIndexCount;
+    private final ByteBuffer mData;
+
+    public GVRIndexBuffer(GVRContext gvrContext, int bytesPerIndex, int indexCount) {
+        super(gvrContext);
+        if ((bytesPerIndex != 2) && (bytesPerIndex != 4)) {
+            throw new IllegalArgumentException("indices must be 2 or 4 bytes");
+        }
+        mIndexSize = bytesPerIndex;
+        mIndexCount = indexCount;
+        mData = ByteBuffer.allocate(bytesPerIndex * indexCount).order(ByteOrder.nativeOrder());
+    }
+
+    public CharBuffer asCharBuffer() {
+        mData.clear();
+        return mData.asCharBuffer();
+    }
+
+    public IntBuffer asIntBuffer() {
+        mData.clear();
+        return mData.asIntBuffer();
+    }
+
+    public void setShortVec(char[] data) {
+        setShortVec(CharBuffer.wrap(data));
+    }
+
+    public void setShortVec(CharBuffer data) {
+        checkSize(2, data.remaining());
+        asCharBuffer().put(data);
+    }
+
+    public void setIntVec(int[] data) {
+        setIntVec(IntBuffer.wrap(data));
+    }
+
+    public void setIntVec(IntBuffer data) {
+        checkSize(4, data.remaining());
+        asIntBuffer().put(data);
+    }
+
+    public int getIndexCount() {
+        return mIndexCount;
+    }
+
+    public int getIndexSize() {
+        return mIndexSize;
+    }
+
+    private void checkSize(int indexSize, int count) {
+        if ((indexSize != mIndexSize) || (count != mIndexCount)) {
+            throw new IllegalArgumentException("expected " + mIndexCount + " indices of " + mIndexSize + " bytes");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Host version of a mesh: the vertex and index buffers, the
+ * bones and the bone matrices last sent to native code.
+ */
+public class GVRMesh extends GVRHybridObject {
+    private final GVRVertexBuffer mVertices;
+    private GVRIndexBuffer mIndices = null;
+    private final List<GVRBone> mBones = new ArrayList<GVRBone>();
+    private float[] mBoneMatrices = new float[0];
+
+    public GVRMesh(GVRContext gvrContext, int vertexCount) {
+        super(gvrContext);
+        mVertices = new GVRVertexBuffer(gvrContext, vertexCount);
+    }
+
+    public GVRMesh(GVRContext gvrContext, String vertexDescriptor) {
+        super(gvrContext);
+        mVertices = new GVRVertexBuffer(gvrContext, vertexDescriptor, 0);
+    }
+
+    public GVRVertexBuffer getVertexBuffer() {
+        return mVertices;
+    }
+
+    public GVRIndexBuffer getIndexBuffer() {
+        return mIndices;
+    }
+
+    public void setIndexBuffer(GVRIndexBuffer indices) {
+        mIndices = indices;
+    }
+
+    public List<GVRBone> getBones() {
+        return mBones;
+    }
+
+    public void setBones(List<GVRBone> bones) {
+        mBones.clear();
+        mBones.addAll(bones);
+        mBoneMatrices = new float[bones.size() * 16];
+    }
+
+    public void setBoneMatrices(float[] matrices, int numBones) {
+        System.arraycopy(matrices, 0, mBoneMatrices, 0, numBones * 16);
+    }
+
+    public float[] getBoneMatrices() {
+        return mBoneMatrices;
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Host version of render data: a mesh, a material and whether it is lit.
+ */
+public class GVRRenderData extends GVRComponent {
+    private GVRMesh mMesh;
+    private GVRMaterial mMaterial;
+    private boolean mLightEnabled = true;
+
+    public GVRRenderData(GVRContext gvrContext) {
+        super(gvrContext);
+    }
+
+    public static long getComponentType() {
+        return 1;
+    }
+
+    @Override
+    public long getType() {
+        return getComponentType();
+    }
+
+    public GVRMesh getMesh() {
+        return mMesh;
+    }
+
+    public void setMesh(GVRMesh mesh) {
+        mMesh = mesh;
+    }
+
+    public GVRMaterial getMaterial() {
+        return mMaterial;
+    }
+
+    public void setMaterial(GVRMaterial material) {
+        mMaterial = material;
+    }
+
+    public void disableLight() {
+        mLightEnabled = false;
+    }
+
+    public boolean isLightEnabled() {
+        return mLightEnabled;
+    }
+}
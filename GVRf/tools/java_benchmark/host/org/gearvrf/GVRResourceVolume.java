@@ -0,0 +1,54 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Host version of a resource volume: the files of a directory.
+ */
+public class GVRResourceVolume {
+    public enum VolumeType {
+        ANDROID_ASSETS, ANDROID_RESOURCE, LINUX_FILESYSTEM, ANDROID_SDCARD, NETWORK, INPUT_STREAM
+    }
+
+    protected VolumeType volumeType = VolumeType.LINUX_FILESYSTEM;
+    private final File mDirectory;
+    private final String mFileName;
+
+    /**
+     * @param directory directory the files are opened in
+     * @param fileName  name of the model file in the directory
+     */
+    public GVRResourceVolume(File directory, String fileName) {
+        mDirectory = directory;
+        mFileName = fileName;
+    }
+
+    public String getFileName() {
+        return mFileName;
+    }
+
+    public GVRAndroidResource openResource(String filePath) throws IOException {
+        File file = new File(mDirectory, filePath);
+
+        if (!file.exists()) {
+            throw new IOException("Cannot open " + filePath);
+        }
+        return new GVRAndroidResource(file);
+    }
+}
@@ -0,0 +1,178 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gearvrf.script.IScriptable;
+
+/**
+ * Host version of a scene object with a transform,
+ * render data, children and event listeners.
+ */
+public class GVRSceneObject extends GVRHybridObject implements IScriptable, IEventReceiver {
+    public interface ComponentVisitor {
+        public boolean visit(GVRComponent comp);
+    }
+
+    private final List<GVRSceneObject> mChildren = new ArrayList<GVRSceneObject>();
+    private final GVRTransform mTransform;
+    private final GVREventReceiver mEventReceiver = new GVREventReceiver(this);
+    private GVRSceneObject mParent;
+    private GVRRenderData mRenderData;
+    private final Map<Long, GVRComponent> mComponents = new LinkedHashMap<Long, GVRComponent>();
+    private String mName = "";
+    private float mViewSize = 1.0f;
+
+    public GVRSceneObject(GVRContext gvrContext) {
+        super(gvrContext);
+        mTransform = new GVRTransform(gvrContext);
+        mTransform.setOwnerObject(this);
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public GVRTransform getTransform() {
+        return mTransform;
+    }
+
+    public GVRRenderData getRenderData() {
+        return mRenderData;
+    }
+
+    public void attachRenderData(GVRRenderData renderData) {
+        mRenderData = renderData;
+        renderData.setOwnerObject(this);
+    }
+
+    public boolean attachComponent(GVRComponent component) {
+        if (mComponents.containsKey(component.getType())) {
+            return false;
+        }
+        mComponents.put(component.getType(), component);
+        component.setOwnerObject(this);
+        return true;
+    }
+
+    public GVRComponent getComponent(long type) {
+        return mComponents.get(type);
+    }
+
+    public GVRComponent detachComponent(long type) {
+        GVRComponent component = mComponents.remove(type);
+
+        if (component != null) {
+            component.setOwnerObject(null);
+        }
+        return component;
+    }
+
+    /**
+     * Visits the transform, the render data and the other
+     * components attached to this object.
+     */
+    public void forAllComponents(ComponentVisitor visitor) {
+        if (!visitor.visit(mTransform) || ((mRenderData != null) && !visitor.visit(mRenderData))) {
+            return;
+        }
+        for (GVRComponent component : mComponents.values()) {
+            if (!visitor.visit(component)) {
+                return;
+            }
+        }
+    }
+
+    public GVRSceneObject getParent() {
+        return mParent;
+    }
+
+    public void addChildObject(GVRSceneObject child) {
+        mChildren.add(child);
+        child.mParent = this;
+    }
+
+    public boolean removeChildObject(GVRSceneObject child) {
+        if (!mChildren.remove(child)) {
+            return false;
+        }
+        child.mParent = null;
+        return true;
+    }
+
+    public int getChildrenCount() {
+        return mChildren.size();
+    }
+
+    public GVRSceneObject getChildByIndex(int index) {
+        return mChildren.get(index);
+    }
+
+    public List<GVRSceneObject> getChildren() {
+        return mChildren;
+    }
+
+    public GVRSceneObject getSceneObjectByName(String name) {
+        if (mName.equals(name)) {
+            return this;
+        }
+        for (GVRSceneObject child : mChildren) {
+            GVRSceneObject found = child.getSceneObjectByName(name);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visits the render data of this object and its descendants,
+     * the only type of component on the host.
+     */
+    public void forAllComponents(ComponentVisitor visitor, long componentType) {
+        if ((mRenderData != null) && !visitor.visit(mRenderData)) {
+            return;
+        }
+        for (GVRSceneObject child : mChildren) {
+            child.forAllComponents(visitor, componentType);
+        }
+    }
+
+    public GVREventReceiver getEventReceiver() {
+        return mEventReceiver;
+    }
+
+    public float getViewSize() {
+        return mViewSize;
+    }
+
+    /**
+     * Set the size {@link #getViewSize()} returns, which
+     * the native culler computes on a device.
+     * @param size fraction of the screen height, 0 for culled
+     */
+    public void setViewSize(float size) {
+        mViewSize = size;
+    }
+}
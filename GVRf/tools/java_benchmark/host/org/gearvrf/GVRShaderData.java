@@ -0,0 +1,85 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Host version of shader data: the uniform values and textures kept
+ * in Java maps. The uniforms are those of the descriptor of the shader.
+ */
+public class GVRShaderData extends GVRHybridObject {
+    private final GVRShaderId mShaderId;
+    private final String mUniformDescriptor;
+    private final Map<String, float[]> mFloats = new HashMap<String, float[]>();
+    private final Map<String, int[]> mInts = new HashMap<String, int[]>();
+    private final Map<String, GVRTexture> mTextures = new LinkedHashMap<String, GVRTexture>();
+
+    public GVRShaderData(GVRContext gvrContext) {
+        super(gvrContext);
+        mShaderId = null;
+        mUniformDescriptor = "";
+    }
+
+    public GVRShaderData(GVRContext gvrContext, GVRShaderId shaderId) {
+        super(gvrContext);
+        mShaderId = shaderId;
+        mUniformDescriptor = shaderId.getUniformDescriptor(gvrContext);
+    }
+
+    public GVRShaderId getShaderType() {
+        return mShaderId;
+    }
+
+    public String getUniformDescriptor() {
+        return mUniformDescriptor;
+    }
+
+    public boolean hasUniform(String name) {
+        return mFloats.containsKey(name) || mInts.containsKey(name);
+    }
+
+    public Set<String> getTextureNames() {
+        return mTextures.keySet();
+    }
+
+    public GVRTexture getTexture(String key) {
+        return mTextures.get(key);
+    }
+
+    public void setTexture(String key, GVRTexture texture) {
+        mTextures.put(key, texture);
+    }
+
+    public float[] getFloatVec(String key) {
+        return mFloats.get(key).clone();
+    }
+
+    public int[] getIntVec(String key) {
+        return mInts.get(key).clone();
+    }
+
+    public void setFloatArray(String key, float val[]) {
+        mFloats.put(key, val.clone());
+    }
+
+    public void setIntArray(String key, int val[]) {
+        mInts.put(key, val.clone());
+    }
+}
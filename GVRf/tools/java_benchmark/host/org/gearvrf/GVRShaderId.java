@@ -0,0 +1,44 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Host version of a shader ID. The template is made with the constructor
+ * without arguments, there is no shader manager.
+ */
+public class GVRShaderId {
+    final Class<? extends GVRShader> ID;
+    private GVRShader mShaderTemplate;
+
+    public GVRShaderId(Class<? extends GVRShader> id) {
+        ID = id;
+    }
+
+    public GVRShader getTemplate(GVRContext ctx) {
+        if (mShaderTemplate == null) {
+            try {
+                mShaderTemplate = ID.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot make shader " + ID.getName(), e);
+            }
+        }
+        return mShaderTemplate;
+    }
+
+    public String getUniformDescriptor(GVRContext ctx) {
+        return getTemplate(ctx).getUniformDescriptor();
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Host version of the texture parameters, without the GL values.
+ */
+public class GVRTextureParameters {
+    public enum TextureFilterType {
+        GL_LINEAR, GL_NEAREST, GL_NEAREST_MIPMAP_NEAREST, GL_NEAREST_MIPMAP_LINEAR,
+        GL_LINEAR_MIPMAP_NEAREST, GL_LINEAR_MIPMAP_LINEAR
+    }
+
+    public enum TextureWrapType {
+        GL_CLAMP_TO_EDGE, GL_MIRRORED_REPEAT, GL_REPEAT
+    }
+
+    private TextureFilterType minFilterType = TextureFilterType.GL_LINEAR_MIPMAP_NEAREST;
+    private TextureFilterType magFilterType = TextureFilterType.GL_LINEAR;
+    private TextureWrapType wrapSType = TextureWrapType.GL_CLAMP_TO_EDGE;
+    private TextureWrapType wrapTType = TextureWrapType.GL_CLAMP_TO_EDGE;
+
+    public GVRTextureParameters(GVRContext gvrContext) {
+    }
+
+    public void setMinFilterType(TextureFilterType minFilterType) {
+        this.minFilterType = minFilterType;
+    }
+
+    public TextureFilterType getMinFilterType() {
+        return minFilterType;
+    }
+
+    public void setMagFilterType(TextureFilterType magFilterType) {
+        this.magFilterType = magFilterType;
+    }
+
+    public TextureFilterType getMagFilterType() {
+        return magFilterType;
+    }
+
+    public void setWrapSType(TextureWrapType wrapSType) {
+        this.wrapSType = wrapSType;
+    }
+
+    public TextureWrapType getWrapSType() {
+        return wrapSType;
+    }
+
+    public void setWrapTType(TextureWrapType wrapTType) {
+        this.wrapTType = wrapTType;
+    }
+
+    public TextureWrapType getWrapTType() {
+        return wrapTType;
+    }
+}
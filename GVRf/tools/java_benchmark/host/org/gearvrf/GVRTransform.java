@@ -0,0 +1,182 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Host version of a transform, kept in Java instead of native code.
+ * The getters and setters count the calls which cross into
+ * native code on a device.
+ */
+public class GVRTransform extends GVRComponent {
+    /** Number of calls which would go to native code */
+    public static long nativeCalls = 0;
+
+    private final Vector3f mPosition = new Vector3f();
+    private final Quaternionf mRotation = new Quaternionf();
+    private final Vector3f mScale = new Vector3f(1, 1, 1);
+    private final Matrix4f mLocal = new Matrix4f();
+    private final Matrix4f mModel = new Matrix4f();
+
+    public GVRTransform(GVRContext gvrContext) {
+        super(gvrContext);
+    }
+
+    public float getPositionX() {
+        ++nativeCalls;
+        return mPosition.x;
+    }
+
+    public float getPositionY() {
+        ++nativeCalls;
+        return mPosition.y;
+    }
+
+    public float getPositionZ() {
+        ++nativeCalls;
+        return mPosition.z;
+    }
+
+    public GVRTransform setPosition(float x, float y, float z) {
+        ++nativeCalls;
+        mPosition.set(x, y, z);
+        return this;
+    }
+
+    public float getRotationW() {
+        ++nativeCalls;
+        return mRotation.w;
+    }
+
+    public float getRotationX() {
+        ++nativeCalls;
+        return mRotation.x;
+    }
+
+    public float getRotationY() {
+        ++nativeCalls;
+        return mRotation.y;
+    }
+
+    public float getRotationZ() {
+        ++nativeCalls;
+        return mRotation.z;
+    }
+
+    public GVRTransform setRotation(float w, float x, float y, float z) {
+        ++nativeCalls;
+        mRotation.set(x, y, z, w);
+        return this;
+    }
+
+    public float getScaleX() {
+        ++nativeCalls;
+        return mScale.x;
+    }
+
+    public float getScaleY() {
+        ++nativeCalls;
+        return mScale.y;
+    }
+
+    public float getScaleZ() {
+        ++nativeCalls;
+        return mScale.z;
+    }
+
+    public GVRTransform setScale(float x, float y, float z) {
+        ++nativeCalls;
+        mScale.set(x, y, z);
+        return this;
+    }
+
+    public void getLocalModelMatrix(float[] mat) {
+        ++nativeCalls;
+        local().get(mat);
+    }
+
+    public void getModelMatrix(float[] mat) {
+        ++nativeCalls;
+        model().get(mat);
+    }
+
+    public Matrix4f getLocalModelMatrix4f() {
+        ++nativeCalls;
+        return new Matrix4f(local());
+    }
+
+    public Matrix4f getModelMatrix4f() {
+        ++nativeCalls;
+        return new Matrix4f(model());
+    }
+
+    public float[] getLocalModelMatrix() {
+        float[] mat = new float[16];
+
+        getLocalModelMatrix(mat);
+        return mat;
+    }
+
+    public GVRTransform setModelMatrix(float[] mat) {
+        return setModelMatrix(new Matrix4f().set(mat));
+    }
+
+    /**
+     * Decomposes the matrix into position, rotation and scale.
+     * The scale is divided out of the columns before the rotation
+     * is taken, so rotations with a non-uniform scale are kept.
+     */
+    public GVRTransform setModelMatrix(Matrix4f mat) {
+        ++nativeCalls;
+        mat.getTranslation(mPosition);
+        mat.getScale(mScale);
+        new Matrix3f().set(mat).scale(1 / mScale.x, 1 / mScale.y, 1 / mScale.z).getNormalizedRotation(mRotation);
+        return this;
+    }
+
+    /*
+     * The values a GVRTransformBatch reads and writes
+     * without a call for each transform.
+     */
+    Vector3f position() {
+        return mPosition;
+    }
+
+    Quaternionf rotation() {
+        return mRotation;
+    }
+
+    Vector3f scale() {
+        return mScale;
+    }
+
+    private Matrix4f local() {
+        return mLocal.translationRotateScale(mPosition, mRotation, mScale);
+    }
+
+    private Matrix4f model() {
+        GVRSceneObject parent = (owner != null) ? owner.getParent() : null;
+
+        if (parent == null) {
+            return mModel.set(local());
+        }
+        return parent.getTransform().model().mul(local(), mModel);
+    }
+}
@@ -0,0 +1,212 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Host version of the transform batch. A read or write copies the
+ * values between the buffer and the host transforms, as the native
+ * batch does, and counts as one call into native code. Additions and
+ * swap removals wait for the next read or write and are sent in one
+ * call, as in the framework. {@link #entriesSent} counts the
+ * transforms and edits passed to native code. The matrix attributes
+ * are not supported.
+ */
+public class GVRTransformBatch extends GVRHybridObject {
+    public static final int POSITION = 0;
+    public static final int ROTATION = 1;
+    public static final int SCALE = 2;
+    public static final int LOCAL_TRS = 3;
+    public static final int LOCAL_MATRIX = 4;
+    public static final int MODEL_MATRIX = 5;
+
+    private static final int[] COMPONENT_SIZE = { 3, 4, 3, 10, 16, 16 };
+    private static final int MAX_COMPONENT_SIZE = 16;
+    private static final int BYTES_PER_FLOAT = 4;
+
+    /**
+     * Number of transforms passed by {@link #set} and edits passed
+     * by the deferred additions and swap removals.
+     */
+    public static long entriesSent = 0;
+
+    private final List<GVRTransform> mTransforms = new ArrayList<GVRTransform>();
+    private FloatBuffer mBuffer;
+    private int mEditCount = 0;
+
+    public GVRTransformBatch(GVRContext gvrContext, int capacity) {
+        super(gvrContext);
+        mBuffer = allocateBuffer(Math.max(capacity, 1));
+    }
+
+    public GVRTransformBatch(GVRContext gvrContext, List<GVRTransform> transforms) {
+        this(gvrContext, transforms.size());
+        for (GVRTransform t : transforms) {
+            add(t);
+        }
+    }
+
+    public int add(GVRTransform transform) {
+        int index = mTransforms.size();
+
+        if ((index + 1) * MAX_COMPONENT_SIZE > mBuffer.capacity()) {
+            mBuffer = allocateBuffer(2 * (index + 1));
+        }
+        mTransforms.add(transform);
+        ++mEditCount;
+        return index;
+    }
+
+    public void remove(GVRTransform transform) {
+        if (mTransforms.remove(transform)) {
+            sendEdits();
+            ++GVRTransform.nativeCalls;
+        }
+    }
+
+    public void swapRemove(int index) {
+        int last = mTransforms.size() - 1;
+
+        mTransforms.set(index, mTransforms.get(last));
+        mTransforms.remove(last);
+        ++mEditCount;
+    }
+
+    public void set(GVRTransform[] transforms, int count) {
+        if (count * MAX_COMPONENT_SIZE > mBuffer.capacity()) {
+            mBuffer = allocateBuffer(2 * count);
+        }
+        mEditCount = 0;
+        mTransforms.clear();
+        for (int i = 0; i < count; ++i) {
+            mTransforms.add(transforms[i]);
+        }
+        ++GVRTransform.nativeCalls;
+        entriesSent += count;
+    }
+
+    public void clear() {
+        mEditCount = 0;
+        mTransforms.clear();
+        ++GVRTransform.nativeCalls;
+    }
+
+    public int size() {
+        return mTransforms.size();
+    }
+
+    public GVRTransform get(int index) {
+        return mTransforms.get(index);
+    }
+
+    public FloatBuffer getBuffer() {
+        return mBuffer;
+    }
+
+    public static int getComponentSize(int attribute) {
+        checkAttribute(attribute);
+        return COMPONENT_SIZE[attribute];
+    }
+
+    public FloatBuffer read(int attribute) {
+        checkMatrix(attribute);
+        sendEdits();
+        ++GVRTransform.nativeCalls;
+        int size = COMPONENT_SIZE[attribute];
+
+        for (int i = 0; i < mTransforms.size(); ++i) {
+            GVRTransform t = mTransforms.get(i);
+            int offset = i * size;
+
+            if ((attribute == POSITION) || (attribute == LOCAL_TRS)) {
+                Vector3f p = t.position();
+                mBuffer.put(offset, p.x).put(offset + 1, p.y).put(offset + 2, p.z);
+                offset += 3;
+            }
+            if ((attribute == ROTATION) || (attribute == LOCAL_TRS)) {
+                Quaternionf r = t.rotation();
+                mBuffer.put(offset, r.w).put(offset + 1, r.x).put(offset + 2, r.y).put(offset + 3, r.z);
+                offset += 4;
+            }
+            if ((attribute == SCALE) || (attribute == LOCAL_TRS)) {
+                Vector3f s = t.scale();
+                mBuffer.put(offset, s.x).put(offset + 1, s.y).put(offset + 2, s.z);
+            }
+        }
+        mBuffer.clear();
+        mBuffer.limit(size() * size);
+        return mBuffer;
+    }
+
+    public void write(int attribute) {
+        checkMatrix(attribute);
+        sendEdits();
+        ++GVRTransform.nativeCalls;
+        int size = COMPONENT_SIZE[attribute];
+        FloatBuffer b = mBuffer;
+
+        for (int i = 0; i < mTransforms.size(); ++i) {
+            GVRTransform t = mTransforms.get(i);
+            int offset = i * size;
+
+            if ((attribute == POSITION) || (attribute == LOCAL_TRS)) {
+                t.position().set(b.get(offset), b.get(offset + 1), b.get(offset + 2));
+                offset += 3;
+            }
+            if ((attribute == ROTATION) || (attribute == LOCAL_TRS)) {
+                t.rotation().set(b.get(offset + 1), b.get(offset + 2), b.get(offset + 3), b.get(offset));
+                offset += 4;
+            }
+            if ((attribute == SCALE) || (attribute == LOCAL_TRS)) {
+                t.scale().set(b.get(offset), b.get(offset + 1), b.get(offset + 2));
+            }
+        }
+    }
+
+    private void sendEdits() {
+        if (mEditCount > 0) {
+            ++GVRTransform.nativeCalls;
+            entriesSent += mEditCount;
+            mEditCount = 0;
+        }
+    }
+
+    private static void checkAttribute(int attribute) {
+        if ((attribute < 0) || (attribute >= COMPONENT_SIZE.length)) {
+            throw new IllegalArgumentException("unknown transform attribute " + attribute);
+        }
+    }
+
+    private static void checkMatrix(int attribute) {
+        checkAttribute(attribute);
+        if (attribute > LOCAL_TRS) {
+            throw new UnsupportedOperationException("the host transform batch has no matrices");
+        }
+    }
+
+    private static FloatBuffer allocateBuffer(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * MAX_COMPONENT_SIZE * BYTES_PER_FLOAT)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
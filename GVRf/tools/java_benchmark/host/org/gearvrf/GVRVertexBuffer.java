@@ -0,0 +1,71 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Host version of a vertex buffer: a vertex count and, if
+ * {@link #setData} was called, the interleaved vertex data.
+ */
+public class GVRVertexBuffer extends GVRHybridObject {
+    private final String mDescriptor;
+    private int mVertexCount;
+    private ByteBuffer mData = null;
+
+    public GVRVertexBuffer(GVRContext gvrContext, int vertexCount) {
+        this(gvrContext, "float3 a_position", vertexCount);
+    }
+
+    public GVRVertexBuffer(GVRContext gvrContext, String descriptor, int vertexCount) {
+        super(gvrContext);
+        mDescriptor = descriptor;
+        mVertexCount = vertexCount;
+    }
+
+    public int getVertexCount() {
+        return mVertexCount;
+    }
+
+    public String getDescriptor() {
+        return mDescriptor;
+    }
+
+    /**
+     * All the attributes have data once the interleaved data is set.
+     */
+    public boolean hasAttribute(String attributeName) {
+        return (mData != null) && mDescriptor.contains(attributeName);
+    }
+
+    public void setData(ByteBuffer data, int vertexCount) {
+        data = data.duplicate();
+        data.clear();
+        mData = ByteBuffer.allocate(data.remaining()).order(ByteOrder.nativeOrder());
+        mData.put(data);
+        mVertexCount = vertexCount;
+    }
+
+    public void getData(ByteBuffer data) {
+        mData.clear();
+        data.put(mData);
+    }
+
+    public int getDataSize() {
+        return (mData != null) ? mData.capacity() : 0;
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gearvrf.GVRComponent;
+import org.gearvrf.GVRContext;
+
+/**
+ * Host version of the animator: a list of animations, not run.
+ */
+public class GVRAnimator extends GVRComponent {
+    private static final long TYPE_ANIMATOR = 0x414E494DL;
+
+    private final List<GVRAnimation> mAnimations = new ArrayList<GVRAnimation>();
+    private final boolean mAutoStart;
+
+    public GVRAnimator(GVRContext ctx, boolean autoStart) {
+        super(ctx);
+        mAutoStart = autoStart;
+    }
+
+    public static long getComponentType() {
+        return TYPE_ANIMATOR;
+    }
+
+    @Override
+    public long getType() {
+        return TYPE_ANIMATOR;
+    }
+
+    public boolean autoStart() {
+        return mAutoStart;
+    }
+
+    public int getAnimationCount() {
+        return mAnimations.size();
+    }
+
+    public GVRAnimation getAnimation(int index) {
+        return mAnimations.get(index);
+    }
+
+    public void addAnimation(GVRAnimation anim) {
+        mAnimations.add(anim);
+    }
+}
@@ -0,0 +1,38 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.animation.GVRAnimation;
+
+/**
+ * Host version of the root of a loaded model, with its animations.
+ */
+public class GVRModelSceneObject extends GVRSceneObject {
+    private final List<GVRAnimation> mAnimations = new ArrayList<GVRAnimation>();
+
+    public GVRModelSceneObject(GVRContext gvrContext) {
+        super(gvrContext);
+    }
+
+    public List<GVRAnimation> getAnimations() {
+        return mAnimations;
+    }
+}
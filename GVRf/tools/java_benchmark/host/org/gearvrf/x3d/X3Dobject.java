@@ -0,0 +1,124 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+import java.util.Arrays;
+
+/**
+ * Host version of the X3D loader with only the arrays of
+ * MeshCreator which {@link X3DNumberScanner} appends to.
+ */
+public class X3Dobject
+{
+    static class MeshCreator
+    {
+        static class FloatArray
+        {
+            private float[] mData;
+            private int     mCurSize;
+            private int     mMinSize;
+
+            FloatArray(int initialSize)
+            {
+                mMinSize = initialSize;
+            }
+
+            float[] array() { return mData; }
+
+            int getSize() { return mCurSize; }
+
+            void clear()
+            {
+                mCurSize = 0;
+            }
+
+            float get(int index)
+            {
+                return mData[index];
+            }
+
+            void setSize(int size)
+            {
+                mCurSize = size;
+            }
+
+            float[] toArray()
+            {
+                return (mData == null) ? new float[0] : Arrays.copyOf(mData, mCurSize);
+            }
+
+            void add(float v)
+            {
+                if ((mData == null) || (mCurSize == mData.length))
+                {
+                    grow(1);
+                }
+                mData[mCurSize++] = v;
+            }
+
+            private void grow(int n)
+            {
+                if (mData == null)
+                {
+                    mData = new float[Math.max(mMinSize, n)];
+                }
+                else if (mCurSize + n > mData.length)
+                {
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + n));
+                }
+            }
+        };
+
+        static class IntArray
+        {
+            private int[]   mData;
+            private int     mCurSize;
+            private int     mMinSize;
+
+            IntArray(int initialSize)
+            {
+                mMinSize = initialSize;
+            }
+
+            int[] array() { return mData; }
+
+            int getSize() { return mCurSize; }
+
+            void clear()
+            {
+                mCurSize = 0;
+            }
+
+            int get(int index)
+            {
+                return mData[index];
+            }
+
+            void add(int v)
+            {
+                if (mData == null)
+                {
+                    mData = new int[mMinSize];
+                }
+                else if (mCurSize + 1 > mData.length)
+                {
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + 1));
+                }
+                mData[mCurSize++] = v;
+            }
+        };
+    }
+}
@@ -0,0 +1,334 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Compares the mesh bounding volume hierarchy used by MeshCollider
+ * with testing every triangle and vertex of the mesh.
+ *
+ * Builds synthetic meshes of increasing size, casts random rays and
+ * spheres at them both ways and reports the time per query. Exits
+ * with an error if the two ways find different hits, or if the
+ * collider tree of the scene does not follow a mesh whose vertices
+ * are edited in place.
+ ***************************************************************************/
+
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstdlib>
+#include <limits>
+#include <random>
+#include <vector>
+
+#include "objects/mesh.h"
+#include "objects/mesh_bvh.h"
+#include "objects/scene.h"
+#include "objects/scene_object.h"
+#include "objects/components/mesh_collider.h"
+#include "objects/components/transform.h"
+
+using namespace gvr;
+
+namespace
+{
+
+const int NUM_RAYS = 200;
+const int NUM_SPHERES = 200;
+const float GRID_SPACING = 0.01f;
+
+struct Hit
+{
+    float   distance = -1;
+    int     index = -1;
+};
+
+double microseconds(std::chrono::steady_clock::time_point start)
+{
+    auto now = std::chrono::steady_clock::now();
+    return std::chrono::duration<double, std::micro>(now - start).count();
+}
+
+/*
+ * A wavy height field of size x size quads, two triangles each,
+ * like a terrain or a scanned surface. Only the first rows of
+ * quads are made, the vertices of the others are in no triangle.
+ */
+Mesh* makeGrid(int size, int rows)
+{
+    std::vector<float> positions;
+    std::vector<unsigned int> indices;
+
+    for (int i = 0; i <= size; ++i)
+    {
+        for (int j = 0; j <= size; ++j)
+        {
+            positions.push_back(i * GRID_SPACING);
+            positions.push_back(j * GRID_SPACING);
+            positions.push_back(0.05f * sinf(i * 0.3f) * cosf(j * 0.2f));
+        }
+    }
+    for (int i = 0; i < rows; ++i)
+    {
+        for (int j = 0; j < size; ++j)
+        {
+            unsigned int a = i * (size + 1) + j;
+            unsigned int b = a + 1;
+            unsigned int c = a + size + 1;
+            unsigned int d = c + 1;
+            unsigned int quad[6] = { a, c, b, b, c, d };
+            indices.insert(indices.end(), quad, quad + 6);
+        }
+    }
+    Mesh* mesh = new Mesh("float3 a_position");
+    mesh->setVertices(positions.data(), positions.size());
+    mesh->setIndices(indices.data(), indices.size());
+    return mesh;
+}
+
+/*
+ * What MeshCollider did before the hierarchy: test every triangle.
+ */
+Hit bruteForceRay(const Mesh& mesh, const glm::vec3& start, const glm::vec3& dir)
+{
+    Hit hit;
+    mesh.forAllTriangles([&](int iter, const float* V1, const float* V2, const float* V3)
+    {
+        glm::vec3 hitPos;
+        float t = MeshBVH::rayTriangleIntersect(hitPos, start, dir,
+                                                glm::vec3(V1[0], V1[1], V1[2]),
+                                                glm::vec3(V2[0], V2[1], V2[2]),
+                                                glm::vec3(V3[0], V3[1], V3[2]));
+        if ((t > 0) && ((hit.distance < 0) || (t < hit.distance)))
+        {
+            hit.distance = t;
+            hit.index = iter;
+        }
+    });
+    return hit;
+}
+
+Hit bruteForceSphere(const Mesh& mesh, const float sphere[])
+{
+    Hit hit;
+    glm::vec3 center(sphere[0], sphere[1], sphere[2]);
+    mesh.forAllVertices("a_position", [&](int iter, const float* v)
+    {
+        float d = glm::length(glm::vec3(v[0], v[1], v[2]) - center);
+        if ((d <= sphere[3]) && ((hit.distance < 0) || (d < hit.distance)))
+        {
+            hit.distance = d;
+            hit.index = iter;
+        }
+    });
+    return hit;
+}
+
+bool sameHit(const Hit& a, const Hit& b)
+{
+    if ((a.distance < 0) || (b.distance < 0))
+    {
+        return (a.distance < 0) == (b.distance < 0);
+    }
+    return fabsf(a.distance - b.distance) <= 1e-5f;
+}
+
+/*
+ * Runs the queries against one mesh.
+ * @return number of queries where the two ways disagree
+ */
+int run(int gridSize, std::mt19937& rng)
+{
+    Mesh* mesh = makeGrid(gridSize, gridSize);
+    float extent = gridSize * GRID_SPACING;
+    std::uniform_real_distribution<float> across(0.0f, extent);
+    std::uniform_real_distribution<float> tilt(-0.05f, 0.05f);
+    double bvhRays = 0, bruteRays = 0, bvhSpheres = 0, bruteSpheres = 0;
+    int mismatches = 0;
+    int rayHits = 0;
+
+    auto start = std::chrono::steady_clock::now();
+    std::shared_ptr<const MeshBVH> bvh = mesh->getBVH();
+    double buildTime = microseconds(start) / 1000.0;
+
+    for (int r = 0; r < NUM_RAYS; ++r)
+    {
+        glm::vec3 origin(across(rng), across(rng), 2.0f);
+        glm::vec3 dir(tilt(rng), tilt(rng), -1.0f);
+        glm::vec3 hitPos;
+        Hit fast;
+
+        start = std::chrono::steady_clock::now();
+        fast.distance = bvh->intersect(origin, dir, hitPos, fast.index);
+        bvhRays += microseconds(start);
+
+        start = std::chrono::steady_clock::now();
+        Hit slow = bruteForceRay(*mesh, origin, dir);
+        bruteRays += microseconds(start);
+
+        if (fast.distance >= 0)
+        {
+            ++rayHits;
+        }
+        if (!sameHit(fast, slow))
+        {
+            ++mismatches;
+        }
+    }
+    for (int s = 0; s < NUM_SPHERES; ++s)
+    {
+        float sphere[4] = { across(rng), across(rng), 0.0f, 2.0f * GRID_SPACING };
+        glm::vec3 hitPos;
+        Hit fast;
+
+        start = std::chrono::steady_clock::now();
+        fast.distance = bvh->closestVertex(sphere, hitPos, fast.index);
+        bvhSpheres += microseconds(start);
+
+        start = std::chrono::steady_clock::now();
+        Hit slow = bruteForceSphere(*mesh, sphere);
+        bruteSpheres += microseconds(start);
+
+        if (!sameHit(fast, slow))
+        {
+            ++mismatches;
+        }
+    }
+    printf("%9d %7d %8.1f %10.2f %10.1f %10.2f %10.1f %6d %6d\n",
+           bvh->getTriangleCount(), bvh->getNodeCount(), buildTime,
+           bvhRays / NUM_RAYS, bruteRays / NUM_RAYS,
+           bvhSpheres / NUM_SPHERES, bruteSpheres / NUM_SPHERES,
+           rayHits, mismatches);
+    delete mesh;
+    return mismatches;
+}
+
+/*
+ * Sphere queries against a mesh with triangles in only half of its
+ * rows. The vertices of the other half are not in the hierarchy,
+ * closestVertex must find them anyway.
+ * @return number of queries where the two ways disagree
+ */
+int runUnusedVertices(int gridSize, std::mt19937& rng)
+{
+    Mesh* mesh = makeGrid(gridSize, gridSize / 2);
+    std::uniform_real_distribution<float> across(0.0f, gridSize * GRID_SPACING);
+    std::shared_ptr<const MeshBVH> bvh = mesh->getBVH();
+    int mismatches = 0;
+
+    for (int s = 0; s < NUM_SPHERES; ++s)
+    {
+        float sphere[4] = { across(rng), across(rng), 0.0f, 2.0f * GRID_SPACING };
+        glm::vec3 hitPos;
+        Hit fast;
+
+        fast.distance = bvh->closestVertex(sphere, hitPos, fast.index);
+        if (!sameHit(fast, bruteForceSphere(*mesh, sphere)))
+        {
+            ++mismatches;
+        }
+    }
+    delete mesh;
+    return mismatches;
+}
+
+/*
+ * Counts the colliders in the scene collider tree
+ * whose bounds a ray straight down at x, y enters.
+ */
+int treeHits(Scene& scene, float x, float y)
+{
+    int hits = 0;
+    const AABBTree& tree = scene.lockColliderTree();
+
+    tree.rayCast(glm::vec3(x, y, 2.0f), glm::vec3(0, 0, -1), std::numeric_limits<float>::infinity(),
+                 [&](void* userData, float entry)
+    {
+        ++hits;
+        return std::numeric_limits<float>::infinity();
+    });
+    scene.unlockColliders();
+    return hits;
+}
+
+/*
+ * Picks a mesh collider through the scene collider tree, then
+ * moves the vertices of its mesh without replacing the mesh.
+ * Rays at the new place must reach the collider, rays at the
+ * old place must not.
+ * @return number of rays which found the wrong colliders
+ */
+int runEditedMesh(int gridSize)
+{
+    Mesh* mesh = makeGrid(gridSize, gridSize);
+    Scene* scene = new Scene();
+    SceneObject* owner = new SceneObject();
+    MeshCollider* collider = new MeshCollider(mesh);
+    float extent = gridSize * GRID_SPACING;
+    float shift = 4 * extent;
+    int vertexCount = mesh->getVertexCount();
+    std::vector<float> positions(vertexCount * 3);
+    int bad = 0;
+
+    owner->attachComponent(new Transform());
+    owner->attachComponent(collider);
+    scene->addCollider(collider);
+    bad += (treeHits(*scene, extent / 2, extent / 2) != 1);
+    mesh->getFloatVec("a_position", positions.data(), positions.size());
+    for (int i = 0; i < vertexCount; ++i)
+    {
+        positions[i * 3] += shift;
+    }
+    mesh->setFloatVec("a_position", positions.data(), positions.size());
+    bad += (treeHits(*scene, shift + extent / 2, extent / 2) != 1);
+    bad += (treeHits(*scene, extent / 2, extent / 2) != 0);
+    return bad;
+}
+
+}
+
+int main(int argc, char* argv[])
+{
+    std::vector<int> sizes = { 10, 30, 100, 300 };
+    std::mt19937 rng(1);
+    int mismatches = 0;
+
+    if (argc > 1)
+    {
+        sizes.clear();
+        for (int i = 1; i < argc; ++i)
+        {
+            sizes.push_back(atoi(argv[i]));
+        }
+    }
+    printf("%d rays and %d spheres per mesh, times in microseconds per query\n", NUM_RAYS, NUM_SPHERES);
+    printf("%9s %7s %8s %10s %10s %10s %10s %6s %6s\n",
+           "triangles", "nodes", "build ms", "bvh ray", "all ray", "bvh vert", "all vert", "hits", "bad");
+    for (int size : sizes)
+    {
+        mismatches += run(size, rng);
+    }
+    int unused = runUnusedVertices(30, rng);
+    printf("%d spheres against a mesh with vertices in no triangle, %d bad\n", NUM_SPHERES, unused);
+    mismatches += unused;
+    int edited = runEditedMesh(30);
+    printf("3 rays through the collider tree at a mesh edited in place, %d bad\n", edited);
+    mismatches += edited;
+    if (mismatches > 0)
+    {
+        fprintf(stderr, "%d queries found different hits\n", mismatches);
+        return 1;
+    }
+    return 0;
+}
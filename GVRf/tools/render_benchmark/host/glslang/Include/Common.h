@@ -0,0 +1,35 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * The framework includes glslang's Common.h for the std::to_string
+ * it adds on Android, which also converts strings and pointers.
+ */
+
+#ifndef HOST_GLSLANG_COMMON_H
+#define HOST_GLSLANG_COMMON_H
+
+#include <sstream>
+#include <string>
+
+namespace std {
+template<class T> std::string to_string(const T& val) {
+    std::ostringstream os;
+    os << val;
+    return os.str();
+}
+}
+
+#endif
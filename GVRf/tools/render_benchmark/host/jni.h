@@ -0,0 +1,29 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * Host version of the JNI header. Android's C++ JavaVM takes a
+ * JNIEnv** in AttachCurrentThread, the JDK's takes a void**. The
+ * framework is written for Android, so its calls are cast here.
+ */
+
+#ifndef HOST_JNI_H
+#define HOST_JNI_H
+
+#include_next <jni.h>
+
+#define AttachCurrentThread(env, args) AttachCurrentThread(reinterpret_cast<void**>(env), args)
+
+#endif
@@ -0,0 +1,31 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * Host version of the Android system properties: none are set.
+ */
+
+#ifndef HOST_SYSTEM_PROPERTIES_H
+#define HOST_SYSTEM_PROPERTIES_H
+
+#define PROP_VALUE_MAX 92
+
+typedef struct prop_info prop_info;
+
+static inline const prop_info* __system_property_find(const char* name) { return 0; }
+static inline int __system_property_read(const prop_info* pi, char* name, char* value) { return 0; }
+static inline int __system_property_get(const char* name, char* value) { value[0] = 0; return 0; }
+
+#endif
@@ -0,0 +1,124 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Replaces the parts of the framework which need Android or Java
+ * so the renderer can run in a plain host process.
+ ***************************************************************************/
+
+#include <cstring>
+#include "engine/renderer/null_renderer.h"
+#include "engine/exporter/exporter.h"
+
+namespace gvr {
+
+/*
+ * renderer_instance.cpp also knows about the Vulkan renderer,
+ * which needs the Android NDK. On the host there is only
+ * the null renderer.
+ */
+Renderer* Renderer::instance = nullptr;
+bool Renderer::isVulkan_ = false;
+
+Renderer* Renderer::getInstance(std::string type) {
+    if (nullptr == instance) {
+        instance = new NullRenderer();
+    }
+    return instance;
+}
+
+int Renderer::getVulkanPropValue() {
+    return 0;
+}
+
+bool Renderer::isNullRendererRequested() {
+    return true;
+}
+
+/*
+ * The exporter needs Assimp, which is only built for Android.
+ */
+int Exporter::writeToFile(Scene* scene, const std::string filename) {
+    LOGE("Exporter::writeToFile is not available on the host");
+    return -1;
+}
+
+}
+
+namespace {
+
+/*
+ * A Java VM which is always attached and ignores every call.
+ * The framework calls into Java to generate shaders, which
+ * the benchmark has already made.
+ */
+jint JNICALL getEnv(JavaVM* vm, void** env, jint version);
+jint JNICALL attachCurrentThread(JavaVM* vm, void** env, void* args);
+jint JNICALL detachCurrentThread(JavaVM* vm);
+
+void JNICALL callVoidMethodV(JNIEnv*, jobject, jmethodID, va_list) { }
+jclass JNICALL getObjectClass(JNIEnv*, jobject) { return nullptr; }
+jmethodID JNICALL getMethodID(JNIEnv*, jclass, const char*, const char*) { return reinterpret_cast<jmethodID>(1); }
+
+struct HostJava
+{
+    JNINativeInterface_ envFunctions;
+    JNIInvokeInterface_ vmFunctions;
+    JNIEnv env;
+    JavaVM vm;
+
+    HostJava()
+    {
+        memset(&envFunctions, 0, sizeof(envFunctions));
+        memset(&vmFunctions, 0, sizeof(vmFunctions));
+        envFunctions.CallVoidMethodV = callVoidMethodV;
+        envFunctions.GetObjectClass = getObjectClass;
+        envFunctions.GetMethodID = getMethodID;
+        vmFunctions.GetEnv = getEnv;
+        vmFunctions.AttachCurrentThread = attachCurrentThread;
+        vmFunctions.DetachCurrentThread = detachCurrentThread;
+        env.functions = &envFunctions;
+        vm.functions = &vmFunctions;
+    }
+};
+
+HostJava hostJava;
+
+jint JNICALL getEnv(JavaVM* vm, void** env, jint version)
+{
+    *env = &hostJava.env;
+    return JNI_OK;
+}
+
+jint JNICALL attachCurrentThread(JavaVM* vm, void** env, void* args)
+{
+    *env = &hostJava.env;
+    return JNI_OK;
+}
+
+jint JNICALL detachCurrentThread(JavaVM* vm)
+{
+    return JNI_OK;
+}
+
+}
+
+/*
+ * Scenes made by the benchmark use this Java VM.
+ */
+JavaVM* getHostJavaVM()
+{
+    return &hostJava.vm;
+}
@@ -0,0 +1,635 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Measures the CPU side of rendering a frame with the null renderer.
+ *
+ * Builds synthetic scenes, animates part of them and runs the
+ * culling, sorting and rendering of every frame, reporting the
+ * time spent in each stage.
+ ***************************************************************************/
+
+#include <algorithm>
+#include <chrono>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <random>
+#include <string>
+#include <vector>
+
+#include "glm/gtc/matrix_transform.hpp"
+#include "engine/renderer/renderer.h"
+#include "objects/scene.h"
+#include "objects/scene_object.h"
+#include "objects/mesh.h"
+#include "objects/light.h"
+#include "objects/render_pass.h"
+#include "objects/components/transform.h"
+#include "objects/components/render_data.h"
+#include "objects/components/lod_group.h"
+#include "objects/components/render_target.h"
+#include "objects/components/camera_rig.h"
+#include "objects/components/perspective_camera.h"
+#include "shaders/shader.h"
+#include "shaders/shader_manager.h"
+#include "util/gvr_profiler.h"
+
+using namespace gvr;
+
+JavaVM* getHostJavaVM();
+
+namespace
+{
+
+const char* VERTEX_DESC = "float3 a_position float3 a_normal float2 a_texcoord";
+const char* MATERIAL_DESC = "float4 u_color; float u_opacity; float3 u_emission; ";
+const char* LIGHT_DESC = "float4 diffuse_intensity; float4 specular_intensity; float4 world_direction; ";
+
+const int NUM_SHADERS = 4;
+const int NUM_MATERIALS = 32;
+const int BRANCHING = 8;            // children of each group node, one per octant
+const float SCENE_RADIUS = 200.0f;
+const int NUM_LOD_LEVELS = 3;
+const float LOD_RANGES[NUM_LOD_LEVELS] = { 0.0f, 40.0f, 120.0f };
+
+struct Options
+{
+    std::vector<int>    sizes;
+    int                 frames = 200;
+    int                 warmup = 10;
+    float               moving = 0.1f;          // fraction of nodes animated every frame
+    float               transparent = 0.05f;    // fraction of nodes in the transparent queue
+    float               lod = 0.0f;             // fraction of nodes with levels of detail
+    float               orbit = 0.0f;           // distance of the camera from the center of the scene
+    int                 lights = 2;
+    bool                culling = true;
+    bool                profile = false;        // run the native profiler
+};
+
+/*
+ * Per frame stage times in milliseconds.
+ */
+struct Stages
+{
+    double update;
+    double cull;
+    double sort;
+    double render;
+
+    double total() const { return update + cull + sort + render; }
+};
+
+struct SyntheticScene
+{
+    Scene*                      scene;
+    CameraRig*                  rig;
+    PerspectiveCamera*          camera;
+    RenderTarget*               target;
+    ShaderManager*              shaders;
+    std::vector<SceneObject*>   nodes;
+    std::vector<SceneObject*>   moving;
+    std::vector<LODGroup*>      lods;
+    std::vector<SceneObject*>   levels;     // NUM_LOD_LEVELS for each LOD group
+};
+
+double elapsed(std::chrono::steady_clock::time_point& start)
+{
+    auto now = std::chrono::steady_clock::now();
+    double ms = std::chrono::duration<double, std::milli>(now - start).count();
+    start = now;
+    return ms;
+}
+
+/*
+ * A cube with separate vertices for each face,
+ * like the meshes made by GVRCubeSceneObject.
+ */
+Mesh* makeCube()
+{
+    static const float corners[8][3] = {
+            { -1, -1, -1 }, { 1, -1, -1 }, { 1, 1, -1 }, { -1, 1, -1 },
+            { -1, -1, 1 }, { 1, -1, 1 }, { 1, 1, 1 }, { -1, 1, 1 }
+    };
+    static const int faces[6][4] = {
+            { 4, 5, 6, 7 }, { 1, 0, 3, 2 }, { 5, 1, 2, 6 },
+            { 0, 4, 7, 3 }, { 7, 6, 2, 3 }, { 0, 1, 5, 4 }
+    };
+    static const float normals[6][3] = {
+            { 0, 0, 1 }, { 0, 0, -1 }, { 1, 0, 0 }, { -1, 0, 0 }, { 0, 1, 0 }, { 0, -1, 0 }
+    };
+    static const float uvs[4][2] = { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 0, 1 } };
+    std::vector<float> positions, norms, texcoords;
+    std::vector<unsigned short> triangles;
+
+    for (int f = 0; f < 6; ++f)
+    {
+        unsigned short base = positions.size() / 3;
+        for (int v = 0; v < 4; ++v)
+        {
+            positions.insert(positions.end(), corners[faces[f][v]], corners[faces[f][v]] + 3);
+            norms.insert(norms.end(), normals[f], normals[f] + 3);
+            texcoords.insert(texcoords.end(), uvs[v], uvs[v] + 2);
+        }
+        unsigned short quad[6] = { base, (unsigned short) (base + 1), (unsigned short) (base + 2),
+                                   base, (unsigned short) (base + 2), (unsigned short) (base + 3) };
+        triangles.insert(triangles.end(), quad, quad + 6);
+    }
+    Mesh* mesh = new Mesh(VERTEX_DESC);
+    mesh->setVertices(positions.data(), positions.size());
+    mesh->setNormals(norms.data(), norms.size());
+    mesh->setFloatVec("a_texcoord", texcoords.data(), texcoords.size());
+    mesh->setTriangles(triangles.data(), triangles.size());
+    return mesh;
+}
+
+SceneObject* makeNode()
+{
+    SceneObject* node = new SceneObject();
+    node->attachComponent(new Transform());
+    return node;
+}
+
+/*
+ * Builds a tree with BRANCHING children for each group node.
+ * The leaves are cubes which share one mesh and use one of
+ * NUM_MATERIALS materials and NUM_SHADERS shaders.
+ */
+void buildScene(SyntheticScene& s, int numNodes, const Options& options, std::mt19937& rng)
+{
+    Renderer* renderer = Renderer::getInstance("null");
+    std::uniform_real_distribution<float> unit(-1.0f, 1.0f);
+    std::uniform_real_distribution<float> chance(0.0f, 1.0f);
+    int shaderIds[NUM_SHADERS];
+    ShaderData* materials[NUM_MATERIALS];
+    Mesh* cube = makeCube();
+
+    s.scene = new Scene();
+    s.scene->set_java(getHostJavaVM(), nullptr);
+    s.shaders = new ShaderManager();
+    for (int i = 0; i < NUM_SHADERS; ++i)
+    {
+        std::string signature = "BenchmarkShader" + std::to_string(i);
+        shaderIds[i] = s.shaders->addShader(signature.c_str(), MATERIAL_DESC, "", VERTEX_DESC, "", "");
+        s.shaders->getShader(shaderIds[i])->useMatrixUniforms(true);
+    }
+    for (int i = 0; i < NUM_MATERIALS; ++i)
+    {
+        materials[i] = renderer->createMaterial(MATERIAL_DESC, "");
+        materials[i]->setVec4("u_color", glm::vec4(chance(rng), chance(rng), chance(rng), 1.0f));
+        materials[i]->setFloat("u_opacity", 1.0f);
+    }
+
+    SceneObject* root = makeNode();
+    s.scene->setSceneRoot(root);
+    s.scene->set_frustum_culling(options.culling);
+    s.nodes.push_back(root);
+
+    /*
+     * Node i is a child of node (i - 1) / BRANCHING so the tree
+     * is complete. It is an octree: each child is in the middle
+     * of one octant of its parent, so the leaves fill the scene
+     * evenly and each subtree is compact like in a real scene.
+     */
+    std::vector<float> extent(1, SCENE_RADIUS);
+    for (int i = 1; i < numNodes; ++i)
+    {
+        int parentIndex = (i - 1) / BRANCHING;
+        int octant = (i - 1) % BRANCHING;
+        SceneObject* parent = s.nodes[parentIndex];
+        SceneObject* node = makeNode();
+        float half = extent[parentIndex] * 0.5f;
+
+        node->transform()->set_position((octant & 1) ? half : -half,
+                                        (octant & 2) ? half : -half,
+                                        (octant & 4) ? half : -half);
+        parent->addChildObject(parent, node);
+        s.nodes.push_back(node);
+        extent.push_back(half);
+    }
+    for (int i = 1; i < numNodes; ++i)
+    {
+        SceneObject* node = s.nodes[i];
+
+        if (!node->children().empty())
+        {
+            continue;
+        }
+        int material = rng() % NUM_MATERIALS;
+        bool transparent = chance(rng) < options.transparent;
+        auto makeRenderData = [&]()
+        {
+            RenderData* rdata = renderer->createRenderData();
+            RenderPass* pass = renderer->createRenderPass();
+
+            pass->set_material(materials[material]);
+            pass->set_shader(shaderIds[material % NUM_SHADERS], false);
+            rdata->add_pass(pass);
+            rdata->set_mesh(cube);
+            if (transparent)
+            {
+                rdata->set_rendering_order(RenderData::Queue::Transparent);
+                rdata->set_alpha_blend(true);
+            }
+            return rdata;
+        };
+
+        if (chance(rng) < options.lod)
+        {
+            // one child per level, the LOD group shows one of them
+            LODGroup* lod = new LODGroup();
+            node->attachComponent(lod);
+            for (int l = 0; l < NUM_LOD_LEVELS; ++l)
+            {
+                SceneObject* level = makeNode();
+                level->attachComponent(makeRenderData());
+                node->addChildObject(node, level);
+                lod->addRange(LOD_RANGES[l], level);
+                s.levels.push_back(level);
+            }
+            s.lods.push_back(lod);
+        }
+        else
+        {
+            node->attachComponent(makeRenderData());
+        }
+
+        Transform* t = node->transform();
+        float half = extent[i] * 0.5f;
+        t->set_position(t->position_x() + unit(rng) * half,
+                        t->position_y() + unit(rng) * half,
+                        t->position_z() + unit(rng) * half);
+        t->set_scale(half, half, half);
+        if (chance(rng) < options.moving)
+        {
+            s.moving.push_back(node);
+        }
+    }
+
+    for (int i = 0; i < options.lights; ++i)
+    {
+        SceneObject* owner = makeNode();
+        Light* light = renderer->createLight(LIGHT_DESC, "");
+
+        light->setLightClass("BenchmarkLight");
+        light->setVec4("diffuse_intensity", glm::vec4(1.0f));
+        owner->attachComponent(light);
+        root->addChildObject(root, owner);
+        s.scene->addLight(light);
+    }
+
+    s.rig = new CameraRig();
+    s.camera = new PerspectiveCamera();
+    s.camera->set_fov_y(glm::radians(90.0f));
+    s.camera->set_aspect_ratio(1.0f);
+    SceneObject* head = makeNode();
+    head->attachComponent(s.rig);
+    head->attachComponent(s.camera);
+    s.rig->attachCenterCamera(s.camera);
+    root->addChildObject(root, head);
+    s.scene->set_main_camera_rig(s.rig);
+
+    s.target = renderer->createRenderTarget(s.scene);
+    s.target->setCamera(s.camera);
+}
+
+/*
+ * Spins the animated nodes and turns the camera
+ * so the visible set changes from frame to frame.
+ * With an orbit the camera also circles the center
+ * of the scene at that distance.
+ */
+void animate(SyntheticScene& s, int frame, float orbit)
+{
+    float angle = frame * 0.01f;
+
+    for (size_t i = 0; i < s.moving.size(); ++i)
+    {
+        float a = 0.5f * (angle + i);
+        s.moving[i]->transform()->set_rotation(cosf(a), 0.0f, sinf(a), 0.0f);
+    }
+    Transform* head = s.camera->owner_object()->transform();
+    head->set_rotation(cosf(angle * 0.5f), 0.0f, sinf(angle * 0.5f), 0.0f);
+    head->set_position(orbit * sinf(angle), 0.0f, orbit * cosf(angle));
+}
+
+/*
+ * Check the levels selected by the last cull against the distances
+ * from the camera's world position. Allowing for the hysteresis,
+ * the selected level must be in range and the next one out of range.
+ * Only the LOD groups the cull found in view are checked, the
+ * others may be under a culled object and keep older levels.
+ * @return number of LOD groups showing the wrong level
+ */
+int checkLevels(const SyntheticScene& s)
+{
+    glm::vec3 campos(s.camera->owner_object()->transform()->getModelMatrix()[3]);
+    unsigned int frame = s.scene->getRoot()->viewFrame();
+    int wrong = 0;
+
+    for (size_t i = 0; i < s.lods.size(); ++i)
+    {
+        const LODGroup* lod = s.lods[i];
+        SceneObject* const* levels = &s.levels[i * NUM_LOD_LEVELS];
+
+        if (lod->owner_object()->viewFrame() != frame)
+        {
+            continue;
+        }
+        float hysteresis = lod->getHysteresis();
+        int selected = -1;
+
+        for (int l = 0; l < NUM_LOD_LEVELS; ++l)
+        {
+            if (lod->selected() == levels[l])
+            {
+                selected = l;
+            }
+        }
+        if (selected < 0)
+        {
+            ++wrong;
+            continue;
+        }
+        float distance = glm::length(levels[selected]->getBoundingVolume().center() - campos);
+        if (distance < LOD_RANGES[selected] * (1.0f - hysteresis))
+        {
+            ++wrong;
+        }
+        else if (selected + 1 < NUM_LOD_LEVELS)
+        {
+            distance = glm::length(levels[selected + 1]->getBoundingVolume().center() - campos);
+            if (distance >= LOD_RANGES[selected + 1] * (1.0f + hysteresis))
+            {
+                ++wrong;
+            }
+        }
+    }
+    return wrong;
+}
+
+/*
+ * Move the camera back and forth across the smallest range of an
+ * LOD group and check that it switches between showing no level
+ * and the first level only outside the hysteresis, like between
+ * two levels. The first selection has no hysteresis.
+ * @return false if the group selected a wrong level
+ */
+bool checkNearestLevel()
+{
+    static const float ranges[] = { 10.0f, 30.0f };
+    static const struct { float distance; int level; } steps[] = {
+            { 10.5f, 0 }, { 9.5f, 0 }, { 8.5f, -1 }, { 10.5f, -1 }, { 9.5f, -1 },
+            { 11.5f, 0 }, { 32.0f, 0 }, { 34.0f, 1 }, { 28.0f, 1 }, { 26.0f, 0 }
+    };
+    Renderer* renderer = Renderer::getInstance("null");
+    Mesh* cube = makeCube();
+    SceneObject* owner = makeNode();
+    SceneObject* levels[2];
+    LODGroup* lod = new LODGroup();
+    bool passed = true;
+
+    owner->attachComponent(lod);
+    for (int l = 0; l < 2; ++l)
+    {
+        RenderData* rdata = renderer->createRenderData();
+
+        rdata->set_mesh(cube);
+        levels[l] = makeNode();
+        levels[l]->attachComponent(rdata);
+        owner->addChildObject(owner, levels[l]);
+        lod->addRange(ranges[l], levels[l]);
+    }
+    for (const auto& step : steps)
+    {
+        const SceneObject* selected = lod->selectLevel(glm::vec3(0, 0, step.distance));
+        const SceneObject* expected = (step.level >= 0) ? levels[step.level] : nullptr;
+
+        if (selected != expected)
+        {
+            fprintf(stderr, "the LOD group at distance %g showed level %d instead of %d\n", step.distance,
+                    (selected == levels[0]) ? 0 : ((selected == levels[1]) ? 1 : -1), step.level);
+            passed = false;
+        }
+    }
+    return passed;
+}
+
+Stages renderFrame(SyntheticScene& s, int frame, float orbit, RenderSorter& sorter)
+{
+    Renderer* renderer = Renderer::getInstance("null");
+    std::vector<RenderData*>* render_data_vector = s.target->getRenderDataVector();
+    Stages stages;
+    auto start = std::chrono::steady_clock::now();
+
+    Profiler::endFrame();
+    animate(s, frame, orbit);
+    stages.update = elapsed(start);
+
+    renderer->cullFromCamera(s.scene, nullptr, s.camera, s.shaders, render_data_vector, false);
+    s.scene->getLights().shadersRebuilt();
+    stages.cull = elapsed(start);
+
+    renderer->state_sort(render_data_vector, sorter);
+    stages.sort = elapsed(start);
+
+    renderer->renderRenderTarget(s.scene, nullptr, s.target, s.shaders, nullptr, nullptr);
+    stages.render = elapsed(start);
+    return stages;
+}
+
+double percentile(std::vector<double> values, double p)
+{
+    std::sort(values.begin(), values.end());
+    size_t i = std::min(values.size() - 1, (size_t) (p * values.size()));
+    return values[i];
+}
+
+/*
+ * Print the average time of the stages timed by the native profiler
+ * over the last frames and reset it for the next scene.
+ */
+void printProfile()
+{
+    static const char* names[Profiler::STAGE_COUNT] =
+    {
+        "cull", "occlusion", "sort", "shadows", "draws", "jni", "runnables", "listeners", "frame"
+    };
+    int history[Profiler::HISTORY_SIZE];
+    long long counters[Profiler::COUNTER_COUNT];
+
+    printf("         profiler ms:");
+    for (int s = 0; s < Profiler::STAGE_COUNT; ++s)
+    {
+        Profiler::Stage stage = static_cast<Profiler::Stage>(s);
+        int n = Profiler::getHistory(stage, history);
+        double total = 0;
+
+        Profiler::getCounters(stage, counters);
+        if (counters[Profiler::COUNTER_CALLS] == 0)
+        {
+            continue;
+        }
+        for (int i = 0; i < n; ++i)
+        {
+            total += history[i];
+        }
+        printf(" %s %.3f", names[s], (n > 0) ? total / n / 1e6 : 0.0);
+    }
+    printf("\n");
+    Profiler::reset();
+}
+
+/*
+ * @return false if an LOD group showed the wrong level
+ */
+bool runBenchmark(int numNodes, const Options& options)
+{
+    std::mt19937 rng(numNodes);
+    SyntheticScene s;
+    RenderSorter sorter;
+    Stages sum = { 0, 0, 0, 0 };
+    std::vector<double> totals;
+    int wrongLevels = 0;
+    auto start = std::chrono::steady_clock::now();
+
+    buildScene(s, numNodes, options, rng);
+    double buildTime = elapsed(start);
+
+    for (int f = 0; f < options.warmup; ++f)
+    {
+        renderFrame(s, f, options.orbit, sorter);
+    }
+    for (int f = 0; f < options.frames; ++f)
+    {
+        Stages st = renderFrame(s, options.warmup + f, options.orbit, sorter);
+        wrongLevels += checkLevels(s);
+        sum.update += st.update;
+        sum.cull += st.cull;
+        sum.sort += st.sort;
+        sum.render += st.render;
+        totals.push_back(st.total());
+    }
+    Renderer* renderer = Renderer::getInstance("null");
+    double n = options.frames;
+
+    printf("%8d %8zu %8d %9d %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f %9.1f\n",
+           numNodes, s.target->getRenderDataVector()->size(),
+           renderer->getNumberDrawCalls(), renderer->getNumberTriangles() / 3,
+           sum.update / n, sum.cull / n, sum.sort / n, sum.render / n,
+           sum.total() / n, percentile(totals, 0.95), buildTime);
+    if (options.profile)
+    {
+        printProfile();
+    }
+    if (wrongLevels > 0)
+    {
+        fprintf(stderr, "%d times an LOD group showed the wrong level\n", wrongLevels);
+        return false;
+    }
+    return true;
+}
+
+std::vector<int> parseSizes(const char* arg)
+{
+    std::vector<int> sizes;
+    std::string list(arg);
+    size_t pos = 0;
+
+    while (pos < list.size())
+    {
+        size_t comma = list.find(',', pos);
+        if (comma == std::string::npos)
+        {
+            comma = list.size();
+        }
+        sizes.push_back(atoi(list.substr(pos, comma - pos).c_str()));
+        pos = comma + 1;
+    }
+    return sizes;
+}
+
+void usage(const char* program)
+{
+    fprintf(stderr,
+            "usage: %s [-n nodes,nodes,...] [-f frames] [-w warmup frames]\n"
+            "          [-m moving fraction] [-t transparent fraction] [-d LOD fraction]\n"
+            "          [-o camera orbit] [-l lights] [-c] [-p]\n"
+            "  -o  distance of the camera from the center of the scene\n"
+            "  -c  turn off frustum culling\n"
+            "  -p  run the native profiler\n", program);
+    exit(1);
+}
+
+}
+
+int main(int argc, char** argv)
+{
+    Options options;
+
+    for (int i = 1; i < argc; ++i)
+    {
+        const char* arg = argv[i];
+        const char* value = (i + 1 < argc) ? argv[i + 1] : nullptr;
+
+        if (strcmp(arg, "-c") == 0)
+        {
+            options.culling = false;
+            continue;
+        }
+        if (strcmp(arg, "-p") == 0)
+        {
+            options.profile = true;
+            continue;
+        }
+        if ((value == nullptr) || (arg[0] != '-') || (strlen(arg) != 2))
+        {
+            usage(argv[0]);
+        }
+        switch (arg[1])
+        {
+            case 'n': options.sizes = parseSizes(value); break;
+            case 'f': options.frames = atoi(value); break;
+            case 'w': options.warmup = atoi(value); break;
+            case 'm': options.moving = atof(value); break;
+            case 't': options.transparent = atof(value); break;
+            case 'd': options.lod = atof(value); break;
+            case 'o': options.orbit = atof(value); break;
+            case 'l': options.lights = atoi(value); break;
+            default: usage(argv[0]);
+        }
+        ++i;
+    }
+    if (options.sizes.empty())
+    {
+        options.sizes = { 10000, 30000, 100000 };
+    }
+    if (options.frames <= 0)
+    {
+        usage(argv[0]);
+    }
+    printf("null renderer, %d frames, %.0f%% moving, %.0f%% transparent, %.0f%% LOD, "
+           "camera orbit %.0f, %d lights, culling %s%s\n",
+           options.frames, options.moving * 100, options.transparent * 100, options.lod * 100,
+           options.orbit, options.lights, options.culling ? "on" : "off", options.profile ? ", profiling" : "");
+    Profiler::setEnabled(options.profile);
+    printf("   nodes  visible    draws triangles   update     cull     sort   render    total  p95 tot  build ms\n");
+    bool passed = checkNearestLevel();
+    for (size_t i = 0; i < options.sizes.size(); ++i)
+    {
+        passed = runBenchmark(options.sizes[i], options) && passed;
+    }
+    return passed ? 0 : 1;
+}
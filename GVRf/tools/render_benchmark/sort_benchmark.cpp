@@ -0,0 +1,212 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Measures sorting the render data list of a frame.
+ *
+ * Compares the RenderSorter used by Renderer::state_sort with
+ * std::sort and compareRenderDataByOrderShaderDistance, as the
+ * renderer sorted before.
+ ***************************************************************************/
+
+#include <algorithm>
+#include <chrono>
+#include <cstdio>
+#include <cstdlib>
+#include <random>
+#include <vector>
+
+#include "engine/renderer/renderer.h"
+#include "engine/renderer/render_sorter.h"
+#include "objects/mesh.h"
+#include "objects/render_pass.h"
+#include "objects/components/render_data.h"
+
+using namespace gvr;
+
+namespace
+{
+
+const char* VERTEX_DESC = "float3 a_position float3 a_normal float2 a_texcoord";
+const char* MATERIAL_DESC = "float4 u_color; float u_opacity; ";
+
+const int NUM_SHADERS = 20;
+const int NUM_MATERIALS = 100;
+const float DRIFT = 0.02f;              // fraction the camera distances change each frame
+
+/*
+ * Makes render data with a mix of shaders, materials, cull faces,
+ * render states and queues, like the visible list of a busy scene.
+ */
+std::vector<RenderData*> makeRenderData(int count, std::mt19937& rng)
+{
+    Renderer* renderer = Renderer::getInstance("null");
+    std::uniform_real_distribution<float> chance(0.0f, 1.0f);
+    std::vector<ShaderData*> materials;
+    std::vector<RenderData*> list;
+    Mesh* mesh = new Mesh(VERTEX_DESC);
+
+    for (int i = 0; i < NUM_MATERIALS; ++i)
+    {
+        materials.push_back(renderer->createMaterial(MATERIAL_DESC, ""));
+    }
+    for (int i = 0; i < count; ++i)
+    {
+        RenderData* rdata = renderer->createRenderData();
+        RenderPass* pass = renderer->createRenderPass();
+        int material = rng() % NUM_MATERIALS;
+        float queue = chance(rng);
+
+        pass->set_material(materials[material]);
+        pass->set_shader(1 + material % NUM_SHADERS, false);
+        pass->set_cull_face((chance(rng) < 0.1f) ? RenderData::CullFront : RenderData::CullBack);
+        rdata->add_pass(pass);
+        rdata->set_mesh(mesh);
+        if (queue < 0.05f)
+        {
+            rdata->set_rendering_order(RenderData::Queue::Background);
+        }
+        else if (queue < 0.15f)
+        {
+            rdata->set_rendering_order(RenderData::Queue::Transparent);
+            rdata->set_alpha_blend(true);
+        }
+        else if (queue < 0.17f)
+        {
+            rdata->set_rendering_order(RenderData::Queue::Overlay);
+            rdata->set_depth_test(false);
+        }
+        if (chance(rng) < 0.05f)
+        {
+            rdata->set_offset(true);
+        }
+        rdata->set_camera_distance(1.0f + 1000.0f * chance(rng));
+        list.push_back(rdata);
+    }
+    return list;
+}
+
+/*
+ * Checks the queues are in order and the transparent
+ * render data are sorted from back to front.
+ */
+bool isSorted(const std::vector<RenderData*>& list)
+{
+    for (size_t i = 1; i < list.size(); ++i)
+    {
+        RenderData* a = list[i - 1];
+        RenderData* b = list[i];
+
+        if (a->rendering_order() > b->rendering_order())
+        {
+            return false;
+        }
+        if ((a->rendering_order() == b->rendering_order()) &&
+            (a->rendering_order() == RenderData::Queue::Transparent) &&
+            (a->camera_distance() < b->camera_distance()))
+        {
+            return false;
+        }
+    }
+    return true;
+}
+
+/*
+ * Number of shader or material changes when rendering the list.
+ */
+int countSwitches(const std::vector<RenderData*>& list)
+{
+    int switches = 0;
+
+    for (size_t i = 1; i < list.size(); ++i)
+    {
+        if ((list[i - 1]->get_shader(0) != list[i]->get_shader(0)) ||
+            (list[i - 1]->material(0) != list[i]->material(0)))
+        {
+            ++switches;
+        }
+    }
+    return switches;
+}
+
+}
+
+int main(int argc, char* argv[])
+{
+    int count = (argc > 1) ? atoi(argv[1]) : 5000;
+    int frames = (argc > 2) ? atoi(argv[2]) : 200;
+    std::mt19937 rng(12345);
+    std::uniform_real_distribution<float> drift(1.0f - DRIFT, 1.0f + DRIFT);
+    std::vector<RenderData*> input = makeRenderData(count, rng);
+    bool failed = false;
+
+    printf("%d render data x %d frames, milliseconds per sort\n", count, frames);
+    printf("%-10s %10s %10s %8s %10s %10s\n", "input", "std::sort", "sorter", "speedup", "switches", "sorter");
+    for (int coherent = 0; coherent < 2; ++coherent)
+    {
+        RenderSorter sorter;
+        std::vector<RenderData*> bySort;
+        std::vector<RenderData*> bySorter;
+        double times[2] = { 0, 0 };
+
+        for (int f = 0; f < frames; ++f)
+        {
+            /*
+             * A shuffled list is a new visible list each frame. Otherwise
+             * the list stays the same and only the distances drift,
+             * as when the camera moves slowly.
+             */
+            if (!coherent)
+            {
+                std::shuffle(input.begin(), input.end(), rng);
+            }
+            for (RenderData* rdata : input)
+            {
+                rdata->set_camera_distance(rdata->camera_distance() * drift(rng));
+            }
+            bySort = input;
+            bySorter = input;
+
+            auto start = std::chrono::steady_clock::now();
+            std::sort(bySort.begin(), bySort.end(), compareRenderDataByOrderShaderDistance);
+            auto middle = std::chrono::steady_clock::now();
+            sorter.sort(bySorter);
+            auto end = std::chrono::steady_clock::now();
+
+            times[0] += std::chrono::duration<double, std::milli>(middle - start).count();
+            times[1] += std::chrono::duration<double, std::milli>(end - middle).count();
+            if (!isSorted(bySorter) ||
+                !std::is_permutation(bySorter.begin(), bySorter.end(), input.begin()))
+            {
+                failed = true;
+            }
+        }
+        int sortSwitches = countSwitches(bySort);
+        int sorterSwitches = countSwitches(bySorter);
+
+        printf("%-10s %10.3f %10.3f %7.1fx %10d %10d\n", coherent ? "drifting" : "shuffled",
+               times[0] / frames, times[1] / frames, times[0] / times[1], sortSwitches, sorterSwitches);
+        if (sorterSwitches > sortSwitches)
+        {
+            failed = true;
+        }
+    }
+    if (failed)
+    {
+        fprintf(stderr, "RenderSorter gave a wrong order or more state changes than std::sort\n");
+        return 1;
+    }
+    return 0;
+}
@@ -0,0 +1,233 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Measures setting the local transforms of many scene objects.
+ *
+ * Compares writing position, rotation and scale through a
+ * TransformBatch with calling the three Transform setters for
+ * each scene object, as GVRTransform does from Java.
+ * Also checks that swapRemove keeps the other transforms in place.
+ ***************************************************************************/
+
+#include <algorithm>
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstdlib>
+#include <vector>
+
+#include "objects/scene_object.h"
+#include "objects/components/transform.h"
+#include "objects/components/transform_batch.h"
+
+using namespace gvr;
+
+namespace
+{
+
+const int NUM_CHILDREN = 3;
+const float TOLERANCE = 1e-5f;
+
+SceneObject* makeNode(SceneObject* parent)
+{
+    SceneObject* node = new SceneObject();
+    node->attachComponent(new Transform());
+    if (parent != nullptr)
+    {
+        parent->addChildObject(parent, node);
+    }
+    return node;
+}
+
+/*
+ * A root with the animated objects under it, each with
+ * children which are not in the batch but move with it.
+ */
+struct Hierarchy
+{
+    SceneObject*                root;
+    std::vector<Transform*>     animated;
+    std::vector<Transform*>     children;
+
+    explicit Hierarchy(int count)
+    {
+        root = makeNode(nullptr);
+        for (int i = 0; i < count; ++i)
+        {
+            SceneObject* node = makeNode(root);
+
+            animated.push_back(node->transform());
+            for (int c = 0; c < NUM_CHILDREN; ++c)
+            {
+                SceneObject* child = makeNode(node);
+                child->transform()->set_position(c + 1.0f, 0, 0);
+                children.push_back(child->transform());
+            }
+        }
+    }
+
+    /*
+     * Compute the model matrices of the children, as the
+     * renderer does for the objects it draws.
+     */
+    void update()
+    {
+        for (Transform* t : children)
+        {
+            t->getModelMatrix();
+        }
+    }
+};
+
+/*
+ * Position, rotation and scale of each animated object in a
+ * frame, packed as TransformBatch::LOCAL_TRS expects them.
+ */
+void animate(std::vector<float>& trs, int count, int frame)
+{
+    for (int i = 0; i < count; ++i)
+    {
+        float* v = &trs[i * 10];
+        float a = 0.01f * frame + 0.1f * i;
+        float s = 1.0f + 0.25f * sinf(a);
+
+        v[0] = (float) (i % 100);
+        v[1] = sinf(a);
+        v[2] = (float) (i / 100);
+        v[3] = cosf(a * 0.5f);
+        v[4] = 0;
+        v[5] = sinf(a * 0.5f);
+        v[6] = 0;
+        v[7] = s;
+        v[8] = s;
+        v[9] = s;
+    }
+}
+
+/*
+ * Remove the first transform of the batch, the last one
+ * should take its place and the others keep theirs.
+ */
+bool checkSwapRemove(TransformBatch& batch, const std::vector<Transform*>& animated)
+{
+    int count = animated.size();
+    std::vector<float> positions(count * 3);
+
+    for (int i = 0; i < count; ++i)
+    {
+        animated[i]->set_position(i, 0, 0);
+    }
+    batch.swapRemove(0);
+    if ((batch.size() != count - 1) || !batch.read(TransformBatch::POSITION, positions.data()))
+    {
+        return false;
+    }
+    for (int i = 0; i < count - 1; ++i)
+    {
+        int expected = (i == 0) ? count - 1 : i;
+
+        if (positions[i * 3] != expected)
+        {
+            return false;
+        }
+    }
+    return true;
+}
+
+}
+
+int main(int argc, char* argv[])
+{
+    int count = (argc > 1) ? atoi(argv[1]) : 10000;
+    int frames = (argc > 2) ? atoi(argv[2]) : 200;
+
+    if ((count <= 0) || (frames <= 0))
+    {
+        fprintf(stderr, "usage: %s [transforms] [frames]\n", argv[0]);
+        return 1;
+    }
+    Hierarchy bySetters(count);
+    Hierarchy byBatch(count);
+    TransformBatch batch;
+    std::vector<float> trs(count * 10);
+    double times[2][2] = { { 0, 0 }, { 0, 0 } };
+
+    for (Transform* t : byBatch.animated)
+    {
+        batch.add(t);
+    }
+    for (int f = 0; f < frames; ++f)
+    {
+        animate(trs, count, f);
+
+        auto start = std::chrono::steady_clock::now();
+        for (int i = 0; i < count; ++i)
+        {
+            const float* v = &trs[i * 10];
+            Transform* t = bySetters.animated[i];
+
+            t->set_position(v[0], v[1], v[2]);
+            t->set_rotation(v[3], v[4], v[5], v[6]);
+            t->set_scale(v[7], v[8], v[9]);
+        }
+        auto setEnd = std::chrono::steady_clock::now();
+        bySetters.update();
+        auto setUpdated = std::chrono::steady_clock::now();
+        batch.write(TransformBatch::LOCAL_TRS, trs.data());
+        auto batchEnd = std::chrono::steady_clock::now();
+        byBatch.update();
+        auto batchUpdated = std::chrono::steady_clock::now();
+
+        times[0][0] += std::chrono::duration<double, std::milli>(setEnd - start).count();
+        times[0][1] += std::chrono::duration<double, std::milli>(setUpdated - setEnd).count();
+        times[1][0] += std::chrono::duration<double, std::milli>(batchEnd - setUpdated).count();
+        times[1][1] += std::chrono::duration<double, std::milli>(batchUpdated - batchEnd).count();
+    }
+
+    float maxDiff = 0;
+    for (size_t i = 0; i < bySetters.children.size(); ++i)
+    {
+        glm::mat4 a = bySetters.children[i]->getModelMatrix();
+        glm::mat4 b = byBatch.children[i]->getModelMatrix();
+
+        for (int c = 0; c < 4; ++c)
+        {
+            for (int r = 0; r < 4; ++r)
+            {
+                maxDiff = std::max(maxDiff, fabsf(a[c][r] - b[c][r]));
+            }
+        }
+    }
+
+    printf("%d transforms with %d children x %d frames, milliseconds per frame\n", count, NUM_CHILDREN, frames);
+    printf("%-10s %8s %8s %8s\n", "", "write", "update", "total");
+    printf("%-10s %8.3f %8.3f %8.3f\n", "setters", times[0][0] / frames, times[0][1] / frames,
+           (times[0][0] + times[0][1]) / frames);
+    printf("%-10s %8.3f %8.3f %8.3f\n", "LOCAL_TRS", times[1][0] / frames, times[1][1] / frames,
+           (times[1][0] + times[1][1]) / frames);
+    printf("largest difference of the model matrices %g\n", maxDiff);
+    if (maxDiff > TOLERANCE)
+    {
+        fprintf(stderr, "the batch gave different model matrices than the setters\n");
+        return 1;
+    }
+    if (!checkSwapRemove(batch, byBatch.animated))
+    {
+        fprintf(stderr, "swapRemove moved the wrong transforms\n");
+        return 1;
+    }
+    return 0;
+}
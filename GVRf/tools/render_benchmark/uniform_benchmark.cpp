@@ -0,0 +1,211 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Measures the cost of updating the transform uniforms of a draw call.
+ *
+ * Compares Renderer::updateTransforms, which sets the uniforms by
+ * slots looked up once, with the same update setting every uniform
+ * by name, as the renderer did before.
+ ***************************************************************************/
+
+#include <chrono>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <vector>
+
+#include "glm/gtc/matrix_inverse.hpp"
+#include "glm/gtc/matrix_transform.hpp"
+#include "engine/renderer/renderer.h"
+#include "objects/scene.h"
+#include "objects/scene_object.h"
+#include "objects/uniform_block.h"
+#include "objects/components/transform.h"
+#include "objects/components/render_data.h"
+#include "objects/components/camera_rig.h"
+#include "objects/components/perspective_camera.h"
+
+using namespace gvr;
+
+JavaVM* getHostJavaVM();
+
+namespace
+{
+
+const char* TRANSFORM_DESC[2] = {
+        " mat4 u_view; mat4 u_mvp; mat4 u_mv; mat4 u_mv_it; mat4 u_view_i; mat4 u_model; float u_right;",
+        " mat4 u_view_[2]; mat4 u_mvp_[2]; mat4 u_mv_[2]; mat4 u_mv_it_[2]; mat4 u_view_i_[2]; mat4 u_model; float u_right; uint u_render_mask; "
+};
+
+const int NUM_DRAWS = 1000;
+
+/*
+ * Renderer::updateTransforms before the uniform slots.
+ */
+void updateTransformsByName(Renderer* renderer, RenderState& rstate, UniformBlock* transform_ubo, RenderData* renderData)
+{
+    Transform* model = renderData->owner_object() ? renderData->owner_object()->transform() : nullptr;
+    rstate.uniforms.u_model = model ? model->getModelMatrix() : glm::mat4();
+    transform_ubo->setMat4("u_model", rstate.uniforms.u_model);
+    transform_ubo->setFloat("u_right", (rstate.render_mask & RenderData::RenderMaskBit::Right) ? 1 : 0);
+
+    if (rstate.is_multiview)
+    {
+        if (!rstate.is_shadow)
+        {
+            rstate.uniforms.u_view_[0] = rstate.scene->main_camera_rig()->left_camera()->getViewMatrix();
+            rstate.uniforms.u_view_[1] = rstate.scene->main_camera_rig()->right_camera()->getViewMatrix();
+            rstate.uniforms.u_mv_[0] = rstate.uniforms.u_view_[0] * rstate.uniforms.u_model;
+            rstate.uniforms.u_mv_[1] = rstate.uniforms.u_view_[1] * rstate.uniforms.u_model;
+            rstate.uniforms.u_mv_it_[0] = glm::inverseTranspose(rstate.uniforms.u_mv_[0]);
+            rstate.uniforms.u_mv_it_[1] = glm::inverseTranspose(rstate.uniforms.u_mv_[1]);
+            rstate.uniforms.u_mvp_[0] = rstate.uniforms.u_proj * rstate.uniforms.u_mv_[0];
+            rstate.uniforms.u_mvp_[1] = rstate.uniforms.u_proj * rstate.uniforms.u_mv_[1];
+            rstate.uniforms.u_view_inv_[0] = glm::inverse(rstate.uniforms.u_view_[0]);
+            rstate.uniforms.u_view_inv_[1] = glm::inverse(rstate.uniforms.u_view_[1]);
+        }
+        transform_ubo->setMat4("u_view_", rstate.uniforms.u_view_[0]);
+        transform_ubo->setMat4("u_mvp_", rstate.uniforms.u_mvp_[0]);
+        transform_ubo->setMat4("u_mv_", rstate.uniforms.u_mv_[0]);
+        transform_ubo->setMat4("u_mv_it_", rstate.uniforms.u_mv_it_[0]);
+        transform_ubo->setMat4("u_view_i_", rstate.uniforms.u_view_inv_[0]);
+        transform_ubo->setInt("u_render_mask", renderData->render_mask());
+    }
+    else
+    {
+        rstate.uniforms.u_mv = rstate.uniforms.u_view * rstate.uniforms.u_model;
+        rstate.uniforms.u_mv_it = glm::inverseTranspose(rstate.uniforms.u_mv);
+        rstate.uniforms.u_mvp = rstate.uniforms.u_proj * rstate.uniforms.u_mv;
+        transform_ubo->setMat4("u_view", rstate.uniforms.u_view);
+        transform_ubo->setMat4("u_mvp", rstate.uniforms.u_mvp);
+        transform_ubo->setMat4("u_mv", rstate.uniforms.u_mv);
+        transform_ubo->setMat4("u_mv_it", rstate.uniforms.u_mv_it);
+        transform_ubo->setMat4("u_view_i", rstate.uniforms.u_view_inv);
+    }
+    transform_ubo->updateGPU(renderer);
+}
+
+SceneObject* makeNode()
+{
+    SceneObject* node = new SceneObject();
+    node->attachComponent(new Transform());
+    return node;
+}
+
+PerspectiveCamera* makeCamera(SceneObject* parent, float x)
+{
+    SceneObject* eye = makeNode();
+    PerspectiveCamera* camera = new PerspectiveCamera();
+
+    eye->transform()->set_position(x, 0.0f, 0.0f);
+    eye->attachComponent(camera);
+    parent->addChildObject(parent, eye);
+    return camera;
+}
+
+/*
+ * Compares the block contents after the two updates,
+ * they must set the same values.
+ */
+bool sameData(const UniformBlock* a, const UniformBlock* b)
+{
+    return (a->getTotalSize() == b->getTotalSize()) &&
+           (memcmp(a->getData(), b->getData(), a->getTotalSize()) == 0);
+}
+
+}
+
+int main(int argc, char* argv[])
+{
+    int rounds = (argc > 1) ? atoi(argv[1]) : 2000;
+    Renderer* renderer = Renderer::getInstance("null");
+    Scene* scene = new Scene();
+    SceneObject* root = makeNode();
+    SceneObject* head = makeNode();
+    CameraRig* rig = new CameraRig();
+    std::vector<RenderData*> draws;
+    bool mismatch = false;
+
+    scene->set_java(getHostJavaVM(), nullptr);
+    scene->setSceneRoot(root);
+    root->addChildObject(root, head);
+    head->attachComponent(rig);
+    rig->attachLeftCamera(makeCamera(head, -0.03f));
+    rig->attachRightCamera(makeCamera(head, 0.03f));
+    scene->set_main_camera_rig(rig);
+
+    for (int i = 0; i < NUM_DRAWS; ++i)
+    {
+        SceneObject* node = makeNode();
+        RenderData* rdata = renderer->createRenderData();
+
+        node->transform()->set_position(i * 0.1f, 0.0f, -10.0f);
+        node->attachComponent(rdata);
+        root->addChildObject(root, node);
+        draws.push_back(rdata);
+    }
+
+    printf("%d draws x %d rounds, nanoseconds per draw call\n", NUM_DRAWS, rounds);
+    printf("%-10s %10s %10s %8s\n", "layout", "by name", "by slot", "speedup");
+    for (int multiview = 0; multiview < 2; ++multiview)
+    {
+        UniformBlock* byName = renderer->createUniformBlock(TRANSFORM_DESC[multiview], TRANSFORM_UBO_INDEX, "Transform_ubo", 0);
+        UniformBlock* bySlot = renderer->createUniformBlock(TRANSFORM_DESC[multiview], TRANSFORM_UBO_INDEX, "Transform_ubo", 0);
+        RenderState rstate;
+        double times[2];
+
+        rstate.scene = scene;
+        rstate.is_multiview = multiview != 0;
+        rstate.is_shadow = false;
+        rstate.render_mask = RenderData::RenderMaskBit::Left | RenderData::RenderMaskBit::Right;
+        rstate.uniforms.u_proj = glm::perspective(glm::radians(90.0f), 1.0f, 0.1f, 1000.0f);
+        rstate.uniforms.u_view = glm::translate(glm::mat4(1.0f), glm::vec3(0.0f, -1.0f, 0.0f));
+        rstate.uniforms.u_view_inv = glm::inverse(rstate.uniforms.u_view);
+
+        for (int way = 0; way < 2; ++way)
+        {
+            auto start = std::chrono::steady_clock::now();
+            for (int r = 0; r < rounds; ++r)
+            {
+                for (RenderData* rdata : draws)
+                {
+                    if (way == 0)
+                    {
+                        updateTransformsByName(renderer, rstate, byName, rdata);
+                    }
+                    else
+                    {
+                        renderer->updateTransforms(rstate, bySlot, rdata);
+                    }
+                }
+            }
+            auto end = std::chrono::steady_clock::now();
+            times[way] = std::chrono::duration<double, std::nano>(end - start).count() / rounds / NUM_DRAWS;
+        }
+        printf("%-10s %10.1f %10.1f %7.1fx\n", multiview ? "multiview" : "single",
+               times[0], times[1], times[0] / times[1]);
+        if (!sameData(byName, bySlot))
+        {
+            mismatch = true;
+        }
+    }
+    if (mismatch)
+    {
+        fprintf(stderr, "setting by slot and by name gave different uniforms\n");
+        return 1;
+    }
+    return 0;
+}